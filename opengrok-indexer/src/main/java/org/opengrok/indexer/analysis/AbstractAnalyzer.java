@@ -45,6 +45,7 @@ public abstract class AbstractAnalyzer extends Analyzer {
     protected Supplier<JFlexTokenizer> symbolTokenizerFactory;
     protected Project project;
     protected Ctags ctags;
+    protected Definitions definitions;
     protected NumLinesLOCAggregator countsAggregator;
     protected boolean scopesEnabled;
     protected boolean foldingEnabled;
@@ -78,6 +79,22 @@ public abstract class AbstractAnalyzer extends Analyzer {
         this.ctags = ctags;
     }
 
+    /**
+     * Set the definitions produced by ctags for the file in advance, in which case ctags
+     * is not consulted during the analysis.
+     * @param definitions definitions of the file or {@code null}
+     */
+    public void setDefinitions(Definitions definitions) {
+        this.definitions = definitions;
+    }
+
+    /**
+     * @return whether the analysis makes use of ctags definitions
+     */
+    public boolean usesCtags() {
+        return false;
+    }
+
     public void setCountsAggregator(NumLinesLOCAggregator countsAggregator) {
         this.countsAggregator = countsAggregator;
     }
@@ -555,16 +555,29 @@ public class AnalyzerGuru {
      * in the input stream.
      */
     public static AbstractAnalyzer getAnalyzer(InputStream in, String file) throws IOException {
+        return getAnalyzerFactory(in, file).getAnalyzer();
+    }
+
+    /**
+     * Get a factory of analyzers suited to analyze a file. Unlike the analyzers, the factory can be
+     * passed between threads.
+     *
+     * @param in Input stream containing data to be analyzed
+     * @param file Name of the file to be analyzed
+     * @return factory of analyzers suited for that file content, the default one if none matches
+     * @throws java.io.IOException If an error occurs while accessing the data
+     * in the input stream.
+     */
+    public static AnalyzerFactory getAnalyzerFactory(InputStream in, String file) throws IOException {
         AnalyzerFactory factory = find(in, file);
         if (Objects.isNull(factory)) {
-            AbstractAnalyzer defaultAnalyzer = getAnalyzer();
             if (LOGGER.isLoggable(Level.FINEST)) {
                 LOGGER.log(Level.FINEST, "''{0}'': fallback {1}",
-                    new Object[]{file, defaultAnalyzer.getClass().getSimpleName()});
+                    new Object[]{file, DEFAULT_ANALYZER_FACTORY.getAnalyzer().getClass().getSimpleName()});
             }
-            return defaultAnalyzer;
+            return DEFAULT_ANALYZER_FACTORY;
         }
-        return factory.getAnalyzer();
+        return factory;
     }
 
     /**
@@ -0,0 +1,170 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.analysis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+
+/**
+ * Helpers for the compact binary representation of {@link Definitions} and {@link Scopes}
+ * stored in the index.
+ * <p>
+ * The data starts with 3 magic bytes followed by a version byte. The strings are stored once
+ * in a dictionary and referenced by their position (0 stands for {@code null}),
+ * numbers are stored as variable length integers.
+ * </p>
+ */
+final class CompactEncoding {
+
+    /**
+     * Java object serialization stream header (see {@link java.io.ObjectStreamConstants#STREAM_MAGIC})
+     * used in the data stored by previous versions.
+     */
+    private static final byte[] JAVA_SERIALIZATION_MAGIC = {(byte) 0xAC, (byte) 0xED};
+
+    private CompactEncoding() {
+        // private to enforce static
+    }
+
+    /**
+     * @param bytes serialized data
+     * @return whether the data was produced by Java object serialization
+     */
+    static boolean isJavaSerialization(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == JAVA_SERIALIZATION_MAGIC[0] &&
+                bytes[1] == JAVA_SERIALIZATION_MAGIC[1];
+    }
+
+    static void writeHeader(DataOutput out, byte[] magic, byte version) throws IOException {
+        out.writeBytes(magic, magic.length);
+        out.writeByte(version);
+    }
+
+    /**
+     * @param bytes serialized data
+     * @param magic expected magic bytes
+     * @param version supported version
+     * @return input positioned after the header
+     * @throws IOException if the header does not match
+     */
+    static ByteArrayDataInput readHeader(byte[] bytes, byte[] magic, byte version) throws IOException {
+        if (bytes.length < magic.length + 1) {
+            throw new IOException("data too short");
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (bytes[i] != magic[i]) {
+                throw new IOException("unknown data format");
+            }
+        }
+        if (bytes[magic.length] != version) {
+            throw new IOException(String.format("unsupported data format version %d", bytes[magic.length]));
+        }
+
+        return new ByteArrayDataInput(bytes, magic.length + 1, bytes.length - magic.length - 1);
+    }
+
+    /**
+     * Dictionary of strings used when writing the data.
+     */
+    static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * @param str string to add, can be {@code null}
+         * @return identifier of the string
+         */
+        int add(String str) {
+            if (str == null) {
+                return 0;
+            }
+            return ids.computeIfAbsent(str, k -> {
+                strings.add(k);
+                return strings.size();
+            });
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeVInt(strings.size());
+            for (String str : strings) {
+                out.writeString(str);
+            }
+        }
+    }
+
+    /**
+     * Read the whole dictionary.
+     * @param in input positioned at the dictionary
+     * @return array of strings indexed by the identifiers
+     * @throws IOException on error
+     */
+    static String[] readDictionary(DataInput in) throws IOException {
+        int size = in.readVInt();
+        String[] strings = new String[size + 1];
+        for (int i = 1; i <= size; i++) {
+            strings[i] = in.readString();
+        }
+        return strings;
+    }
+
+    /**
+     * Read the positions of the dictionary strings so that these can be read individually.
+     * @param in input positioned at the dictionary
+     * @return array of positions indexed by the identifiers
+     * @throws IOException on error
+     */
+    static int[] readDictionaryPositions(ByteArrayDataInput in) throws IOException {
+        int size = in.readVInt();
+        int[] positions = new int[size + 1];
+        for (int i = 1; i <= size; i++) {
+            positions[i] = in.getPosition();
+            in.skipBytes(in.readVInt());
+        }
+        return positions;
+    }
+
+    /**
+     * @param in input of the data
+     * @param positions dictionary positions
+     * @param id string identifier
+     * @return the string or {@code null}
+     * @throws IOException on error
+     */
+    static String readString(ByteArrayDataInput in, int[] positions, int id) throws IOException {
+        if (id == 0) {
+            return null;
+        }
+        int position = in.getPosition();
+        in.setPosition(positions[id]);
+        String str = in.readString();
+        in.setPosition(position);
+        return str;
+    }
+}
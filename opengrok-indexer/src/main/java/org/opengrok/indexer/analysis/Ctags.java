@@ -37,7 +37,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -46,6 +48,10 @@ import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.SystemUtils;
 import org.jetbrains.annotations.Nullable;
 import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
@@ -59,6 +65,17 @@ import org.opengrok.indexer.util.SourceSplitter;
 
 /**
  * Provides Ctags by having a running subprocess of ctags.
+ * <p>
+ * If the ctags binary supports it (and it is allowed by {@link RuntimeEnvironment#isCtagsInteractive()}),
+ * the process is run in the interactive mode where the requests and the tags are exchanged as JSON.
+ * Otherwise, the filter mode is used.
+ * </p>
+ * <p>
+ * When the processing of a file takes longer than the timeout in the interactive mode, the process is left
+ * to finish the work and its late reply is dropped. The process is terminated only if it does not finish
+ * by the time the next file is to be processed (plus another timeout period). In the filter mode
+ * the process is terminated right away.
+ * </p>
  *
  * @author Chandan
  */
@@ -74,6 +91,19 @@ public class Ctags implements Resettable {
     private OutputStreamWriter ctagsIn;
     private BufferedReader ctagsOut;
     private static final String CTAGS_FILTER_TERMINATOR = "__ctags_done_with_file__";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /**
+     * Whether given ctags binary supports the interactive mode, to avoid repeated checks.
+     */
+    private static final Map<String, Boolean> INTERACTIVE_SUPPORT = new ConcurrentHashMap<>();
+    private final boolean interactiveAllowed;
+    private boolean interactive;
+    private int recycleFileCount;
+    private int fileCount;
+    /**
+     * Reading of the tags for a file that was not processed within the timeout in the interactive mode.
+     */
+    private Future<Definitions> pendingRead;
     private String cTagsExtraOptionsFile = null;
     private int tabSize;
     private Duration timeout = Duration.ofSeconds(10);
@@ -90,6 +120,8 @@ public class Ctags implements Resettable {
         env = RuntimeEnvironment.getInstance();
         langMap = AnalyzerGuru.getLangMap();
         cTagsExtraOptionsFile = env.getCTagsExtraOptionsFile();
+        interactiveAllowed = env.isCtagsInteractive();
+        recycleFileCount = env.getCtagsRecycleFileCount();
     }
 
     /**
@@ -100,6 +132,25 @@ public class Ctags implements Resettable {
         return ctagsProcess != null && !ctagsProcess.isAlive();
     }
 
+    /**
+     * @return whether the instance processed so many files that the process should be replaced with a new one,
+     * see {@link RuntimeEnvironment#getCtagsRecycleFileCount()}
+     */
+    public boolean isRecycleDue() {
+        return recycleFileCount > 0 && fileCount >= recycleFileCount;
+    }
+
+    public void setRecycleFileCount(int recycleFileCount) {
+        this.recycleFileCount = recycleFileCount;
+    }
+
+    /**
+     * @return whether the ctags process runs (or would run) in the interactive mode
+     */
+    public boolean isInteractive() {
+        return interactive;
+    }
+
     public void setLangMap(LangMap langMap) {
         this.langMap = langMap;
     }
@@ -138,6 +189,10 @@ public class Ctags implements Resettable {
      */
     public void close() {
         reset();
+        if (pendingRead != null) {
+            pendingRead.cancel(true);
+            pendingRead = null;
+        }
         IOUtils.close(ctagsIn);
         if (ctagsProcess != null) {
             closing = true;
@@ -167,10 +222,24 @@ public class Ctags implements Resettable {
         return Collections.unmodifiableList(command);
     }
 
+    /**
+     * Starts the ctags process (unless already running) so that the first file processed by the instance
+     * does not have to wait for it.
+     * @throws IOException if the process cannot be started
+     */
+    public void start() throws IOException {
+        if (ctagsProcess == null) {
+            initialize();
+            run();
+        }
+    }
+
     private void initialize() {
         command = new ArrayList<>();
         String ctagsCommand = env.getCtags();
         command.add(ctagsCommand);
+        interactive = interactiveAllowed && INTERACTIVE_SUPPORT.computeIfAbsent(ctagsCommand,
+                binary -> CtagsUtil.getFeatures(binary).containsAll(Set.of("interactive", "json")));
 
         // Normally, the indexer or the webapp will call validateUniversalCtags()
         // that would set the set of ctags languages returned by env.getCtagsLanguages(),
@@ -194,8 +263,13 @@ public class Ctags implements Resettable {
         command.add("--kinds-C++=+l");
         command.add("--extras=+F"); // Replacement for `--file-scope=yes` since 2017
         command.add("-u"); // Equivalent to `--sort=no` (i.e. "unsorted")
-        command.add("--filter=yes");
-        command.add("--filter-terminator=" + CTAGS_FILTER_TERMINATOR + "\n");
+        if (interactive) {
+            command.add("--_interactive");
+            command.add("--output-format=json");
+        } else {
+            command.add("--filter=yes");
+            command.add("--filter-terminator=" + CTAGS_FILTER_TERMINATOR + "\n");
+        }
         command.add("--fields=-af+iKnS");
         command.add("--excmd=pattern");
         command.add("--pattern-length-limit=180"); // Increase from default 96
@@ -468,6 +542,7 @@ public class Ctags implements Resettable {
         }
 
         if (ctagsProcess != null) {
+            awaitPendingRead(file);
             try {
                 int exitValue = ctagsProcess.exitValue();
                 // If it is possible to retrieve exit value without exception
@@ -489,7 +564,14 @@ public class Ctags implements Resettable {
         rdr.setTabSize(tabSize);
         Definitions ret = null;
         try {
-            ctagsIn.write(file + "\n");
+            if (interactive) {
+                ObjectNode request = MAPPER.createObjectNode();
+                request.put("command", "generate-tags");
+                request.put("filename", file);
+                ctagsIn.write(MAPPER.writeValueAsString(request) + "\n");
+            } else {
+                ctagsIn.write(file + "\n");
+            }
             if (Thread.interrupted()) {
                 throw new InterruptedException("write()");
             }
@@ -497,6 +579,7 @@ public class Ctags implements Resettable {
             if (Thread.interrupted()) {
                 throw new InterruptedException("flush()");
             }
+            fileCount++;
 
             /*
              * Run the ctags reader in a time bound thread to make sure
@@ -515,10 +598,19 @@ public class Ctags implements Resettable {
             } catch (ExecutionException ex) {
                 LOGGER.log(Level.WARNING, "execution exception", ex);
             } catch (TimeoutException ex) {
-                LOGGER.log(Level.WARNING,
-                        String.format("Terminating ctags process for file '%s' " +
-                                "due to timeout %d seconds", file, getTimeout()));
-                close();
+                if (interactive) {
+                    // The reply is read (and dropped) once the process gets to it so that the process can be kept.
+                    LOGGER.log(Level.WARNING,
+                            String.format("ctags did not process file '%s' within timeout %d seconds, " +
+                                    "leaving the ctags process to finish", file, getTimeout()));
+                    pendingRead = future;
+                } else {
+                    LOGGER.log(Level.WARNING,
+                            String.format("Terminating ctags process for file '%s' " +
+                                    "due to timeout %d seconds", file, getTimeout()));
+                    future.cancel(true);
+                    close();
+                }
                 // Allow for retry in IndexDatabase.
                 throw new InterruptedException("ctags timeout");
             }
@@ -536,6 +628,33 @@ public class Ctags implements Resettable {
         return ret;
     }
 
+    /**
+     * Wait for the ctags process to finish the file that previously timed out. The process is terminated
+     * if it does not finish within the timeout.
+     * @param file file to be processed next
+     * @throws InterruptedException if the process had to be terminated
+     */
+    private void awaitPendingRead(String file) throws InterruptedException {
+        if (pendingRead == null) {
+            return;
+        }
+
+        try {
+            pendingRead.get(getTimeout(), TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            LOGGER.log(Level.FINE, "execution exception for previous file", ex);
+        } catch (TimeoutException ex) {
+            LOGGER.log(Level.WARNING,
+                    String.format("Terminating ctags process before processing file '%s' " +
+                            "as it did not finish previous file within timeout", file));
+            close();
+            // Allow for retry in IndexDatabase.
+            throw new InterruptedException("ctags timeout");
+        } finally {
+            pendingRead = null;
+        }
+    }
+
     /**
      * Produce definitions for the text in the buffer String. ctags process is
      * mocked, not real mostly used for junit testing
@@ -597,6 +716,11 @@ public class Ctags implements Resettable {
     }
 
     private void readTags(CtagsReader reader) throws InterruptedException {
+        if (interactive) {
+            readInteractiveTags(reader);
+            return;
+        }
+
         try {
             do {
                 String tagLine = ctagsOut.readLine();
@@ -605,23 +729,7 @@ public class Ctags implements Resettable {
                 }
 
                 if (tagLine == null) {
-                    if (!junitTesting) {
-                        LOGGER.warning("ctags: Unexpected end of file!");
-                    }
-                    try {
-                        int val = ctagsProcess.exitValue();
-                        if (!junitTesting) {
-                            LOGGER.log(Level.WARNING, "ctags exited with code: {0}", val);
-                        }
-                    } catch (IllegalThreadStateException e) {
-                        LOGGER.log(Level.WARNING, "ctags EOF but did not exit");
-                        destroyProcess();
-                    } catch (Exception e) {
-                        LOGGER.log(Level.WARNING, "ctags problem:", e);
-                        destroyProcess();
-                    }
-                    // Throw the following to indicate non-I/O error for retry.
-                    throw new InterruptedException("tagLine == null");
+                    handleEndOfOutput();
                 }
 
                 if (CTAGS_FILTER_TERMINATOR.equals(tagLine)) {
@@ -644,6 +752,78 @@ public class Ctags implements Resettable {
         LOGGER.severe("CTag reader cycle was interrupted!");
     }
 
+    private void readInteractiveTags(CtagsReader reader) throws InterruptedException {
+        try {
+            do {
+                String line = ctagsOut.readLine();
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("readLine()");
+                }
+
+                if (line == null) {
+                    handleEndOfOutput();
+                }
+
+                JsonNode node;
+                try {
+                    node = MAPPER.readTree(line);
+                } catch (JsonProcessingException e) {
+                    LOGGER.log(Level.WARNING, "cannot parse ctags output ''{0}''", line);
+                    continue;
+                }
+
+                switch (node.path("_type").asText()) {
+                    case "tag":
+                        reader.readTag(getText(node, "name"), getText(node, "kind"),
+                                getText(node, "pattern"), getText(node, "line"), getText(node, "signature"),
+                                getText(node, "scope"), getText(node, "scopeKind"));
+                        break;
+                    case "completed":
+                        return;
+                    case "error":
+                        // Keep reading, a fatal error will end the output.
+                        LOGGER.log(Level.WARNING, "ctags encountered a problem while generating tags " +
+                                "for the file: {0}. The index will be incomplete.", node.path("message").asText());
+                        break;
+                    default:
+                        // The program information printed on start.
+                        break;
+                }
+            } while (true);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "CTags parsing problem: ", e);
+        }
+        LOGGER.severe("CTag reader cycle was interrupted!");
+    }
+
+    @Nullable
+    private static String getText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private void handleEndOfOutput() throws InterruptedException {
+        if (!junitTesting) {
+            LOGGER.warning("ctags: Unexpected end of file!");
+        }
+        try {
+            int val = ctagsProcess.exitValue();
+            if (!junitTesting) {
+                LOGGER.log(Level.WARNING, "ctags exited with code: {0}", val);
+            }
+        } catch (IllegalThreadStateException e) {
+            LOGGER.log(Level.WARNING, "ctags EOF but did not exit");
+            destroyProcess();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "ctags problem:", e);
+            destroyProcess();
+        }
+        // Throw the following to indicate non-I/O error for retry.
+        throw new InterruptedException("tagLine == null");
+    }
+
     /**
      * Attempts to create a {@link SourceSplitter} instance with content from
      * the specified file.
@@ -227,24 +227,59 @@ public class CtagsReader {
             namespace = fields.get(tagFields.RECORD);
         }
 
-        final String whole;
-        final String match;
         int mlength = p - mstart;
         if ((p > 0) && (mlength > MIN_METHOD_LINE_LENGTH)) {
-            whole = cutPattern(tagLine, mstart, p);
-            if (mlength < MAX_METHOD_LINE_LENGTH) {
-                match = whole.replaceAll("[ \t]+", " ");
-                //TODO per format we should also recognize \r and \n
-            } else {
-                LOGGER.log(Level.FINEST, "Ctags: stripping method" +
-                    " body for def {0} line {1}(scopes/highlight" +
-                    " might break)", new Object[]{def, lnum});
-                match = whole.substring(0, MAX_METHOD_LINE_LENGTH).replaceAll("[ \t]+", " ");
-            }
-        } else { // tag is in wrong format; cannot extract tagaddress from it; skip
+            readTag(def, kind, cutPattern(tagLine, mstart, p), mlength, lnum, signature, namespace);
+        }
+        // else tag is in wrong format; cannot extract tagaddress from it; skip
+
+        fields.clear();
+    }
+
+    /**
+     * Reads a tag produced by ctags in the JSON output format (used in the interactive mode)
+     * into the instance's definitions.
+     * @param def tag name
+     * @param kind tag kind
+     * @param pattern search pattern including the delimiters, e.g. {@code /^int main()$/}
+     * @param lnum line number
+     * @param signature signature or {@code null}
+     * @param scope scope name or {@code null}
+     * @param scopeKind kind of the scope or {@code null}
+     */
+    public void readTag(String def, String kind, String pattern, String lnum, String signature,
+            String scope, String scopeKind) {
+        if (def == null || pattern == null) {
             return;
         }
 
+        String namespace = null;
+        if (scope != null && ("class".equals(scopeKind) || "record".equals(scopeKind))) {
+            namespace = scope;
+        }
+
+        // Compute the length the same way as for the tags file format, i.e. including the leading tab
+        // and the trailing ';"'.
+        int mlength = pattern.length() + 3;
+        if (mlength > MIN_METHOD_LINE_LENGTH) {
+            readTag(def, kind, cutJsonPattern(pattern), mlength, lnum, signature, namespace);
+        }
+    }
+
+    private void readTag(String def, String kind, String whole, int mlength, String lnum, String signature,
+            String namespace) {
+
+        final String match;
+        if (mlength < MAX_METHOD_LINE_LENGTH) {
+            match = whole.replaceAll("[ \t]+", " ");
+            //TODO per format we should also recognize \r and \n
+        } else {
+            LOGGER.log(Level.FINEST, "Ctags: stripping method" +
+                " body for def {0} line {1}(scopes/highlight" +
+                " might break)", new Object[]{def, lnum});
+            match = whole.substring(0, MAX_METHOD_LINE_LENGTH).replaceAll("[ \t]+", " ");
+        }
+
         // Bug #809: Keep track of which symbols have already been
         // seen to prevent duplicating them in memory.
 
@@ -316,8 +351,6 @@ public class CtagsReader {
                 }
             }
         }
-
-        fields.clear();
     }
 
     /**
@@ -351,6 +384,26 @@ public class CtagsReader {
         return cut.replace("\\\\", "\\").replace("\\/", "/");
     }
 
+    /**
+     * Cuts the search pattern in the JSON output format, i.e. strips the delimiters
+     * and un-escapes {@code \\} and {@code \/}.
+     * @return a defined string
+     */
+    private static String cutJsonPattern(String pattern) {
+        String cut = pattern;
+        if (cut.startsWith("/^")) {
+            cut = cut.substring(2);
+        } else if (cut.startsWith("/")) {
+            cut = cut.substring(1);
+        }
+        if (cut.endsWith("$/")) {
+            cut = cut.substring(0, cut.length() - 2);
+        } else if (cut.endsWith("/")) {
+            cut = cut.substring(0, cut.length() - 1);
+        }
+        return cut.replace("\\\\", "\\").replace("\\/", "/");
+    }
+
     /**
      * Adds a tag to a {@code Definitions} instance.
      */
@@ -28,7 +28,7 @@ public final class CtagsValidator implements ObjectValidator<Ctags> {
 
     @Override
     public boolean isValid(Ctags ctags) {
-        return ctags != null && !ctags.isClosed();
+        return ctags != null && !ctags.isClosed() && !ctags.isRecycleDue();
     }
 
     @Override
@@ -23,18 +23,20 @@
  */
 package org.opengrok.indexer.analysis;
 
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.jetbrains.annotations.Nullable;
 import org.opengrok.indexer.util.DTOElement;
 import org.opengrok.indexer.util.WhitelistObjectInputFilter;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputFilter;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,8 +44,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+/**
+ * Definitions (tags) of a file.
+ * <p>
+ * The instance is stored in the index in a compact binary form (see {@link #serialize()}).
+ * An instance created from the binary form keeps it and builds the maps only when needed,
+ * so that e.g. {@link #getTags(int)} for few lines is cheap.
+ * </p>
+ */
 public class Definitions implements Serializable {
 
     private static final long serialVersionUID = 1191703801007779489L;
@@ -61,6 +72,9 @@ public class Definitions implements Serializable {
             Object[].class
     );
 
+    private static final byte[] MAGIC = {'O', 'G', 'D'};
+    private static final byte VERSION = 1;
+
     // Per line sym -> tags mapping
     public static class LineTagMap implements Serializable {
 
@@ -85,6 +99,20 @@ public class Definitions implements Serializable {
      */
     private final ArrayList<Tag> tags;
 
+    /**
+     * The compact binary form the instance was created from or {@code null} if the maps were already built.
+     */
+    private transient byte[] encoded;
+    /**
+     * Positions of the dictionary strings in {@link #encoded}, built on first lookup.
+     */
+    private transient int[] dictionaryPositions;
+    /**
+     * Sorted line numbers and positions of their tags in {@link #encoded}, built on first lookup.
+     */
+    private transient int[] encodedLines;
+    private transient int[] encodedLinePositions;
+
     public Definitions() {
         symbols = new HashMap<>();
         line_maps = new HashMap<>();
@@ -95,6 +123,7 @@ public class Definitions implements Serializable {
      * Reset all {@link Tag#used} values to {@code false}.
      */
     public void resetUnused() {
+        materialize();
         for (Tag tag : tags) {
             tag.used = false;
         }
@@ -106,6 +135,7 @@ public class Definitions implements Serializable {
      * @return a set containing all the symbols
      */
     public Set<String> getSymbols() {
+        materialize();
         return symbols.keySet();
     }
 
@@ -116,6 +146,7 @@ public class Definitions implements Serializable {
      * @return {@code true} if there is a tag for {@code symbol}
      */
     public boolean hasSymbol(String symbol) {
+        materialize();
         return symbols.containsKey(symbol);
     }
 
@@ -131,6 +162,7 @@ public class Definitions implements Serializable {
         if (strs.length > 0) {
             strs[0] = "none";
         }
+        materialize();
 
         // Get tag info
         boolean isDefinitionPresent = Optional.ofNullable(symbols.get(symbol))
@@ -163,6 +195,7 @@ public class Definitions implements Serializable {
      * @return the number of times the specified symbol is defined
      */
     public int occurrences(String symbol) {
+        materialize();
         Set<Integer> lines = symbols.get(symbol);
         return lines == null ? 0 : lines.size();
     }
@@ -173,6 +206,7 @@ public class Definitions implements Serializable {
      * @return number of distinct symbols
      */
     public int numberOfSymbols() {
+        materialize();
         return symbols.size();
     }
 
@@ -182,6 +216,7 @@ public class Definitions implements Serializable {
      * @return all tags
      */
     public List<Tag> getTags() {
+        materialize();
         return tags;
     }
 
@@ -192,6 +227,9 @@ public class Definitions implements Serializable {
      * @return list of tags or null
      */
     public @Nullable List<Tag> getTags(int line) {
+        if (encoded != null) {
+            return getEncodedTags(line);
+        }
         return Optional.ofNullable(line_maps.get(line))
                 .map(lineMap -> lineMap.sym_tags.values().stream()
                         .flatMap(Collection::stream)
@@ -313,8 +351,13 @@ public class Definitions implements Serializable {
 
     public void addTag(int line, String symbol, String type, String text,
             String namespace, String signature, int lineStart, int lineEnd) {
-        Tag newTag = new Tag(line, symbol, type, text, namespace, signature,
-            lineStart, lineEnd);
+        materialize();
+        add(new Tag(line, symbol, type, text, namespace, signature, lineStart, lineEnd));
+    }
+
+    private void add(Tag newTag) {
+        String symbol = newTag.symbol;
+        int line = newTag.line;
         tags.add(newTag);
         Set<Integer> lines = symbols.computeIfAbsent(symbol,
                 k -> new HashSet<>());
@@ -336,19 +379,69 @@ public class Definitions implements Serializable {
 
     /**
      * Create a binary representation of this object.
+     * <p>
+     * The format is: magic bytes {@code OGD}, version byte, dictionary of strings (see {@link CompactEncoding}),
+     * number of tags, number of distinct lines and then for each line (in ascending order) the difference
+     * from the previous line number, the byte length of the line data and the line data, i.e. number of tags
+     * followed by the tags. Each tag consists of its position in {@link #getTags()},
+     * the identifiers of the symbol, type, text, namespace and signature strings and the line offsets.
+     * </p>
      *
      * @return a byte array representing this object
      * @throws IOException if an error happens when writing to the array
      */
     public byte[] serialize() throws IOException {
-        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream(); var oos = new ObjectOutputStream(bytes)) {
-            oos.writeObject(this);
-            return bytes.toByteArray();
+        if (encoded != null) {
+            return encoded.clone();
         }
+
+        CompactEncoding.Dictionary dictionary = new CompactEncoding.Dictionary();
+        TreeMap<Integer, List<Integer>> lineTags = new TreeMap<>();
+        for (int i = 0; i < tags.size(); i++) {
+            Tag tag = tags.get(i);
+            dictionary.add(tag.symbol);
+            dictionary.add(tag.type);
+            dictionary.add(tag.text);
+            dictionary.add(tag.namespace);
+            dictionary.add(tag.signature);
+            lineTags.computeIfAbsent(tag.line, k -> new ArrayList<>()).add(i);
+        }
+
+        ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+        CompactEncoding.writeHeader(out, MAGIC, VERSION);
+        dictionary.write(out);
+        out.writeVInt(tags.size());
+        out.writeVInt(lineTags.size());
+        ByteBuffersDataOutput lineOut = new ByteBuffersDataOutput();
+        int previousLine = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : lineTags.entrySet()) {
+            lineOut.reset();
+            lineOut.writeVInt(entry.getValue().size());
+            for (int i : entry.getValue()) {
+                Tag tag = tags.get(i);
+                lineOut.writeVInt(i);
+                lineOut.writeVInt(dictionary.add(tag.symbol));
+                lineOut.writeVInt(dictionary.add(tag.type));
+                lineOut.writeVInt(dictionary.add(tag.text));
+                lineOut.writeVInt(dictionary.add(tag.namespace));
+                lineOut.writeVInt(dictionary.add(tag.signature));
+                lineOut.writeZInt(tag.lineStart);
+                lineOut.writeZInt(tag.lineEnd);
+            }
+
+            out.writeZInt(entry.getKey() - previousLine);
+            previousLine = entry.getKey();
+            out.writeVInt((int) lineOut.size());
+            lineOut.copyTo(out);
+        }
+
+        return out.toArrayCopy();
     }
 
     /**
      * De-serialize a binary representation of a {@code Definitions} object.
+     * Both the compact representation produced by {@link #serialize()} and the Java object serialization
+     * used by previous versions are accepted.
      *
      * @param bytes a byte array containing the {@code Definitions} object
      * @return a {@code Definitions} object
@@ -359,9 +452,109 @@ public class Definitions implements Serializable {
      * type than {@code Definitions}
      */
     public static Definitions deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
-            in.setObjectInputFilter(serialFilter);
-            return (Definitions) in.readObject();
+        if (CompactEncoding.isJavaSerialization(bytes)) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                in.setObjectInputFilter(serialFilter);
+                return (Definitions) in.readObject();
+            }
         }
+
+        // Check the header right away so that invalid data is reported here rather than on first use.
+        CompactEncoding.readHeader(bytes, MAGIC, VERSION);
+        Definitions definitions = new Definitions();
+        definitions.encoded = bytes;
+        return definitions;
+    }
+
+    /**
+     * Build the maps from the compact binary form.
+     */
+    private void materialize() {
+        if (encoded == null) {
+            return;
+        }
+
+        try {
+            ByteArrayDataInput in = CompactEncoding.readHeader(encoded, MAGIC, VERSION);
+            String[] strings = CompactEncoding.readDictionary(in);
+            Tag[] allTags = new Tag[in.readVInt()];
+            int lineCount = in.readVInt();
+            int line = 0;
+            for (int i = 0; i < lineCount; i++) {
+                line += in.readZInt();
+                in.readVInt(); // byte length of the line data
+                int count = in.readVInt();
+                for (int j = 0; j < count; j++) {
+                    int index = in.readVInt();
+                    allTags[index] = new Tag(line, strings[in.readVInt()], strings[in.readVInt()],
+                            strings[in.readVInt()], strings[in.readVInt()], strings[in.readVInt()],
+                            in.readZInt(), in.readZInt());
+                }
+            }
+
+            encoded = null;
+            dictionaryPositions = null;
+            encodedLines = null;
+            encodedLinePositions = null;
+            for (Tag tag : allTags) {
+                add(tag);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("cannot decode definitions", e);
+        }
+    }
+
+    /**
+     * Get the tags on given line directly from the compact binary form.
+     */
+    @Nullable
+    private List<Tag> getEncodedTags(int line) {
+        try {
+            ByteArrayDataInput in = CompactEncoding.readHeader(encoded, MAGIC, VERSION);
+            if (encodedLines == null) {
+                dictionaryPositions = CompactEncoding.readDictionaryPositions(in);
+                in.readVInt(); // number of tags
+                int lineCount = in.readVInt();
+                int[] lines = new int[lineCount];
+                int[] positions = new int[lineCount];
+                int previousLine = 0;
+                for (int i = 0; i < lineCount; i++) {
+                    previousLine += in.readZInt();
+                    lines[i] = previousLine;
+                    int length = in.readVInt();
+                    positions[i] = in.getPosition();
+                    in.skipBytes(length);
+                }
+                encodedLines = lines;
+                encodedLinePositions = positions;
+            }
+
+            int idx = Arrays.binarySearch(encodedLines, line);
+            if (idx < 0) {
+                return null;
+            }
+
+            in.setPosition(encodedLinePositions[idx]);
+            int count = in.readVInt();
+            List<Tag> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                in.readVInt(); // position in the list of all tags
+                result.add(new Tag(line,
+                        CompactEncoding.readString(in, dictionaryPositions, in.readVInt()),
+                        CompactEncoding.readString(in, dictionaryPositions, in.readVInt()),
+                        CompactEncoding.readString(in, dictionaryPositions, in.readVInt()),
+                        CompactEncoding.readString(in, dictionaryPositions, in.readVInt()),
+                        CompactEncoding.readString(in, dictionaryPositions, in.readVInt()),
+                        in.readZInt(), in.readZInt()));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("cannot decode definitions", e);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        materialize();
+        out.defaultWriteObject();
     }
 }
@@ -22,14 +22,14 @@
  */
 package org.opengrok.indexer.analysis;
 
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.opengrok.indexer.util.WhitelistObjectInputFilter;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputFilter;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.TreeSet;
 
@@ -47,6 +47,9 @@ public class Scopes implements Serializable {
             Scope.class
     );
 
+    private static final byte[] MAGIC = {'O', 'G', 'S'};
+    private static final byte VERSION = 1;
+
     /**
      * Note: this class has a natural ordering that is inconsistent with equals.
      */
@@ -152,31 +155,77 @@ public class Scopes implements Serializable {
 
     /**
      * Create a binary representation of this object.
+     * <p>
+     * The format is: magic bytes {@code OGS}, version byte, dictionary of strings (see {@link CompactEncoding}),
+     * number of scopes and then for each scope (in ascending order of the starting line) the difference
+     * of the starting line from the previous one, the number of lines and the identifiers of the name,
+     * namespace and signature strings.
+     * </p>
      *
      * @return a byte array representing this object
      * @throws IOException if an error happens when writing to the array
      */
     public byte[] serialize() throws IOException {
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        new ObjectOutputStream(bytes).writeObject(this);
-        return bytes.toByteArray();
+        CompactEncoding.Dictionary dictionary = new CompactEncoding.Dictionary();
+        for (Scope scope : scopes) {
+            dictionary.add(scope.getName());
+            dictionary.add(scope.getNamespace());
+            dictionary.add(scope.getSignature());
+        }
+
+        ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+        CompactEncoding.writeHeader(out, MAGIC, VERSION);
+        dictionary.write(out);
+        out.writeVInt(scopes.size());
+        int previousLine = 0;
+        for (Scope scope : scopes) {
+            out.writeZInt(scope.getLineFrom() - previousLine);
+            previousLine = scope.getLineFrom();
+            out.writeZInt(scope.getLineTo() - scope.getLineFrom());
+            out.writeVInt(dictionary.add(scope.getName()));
+            out.writeVInt(dictionary.add(scope.getNamespace()));
+            out.writeVInt(dictionary.add(scope.getSignature()));
+        }
+
+        return out.toArrayCopy();
     }
 
     /**
-     * De-serialize a binary representation of a {@code Definitions} object.
+     * De-serialize a binary representation of a {@code Scopes} object.
+     * Both the compact representation produced by {@link #serialize()} and the Java object serialization
+     * used by previous versions are accepted.
      *
-     * @param bytes a byte array containing the {@code Definitions} object
-     * @return a {@code Definitions} object
+     * @param bytes a byte array containing the {@code Scopes} object
+     * @return a {@code Scopes} object
      * @throws IOException if an I/O error happens when reading the array
      * @throws ClassNotFoundException if the class definition for an object
      * stored in the byte array cannot be found
      * @throws ClassCastException if the array contains an object of another
-     * type than {@code Definitions}
+     * type than {@code Scopes}
      */
     public static Scopes deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
-            in.setObjectInputFilter(serialFilter);
-            return (Scopes) in.readObject();
+        if (CompactEncoding.isJavaSerialization(bytes)) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                in.setObjectInputFilter(serialFilter);
+                return (Scopes) in.readObject();
+            }
+        }
+
+        ByteArrayDataInput in = CompactEncoding.readHeader(bytes, MAGIC, VERSION);
+        try {
+            String[] strings = CompactEncoding.readDictionary(in);
+            Scopes result = new Scopes();
+            int count = in.readVInt();
+            int lineFrom = 0;
+            for (int i = 0; i < count; i++) {
+                lineFrom += in.readZInt();
+                int lineTo = lineFrom + in.readZInt();
+                result.addScope(new Scope(lineFrom, lineTo, strings[in.readVInt()], strings[in.readVInt()],
+                        strings[in.readVInt()]));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw new IOException("cannot decode scopes", e);
         }
     }
 }
@@ -109,6 +109,11 @@ public class PlainAnalyzer extends TextAnalyzer {
         return ExpandTabsReader.wrap(super.getReader(stream), project);
     }
 
+    @Override
+    public boolean usesCtags() {
+        return true;
+    }
+
     @Override
     public void analyze(Document doc, StreamSource src, Writer xrefOut) throws IOException, InterruptedException {
         Definitions defs = null;
@@ -117,13 +122,15 @@ public class PlainAnalyzer extends TextAnalyzer {
         doc.add(new OGKTextField(QueryBuilder.FULL, getReader(src.getStream())));
 
         String fullPath = doc.get(QueryBuilder.FULLPATH);
-        if (fullPath != null && ctags != null) {
+        if (definitions != null) {
+            defs = definitions;
+        } else if (fullPath != null && ctags != null) {
             defs = ctags.doCtags(fullPath);
-            if (defs != null && defs.numberOfSymbols() > 0) {
-                tryAddingDefs(doc, defs, src);
-                byte[] tags = defs.serialize();
-                doc.add(new StoredField(QueryBuilder.TAGS, tags));
-            }
+        }
+        if (defs != null && defs.numberOfSymbols() > 0) {
+            tryAddingDefs(doc, defs, src);
+            byte[] tags = defs.serialize();
+            doc.add(new StoredField(QueryBuilder.TAGS, tags));
         }
         /*
          * This is to explicitly use appropriate analyzer's token stream to
@@ -0,0 +1,149 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.authorization;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import org.jetbrains.annotations.Nullable;
+import org.opengrok.indexer.Metrics;
+
+/**
+ * Bounded cache of the authorization decisions shared by the requests of the same user.
+ * <p>
+ * The entries are tagged with the plugin version of the framework so that the decisions made
+ * with previous plugin stack are never returned after reload. The least recently used entries
+ * are evicted once the size limit is reached, the expired entries are evicted on access.
+ * </p>
+ */
+final class AuthorizationDecisionCache {
+
+    private record Key(String user, String cache, String entity) {
+    }
+
+    private record Decision(boolean allowed, long pluginVersion, long expiresAt) {
+    }
+
+    private final Counter hits = Counter.builder("authorization.cache.user").
+            description("cross-request authorization cache hits").
+            tag("what", "hits").
+            register(Metrics.getRegistry());
+    private final Counter misses = Counter.builder("authorization.cache.user").
+            description("cross-request authorization cache misses").
+            tag("what", "misses").
+            register(Metrics.getRegistry());
+    private final Counter evictions = Counter.builder("authorization.cache.user").
+            description("cross-request authorization cache evictions").
+            tag("what", "evictions").
+            register(Metrics.getRegistry());
+
+    /**
+     * Access ordered map so that the iteration starts with the least recently used entry.
+     */
+    private final LinkedHashMap<Key, Decision> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongSupplier clock;
+
+    private long ttl;
+    private int maxSize;
+
+    /**
+     * @param clock source of time in milliseconds
+     */
+    AuthorizationDecisionCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param ttl time to live of the decisions in milliseconds, 0 disables the cache
+     * @param maxSize maximum number of the decisions, 0 disables the cache
+     */
+    synchronized void setParameters(long ttl, int maxSize) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        if (!isEnabled()) {
+            map.clear();
+        } else {
+            evict();
+        }
+    }
+
+    synchronized boolean isEnabled() {
+        return ttl > 0 && maxSize > 0;
+    }
+
+    /**
+     * @param user user identity
+     * @param cache name of the cache distinguishing the type of the entity
+     * @param entity name of the entity
+     * @param pluginVersion current plugin version of the framework
+     * @return the decision or {@code null} if there is no valid decision in the cache
+     */
+    @Nullable
+    synchronized Boolean get(String user, String cache, String entity, long pluginVersion) {
+        Key key = new Key(user, cache, entity);
+        Decision decision = map.get(key);
+        if (decision == null) {
+            misses.increment();
+            return null;
+        }
+        if (decision.pluginVersion() != pluginVersion || decision.expiresAt() <= clock.getAsLong()) {
+            map.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return decision.allowed();
+    }
+
+    synchronized void put(String user, String cache, String entity, long pluginVersion, boolean allowed) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        map.put(new Key(user, cache, entity), new Decision(allowed, pluginVersion, clock.getAsLong() + ttl));
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Decision>> iterator = map.entrySet().iterator();
+        while (map.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    synchronized void clear() {
+        map.clear();
+    }
+
+    synchronized int size() {
+        return map.size();
+    }
+}
@@ -35,6 +35,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
+
+import jakarta.servlet.http.HttpServletRequest;
 import org.opengrok.indexer.configuration.Group;
 import org.opengrok.indexer.configuration.Nameable;
 import org.opengrok.indexer.configuration.Project;
@@ -201,6 +203,16 @@ public abstract class AuthorizationEntity implements Nameable, Serializable, Clo
      */
     public abstract boolean setPlugin(IAuthorizationPlugin plugin);
 
+    /**
+     * Identify the user of the request for the purpose of caching the
+     * authorization decisions.
+     *
+     * @param request the request
+     * @return the identity or {@code null} if the user could not be identified
+     * @see IAuthorizationPlugin#getUserIdentity(HttpServletRequest)
+     */
+    public abstract String getUserIdentity(HttpServletRequest request);
+
     /**
      * Perform a deep copy of the entity.
      *
@@ -78,6 +78,11 @@ public final class AuthorizationFramework extends PluginFramework<IAuthorization
             tag("outcome", "negative").
             register(Metrics.getRegistry());
 
+    /**
+     * Decisions shared by the requests of the same user.
+     */
+    private final AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache(System::currentTimeMillis);
+
     /**
      * Stack of available plugins/stacks in the order of the execution.
      */
@@ -141,6 +146,18 @@ public final class AuthorizationFramework extends PluginFramework<IAuthorization
         this.stack = stack;
     }
 
+    /**
+     * Set the parameters of the cache of the decisions shared by the requests of the same user.
+     * The cache is used only if some of the plugins in the stack identifies the user
+     * (see {@link IAuthorizationPlugin#getUserIdentity(HttpServletRequest)}).
+     *
+     * @param ttl time to live of the decisions, zero disables the cache
+     * @param maxSize maximum number of the cached decisions
+     */
+    public void setDecisionCacheParameters(Duration ttl, int maxSize) {
+        decisionCache.setParameters(ttl.toMillis(), maxSize);
+    }
+
     /**
      * Checks if the request should have access to project.
      * See {@link #checkAll} for more information about invocation order.
@@ -393,6 +410,9 @@ public final class AuthorizationFramework extends PluginFramework<IAuthorization
 
             // increase the current plugin version tracked by the framework
             increasePluginVersion();
+
+            // the decisions of the old stack are no longer valid
+            decisionCache.clear();
         } finally {
             lock.writeLock().unlock();
         }
@@ -449,7 +469,8 @@ public final class AuthorizationFramework extends PluginFramework<IAuthorization
      * thread safe with respect to the concurrent reload of plugins.
      * <p>
      * <p>Internally performed with a predicate. Using cache in request
-     * attributes.
+     * attributes and, if enabled and the user is identified by the plugins,
+     * the cache shared by the requests of the same user.
      * <p>
      * <p>Order of plugin invocation:
      * <p>
@@ -531,10 +552,21 @@ public final class AuthorizationFramework extends PluginFramework<IAuthorization
             }
             request.getSession().setAttribute(SESSION_VERSION, getPluginVersion());
 
+            String user = decisionCache.isEnabled() ? stack.getUserIdentity(request) : null;
+            if (user != null && (val = decisionCache.get(user, cache, entity.getName(), getPluginVersion())) != null) {
+                m.put(entity.getName(), val);
+                request.setAttribute(cache, m);
+                return val;
+            }
+
             Instant start = Instant.now();
             overallDecision = performCheck(entity, pluginPredicate, skippingPredicate);
             Instant end = Instant.now();
             duration = Duration.between(start, end);
+
+            if (user != null) {
+                decisionCache.put(user, cache, entity.getName(), getPluginVersion(), overallDecision);
+            }
         } finally {
             lock.readLock().unlock();
         }
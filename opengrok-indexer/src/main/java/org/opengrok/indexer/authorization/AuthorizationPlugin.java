@@ -28,6 +28,8 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+
+import jakarta.servlet.http.HttpServletRequest;
 import org.opengrok.indexer.configuration.Group;
 import org.opengrok.indexer.configuration.Nameable;
 import org.opengrok.indexer.configuration.Project;
@@ -226,6 +228,30 @@ public class AuthorizationPlugin extends AuthorizationStack {
         return false;
     }
 
+    /**
+     * Identify the user with the underlying plugin.
+     *
+     * @param request the request
+     * @return the identity or {@code null} if the plugin is not working
+     * or did not identify the user
+     * @see IAuthorizationPlugin#getUserIdentity(jakarta.servlet.http.HttpServletRequest)
+     */
+    @Override
+    public String getUserIdentity(HttpServletRequest request) {
+        if (!isWorking()) {
+            return null;
+        }
+
+        try {
+            return plugin.getUserIdentity(request);
+        } catch (Throwable ex) {
+            LOGGER.log(Level.WARNING,
+                    String.format("AuthEntity \"%s\" has failed to identify the user with an exception.", getName()),
+                    ex);
+            return null;
+        }
+    }
+
     /**
      * Get the authorization plugin.
      *
@@ -32,6 +32,7 @@ import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.opengrok.indexer.configuration.Nameable;
 import org.opengrok.indexer.logger.LoggerFactory;
 
@@ -160,6 +161,23 @@ public class AuthorizationStack extends AuthorizationEntity {
                     isWorking() ? "ready" : "not fully ok"});
     }
 
+    /**
+     * Identify the user with the first entity in this stack which is able to do so.
+     *
+     * @param request the request
+     * @return the identity or {@code null} if none of the entities identified the user
+     */
+    @Override
+    public String getUserIdentity(HttpServletRequest request) {
+        for (AuthorizationEntity authEntity : getStack()) {
+            String identity = authEntity.getUserIdentity(request);
+            if (identity != null) {
+                return identity;
+            }
+        }
+        return null;
+    }
+
     /**
      * Unload all plugins contained in this stack.
      *
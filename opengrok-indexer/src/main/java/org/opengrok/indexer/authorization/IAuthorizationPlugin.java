@@ -84,4 +84,19 @@ public interface IAuthorizationPlugin {
      * @return true if request is allowed to see this group of projects
      */
     boolean isAllowed(HttpServletRequest request, Group group);
+
+    /**
+     * Identify the user of the request so that the authorization decisions can be shared
+     * by the requests of the same user (see {@link org.opengrok.indexer.configuration.Configuration#getAuthorizationCacheTTL()}).
+     *
+     * The identity should be cheap to establish, e.g. from request headers.
+     * Returning non-null value means that the decisions for the requests with equal identity
+     * can be reused until the cached decision expires.
+     *
+     * @param request servlet request
+     * @return identity of the user or {@code null} if this plugin does not identify users
+     */
+    default String getUserIdentity(HttpServletRequest request) {
+        return null;
+    }
 }
@@ -99,6 +99,8 @@ public final class Configuration {
      */
     private String ctags;
     private boolean webappCtags;
+    private boolean ctagsInteractive;
+    private int ctagsRecycleFileCount;
 
     /**
      * A defined value to specify the mandoc binary or else null so that mandoc
@@ -110,6 +112,42 @@ public final class Configuration {
      * Should the history log be cached?
      */
     private boolean historyCache;
+    /**
+     * Storage type of the history cache.
+     */
+    private HistoryCacheType historyCacheType = HistoryCacheType.FILE;
+    /**
+     * Should the per-repository changeset index be maintained along with the history cache?
+     */
+    private boolean changesetIndexEnabled;
+    /**
+     * Maximum number of history entries kept in the in-memory cache of the web application.
+     */
+    private int webappHistoryCacheSize;
+    /**
+     * Maximum size in MiB of the on-disk cache of the xrefs generated by the web application.
+     */
+    private int webappXrefCacheSize;
+    /**
+     * Maximum size in MiB of file revisions compared in the diff view of the web application.
+     */
+    private int diffFileSizeLimit;
+    /**
+     * Time in seconds for which the index searchers of the search result cursors are kept.
+     */
+    private int searchCursorTimeout;
+    /**
+     * Maximum number of result pages kept in the in-memory search result cache of the web application.
+     */
+    private int searchResultCacheSize;
+    /**
+     * Queries run on newly opened index readers before they are used for searching.
+     */
+    private List<String> searchWarmupQueries;
+    /**
+     * Number of recently executed queries run on newly opened index readers before they are used for searching.
+     */
+    private int searchWarmupRecentQueries;
     /**
      * Should the latest annotation be cached?
      */
@@ -135,6 +173,15 @@ public final class Configuration {
      * for development.
      */
     private boolean authorizationWatchdogEnabled;
+    /**
+     * Time in seconds for which the authorization decisions are shared by the requests of the same user.
+     * The user has to be identified by some of the authorization plug-ins. 0 disables the sharing.
+     */
+    private int authorizationCacheTTL;
+    /**
+     * Maximum number of authorization decisions shared by the requests of the same user.
+     */
+    private int authorizationCacheSize;
     private AuthorizationStack pluginStack;
     private Map<String, Project> projects; // project name -> Project
     private Map<String, Group> groups; // group name -> Group
@@ -180,9 +227,23 @@ public final class Configuration {
     private boolean compressXref;
     private boolean indexVersionedFilesOnly;
     private int indexingParallelism;
+    /*
+     * Number of threads of the individual stages of the indexer pipeline. Zero means the number
+     * is derived from the indexing parallelism.
+     */
+    private int indexReadParallelism;
+    private int indexCtagsParallelism;
+    private int indexAnalysisParallelism;
+    private int indexAddParallelism;
     private int repositoryInvalidationParallelism;
     private int historyParallelism;
     private int historyFileParallelism;
+    /**
+     * Number of threads used to list and stat the directories of source tree concurrently with the traversal
+     * done by the indexer and index check. Zero means the directories are listed by the traversing thread.
+     */
+    private int directoryWalkParallelism;
+    private boolean virtualThreadsEnabled;
     private boolean tagsEnabled;
     private int hitsPerPage;
     private int cachePages;
@@ -277,6 +338,13 @@ public final class Configuration {
      */
     private int maxDirectoryListingThreadCount;
 
+    /**
+     * Upper bound for number of threads used for searching the projects of multi-project search
+     * concurrently. This is total for the whole webapp. If 0, the projects are searched via single
+     * {@code MultiReader}.
+     */
+    private int maxProjectSearchThreadCount;
+
     /**
      * If false, do not display listing or projects/repositories on the index page.
      */
@@ -296,6 +364,7 @@ public final class Configuration {
     private SuggesterConfig suggesterConfig = new SuggesterConfig();
 
     private StatsdConfig statsdConfig = new StatsdConfig();
+    private JGitConfig jgitConfig = new JGitConfig();
 
     private Set<String> disabledRepositories;
 
@@ -305,6 +374,11 @@ public final class Configuration {
 
     private int historyChunkCount;
     private boolean historyCachePerPartesEnabled = true;
+    /**
+     * Number of per partes history chunks of a repository traversed concurrently when creating history cache.
+     * Values lower than 2 mean the chunks are traversed sequentially.
+     */
+    private int historyChunkParallelism;
 
     private String serverName;  // for reverse proxy environment
 
@@ -315,6 +389,12 @@ public final class Configuration {
 
     private boolean historyBasedReindex;
 
+    /**
+     * If true, the files collected during the traversal of the source tree (or history) are indexed
+     * as soon as they are found rather than after the traversal is complete.
+     */
+    private boolean streamingFileCollection;
+
     private boolean useHistoryCacheForDirectoryListing;
 
     /**
@@ -502,6 +582,39 @@ public final class Configuration {
         this.ctagsTimeout = timeout;
     }
 
+    public boolean isCtagsInteractive() {
+        return ctagsInteractive;
+    }
+
+    /**
+     * Set whether to run ctags in the interactive mode (with JSON output) if the ctags binary supports it.
+     * Otherwise, the filter mode is used.
+     *
+     * @param ctagsInteractive whether to use the interactive mode
+     */
+    public void setCtagsInteractive(boolean ctagsInteractive) {
+        this.ctagsInteractive = ctagsInteractive;
+    }
+
+    public int getCtagsRecycleFileCount() {
+        return ctagsRecycleFileCount;
+    }
+
+    /**
+     * Set the number of files after which the ctags process is replaced with a new one
+     * in order to bound its memory usage.
+     *
+     * @param ctagsRecycleFileCount number of files, 0 means the process is never replaced
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setCtagsRecycleFileCount(int ctagsRecycleFileCount) throws IllegalArgumentException {
+        if (ctagsRecycleFileCount < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "ctagsRecycleFileCount", ctagsRecycleFileCount));
+        }
+        this.ctagsRecycleFileCount = ctagsRecycleFileCount;
+    }
+
     public long getXrefTimeout() {
         return xrefTimeout;
     }
@@ -558,6 +671,8 @@ public final class Configuration {
         setApiTimeout(300); // 5 minutes
         setAuthenticationTokens(new HashSet<>());
         setAuthorizationWatchdogEnabled(false);
+        setAuthorizationCacheTTL(0);
+        setAuthorizationCacheSize(100_000);
         setBugPattern("\\b([12456789][0-9]{6})\\b");
         setCachePages(5);
         setCanonicalRoots(new HashSet<>());
@@ -570,9 +685,12 @@ public final class Configuration {
         setContextLimit((short) 10);
         //contextSurround is default(short)
         //ctags is default(String)
+        setCtagsInteractive(true);
+        setCtagsRecycleFileCount(10_000);
         setCtagsTimeout(10);
         setCurrentIndexedCollapseThreshold(27);
         setDataRoot(null);
+        setDiffFileSizeLimit(32);
         setDisplayRepositories(true);
         setFetchHistoryWhenNotInCache(true);
         setFoldingEnabled(true);
@@ -582,6 +700,8 @@ public final class Configuration {
         setHandleHistoryOfRenamedFiles(false);
         setHistoryBasedReindex(true);
         setHistoryCache(true);
+        //historyCacheType default is FILE
+        setChangesetIndexEnabled(true);
         setHistoryEnabled(false);
         setHitsPerPage(25);
         setIgnoredNames(new IgnoredNames());
@@ -594,6 +714,7 @@ public final class Configuration {
         setMaxSearchThreadCount(2 * Runtime.getRuntime().availableProcessors());
         setMaxRevisionThreadCount(Runtime.getRuntime().availableProcessors());
         setMaxDirectoryListingThreadCount(Runtime.getRuntime().availableProcessors());
+        setMaxProjectSearchThreadCount(0);
         setMergeCommitsEnabled(true);
         setMessageLimit(500);
         setNavigateWindowEnabled(false);
@@ -612,13 +733,20 @@ public final class Configuration {
         setRevisionMessageCollapseThreshold(200);
         setScanningDepth(DEFAULT_SCANNING_DEPTH); // default depth of scanning for repositories
         setScopesEnabled(true);
+        setSearchCursorTimeout(60);
+        setSearchResultCacheSize(1000);
+        setSearchWarmupQueries(new ArrayList<>());
+        setSearchWarmupRecentQueries(20);
         setSourceRoot(null);
         setTagsEnabled(false);
         setUseHistoryCacheForDirectoryListing(true);
         // Set to empty string, so we can append it to the URL unconditionally later.
         setUserPageSuffix("");
+        setVirtualThreadsEnabled(false);
         setWebappLAF("default");
         // webappCtags is default(boolean)
+        setWebappHistoryCacheSize(100_000);
+        setWebappXrefCacheSize(1024);
         setXrefTimeout(30);
     }
 
@@ -680,6 +808,39 @@ public final class Configuration {
         this.authorizationWatchdogEnabled = authorizationWatchdogEnabled;
     }
 
+    public int getAuthorizationCacheTTL() {
+        return authorizationCacheTTL;
+    }
+
+    /**
+     * @param authorizationCacheTTL time to live of the shared authorization decisions in seconds,
+     * 0 disables the sharing
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setAuthorizationCacheTTL(int authorizationCacheTTL) throws IllegalArgumentException {
+        if (authorizationCacheTTL < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "authorizationCacheTTL", authorizationCacheTTL));
+        }
+        this.authorizationCacheTTL = authorizationCacheTTL;
+    }
+
+    public int getAuthorizationCacheSize() {
+        return authorizationCacheSize;
+    }
+
+    /**
+     * @param authorizationCacheSize maximum number of the shared authorization decisions
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setAuthorizationCacheSize(int authorizationCacheSize) throws IllegalArgumentException {
+        if (authorizationCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "authorizationCacheSize", authorizationCacheSize));
+        }
+        this.authorizationCacheSize = authorizationCacheSize;
+    }
+
     public AuthorizationStack getPluginStack() {
         return pluginStack;
     }
@@ -836,6 +997,24 @@ public final class Configuration {
         return historyCache;
     }
 
+    /**
+     * Should the changeset index be maintained together with the history cache?
+     *
+     * @return {@code true} if history cache generation should also index the changesets
+     */
+    public boolean isChangesetIndexEnabled() {
+        return changesetIndexEnabled;
+    }
+
+    /**
+     * Set whether the changeset index should be maintained together with the history cache.
+     *
+     * @param flag if {@code true} index changesets when creating the history cache
+     */
+    public void setChangesetIndexEnabled(boolean flag) {
+        this.changesetIndexEnabled = flag;
+    }
+
     /**
      * Should the latest annotation be cached?
      *
@@ -864,6 +1043,127 @@ public final class Configuration {
         this.historyCache = historyCache;
     }
 
+    public HistoryCacheType getHistoryCacheType() {
+        return historyCacheType;
+    }
+
+    /**
+     * Set the storage type of the history cache. The change takes effect on next start.
+     *
+     * @param historyCacheType history cache storage type
+     */
+    public void setHistoryCacheType(HistoryCacheType historyCacheType) {
+        this.historyCacheType = historyCacheType;
+    }
+
+    public int getWebappHistoryCacheSize() {
+        return webappHistoryCacheSize;
+    }
+
+    /**
+     * Set the maximum number of history entries kept in the in-memory history cache of the web application.
+     * The history of single file is weighted by the number of its entries.
+     *
+     * @param webappHistoryCacheSize maximum number of history entries, 0 disables the cache
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setWebappHistoryCacheSize(int webappHistoryCacheSize) throws IllegalArgumentException {
+        if (webappHistoryCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "webappHistoryCacheSize", webappHistoryCacheSize));
+        }
+        this.webappHistoryCacheSize = webappHistoryCacheSize;
+    }
+
+    public int getWebappXrefCacheSize() {
+        return webappXrefCacheSize;
+    }
+
+    /**
+     * Set the maximum size of the on-disk cache of the xrefs generated by the web application
+     * for the files without pregenerated xref (e.g. when the indexer runs with {@code --economical}).
+     *
+     * @param webappXrefCacheSize maximum size in MiB, 0 disables the cache
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setWebappXrefCacheSize(int webappXrefCacheSize) throws IllegalArgumentException {
+        if (webappXrefCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "webappXrefCacheSize", webappXrefCacheSize));
+        }
+        this.webappXrefCacheSize = webappXrefCacheSize;
+    }
+
+    public int getSearchCursorTimeout() {
+        return searchCursorTimeout;
+    }
+
+    /**
+     * Set the time for which the search result cursor of the streaming search API (and the index searchers
+     * it holds) is kept after the last request that used it.
+     *
+     * @param searchCursorTimeout timeout in seconds, 0 disables the cursors
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setSearchCursorTimeout(int searchCursorTimeout) throws IllegalArgumentException {
+        if (searchCursorTimeout < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "searchCursorTimeout", searchCursorTimeout));
+        }
+        this.searchCursorTimeout = searchCursorTimeout;
+    }
+
+    public int getSearchResultCacheSize() {
+        return searchResultCacheSize;
+    }
+
+    /**
+     * Set the maximum number of search result pages kept in the in-memory cache of the web application.
+     *
+     * @param searchResultCacheSize maximum number of result pages, 0 disables the cache
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setSearchResultCacheSize(int searchResultCacheSize) throws IllegalArgumentException {
+        if (searchResultCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "searchResultCacheSize", searchResultCacheSize));
+        }
+        this.searchResultCacheSize = searchResultCacheSize;
+    }
+
+    public List<String> getSearchWarmupQueries() {
+        return searchWarmupQueries;
+    }
+
+    /**
+     * Set the queries to run on index readers reopened after reindex before they are published for searching.
+     * The queries use the syntax of the full search field.
+     *
+     * @param searchWarmupQueries list of queries
+     */
+    public void setSearchWarmupQueries(List<String> searchWarmupQueries) {
+        this.searchWarmupQueries = searchWarmupQueries;
+    }
+
+    public int getSearchWarmupRecentQueries() {
+        return searchWarmupRecentQueries;
+    }
+
+    /**
+     * Set the number of recently executed queries to run on index readers reopened after reindex
+     * before they are published for searching.
+     *
+     * @param searchWarmupRecentQueries number of queries, 0 disables the replay of recent queries
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setSearchWarmupRecentQueries(int searchWarmupRecentQueries) throws IllegalArgumentException {
+        if (searchWarmupRecentQueries < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "searchWarmupRecentQueries", searchWarmupRecentQueries));
+        }
+        this.searchWarmupRecentQueries = searchWarmupRecentQueries;
+    }
+
     public boolean isFetchHistoryWhenNotInCache() {
         return fetchHistoryWhenNotInCache;
     }
@@ -1180,6 +1480,38 @@ public final class Configuration {
         this.indexingParallelism = Math.max(value, 0);
     }
 
+    public int getIndexReadParallelism() {
+        return indexReadParallelism;
+    }
+
+    public void setIndexReadParallelism(int value) {
+        this.indexReadParallelism = Math.max(value, 0);
+    }
+
+    public int getIndexCtagsParallelism() {
+        return indexCtagsParallelism;
+    }
+
+    public void setIndexCtagsParallelism(int value) {
+        this.indexCtagsParallelism = Math.max(value, 0);
+    }
+
+    public int getIndexAnalysisParallelism() {
+        return indexAnalysisParallelism;
+    }
+
+    public void setIndexAnalysisParallelism(int value) {
+        this.indexAnalysisParallelism = Math.max(value, 0);
+    }
+
+    public int getIndexAddParallelism() {
+        return indexAddParallelism;
+    }
+
+    public void setIndexAddParallelism(int value) {
+        this.indexAddParallelism = Math.max(value, 0);
+    }
+
     public int getRepositoryInvalidationParallelism() {
         return repositoryInvalidationParallelism;
     }
@@ -1204,6 +1536,28 @@ public final class Configuration {
         this.historyFileParallelism = Math.max(value, 0);
     }
 
+    public int getDirectoryWalkParallelism() {
+        return directoryWalkParallelism;
+    }
+
+    public void setDirectoryWalkParallelism(int value) {
+        this.directoryWalkParallelism = Math.max(value, 0);
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Back the executors for I/O bound work (history, history files, ctags/xref watchers, directory listing
+     * and file revisions) with virtual threads. The respective parallelism settings then limit the number
+     * of tasks running at the same time rather than the number of threads.
+     * @param virtualThreadsEnabled whether to use virtual threads
+     */
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
     public boolean isTagsEnabled() {
         return this.tagsEnabled;
     }
@@ -1363,6 +1717,25 @@ public final class Configuration {
         this.maxDirectoryListingThreadCount = count;
     }
 
+    public int getMaxProjectSearchThreadCount() {
+        return maxProjectSearchThreadCount;
+    }
+
+    /**
+     * Set the number of threads used for searching the projects of multi-project search concurrently.
+     * The change takes effect on next start.
+     *
+     * @param count number of threads, 0 disables the concurrent search of the projects
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public void setMaxProjectSearchThreadCount(int count) throws IllegalArgumentException {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                    String.format(NEGATIVE_NUMBER_ERROR, "maxProjectSearchThreadCount", count));
+        }
+        this.maxProjectSearchThreadCount = count;
+    }
+
     public boolean isProjectsEnabled() {
         return projectsEnabled;
     }
@@ -1393,6 +1766,14 @@ public final class Configuration {
         this.statsdConfig = config;
     }
 
+    public JGitConfig getJGitConfig() {
+        return jgitConfig;
+    }
+
+    public void setJGitConfig(final JGitConfig config) {
+        this.jgitConfig = Objects.requireNonNull(config, "Cannot set JGit configuration to null");
+    }
+
     public Set<String> getDisabledRepositories() {
         return disabledRepositories;
     }
@@ -1441,6 +1822,14 @@ public final class Configuration {
         this.historyCachePerPartesEnabled = historyCachePerPartesEnabled;
     }
 
+    public int getHistoryChunkParallelism() {
+        return historyChunkParallelism;
+    }
+
+    public void setHistoryChunkParallelism(int value) {
+        this.historyChunkParallelism = Math.max(value, 0);
+    }
+
     public String getServerName() {
         return serverName;
     }
@@ -1479,6 +1868,14 @@ public final class Configuration {
         historyBasedReindex = flag;
     }
 
+    public boolean isStreamingFileCollection() {
+        return streamingFileCollection;
+    }
+
+    public void setStreamingFileCollection(boolean flag) {
+        streamingFileCollection = flag;
+    }
+
     public boolean isUseHistoryCacheForDirectoryListing() {
         return useHistoryCacheForDirectoryListing;
     }
@@ -1487,6 +1884,14 @@ public final class Configuration {
         useHistoryCacheForDirectoryListing = flag;
     }
 
+    public int getDiffFileSizeLimit() {
+        return diffFileSizeLimit;
+    }
+
+    public void setDiffFileSizeLimit(int diffFileSizeLimit) {
+        this.diffFileSizeLimit = diffFileSizeLimit;
+    }
+
     /**
      * Write the current configuration to a file.
      *
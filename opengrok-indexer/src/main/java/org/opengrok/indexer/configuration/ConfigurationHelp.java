@@ -192,6 +192,8 @@ public class ConfigurationHelp {
             return SuggesterConfig.getForHelp();
         } else if (paramType == StatsdConfig.class) {
             return StatsdConfig.getForHelp();
+        } else if (paramType == JGitConfig.class) {
+            return JGitConfig.getForHelp();
         } else {
             throw new UnsupportedOperationException("getSampleValue() for " +
                 paramType + ", " + genType);
@@ -205,6 +207,11 @@ public class ConfigurationHelp {
                 .map(genParamType -> genParamType.getActualTypeArguments()[0])
                 .orElse(null);
 
+        if (actType == String.class) {
+            List<String> strlist = new ArrayList<>();
+            strlist.add("user-defined-element");
+            return strlist;
+        }
         if (Objects.nonNull(actType) && actType != RepositoryInfo.class) {
             throw new UnsupportedOperationException(NOT_SUPPORTED_MSG + actType);
         }
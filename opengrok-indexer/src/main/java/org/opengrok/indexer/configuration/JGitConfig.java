@@ -0,0 +1,118 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.configuration;
+
+/**
+ * Configuration of the shared JGit repository handles and pack caching used by
+ * {@link org.opengrok.indexer.history.GitRepository}.
+ * The pack cache settings are JVM wide; value of 0 retains the JGit default.
+ */
+public class JGitConfig {
+    private int repositoryPoolSize = 32;
+    private int repositoryIdleTimeout = 300;
+    private int packedGitLimit;
+    private int packedGitOpenFiles;
+    private int deltaBaseCacheLimit;
+    private boolean packedGitMMAP;
+
+    /**
+     * @return maximum number of JGit repositories kept open, 0 means no pooling
+     */
+    public int getRepositoryPoolSize() {
+        return repositoryPoolSize;
+    }
+
+    public void setRepositoryPoolSize(int size) {
+        this.repositoryPoolSize = size;
+    }
+
+    /**
+     * @return number of seconds after which unused repository is closed
+     */
+    public int getRepositoryIdleTimeout() {
+        return repositoryIdleTimeout;
+    }
+
+    public void setRepositoryIdleTimeout(int timeout) {
+        this.repositoryIdleTimeout = timeout;
+    }
+
+    /**
+     * @return maximum size of pack file windows held in memory in MiB
+     */
+    public int getPackedGitLimit() {
+        return packedGitLimit;
+    }
+
+    public void setPackedGitLimit(int limit) {
+        this.packedGitLimit = limit;
+    }
+
+    /**
+     * @return maximum number of pack files kept open
+     */
+    public int getPackedGitOpenFiles() {
+        return packedGitOpenFiles;
+    }
+
+    public void setPackedGitOpenFiles(int openFiles) {
+        this.packedGitOpenFiles = openFiles;
+    }
+
+    /**
+     * @return size of the cache of delta bases in MiB
+     */
+    public int getDeltaBaseCacheLimit() {
+        return deltaBaseCacheLimit;
+    }
+
+    public void setDeltaBaseCacheLimit(int limit) {
+        this.deltaBaseCacheLimit = limit;
+    }
+
+    /**
+     * @return whether pack files should be accessed via memory mapping
+     */
+    public boolean isPackedGitMMAP() {
+        return packedGitMMAP;
+    }
+
+    public void setPackedGitMMAP(boolean mmap) {
+        this.packedGitMMAP = mmap;
+    }
+
+    /**
+     * Gets an instance version suitable for helper documentation by shifting
+     * most default properties slightly.
+     */
+    static JGitConfig getForHelp() {
+        JGitConfig res = new JGitConfig();
+        res.setRepositoryPoolSize(64);
+        res.setRepositoryIdleTimeout(600);
+        res.setPackedGitLimit(256);
+        res.setPackedGitOpenFiles(512);
+        res.setDeltaBaseCacheLimit(64);
+        res.setPackedGitMMAP(true);
+        return res;
+    }
+}
@@ -32,6 +32,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -81,7 +82,9 @@ import org.opengrok.indexer.util.LazilyInstantiate;
 import org.opengrok.indexer.util.PathUtils;
 import org.opengrok.indexer.util.ResourceLock;
 import org.opengrok.indexer.util.Statistics;
+import org.opengrok.indexer.util.VirtualThreadExecutor;
 import org.opengrok.indexer.web.AsyncApiCallResult;
+import org.opengrok.indexer.web.EftarFileReader;
 import org.opengrok.indexer.web.Prefix;
 import org.opengrok.indexer.web.Util;
 import org.opengrok.indexer.web.messages.Message;
@@ -104,6 +107,7 @@ public final class RuntimeEnvironment {
     private final LazilyInstantiate<ExecutorService> lzSearchExecutor;
     private final LazilyInstantiate<ExecutorService> lzRevisionExecutor;
     private final LazilyInstantiate<ExecutorService> lzDirectoryListingExecutor;
+    private volatile LazilyInstantiate<ExecutorService> lzProjectSearchExecutor;
     private static final RuntimeEnvironment instance = new RuntimeEnvironment();
 
     private final LazilyInstantiate<SuperIndexSearcherFactory> lzSuperIndexSearcherFactory;
@@ -135,6 +139,9 @@ public final class RuntimeEnvironment {
     private String mandoc;
 
     private transient File dtagsEftar = null;
+    private final Object dtagsEftarReaderLock = new Object();
+    @Nullable
+    private EftarFileReader dtagsEftarReader;
 
     private transient volatile Boolean ctagsFound;
     private final transient Set<String> ctagsLanguages = new HashSet<>();
@@ -160,6 +167,7 @@ public final class RuntimeEnvironment {
         lzSearchExecutor = LazilyInstantiate.using(this::newSearchExecutor);
         lzRevisionExecutor = LazilyInstantiate.using(this::newRevisionExecutor);
         lzDirectoryListingExecutor = LazilyInstantiate.using(this::newDirectoryListingExecutor);
+        lzProjectSearchExecutor = LazilyInstantiate.using(this::newProjectSearchExecutor);
         lzSuperIndexSearcherFactory = LazilyInstantiate.using(this::newSuperIndexSearcherFactory);
         lzIndexSearcherFactory = LazilyInstantiate.using(this::newIndexSearcherFactory);
     }
@@ -214,6 +222,9 @@ public final class RuntimeEnvironment {
     }
 
     private ExecutorService newRevisionExecutor() {
+        if (isVirtualThreadsEnabled()) {
+            return new VirtualThreadExecutor("get-revision", this.getMaxRevisionThreadCount());
+        }
         return Executors.newFixedThreadPool(this.getMaxRevisionThreadCount(),
                 new OpenGrokThreadFactory("get-revision"));
     }
@@ -228,6 +239,9 @@ public final class RuntimeEnvironment {
     }
 
     private ExecutorService newDirectoryListingExecutor() {
+        if (isVirtualThreadsEnabled()) {
+            return new VirtualThreadExecutor("directory-listing", this.getMaxDirectoryListingThreadCount());
+        }
         return Executors.newFixedThreadPool(this.getMaxDirectoryListingThreadCount(),
                 new OpenGrokThreadFactory("directory-listing"));
     }
@@ -237,6 +251,43 @@ public final class RuntimeEnvironment {
         getDirectoryListingExecutor().awaitTermination(getWebappStartCommandTimeout(), TimeUnit.SECONDS);
     }
 
+    /**
+     * @return executor for searching the projects of multi-project search concurrently
+     * @see #getMaxProjectSearchThreadCount()
+     */
+    public ExecutorService getProjectSearchExecutor() {
+        return lzProjectSearchExecutor.get();
+    }
+
+    private ExecutorService newProjectSearchExecutor() {
+        return Executors.newFixedThreadPool(Math.max(1, this.getMaxProjectSearchThreadCount()),
+                new OpenGrokThreadFactory("project-search"));
+    }
+
+    /**
+     * Replace the executor for searching the projects so that it reflects the current configuration.
+     * The searches running in the former executor are left to complete.
+     */
+    private void bounceProjectSearchExecutor() {
+        LazilyInstantiate<ExecutorService> former = lzProjectSearchExecutor;
+        lzProjectSearchExecutor = LazilyInstantiate.using(this::newProjectSearchExecutor);
+        if (former.isActive()) {
+            former.get().shutdown();
+        }
+    }
+
+    public void shutdownProjectSearchExecutor() {
+        if (!lzProjectSearchExecutor.isActive()) {
+            return;
+        }
+        getProjectSearchExecutor().shutdownNow();
+        try {
+            getProjectSearchExecutor().awaitTermination(getIndexerCommandTimeout(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "failed to await shutdown of project search executor", e);
+        }
+    }
+
     private SuperIndexSearcherFactory newSuperIndexSearcherFactory() {
         return new SuperIndexSearcherFactory();
     }
@@ -370,6 +421,22 @@ public final class RuntimeEnvironment {
         syncWriteConfiguration(timeout, Configuration::setCtagsTimeout);
     }
 
+    public boolean isCtagsInteractive() {
+        return syncReadConfiguration(Configuration::isCtagsInteractive);
+    }
+
+    public void setCtagsInteractive(boolean ctagsInteractive) {
+        syncWriteConfiguration(ctagsInteractive, Configuration::setCtagsInteractive);
+    }
+
+    public int getCtagsRecycleFileCount() {
+        return syncReadConfiguration(Configuration::getCtagsRecycleFileCount);
+    }
+
+    public void setCtagsRecycleFileCount(int count) {
+        syncWriteConfiguration(count, Configuration::setCtagsRecycleFileCount);
+    }
+
     public long getXrefTimeout() {
         return syncReadConfiguration(Configuration::getXrefTimeout);
     }
@@ -938,6 +1005,22 @@ public final class RuntimeEnvironment {
                 Configuration::setAuthorizationWatchdogEnabled);
     }
 
+    public int getAuthorizationCacheTTL() {
+        return syncReadConfiguration(Configuration::getAuthorizationCacheTTL);
+    }
+
+    public void setAuthorizationCacheTTL(int authorizationCacheTTL) {
+        syncWriteConfiguration(authorizationCacheTTL, Configuration::setAuthorizationCacheTTL);
+    }
+
+    public int getAuthorizationCacheSize() {
+        return syncReadConfiguration(Configuration::getAuthorizationCacheSize);
+    }
+
+    public void setAuthorizationCacheSize(int authorizationCacheSize) {
+        syncWriteConfiguration(authorizationCacheSize, Configuration::setAuthorizationCacheSize);
+    }
+
     public AuthorizationStack getPluginStack() {
         return syncReadConfiguration(Configuration::getPluginStack);
     }
@@ -1192,6 +1275,66 @@ public final class RuntimeEnvironment {
                 parallelism;
     }
 
+    /**
+     * Gets the value of {@link Configuration#getIndexReadParallelism()} -- or
+     * if zero, then as a default half of the indexing parallelism.
+     *
+     * @return number of threads of the indexer pipeline stage for reading the files, a natural number &gt;= 1
+     */
+    public int getIndexReadParallelism() {
+        int parallelism = syncReadConfiguration(Configuration::getIndexReadParallelism);
+        return parallelism < 1 ? max(getIndexingParallelism() / 2, 1) : parallelism;
+    }
+
+    public void setIndexReadParallelism(int value) {
+        syncWriteConfiguration(value, Configuration::setIndexReadParallelism);
+    }
+
+    /**
+     * Gets the value of {@link Configuration#getIndexCtagsParallelism()} -- or
+     * if zero, then as a default the indexing parallelism.
+     *
+     * @return number of threads of the indexer pipeline stage for running ctags, a natural number &gt;= 1
+     */
+    public int getIndexCtagsParallelism() {
+        int parallelism = syncReadConfiguration(Configuration::getIndexCtagsParallelism);
+        return parallelism < 1 ? getIndexingParallelism() : parallelism;
+    }
+
+    public void setIndexCtagsParallelism(int value) {
+        syncWriteConfiguration(value, Configuration::setIndexCtagsParallelism);
+    }
+
+    /**
+     * Gets the value of {@link Configuration#getIndexAnalysisParallelism()} -- or
+     * if zero, then as a default the indexing parallelism.
+     *
+     * @return number of threads of the indexer pipeline stage for analyzing the files, a natural number &gt;= 1
+     */
+    public int getIndexAnalysisParallelism() {
+        int parallelism = syncReadConfiguration(Configuration::getIndexAnalysisParallelism);
+        return parallelism < 1 ? getIndexingParallelism() : parallelism;
+    }
+
+    public void setIndexAnalysisParallelism(int value) {
+        syncWriteConfiguration(value, Configuration::setIndexAnalysisParallelism);
+    }
+
+    /**
+     * Gets the value of {@link Configuration#getIndexAddParallelism()} -- or
+     * if zero, then as a default half of the indexing parallelism.
+     *
+     * @return number of threads of the indexer pipeline stage for adding the documents to the index, a natural number &gt;= 1
+     */
+    public int getIndexAddParallelism() {
+        int parallelism = syncReadConfiguration(Configuration::getIndexAddParallelism);
+        return parallelism < 1 ? max(getIndexingParallelism() / 2, 1) : parallelism;
+    }
+
+    public void setIndexAddParallelism(int value) {
+        syncWriteConfiguration(value, Configuration::setIndexAddParallelism);
+    }
+
     /**
      * Gets the value of {@link Configuration#getRepositoryInvalidationParallelism()} -- or
      * if zero, then as a default gets the number of available processors halved.
@@ -1227,6 +1370,26 @@ public final class RuntimeEnvironment {
                 parallelism;
     }
 
+    /**
+     * @return value of {@link Configuration#getDirectoryWalkParallelism()}, zero if the directories
+     * should be listed by the traversing thread
+     */
+    public int getDirectoryWalkParallelism() {
+        return syncReadConfiguration(Configuration::getDirectoryWalkParallelism);
+    }
+
+    public void setDirectoryWalkParallelism(int value) {
+        syncWriteConfiguration(value, Configuration::setDirectoryWalkParallelism);
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return syncReadConfiguration(Configuration::isVirtualThreadsEnabled);
+    }
+
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        syncWriteConfiguration(virtualThreadsEnabled, Configuration::setVirtualThreadsEnabled);
+    }
+
     public boolean isTagsEnabled() {
         return syncReadConfiguration(Configuration::isTagsEnabled);
     }
@@ -1339,6 +1502,78 @@ public final class RuntimeEnvironment {
         return syncReadConfiguration(Configuration::isHistoryCache);
     }
 
+    public HistoryCacheType getHistoryCacheType() {
+        return syncReadConfiguration(Configuration::getHistoryCacheType);
+    }
+
+    public int getDiffFileSizeLimit() {
+        return syncReadConfiguration(Configuration::getDiffFileSizeLimit);
+    }
+
+    public void setDiffFileSizeLimit(int diffFileSizeLimit) {
+        syncWriteConfiguration(diffFileSizeLimit, Configuration::setDiffFileSizeLimit);
+    }
+
+    public boolean isChangesetIndexEnabled() {
+        return syncReadConfiguration(Configuration::isChangesetIndexEnabled);
+    }
+
+    public void setChangesetIndexEnabled(boolean flag) {
+        syncWriteConfiguration(flag, Configuration::setChangesetIndexEnabled);
+    }
+
+    public void setHistoryCacheType(HistoryCacheType historyCacheType) {
+        syncWriteConfiguration(historyCacheType, Configuration::setHistoryCacheType);
+    }
+
+    public int getWebappHistoryCacheSize() {
+        return syncReadConfiguration(Configuration::getWebappHistoryCacheSize);
+    }
+
+    public void setWebappHistoryCacheSize(int webappHistoryCacheSize) {
+        syncWriteConfiguration(webappHistoryCacheSize, Configuration::setWebappHistoryCacheSize);
+    }
+
+    public int getWebappXrefCacheSize() {
+        return syncReadConfiguration(Configuration::getWebappXrefCacheSize);
+    }
+
+    public void setWebappXrefCacheSize(int webappXrefCacheSize) {
+        syncWriteConfiguration(webappXrefCacheSize, Configuration::setWebappXrefCacheSize);
+    }
+
+    public int getSearchCursorTimeout() {
+        return syncReadConfiguration(Configuration::getSearchCursorTimeout);
+    }
+
+    public void setSearchCursorTimeout(int searchCursorTimeout) {
+        syncWriteConfiguration(searchCursorTimeout, Configuration::setSearchCursorTimeout);
+    }
+
+        public int getSearchResultCacheSize() {
+        return syncReadConfiguration(Configuration::getSearchResultCacheSize);
+    }
+
+    public void setSearchResultCacheSize(int searchResultCacheSize) {
+        syncWriteConfiguration(searchResultCacheSize, Configuration::setSearchResultCacheSize);
+    }
+
+    public List<String> getSearchWarmupQueries() {
+        return syncReadConfiguration(Configuration::getSearchWarmupQueries);
+    }
+
+    public void setSearchWarmupQueries(List<String> searchWarmupQueries) {
+        syncWriteConfiguration(searchWarmupQueries, Configuration::setSearchWarmupQueries);
+    }
+
+    public int getSearchWarmupRecentQueries() {
+        return syncReadConfiguration(Configuration::getSearchWarmupRecentQueries);
+    }
+
+    public void setSearchWarmupRecentQueries(int searchWarmupRecentQueries) {
+        syncWriteConfiguration(searchWarmupRecentQueries, Configuration::setSearchWarmupRecentQueries);
+    }
+
     public void setHandleHistoryOfRenamedFiles(boolean handleHistoryOfRenamedFiles) {
         syncWriteConfiguration(handleHistoryOfRenamedFiles,
                 Configuration::setHandleHistoryOfRenamedFiles);
@@ -1397,6 +1632,14 @@ public final class RuntimeEnvironment {
         syncWriteConfiguration(threadCount, Configuration::setMaxDirectoryListingThreadCount);
     }
 
+    public int getMaxProjectSearchThreadCount() {
+        return syncReadConfiguration(Configuration::getMaxProjectSearchThreadCount);
+    }
+
+    public void setMaxProjectSearchThreadCount(int threadCount) {
+        syncWriteConfiguration(threadCount, Configuration::setMaxProjectSearchThreadCount);
+    }
+
     public int getCurrentIndexedCollapseThreshold() {
         return syncReadConfiguration(Configuration::getCurrentIndexedCollapseThreshold);
     }
@@ -1487,6 +1730,18 @@ public final class RuntimeEnvironment {
         syncWriteConfiguration(enabled, Configuration::setHistoryCachePerPartesEnabled);
     }
 
+    /**
+     * @return value of {@link Configuration#getHistoryChunkParallelism()}, values lower than 2 mean
+     * the per partes history chunks are traversed sequentially
+     */
+    public int getHistoryChunkParallelism() {
+        return syncReadConfiguration(Configuration::getHistoryChunkParallelism);
+    }
+
+    public void setHistoryChunkParallelism(int value) {
+        syncWriteConfiguration(value, Configuration::setHistoryChunkParallelism);
+    }
+
     public Set<String> getDisabledRepositories() {
         return syncReadConfiguration(Configuration::getDisabledRepositories);
     }
@@ -1527,6 +1782,14 @@ public final class RuntimeEnvironment {
         syncWriteConfiguration(flag, Configuration::setHistoryBasedReindex);
     }
 
+    public boolean isStreamingFileCollection() {
+        return syncReadConfiguration(Configuration::isStreamingFileCollection);
+    }
+
+    public void setStreamingFileCollection(boolean flag) {
+        syncWriteConfiguration(flag, Configuration::setStreamingFileCollection);
+    }
+
     public boolean isUseHistoryCacheForDirectoryListing() {
         return syncReadConfiguration(Configuration::isUseHistoryCacheForDirectoryListing);
     }
@@ -1754,6 +2017,9 @@ public final class RuntimeEnvironment {
         populateGroups(new TreeSet<>(getGroups().values()), new TreeSet<>(getProjects().values()));
 
         includeFiles.reloadIncludeFiles();
+
+        // The size of the pool might have changed.
+        bounceProjectSearchExecutor();
     }
 
     public IncludeFiles getIncludeFiles() {
@@ -1769,6 +2035,8 @@ public final class RuntimeEnvironment {
         synchronized (authFrameworkLock) {
             if (authFramework == null) {
                 authFramework = new AuthorizationFramework(getPluginDirectory(), getPluginStack());
+                authFramework.setDecisionCacheParameters(Duration.ofSeconds(getAuthorizationCacheTTL()),
+                        getAuthorizationCacheSize());
             }
             return authFramework;
         }
@@ -1861,6 +2129,8 @@ public final class RuntimeEnvironment {
         // set the new plugin directory and reload the authorization framework
         getAuthorizationFramework().setPluginDirectory(getPluginDirectory());
         getAuthorizationFramework().setStack(getPluginStack());
+        getAuthorizationFramework().setDecisionCacheParameters(Duration.ofSeconds(getAuthorizationCacheTTL()),
+                getAuthorizationCacheSize());
         getAuthorizationFramework().reload();
 
         messagesContainer.setMessageLimit(getMessageLimit());
@@ -2107,6 +2377,36 @@ public final class RuntimeEnvironment {
         return dtagsEftar;
     }
 
+    /**
+     * Get the reader of the eftar file shared by all requests. The reader is replaced
+     * when the eftar file changes. The reader should not be closed by the callers.
+     *
+     * @return {@code null} if there is no eftar file or it cannot be read, the reader otherwise.
+     */
+    @Nullable
+    public EftarFileReader getDtagsEftarReader() {
+        File file = getDtagsEftar();
+        synchronized (dtagsEftarReaderLock) {
+            if (file == null) {
+                dtagsEftarReader = null;
+                return null;
+            }
+            if (dtagsEftarReader != null && dtagsEftarReader.isCurrent(file)) {
+                return dtagsEftarReader;
+            }
+
+            // The previous reader is left to the requests which still use it.
+            try {
+                dtagsEftarReader = new EftarFileReader(file);
+                LOGGER.log(Level.FINE, "loaded path descriptions from ''{0}''", file);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, String.format("failed to load path descriptions from '%s'", file), e);
+                dtagsEftarReader = null;
+            }
+            return dtagsEftarReader;
+        }
+    }
+
     public SuggesterConfig getSuggesterConfig() {
         return syncReadConfiguration(Configuration::getSuggesterConfig);
     }
@@ -2123,6 +2423,14 @@ public final class RuntimeEnvironment {
         syncWriteConfiguration(statsdConfig, Configuration::setStatsdConfig);
     }
 
+    public JGitConfig getJGitConfig() {
+        return syncReadConfiguration(Configuration::getJGitConfig);
+    }
+
+    public void setJGitConfig(JGitConfig jgitConfig) {
+        syncWriteConfiguration(jgitConfig, Configuration::setJGitConfig);
+    }
+
     /**
      * Applies the specified function to the runtime configuration, after having
      * obtained the configuration read-lock (and releasing afterward).
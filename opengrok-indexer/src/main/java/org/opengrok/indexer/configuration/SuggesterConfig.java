@@ -52,6 +52,7 @@ public class SuggesterConfig {
     public static final int TIME_THRESHOLD_DEFAULT = 2000; // 2 sec
     public static final int REBUILD_THREAD_POOL_PERCENT_NCPUS_DEFAULT = 80;
     public static final int SEARCH_THREAD_POOL_PERCENT_NCPUS_DEFAULT = 90;
+    public static final boolean OFF_HEAP_WFST_DEFAULT = false;
 
     private static final Set<String> allowedProjectsDefault = null;
     private static final Set<String> allowedFieldsDefault = Set.of(
@@ -147,6 +148,12 @@ public class SuggesterConfig {
      */
     private int searchThreadPoolSizeInNcpuPercent;
 
+    /**
+     * Specifies if the WFST data structures should be memory mapped from the suggester data files
+     * rather than loaded into the heap.
+     */
+    private boolean offHeapWfst;
+
     public SuggesterConfig() {
         setEnabled(ENABLED_DEFAULT);
         setMaxResults(MAX_RESULTS_DEFAULT);
@@ -164,6 +171,7 @@ public class SuggesterConfig {
         setBuildTerminationTime(BUILD_TERMINATION_TIME_DEFAULT);
         setRebuildThreadPoolSizeInNcpuPercent(REBUILD_THREAD_POOL_PERCENT_NCPUS_DEFAULT);
         setSearchThreadPoolSizeInNcpuPercent(SEARCH_THREAD_POOL_PERCENT_NCPUS_DEFAULT);
+        setOffHeapWfst(OFF_HEAP_WFST_DEFAULT);
     }
 
     public boolean isEnabled() {
@@ -320,6 +328,14 @@ public class SuggesterConfig {
         return searchThreadPoolSizeInNcpuPercent;
     }
 
+    public boolean isOffHeapWfst() {
+        return offHeapWfst;
+    }
+
+    public final void setOffHeapWfst(final boolean offHeapWfst) {
+        this.offHeapWfst = offHeapWfst;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -342,14 +358,15 @@ public class SuggesterConfig {
                 Objects.equals(allowedProjects, that.allowedProjects) &&
                 Objects.equals(allowedFields, that.allowedFields) &&
                 Objects.equals(rebuildCronConfig, that.rebuildCronConfig) &&
-                rebuildThreadPoolSizeInNcpuPercent == that.rebuildThreadPoolSizeInNcpuPercent;
+                rebuildThreadPoolSizeInNcpuPercent == that.rebuildThreadPoolSizeInNcpuPercent &&
+                offHeapWfst == that.offHeapWfst;
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(enabled, maxResults, minChars, allowedProjects, maxProjects, allowedFields,
                 allowComplexQueries, allowMostPopular, showScores, showProjects, showTime, rebuildCronConfig,
-                buildTerminationTime, rebuildThreadPoolSizeInNcpuPercent);
+                buildTerminationTime, rebuildThreadPoolSizeInNcpuPercent, offHeapWfst);
     }
 
     /**
@@ -374,6 +391,7 @@ public class SuggesterConfig {
         res.setBuildTerminationTime(1 + res.getBuildTerminationTime());
         res.setRebuildThreadPoolSizeInNcpuPercent(1 + res.getRebuildThreadPoolSizeInNcpuPercent());
         res.setSearchThreadPoolSizeInNcpuPercent(1 + res.getSearchThreadPoolSizeInNcpuPercent());
+        res.setOffHeapWfst(!res.isOffHeapWfst());
 
         return res;
     }
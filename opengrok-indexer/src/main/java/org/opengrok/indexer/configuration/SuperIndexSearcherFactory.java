@@ -18,24 +18,33 @@
  */
 
  /*
-  * Copyright (c) 2016, 2022, Oracle and/or its affiliates. All rights reserved.
+  * Copyright (c) 2016, 2026, Oracle and/or its affiliates. All rights reserved.
   */
 package org.opengrok.indexer.configuration;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.SearcherFactory;
+import org.opengrok.indexer.search.SearchWarmer;
 
 /**
  * Factory for producing IndexSearcher objects.
  * This is used inside getSuperIndexSearcher() to produce new SearcherManager objects
  * to make sure the searcher threads are constrained to single thread pool.
+ * <p>
+ * The searchers for reopened readers are warmed up by {@link SearchWarmer} before the SearcherManager
+ * publishes them.
+ * </p>
  * @author vkotal
  */
 class SuperIndexSearcherFactory extends SearcherFactory {
 
     @Override
     public SuperIndexSearcher newSearcher(IndexReader r, IndexReader prev) {
-        // The previous IndexReader is not used here.
-        return new SuperIndexSearcher(r, RuntimeEnvironment.getInstance().getSearchExecutor());
+        SuperIndexSearcher searcher = new SuperIndexSearcher(r, RuntimeEnvironment.getInstance().getSearchExecutor());
+        // The initial searcher is created on the first search request so there is no point in delaying it.
+        if (prev != null) {
+            SearchWarmer.getInstance().warm(searcher);
+        }
+        return searcher;
     }
 }
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2021, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.indexer.history;
 
@@ -57,6 +57,17 @@ public class CacheUtil {
     @VisibleForTesting
     @Nullable
     public static String getRepositoryCacheDataDirname(RepositoryInfo repository, Cache cache) {
+        return getRepositoryDataDirname(repository, cache.getCacheDirName());
+    }
+
+    /**
+     * @param repository {@link RepositoryInfo} instance
+     * @param dirName name of the top level directory under data root
+     * @return absolute path of the directory for given repository under given top level directory.
+     * Will return {@code null} on error.
+     */
+    @Nullable
+    static String getRepositoryDataDirname(RepositoryInfo repository, String dirName) {
         String repoDirBasename;
 
         RuntimeEnvironment env = RuntimeEnvironment.getInstance();
@@ -73,7 +84,7 @@ public class CacheUtil {
         }
 
         return env.getDataRootPath() + File.separatorChar
-                + cache.getCacheDirName()
+                + dirName
                 + repoDirBasename;
     }
 
@@ -0,0 +1,453 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.analysis.HistoryAnalyzer;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.search.QueryBuilder;
+
+/**
+ * Per-repository Lucene index of changesets (revision, author, date, message and touched files)
+ * maintained along with the history cache. It allows to get the changesets matching a history query
+ * for given file without reading and parsing the complete history of the file.
+ * <p>
+ * Each changeset is assigned a sequence number that grows with the age of the changeset decreasing,
+ * so that the changesets of a file can be sorted from the newest to the oldest and the previous
+ * changeset of a file can be found with a range query.
+ * </p>
+ */
+public final class ChangesetIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangesetIndex.class);
+
+    static final String DIR_NAME = "changesets";
+
+    static final String REVISION = "rev";
+    static final String DISPLAY_REVISION = "drev";
+    static final String DATE = "date";
+    static final String AUTHOR = "author";
+    static final String MESSAGE = "message";
+    static final String FILES = "files";
+    static final String SEQUENCE = "seq";
+
+    /**
+     * Commit user data key holding the highest sequence number in the index.
+     */
+    private static final String SEQUENCE_KEY = "sequence";
+
+    /**
+     * Commit user data key holding the version of the index. The index is used only if it has the current
+     * version, which also means it contains all the changesets of the history cache.
+     */
+    private static final String VERSION_KEY = "version";
+
+    /**
+     * Version of the index. Version 2 introduced the sort of the index by the sequence number.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Sort from the newest to the oldest changeset. This is also the sort of the index.
+     */
+    private static final Sort SEQUENCE_SORT = new Sort(new SortField(SEQUENCE, SortField.Type.LONG, true));
+
+    private static final Map<Path, SearcherManager> searcherManagers = new ConcurrentHashMap<>();
+
+    /**
+     * Changeset matching a query.
+     * @param entry history entry of the changeset
+     * @param previousRevision revision of the previous changeset of the file or {@code null} if there is none
+     */
+    public record Match(HistoryEntry entry, @Nullable String previousRevision) {
+    }
+
+    private ChangesetIndex() {
+        // private to enforce static
+    }
+
+    /**
+     * @param repository repository
+     * @return directory of the changeset index for the repository or {@code null} on error
+     */
+    @Nullable
+    static Path getIndexDirectory(RepositoryInfo repository) {
+        String dirName = CacheUtil.getRepositoryDataDirname(repository, DIR_NAME);
+        return dirName == null ? null : Path.of(dirName);
+    }
+
+    private static IndexWriter getIndexWriter(Directory directory, IndexWriterConfig.OpenMode openMode)
+            throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(new HistoryAnalyzer());
+        config.setOpenMode(openMode);
+        config.setIndexSort(SEQUENCE_SORT);
+        return new IndexWriter(directory, config);
+    }
+
+    /**
+     * Add the changesets of the history to the index of the repository. The history is expected
+     * to contain the entries sorted from the newest to the oldest and to be newer than the entries
+     * stored previously, which matches the way the history cache is created.
+     * Changesets already present in the index are replaced.
+     * <p>
+     * The index can be updated incrementally only if it contains the changesets of all the history stored
+     * previously. Otherwise (the index was enabled after the history cache was created, it was created
+     * by older version or it was cleared after failed update) it is left as is and it will be created
+     * once the history cache of the repository is created from scratch.
+     * </p>
+     *
+     * @param history history with the lists of files for the entries
+     * @param repository repository
+     * @param incremental whether the history is an update of the history stored in the history cache
+     * @throws IOException on error
+     */
+    static void store(History history, RepositoryInfo repository, boolean incremental) throws IOException {
+        Path indexDir = getIndexDirectory(repository);
+        if (indexDir == null) {
+            throw new IOException(String.format("failed to get changeset index directory for %s", repository));
+        }
+
+        List<HistoryEntry> entries = history.getHistoryEntries();
+        try (Directory directory = FSDirectory.open(indexDir)) {
+            if (incremental && !isCurrent(directory)) {
+                LOGGER.log(Level.FINE, "changeset index for {0} is not complete, not updating it", repository);
+                return;
+            }
+
+            // The existing index (possibly of older version) is replaced when the history is stored from scratch.
+            try (IndexWriter writer = getIndexWriter(directory, incremental ?
+                    IndexWriterConfig.OpenMode.APPEND : IndexWriterConfig.OpenMode.CREATE)) {
+                long sequence = getSequence(writer);
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    HistoryEntry entry = entries.get(i);
+                    if (!entry.isActive() || entry.getRevision() == null) {
+                        continue;
+                    }
+                    writer.updateDocument(new Term(REVISION, entry.getRevision()),
+                            createDocument(entry, ++sequence));
+                }
+                writer.setLiveCommitData(Map.of(SEQUENCE_KEY, Long.toString(sequence),
+                        VERSION_KEY, Integer.toString(VERSION)).entrySet());
+                writer.commit();
+            }
+        }
+    }
+
+    private static boolean isCurrent(Directory directory) throws IOException {
+        return DirectoryReader.indexExists(directory) &&
+                isCurrent(SegmentInfos.readLatestCommit(directory).getUserData());
+    }
+
+    private static boolean isCurrent(Map<String, String> commitData) {
+        return Integer.toString(VERSION).equals(commitData.get(VERSION_KEY));
+    }
+
+    private static long getSequence(IndexWriter writer) {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (SEQUENCE_KEY.equals(entry.getKey())) {
+                    return Long.parseLong(entry.getValue());
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static Document createDocument(HistoryEntry entry, long sequence) {
+        Document doc = new Document();
+        doc.add(new StringField(REVISION, entry.getRevision(), Field.Store.YES));
+        if (entry.getDisplayRevision() != null && !entry.getDisplayRevision().equals(entry.getRevision())) {
+            doc.add(new StoredField(DISPLAY_REVISION, entry.getDisplayRevision()));
+        }
+        if (entry.getDate() != null) {
+            doc.add(new StoredField(DATE, entry.getDate().getTime()));
+        }
+        if (entry.getAuthor() != null) {
+            doc.add(new StoredField(AUTHOR, entry.getAuthor()));
+        }
+        doc.add(new StoredField(MESSAGE, entry.getMessage()));
+        if (entry.getDate() != null) {
+            doc.add(new TextField(QueryBuilder.HIST, entry.getLine(), Field.Store.NO));
+        }
+        for (String file : entry.getFiles()) {
+            doc.add(new StringField(FILES, file, Field.Store.YES));
+        }
+        doc.add(new LongPoint(SEQUENCE, sequence));
+        doc.add(new NumericDocValuesField(SEQUENCE, sequence));
+        return doc;
+    }
+
+    private static HistoryEntry createHistoryEntry(Document doc) {
+        IndexableField date = doc.getField(DATE);
+        List<String> files = new ArrayList<>();
+        for (IndexableField field : doc.getFields(FILES)) {
+            files.add(field.stringValue());
+        }
+        return new HistoryEntry(doc.get(REVISION), doc.get(DISPLAY_REVISION),
+                date == null ? null : new Date(date.numericValue().longValue()),
+                doc.get(AUTHOR), doc.get(MESSAGE), true, files);
+    }
+
+    /**
+     * Remove all changesets of the repository from the index. The index will not be used until
+     * it is created again from scratch, see {@link #store(History, RepositoryInfo, boolean)}.
+     * The index files are emptied rather than removed so that any nested repositories are left intact.
+     *
+     * @param repository repository
+     */
+    static void clear(RepositoryInfo repository) {
+        Path indexDir = getIndexDirectory(repository);
+        if (indexDir == null || !indexDir.toFile().isDirectory()) {
+            return;
+        }
+
+        try (Directory directory = FSDirectory.open(indexDir)) {
+            if (!DirectoryReader.indexExists(directory)) {
+                return;
+            }
+            try (IndexWriter writer = getIndexWriter(directory, IndexWriterConfig.OpenMode.CREATE)) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("failed to clear changeset index in '%s'", indexDir), e);
+        }
+    }
+
+    /**
+     * Extract the part of the query that applies to the history field.
+     * @param query query
+     * @return query with the clauses of the query that search only in the history field
+     * or {@code null} if there are no such clauses
+     */
+    @Nullable
+    public static Query getHistoryQuery(Query query) {
+        if (query instanceof BooleanQuery booleanQuery) {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            boolean positive = false;
+            for (BooleanClause clause : booleanQuery.clauses()) {
+                Query subQuery = getHistoryQuery(clause.getQuery());
+                if (subQuery != null) {
+                    builder.add(subQuery, clause.getOccur());
+                    positive |= clause.getOccur() != BooleanClause.Occur.MUST_NOT;
+                }
+            }
+            return positive ? builder.build() : null;
+        }
+
+        Set<String> fields = new HashSet<>();
+        query.visit(new QueryVisitor() {
+            @Override
+            public boolean acceptField(String field) {
+                fields.add(field);
+                return true;
+            }
+        });
+        return fields.equals(Set.of(QueryBuilder.HIST)) ? query : null;
+    }
+
+    /**
+     * Get the changesets of the file matching the history query.
+     * The changesets are stored with the paths of the files at the time of the changeset, so the changesets
+     * of a file that was renamed cannot be reliably found by its current path. Hence the index is not used
+     * for repositories with handling of renamed files enabled.
+     *
+     * @param file source file
+     * @param path path of the file relative to source root
+     * @param historyQuery query on the history field, see {@link #getHistoryQuery(Query)}
+     * @param maxResults maximum number of changesets to return
+     * @return list of matching changesets sorted from the newest to the oldest
+     * or {@code null} if the changeset index cannot be used for the file
+     * @throws IOException on error
+     */
+    @Nullable
+    public static List<Match> search(File file, String path, Query historyQuery, int maxResults) throws IOException {
+        Repository repository = HistoryGuru.getInstance().getRepository(file);
+        if (repository == null || repository.isHandleRenamedFiles()) {
+            return null;
+        }
+        return search(repository, searcher -> search(searcher, path, historyQuery, maxResults));
+    }
+
+    /**
+     * Get the most recent changesets of the repository. As the index is sorted by the sequence number,
+     * the collection terminates early once enough changesets are collected, so getting the changesets
+     * of the whole repository does not depend on the size of the history. Restricting the changesets
+     * to a directory requires to visit the changesets of all the files under the directory,
+     * which is still cheaper than reading their history.
+     *
+     * @param repository repository
+     * @param path path of directory relative to source root to restrict the changesets to
+     *             or {@code null} to get changesets of the whole repository
+     * @param maxResults maximum number of changesets to return
+     * @return list of changesets sorted from the newest to the oldest
+     * or {@code null} if the changeset index is disabled or there is none for the repository
+     * @throws IOException on error
+     */
+    @Nullable
+    public static List<HistoryEntry> getRecentChangesets(RepositoryInfo repository, @Nullable String path,
+                                                         int maxResults) throws IOException {
+        Query query = path == null ? new MatchAllDocsQuery() : new PrefixQuery(new Term(FILES, path + "/"));
+        return search(repository, searcher -> {
+            List<HistoryEntry> entries = new ArrayList<>();
+            for (ScoreDoc scoreDoc : searcher.search(query, maxResults, SEQUENCE_SORT).scoreDocs) {
+                entries.add(createHistoryEntry(searcher.storedFields().document(scoreDoc.doc)));
+            }
+            return entries;
+        });
+    }
+
+    @FunctionalInterface
+    private interface SearcherFunction<T> {
+        T apply(IndexSearcher searcher) throws IOException;
+    }
+
+    @Nullable
+    private static <T> T search(RepositoryInfo repository, SearcherFunction<T> function) throws IOException {
+        // The index is not updated when disabled so it might be stale.
+        if (!RuntimeEnvironment.getInstance().isChangesetIndexEnabled()) {
+            return null;
+        }
+
+        SearcherManager searcherManager = getSearcherManager(repository);
+        if (searcherManager == null) {
+            return null;
+        }
+
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            // The index might have been removed together with the data root.
+            LOGGER.log(Level.FINE, String.format("failed to refresh changeset index for %s", repository), e);
+            Path indexDir = getIndexDirectory(repository);
+            if (indexDir != null && searcherManagers.remove(indexDir, searcherManager)) {
+                searcherManager.close();
+            }
+            return null;
+        }
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            if (!isCurrent(((DirectoryReader) searcher.getIndexReader()).getIndexCommit().getUserData())) {
+                return null;
+            }
+            return function.apply(searcher);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @VisibleForTesting
+    static List<Match> search(IndexSearcher searcher, String path, Query historyQuery, int maxResults)
+            throws IOException {
+        Query fileQuery = new TermQuery(new Term(FILES, path));
+        Query query = new BooleanQuery.Builder().
+                add(historyQuery, BooleanClause.Occur.MUST).
+                add(fileQuery, BooleanClause.Occur.FILTER).
+                build();
+
+        List<Match> matches = new ArrayList<>();
+        for (ScoreDoc scoreDoc : searcher.search(query, maxResults, SEQUENCE_SORT).scoreDocs) {
+            Document doc = searcher.storedFields().document(scoreDoc.doc);
+            long sequence = (Long) ((FieldDoc) scoreDoc).fields[0];
+            Query previousQuery = new BooleanQuery.Builder().
+                    add(fileQuery, BooleanClause.Occur.FILTER).
+                    add(LongPoint.newRangeQuery(SEQUENCE, Long.MIN_VALUE, sequence - 1), BooleanClause.Occur.FILTER).
+                    build();
+            ScoreDoc[] previous = searcher.search(previousQuery, 1, SEQUENCE_SORT).scoreDocs;
+            String previousRevision = previous.length == 0 ? null :
+                    searcher.storedFields().document(previous[0].doc, Set.of(REVISION)).get(REVISION);
+            matches.add(new Match(createHistoryEntry(doc), previousRevision));
+        }
+        return matches;
+    }
+
+    @Nullable
+    private static SearcherManager getSearcherManager(RepositoryInfo repository) throws IOException {
+        Path indexDir = getIndexDirectory(repository);
+        if (indexDir == null) {
+            return null;
+        }
+
+        SearcherManager searcherManager = searcherManagers.get(indexDir);
+        if (searcherManager != null) {
+            return searcherManager;
+        }
+
+        Directory directory = FSDirectory.open(indexDir);
+        if (!DirectoryReader.indexExists(directory)) {
+            directory.close();
+            return null;
+        }
+        searcherManager = new SearcherManager(directory, null);
+        SearcherManager previous = searcherManagers.putIfAbsent(indexDir, searcherManager);
+        if (previous != null) {
+            searcherManager.close();
+            directory.close();
+            return previous;
+        }
+        return searcherManager;
+    }
+}
@@ -18,13 +18,15 @@
  */
 
 /*
- * Copyright (c) 2005, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2005, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.indexer.history;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -35,6 +37,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.Document;
@@ -46,11 +49,13 @@ import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopFieldDocs;
+import org.jetbrains.annotations.Nullable;
 import org.opengrok.indexer.analysis.CompatibleAnalyser;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.configuration.SuperIndexSearcher;
 import org.opengrok.indexer.logger.LoggerFactory;
 import org.opengrok.indexer.search.QueryBuilder;
+import org.opengrok.indexer.util.ForbiddenSymlinkException;
 
 /**
  * Generate SCM history for directory by using the Index database. (Please note
@@ -60,6 +65,9 @@ import org.opengrok.indexer.search.QueryBuilder;
  * The sole purpose of this class is to produce history for generating RSS feed
  * for directory changes.
  *
+ * If the repositories under the directory have {@link ChangesetIndex}, the history is produced
+ * from the most recent changesets stored there instead.
+ *
  * @author Chandan
  * @author Lubos Kosco update for lucene 4.x
  */
@@ -78,7 +86,7 @@ public class DirectoryHistoryReader {
     Iterator<List<String>> citer;
     List<String> icomment;
     HistoryEntry currentEntry; // set in next()
-    History history; // set in the constructor
+    private History history; // set in the constructor
 
     private static final int MAX_RESULTS = 40;
 
@@ -92,6 +100,75 @@ public class DirectoryHistoryReader {
      * @throws IOException when index cannot be accessed
      */
     public DirectoryHistoryReader(String path) throws IOException {
+        history = getRecentChangesets(path);
+        if (history == null) {
+            history = readFromIndex(path);
+        }
+    }
+
+    /**
+     * Produce the history from the changeset indexes of the repositories, see
+     * {@link ChangesetIndex#getRecentChangesets(RepositoryInfo, String, int)}. Unlike the history produced
+     * from the index database this contains the changesets rather than the last change of each recently
+     * modified file, and does not require to read the history of the files.
+     *
+     * @param paths space separated list of directories relative to source root
+     * @return history with the most recent changesets touching the directories or {@code null}
+     * if any of the repositories in the directories lacks changeset index
+     * @throws IOException on error
+     */
+    @Nullable
+    static History getRecentChangesets(String paths) throws IOException {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+        if (!env.isHistoryCache() || !env.isChangesetIndexEnabled()) {
+            return null;
+        }
+
+        List<String> dirs = Arrays.stream(paths.split(" ")).filter(p -> !p.isEmpty()).
+                map(p -> p.endsWith("/") ? p.substring(0, p.length() - 1) : p).toList();
+        Map<String, HistoryEntry> changesets = new HashMap<>();
+        for (RepositoryInfo repositoryInfo : HistoryGuru.getInstance().getRepositories()) {
+            String repositoryPath;
+            try {
+                repositoryPath = env.getPathRelativeToSourceRoot(new File(repositoryInfo.getDirectoryName()));
+            } catch (ForbiddenSymlinkException e) {
+                continue;
+            }
+            for (String dir : dirs) {
+                boolean repositoryInDir = isSubPath(repositoryPath, dir);
+                if (!repositoryInDir && !isSubPath(dir, repositoryPath)) {
+                    continue;
+                }
+                Repository repository = HistoryGuru.getInstance().getRepository(
+                        new File(repositoryInfo.getDirectoryName()));
+                if (repository == null || !repository.isHistoryEnabled() || !repository.isWorking()) {
+                    continue;
+                }
+                List<HistoryEntry> entries = ChangesetIndex.getRecentChangesets(repository,
+                        repositoryInDir ? null : dir, MAX_RESULTS);
+                if (entries == null) {
+                    LOGGER.log(Level.FINE, "no changeset index for {0}", repository);
+                    return null;
+                }
+                for (HistoryEntry entry : entries) {
+                    entry.getFiles().removeIf(file -> dirs.stream().noneMatch(d -> isSubPath(file, d)));
+                    changesets.merge(repositoryPath + "@" + entry.getRevision(), entry, (a, b) -> a);
+                }
+            }
+        }
+
+        return new History(changesets.values().stream().
+                sorted(Comparator.comparing(HistoryEntry::getDate,
+                        Comparator.nullsLast(Comparator.reverseOrder()))).
+                limit(MAX_RESULTS).
+                collect(Collectors.toList()));
+    }
+
+    private static boolean isSubPath(String path, String dir) {
+        return dir.isEmpty() || dir.equals("/") || path.equals(dir) || path.startsWith(dir + "/");
+    }
+
+    private History readFromIndex(String path) throws IOException {
         SuperIndexSearcher searcher = null;
         try {
             // Prepare for index search.
@@ -159,7 +236,7 @@ public class DirectoryHistoryReader {
 
             // This is why we are here. Store all the constructed history entries
             // into history object.
-            history = new History(entries);
+            return new History(entries);
         } finally {
             if (searcher != null) {
                 try {
@@ -0,0 +1,158 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Summary of the last (newest) history entries of the files in single directory, stored in a file
+ * in the history cache directory corresponding to the source directory.
+ * This allows to fill the directory listing with single sequential read rather than opening
+ * the history cache file of each file in the directory.
+ */
+final class DirectoryHistorySummary {
+
+    /**
+     * Name of the summary file. The history of source files (or directories) with this name is not cached
+     * by {@link FileHistoryCache} so that the history cache files cannot collide with the summaries.
+     */
+    static final String FILE_NAME = ".OpenGrok_lastEntries";
+
+    private static final int VERSION = 1;
+
+    /**
+     * Summary of the last history entry of single file.
+     * @param revision revision of the last history entry
+     * @param description description of the last history entry, see {@link HistoryEntry#getDescription()}
+     * @param date date of the last history entry in milliseconds since the epoch
+     * @param timestamp time of the history cache update for the file in milliseconds since the epoch
+     */
+    record Entry(String revision, String description, long date, long timestamp) {
+
+        Entry(HistoryEntry historyEntry, long timestamp) {
+            this(historyEntry.getRevision(), historyEntry.getDescription(),
+                    historyEntry.getDate() == null ? 0 : historyEntry.getDate().getTime(), timestamp);
+        }
+
+        @Nullable
+        Date getDate() {
+            return date == 0 ? null : new Date(date);
+        }
+    }
+
+    private DirectoryHistorySummary() {
+        // private to enforce static
+    }
+
+    /**
+     * @param cacheDir history cache directory corresponding to source directory
+     * @return summary file for the directory
+     */
+    static File getSummaryFile(File cacheDir) {
+        return new File(cacheDir, FILE_NAME);
+    }
+
+    /**
+     * @param summaryFile summary file
+     * @return map of file names to the summaries of their last history entries, empty if the summary
+     * does not exist
+     * @throws IOException on I/O error
+     */
+    static Map<String, Entry> read(File summaryFile) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(summaryFile)))) {
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("unsupported version %d of '%s'", version, summaryFile));
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = readString(input);
+                entries.put(name, new Entry(readString(input), readString(input), input.readLong(),
+                        input.readLong()));
+            }
+        } catch (FileNotFoundException e) {
+            return entries;
+        } catch (EOFException e) {
+            throw new IOException(String.format("truncated '%s'", summaryFile), e);
+        }
+        return entries;
+    }
+
+    /**
+     * Write the summary to a temporary file and move it into place so that readers never see partial file.
+     * @param summaryFile summary file
+     * @param entries map of file names to the summaries of their last history entries
+     * @throws IOException on I/O error
+     */
+    static void write(File summaryFile, Map<String, Entry> entries) throws IOException {
+        File outputFile = File.createTempFile("ogtmp", null, summaryFile.getParentFile());
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(outputFile)))) {
+                output.writeInt(VERSION);
+                output.writeInt(entries.size());
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    writeString(output, e.getKey());
+                    writeString(output, e.getValue().revision());
+                    writeString(output, e.getValue().description());
+                    output.writeLong(e.getValue().date());
+                    output.writeLong(e.getValue().timestamp());
+                }
+            }
+            Files.move(outputFile.toPath(), summaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(outputFile.toPath());
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, @Nullable String str) throws IOException {
+        byte[] bytes = str == null ? new byte[0] : str.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2008, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2008, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2018, 2020, Chris Fraire <cfraire@me.com>.
  */
 package org.opengrok.indexer.history;
@@ -42,10 +42,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -65,6 +67,7 @@ import org.opengrok.indexer.configuration.PathAccepter;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.logger.LoggerFactory;
 import org.opengrok.indexer.search.DirectoryEntry;
+import org.opengrok.indexer.util.ForbiddenSymlinkException;
 import org.opengrok.indexer.util.Progress;
 import org.opengrok.indexer.util.Statistics;
 
@@ -77,14 +80,26 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileHistoryCache.class);
     private static final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
 
-    private static final String HISTORY_CACHE_DIR_NAME = "historycache";
-    private static final String LATEST_REV_FILE_NAME = "OpenGroklatestRev";
+    static final String HISTORY_CACHE_DIR_NAME = "historycache";
+    static final String LATEST_REV_FILE_NAME = "OpenGroklatestRev";
 
     private final PathAccepter pathAccepter = env.getPathAccepter();
 
+    /**
+     * Maximum number of directory summary entries buffered by {@link #storeFile(History, File, Repository)}
+     * before these are written out.
+     */
+    private static final int MAX_PENDING_SUMMARY_ENTRIES = 10_000;
+
     private Counter fileHistoryCacheHits;
     private Counter fileHistoryCacheMisses;
 
+    /**
+     * Summary entries of files stored via {@link #storeFile(History, File, Repository)} keyed by paths
+     * relative to source root, waiting to be written to the directory summaries in {@link #flush()}.
+     */
+    private final Map<String, DirectoryHistorySummary.Entry> pendingSummaryEntries = new HashMap<>();
+
     /**
      * Generate history cache for single renamed file.
      * @param filename file path
@@ -155,6 +170,18 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         return fileHistoryCacheHits.count();
     }
 
+    void incrementHits() {
+        if (fileHistoryCacheHits != null) {
+            fileHistoryCacheHits.increment();
+        }
+    }
+
+    void incrementMisses() {
+        if (fileHistoryCacheMisses != null) {
+            fileHistoryCacheMisses.increment();
+        }
+    }
+
     @Override
     public void optimize() {
         // nothing to do
@@ -233,13 +260,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
     }
 
     public static void writeTagsTo(File outputFile, History history) throws IOException {
-        SmileFactory smileFactory = new SmileFactory();
-        // need header to enable shared string values
-        smileFactory.configure(SmileGenerator.Feature.WRITE_HEADER, true);
-        smileFactory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, false);
-
-        ObjectMapper mapper = new SmileMapper(smileFactory);
-        ObjectWriter objectWriter = mapper.writer().forType(HashMap.class);
+        ObjectWriter objectWriter = getTagsObjectWriter();
 
         try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
             byte[] bytes = objectWriter.writeValueAsBytes(history.getTags());
@@ -247,14 +268,21 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         }
     }
 
-    private static ObjectWriter getObjectWriter() {
+    static ObjectWriter getObjectWriter() {
+        return getSmileMapper().writer().forType(HistoryEntry.class);
+    }
+
+    static ObjectWriter getTagsObjectWriter() {
+        return getSmileMapper().writer().forType(HashMap.class);
+    }
+
+    private static ObjectMapper getSmileMapper() {
         SmileFactory smileFactory = new SmileFactory();
         // need header to enable shared string values
         smileFactory.configure(SmileGenerator.Feature.WRITE_HEADER, true);
         smileFactory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, false);
 
-        ObjectMapper mapper = new SmileMapper(smileFactory);
-        return mapper.writer().forType(HistoryEntry.class);
+        return new SmileMapper(smileFactory);
     }
 
     private void safelyRename(File output, File cacheFile) throws HistoryException {
@@ -276,13 +304,63 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * Files and directories named as the directory summary are refused so that they cannot overwrite it.
+     */
+    @Override
+    File getCachedFile(File file) throws CacheException {
+        for (Path name : file.toPath()) {
+            if (name.toString().equals(DirectoryHistorySummary.FILE_NAME)) {
+                throw new CacheException(String.format("'%s' collides with history cache directory summary", file));
+            }
+        }
+        return super.getCachedFile(file);
+    }
+
     private static File getTagsFile(File file) {
         return new File(file.getAbsolutePath() + ".t");
     }
 
     @Override
     public void storeFile(History history, File file, Repository repository) throws HistoryException {
+        long timestamp = System.currentTimeMillis();
         storeFile(history, file, repository, false);
+
+        HistoryEntry lastEntry = history.getLastHistoryEntry();
+        if (lastEntry == null) {
+            return;
+        }
+
+        // The files are stored one by one during indexing so the directory summaries are updated in batches
+        // rather than rewriting the summary of the directory for each file.
+        Map<String, DirectoryHistorySummary.Entry> entries = null;
+        try {
+            String path = env.getPathRelativeToSourceRoot(file);
+            synchronized (pendingSummaryEntries) {
+                pendingSummaryEntries.put(path, new DirectoryHistorySummary.Entry(lastEntry, timestamp));
+                if (pendingSummaryEntries.size() >= MAX_PENDING_SUMMARY_ENTRIES) {
+                    entries = new HashMap<>(pendingSummaryEntries);
+                    pendingSummaryEntries.clear();
+                }
+            }
+        } catch (ForbiddenSymlinkException | IOException e) {
+            LOGGER.log(Level.WARNING, String.format("cannot update directory summary for '%s'", file), e);
+        }
+
+        if (entries != null) {
+            writeDirectorySummaries(entries);
+        }
+    }
+
+    @Override
+    public void flush() {
+        Map<String, DirectoryHistorySummary.Entry> entries;
+        synchronized (pendingSummaryEntries) {
+            entries = new HashMap<>(pendingSummaryEntries);
+            pendingSummaryEntries.clear();
+        }
+        writeDirectorySummaries(entries);
     }
 
     /**
@@ -294,7 +372,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
      * @param mergeHistory whether to merge the history with existing or store the histNew as is
      * @throws HistoryException if there was any problem with history cache generation
      */
-    private void storeFile(History histNew, File file, Repository repository, boolean mergeHistory) throws HistoryException {
+    void storeFile(History histNew, File file, Repository repository, boolean mergeHistory) throws HistoryException {
         File cacheFile;
         try {
             cacheFile = getCachedFile(file);
@@ -376,7 +454,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         safelyRename(outputFile, cacheFile);
     }
 
-    private void finishStore(Repository repository, String latestRev) throws CacheException {
+    void finishStore(Repository repository, String latestRev) throws CacheException {
         String histDir = CacheUtil.getRepositoryCacheDataDirname(repository, this);
         if (histDir == null || !(new File(histDir)).isDirectory()) {
             // If the history was not created for some reason (e.g. temporary
@@ -470,6 +548,8 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
     public void store(History history, Repository repository, String tillRevision) throws CacheException {
 
         final boolean handleRenamedFiles = repository.isHandleRenamedFiles();
+        // Any file modified after this point will be considered as not up-to-date in the directory summaries.
+        final long storeTimestamp = System.currentTimeMillis();
 
         String latestRev = null;
 
@@ -487,6 +567,10 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
             latestRev = fileMapLatestRev;
         }
 
+        if (RuntimeEnvironment.getInstance().isChangesetIndexEnabled()) {
+            storeChangesets(history, repository, getLatestCachedRevision(repository) != null);
+        }
+
         // File based history cache does not store files for individual changesets so strip them.
         history.strip();
 
@@ -517,6 +601,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
 
         final CountDownLatch latch = new CountDownLatch(regularFiles.size());
         AtomicInteger fileHistoryCount = new AtomicInteger();
+        final Set<String> failedFiles = ConcurrentHashMap.newKeySet();
         try (Progress progress = new Progress(LOGGER,
                 String.format("history cache for regular files of %s till %s", repository,
                         getRevisionString(tillRevision)),
@@ -529,6 +614,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
                     } catch (Exception ex) {
                         // We want to catch any exception since we are in a thread.
                         LOGGER.log(Level.WARNING, "doFileHistory() got exception ", ex);
+                        failedFiles.add(file);
                     } finally {
                         latch.countDown();
                         progress.increment();
@@ -546,12 +632,18 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
                     new Object[]{fileHistoryCount, repository});
         }
 
-        if (!handleRenamedFiles) {
-            finishStore(repository, latestRev);
-            return;
+        if (handleRenamedFiles) {
+            storeRenamed(history.getRenamedFiles(), repository, tillRevision, failedFiles);
         }
 
-        storeRenamed(history.getRenamedFiles(), repository, tillRevision);
+        // The history entries are sorted from newest to oldest so the first entry for each file is the last one.
+        Map<String, HistoryEntry> lastEntries = new HashMap<>();
+        map.forEach((file, fileEntries) -> {
+            if (!failedFiles.contains(file)) {
+                lastEntries.put(file, fileEntries.get(0));
+            }
+        });
+        updateDirectorySummaries(lastEntries, storeTimestamp);
 
         finishStore(repository, latestRev);
     }
@@ -563,6 +655,11 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
      * @param tillRevision end revision (can be null)
      */
     public void storeRenamed(Set<String> renamedFiles, Repository repository, String tillRevision) throws CacheException {
+        storeRenamed(renamedFiles, repository, tillRevision, ConcurrentHashMap.newKeySet());
+    }
+
+    private void storeRenamed(Set<String> renamedFiles, Repository repository, String tillRevision,
+                              Set<String> failedFiles) {
         final File root = env.getSourceRootFile();
         if (renamedFiles.isEmpty()) {
             return;
@@ -594,6 +691,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
                     } catch (Exception ex) {
                         // We want to catch any exception since we are in thread.
                         LOGGER.log(Level.WARNING, "doFileHistory() got exception ", ex);
+                        failedFiles.add(file);
                     } finally {
                         latch.countDown();
                         progress.increment();
@@ -613,7 +711,90 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
                 new Object[]{renamedFileHistoryCount.intValue(), repository});
     }
 
-    private void createDirectoriesForFiles(Set<String> files, Repository repository, String label) {
+    /**
+     * Update the summaries of last history entries for the directories of given files.
+     * @param lastEntries map of file paths relative to source root to their last history entries
+     * @param timestamp time of the history cache update for the files
+     * @see DirectoryHistorySummary
+     */
+    void updateDirectorySummaries(Map<String, HistoryEntry> lastEntries, long timestamp) {
+        writeDirectorySummaries(lastEntries.entrySet().stream().
+                collect(Collectors.toMap(Map.Entry::getKey,
+                        e -> new DirectoryHistorySummary.Entry(e.getValue(), timestamp))));
+    }
+
+    /**
+     * Write the summary entries to the summaries of their directories, each summary is rewritten once.
+     * @param entries map of file paths relative to source root to their summary entries
+     */
+    void writeDirectorySummaries(Map<String, DirectoryHistorySummary.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<String>> filesByDirectory = entries.keySet().stream().
+                collect(Collectors.groupingBy(f -> f.substring(0, Math.max(f.lastIndexOf(File.separatorChar), 0))));
+        Statistics elapsed = new Statistics();
+        for (Map.Entry<String, List<String>> dirEntry : filesByDirectory.entrySet()) {
+            File summaryFile;
+            try {
+                summaryFile = DirectoryHistorySummary.getSummaryFile(
+                        getCachedFile(new File(env.getSourceRootPath() + dirEntry.getKey())));
+            } catch (CacheException e) {
+                LOGGER.log(Level.FINER, e.getMessage());
+                continue;
+            }
+
+            updateDirectorySummary(summaryFile, summary -> {
+                for (String file : dirEntry.getValue()) {
+                    summary.put(new File(file).getName(), entries.get(file));
+                }
+            });
+        }
+        elapsed.report(LOGGER, Level.FINE, String.format("Done updating summaries for %d directories",
+                filesByDirectory.size()));
+    }
+
+    private synchronized void updateDirectorySummary(File summaryFile,
+                                                     Consumer<Map<String, DirectoryHistorySummary.Entry>> updater) {
+        if (!summaryFile.getParentFile().isDirectory()) {
+            return;
+        }
+
+        try {
+            Map<String, DirectoryHistorySummary.Entry> summary = DirectoryHistorySummary.read(summaryFile);
+            updater.accept(summary);
+            DirectoryHistorySummary.write(summaryFile, summary);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("failed to update directory summary '%s'", summaryFile), e);
+            // Make sure the stale summary will not be used.
+            if (!summaryFile.delete() && summaryFile.exists()) {
+                LOGGER.log(Level.WARNING, "failed to remove directory summary ''{0}''", summaryFile);
+            }
+        }
+    }
+
+    @Override
+    public void clearFile(String path) {
+        super.clearFile(path);
+
+        synchronized (pendingSummaryEntries) {
+            pendingSummaryEntries.remove(path);
+        }
+
+        File file = new File(path);
+        try {
+            File summaryFile = DirectoryHistorySummary.getSummaryFile(
+                    getCachedFile(new File(env.getSourceRootPath() + file.getParent())));
+            if (summaryFile.exists()) {
+                updateDirectorySummary(summaryFile, summary -> summary.remove(file.getName()));
+            }
+        } catch (CacheException e) {
+            LOGGER.log(Level.FINER, e.getMessage());
+        }
+    }
+
+    void createDirectoriesForFiles(Set<String> files, Repository repository, String label) {
 
         // The directories for the files have to be created before
         // the actual files otherwise storeFile() might be racing for
@@ -649,18 +830,14 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         if (isUpToDate(file)) {
             File cacheFile = getCachedFile(file);
             try {
-                if (fileHistoryCacheHits != null) {
-                    fileHistoryCacheHits.increment();
-                }
+                incrementHits();
                 return readHistory(cacheFile, repository);
             } catch (IOException e) {
                 LOGGER.log(Level.WARNING, String.format("Error when reading cache file '%s'", cacheFile), e);
             }
         }
 
-        if (fileHistoryCacheMisses != null) {
-            fileHistoryCacheMisses.increment();
-        }
+        incrementMisses();
 
         return null;
     }
@@ -671,22 +848,28 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         if (isUpToDate(file)) {
             File cacheFile = getCachedFile(file);
             try {
-                if (fileHistoryCacheHits != null) {
-                    fileHistoryCacheHits.increment();
-                }
+                incrementHits();
                 return readLastHistoryEntry(cacheFile);
             } catch (IOException e) {
                 LOGGER.log(Level.WARNING, String.format("Error when reading cache file '%s'", cacheFile), e);
             }
         }
 
-        if (fileHistoryCacheMisses != null) {
-            fileHistoryCacheMisses.increment();
-        }
+        incrementMisses();
 
         return null;
     }
 
+    @Override
+    public long getLastModified(File file) throws CacheException {
+        File cachedFile = getCachedFile(file);
+        if (cachedFile == null) {
+            return 0;
+        }
+        long lastModified = cachedFile.lastModified();
+        return file.lastModified() <= lastModified ? lastModified : 0;
+    }
+
     /**
      * @param file the file to check
      * @return {@code true} if the cache is up-to-date for the file, {@code false} otherwise
@@ -775,18 +958,34 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
 
         Statistics statistics = new Statistics();
 
+        // Fill as many entries as possible from the directory summaries, i.e. with single read per directory.
+        List<DirectoryEntry> remaining = new ArrayList<>();
+        Map<File, Map<String, DirectoryHistorySummary.Entry>> summaries = new HashMap<>();
+        for (DirectoryEntry directoryEntry : entries) {
+            File file = directoryEntry.getFile();
+            if (file.isDirectory()) {
+                directoryEntry.setDescription("-");
+                directoryEntry.setDate(null);
+                continue;
+            }
+
+            DirectoryHistorySummary.Entry summaryEntry = summaries.
+                    computeIfAbsent(file.getParentFile(), this::readDirectorySummary).get(file.getName());
+            if (summaryEntry != null && summaryEntry.getDate() != null &&
+                    file.lastModified() <= summaryEntry.timestamp()) {
+                directoryEntry.setDescription(summaryEntry.description());
+                directoryEntry.setDate(summaryEntry.getDate());
+            } else {
+                remaining.add(directoryEntry);
+            }
+        }
+
         final ExecutorService executor = env.getDirectoryListingExecutor();
         Set<Future<Boolean>> futures = new HashSet<>();
-        for (DirectoryEntry directoryEntry : entries) {
+        for (DirectoryEntry directoryEntry : remaining) {
             futures.add(executor.submit(() -> {
                 try {
                     File file = directoryEntry.getFile();
-                    if (file.isDirectory()) {
-                        directoryEntry.setDescription("-");
-                        directoryEntry.setDate(null);
-                        return true;
-                    }
-
                     HistoryEntry historyEntry = getLastHistoryEntry(file);
                     if (historyEntry != null && historyEntry.getDate() != null) {
                         directoryEntry.setDescription(historyEntry.getDescription());
@@ -826,6 +1025,25 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         return ret;
     }
 
+    private Map<String, DirectoryHistorySummary.Entry> readDirectorySummary(File directory) {
+        try {
+            return DirectoryHistorySummary.read(DirectoryHistorySummary.getSummaryFile(getCachedFile(directory)));
+        } catch (CacheException | IOException e) {
+            LOGGER.log(Level.FINER, String.format("cannot read directory summary for '%s'", directory), e);
+            return Map.of();
+        }
+    }
+
+    private static void storeChangesets(History history, Repository repository, boolean incremental) {
+        try {
+            ChangesetIndex.store(history, repository, incremental);
+        } catch (IOException | RuntimeException e) {
+            // The changeset index is not essential, however it must not be left incomplete.
+            LOGGER.log(Level.WARNING, String.format("failed to store changesets for %s", repository), e);
+            ChangesetIndex.clear(repository);
+        }
+    }
+
     @Override
     public void clear(RepositoryInfo repository) {
         String revPath = getRepositoryCachedRevPath(repository);
@@ -841,6 +1059,7 @@ class FileHistoryCache extends AbstractCache implements HistoryCache {
         }
 
         CacheUtil.clearCacheDir(repository, this);
+        ChangesetIndex.clear(repository);
     }
 
     @Override
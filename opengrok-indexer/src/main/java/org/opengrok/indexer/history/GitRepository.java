@@ -18,15 +18,18 @@
  */
 
 /*
- * Copyright (c) 2008, 2025, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2008, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2017, 2020, Chris Fraire <cfraire@me.com>.
  * Portions Copyright (c) 2019, Krystof Tulinger <k.tulinger@seznam.cz>.
  * Portions Copyright (c) 2023, Ric Harris <harrisric@users.noreply.github.com>.
  */
 package org.opengrok.indexer.history;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -236,6 +239,96 @@ public class GitRepository extends RepositoryWithHistoryTraversal {
         return result.success;
     }
 
+    @Override
+    @Nullable
+    InputStream getHistoryStream(String parent, String basename, String rev, long maxSize) throws IOException {
+        return openHistoryRev(new File(parent, basename).getCanonicalPath(), rev, maxSize);
+    }
+
+    /**
+     * The file might have been renamed, look it up under its original name in the revision.
+     */
+    @Nullable
+    private ObjectId findRenamedObjectId(org.eclipse.jgit.lib.Repository repository, RevTree tree,
+                                         String fullpath, String rev) throws IOException {
+        String origPath = findOriginalName(fullpath, rev);
+        if (origPath == null || Paths.get(getCanonicalDirectoryName(), origPath).toString().equals(fullpath)) {
+            return null;
+        }
+        try (TreeWalk treeWalk = TreeWalk.forPath(repository, getGitFilePath(origPath), tree)) {
+            return treeWalk == null ? null : treeWalk.getObjectId(0);
+        }
+    }
+
+    /**
+     * Open the contents of the file in given revision, following renames of the file.
+     * Small blobs are returned from memory, large blobs are streamed from the object database
+     * without copying them anywhere.
+     * In that case the returned stream keeps the JGit repository open until it is closed.
+     *
+     * @param fullpath full pathname of the file
+     * @param rev revision string
+     * @param maxSize maximum size of the contents in bytes
+     * @return stream with the contents or {@code null} if the file does not exist in the revision
+     * @throws IOException if the contents are larger than {@code maxSize} or cannot be read
+     */
+    @Nullable
+    private InputStream openHistoryRev(String fullpath, String rev, long maxSize) throws IOException {
+        String filename = getGitFilePath(Paths.get(getCanonicalDirectoryName()).
+                relativize(Paths.get(fullpath)).toString());
+
+        org.eclipse.jgit.lib.Repository repository = getJGitRepository(getDirectoryName());
+        boolean streaming = false;
+        try {
+            ObjectId commitId = repository.resolve(rev);
+            if (commitId == null) {
+                LOGGER.log(Level.FINEST, "Cannot resolve revision {0} in {1}", new Object[] {rev, this});
+                return null;
+            }
+
+            ObjectId objectId;
+            try (RevWalk revWalk = new RevWalk(repository)) {
+                RevTree tree = revWalk.parseCommit(commitId).getTree();
+                try (TreeWalk treeWalk = TreeWalk.forPath(repository, filename, tree)) {
+                    objectId = treeWalk != null ? treeWalk.getObjectId(0) :
+                            findRenamedObjectId(repository, tree, fullpath, rev);
+                }
+            }
+            if (objectId == null) {
+                LOGGER.log(Level.FINEST, "Did not find expected file ''{0}'' in revision {1} for {2}",
+                        new Object[] {filename, rev, this});
+                return null;
+            }
+
+            ObjectLoader loader = repository.open(objectId, Constants.OBJ_BLOB);
+            if (loader.getSize() > maxSize) {
+                throw new IOException(String.format("revision %s of '%s' is larger than %d bytes",
+                        rev, filename, maxSize));
+            }
+            if (!loader.isLarge()) {
+                return new ByteArrayInputStream(loader.getCachedBytes());
+            }
+
+            final org.eclipse.jgit.lib.Repository streamRepository = repository;
+            InputStream in = new FilterInputStream(loader.openStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        streamRepository.close();
+                    }
+                }
+            };
+            streaming = true;
+            return in;
+        } finally {
+            if (!streaming) {
+                repository.close();
+            }
+        }
+    }
+
     private String getPathRelativeToCanonicalRepositoryRoot(String fullPath) throws IOException {
         String repoPath = getCanonicalDirectoryName() + File.separator;
         if (fullPath.startsWith(repoPath)) {
@@ -274,7 +367,8 @@ public class GitRepository extends RepositoryWithHistoryTraversal {
             walk.markStart(walk.parseCommit(repository.resolve(Constants.HEAD)));
             walk.markUninteresting(walk.lookupCommit(repository.resolve(changeset)));
 
-            Config config = repository.getConfig();
+            // The repository is shared so set the option on a child configuration.
+            Config config = new Config(repository.getConfig());
             config.setBoolean("diff", null, "renames", true);
             org.eclipse.jgit.diff.DiffConfig dc = config.get(org.eclipse.jgit.diff.DiffConfig.KEY);
             FollowFilter followFilter = FollowFilter.create(getGitFilePath(fileInRepo), dc);
@@ -575,7 +669,8 @@ public class GitRepository extends RepositoryWithHistoryTraversal {
         String relativePath = RuntimeEnvironment.getInstance().getPathRelativeToSourceRoot(file);
         if (!getDirectoryNameRelative().equals(relativePath)) {
             if (isHandleRenamedFiles()) {
-                Config config = repository.getConfig();
+                // The repository is shared so set the option on a child configuration.
+                Config config = new Config(repository.getConfig());
                 config.setBoolean("diff", null, "renames", true);
                 org.eclipse.jgit.diff.DiffConfig dc = config.get(org.eclipse.jgit.diff.DiffConfig.KEY);
                 FollowFilter followFilter = FollowFilter.create(getGitFilePath(getRepoRelativePath(file)), dc);
@@ -730,7 +825,18 @@ public class GitRepository extends RepositoryWithHistoryTraversal {
         return null;
     }
 
+    /**
+     * Get JGit repository from the shared pool. The caller is expected to close the returned object
+     * which only releases the reference to it.
+     * @param directory repository directory
+     * @return JGit repository object
+     * @throws IOException on error
+     */
     private org.eclipse.jgit.lib.Repository getJGitRepository(String directory) throws IOException {
+        return JGitRepositoryPool.getInstance().get(directory, () -> openJGitRepository(directory));
+    }
+
+    private org.eclipse.jgit.lib.Repository openJGitRepository(String directory) throws IOException {
         File dotGitFile = Paths.get(directory, Constants.DOT_GIT).toFile();
         if (dotGitFile.isDirectory()) {
             return FileRepositoryBuilder.create(dotGitFile);
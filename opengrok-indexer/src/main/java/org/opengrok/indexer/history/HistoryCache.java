@@ -52,6 +52,17 @@ interface HistoryCache extends Cache {
     @Nullable
     HistoryEntry getLastHistoryEntry(File file) throws CacheException;
 
+    /**
+     * Get the time of the last update of the cached history for the given file. This is meant to be cheap
+     * compared to {@link #get(File, Repository, boolean)} so that it can be used to validate copies
+     * of the history kept elsewhere.
+     *
+     * @param file The file to check
+     * @return time in milliseconds since the epoch or 0 if the cache is not up-to-date for the file
+     * @throws CacheException on error
+     */
+    long getLastModified(File file) throws CacheException;
+
     /**
      * Store the history for a repository.
      *
@@ -81,6 +92,12 @@ interface HistoryCache extends Cache {
      */
     void storeFile(History history, File file, Repository repository) throws HistoryException;
 
+    /**
+     * Write out any data buffered by {@link #storeFile(History, File, Repository)}.
+     */
+    default void flush() {
+    }
+
     /**
      * Get the revision identifier for the latest cached revision in a repository.
      *
@@ -0,0 +1,194 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.opengrok.indexer.util.Getopt;
+
+/**
+ * Convert the history cache from the one file per source file layout used by {@link FileHistoryCache}
+ * to the pack layout used by {@link PackedHistoryCache}.
+ * <p>
+ * The repositories are recognized by the presence of the file with latest cached revision
+ * in the top level cache directory of the repository. The original history cache is left intact.
+ * </p>
+ */
+@SuppressWarnings("java:S106")
+public final class HistoryCacheMigration {
+
+    private static final String NAME = "HistoryCacheMigration";
+
+    private HistoryCacheMigration() {
+    }
+
+    /**
+     * Migrate all repositories found in the history cache directory.
+     * @param historyCacheDir top level directory of {@link FileHistoryCache}
+     * @param historyPackDir top level directory of {@link PackedHistoryCache}
+     * @return number of migrated files
+     * @throws IOException on I/O error
+     */
+    public static int migrate(Path historyCacheDir, Path historyPackDir) throws IOException {
+        List<Path> repositoryDirs;
+        try (Stream<Path> stream = Files.walk(historyCacheDir)) {
+            repositoryDirs = stream.filter(p -> Files.isRegularFile(p.resolve(FileHistoryCache.LATEST_REV_FILE_NAME))).
+                    toList();
+        }
+
+        int count = 0;
+        for (Path repositoryDir : repositoryDirs) {
+            Path packDir = historyPackDir.resolve(historyCacheDir.relativize(repositoryDir).toString());
+            count += migrateRepository(repositoryDir, packDir);
+        }
+        return count;
+    }
+
+    private static int migrateRepository(Path repositoryDir, Path packDir) throws IOException {
+        List<Path> cacheFiles = new ArrayList<>();
+        collectCacheFiles(repositoryDir, repositoryDir, cacheFiles);
+
+        Files.createDirectories(packDir);
+        int count = 0;
+        try (HistoryPack pack = new HistoryPack(packDir)) {
+            for (Path cacheFile : cacheFiles) {
+                byte[] tags = null;
+                Path tagsFile = Path.of(cacheFile + ".t");
+                if (Files.isRegularFile(tagsFile)) {
+                    tags = Files.readAllBytes(tagsFile);
+                }
+                // The timestamp of the cache file is used to keep the up-to-date semantics.
+                String key = File.separator + repositoryDir.relativize(cacheFile);
+                pack.put(key, Files.readAllBytes(cacheFile), tags, Files.getLastModifiedTime(cacheFile).toMillis());
+                count++;
+            }
+        }
+
+        // Copy the latest revision file last so that incomplete migration is not mistaken for a valid cache.
+        Files.copy(repositoryDir.resolve(FileHistoryCache.LATEST_REV_FILE_NAME),
+                packDir.resolve(FileHistoryCache.LATEST_REV_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+
+        return count;
+    }
+
+    /**
+     * Collect the history cache files of the repository, skipping any nested repositories.
+     */
+    private static void collectCacheFiles(Path repositoryDir, Path dir, List<Path> cacheFiles) throws IOException {
+        List<Path> children;
+        try (Stream<Path> stream = Files.list(dir)) {
+            children = stream.sorted().toList();
+        }
+
+        for (Path child : children) {
+            String name = child.getFileName().toString();
+            if (Files.isDirectory(child)) {
+                if (!Files.isRegularFile(child.resolve(FileHistoryCache.LATEST_REV_FILE_NAME))) {
+                    collectCacheFiles(repositoryDir, child, cacheFiles);
+                }
+            } else if (!name.equals(FileHistoryCache.LATEST_REV_FILE_NAME) &&
+                    !name.equals(DirectoryHistorySummary.FILE_NAME) && !name.endsWith(".t") &&
+                    !name.startsWith("ogtmp")) {
+                cacheFiles.add(child);
+            }
+        }
+    }
+
+    public static void main(String[] argv) {
+        Getopt getopt = new Getopt(argv, "h?");
+
+        try {
+            getopt.parse();
+        } catch (ParseException ex) {
+            System.err.println(NAME + ": " + ex.getMessage());
+            bUsage(System.err);
+            System.exit(1);
+        }
+
+        int cmd;
+        getopt.reset();
+        while ((cmd = getopt.getOpt()) != -1) {
+            switch (cmd) {
+                case '?':
+                case 'h':
+                    aUsage(System.out);
+                    System.exit(0);
+                    break;
+                default:
+                    System.err.println("Internal Error - Not implemented option: " + (char) cmd);
+                    bUsage(System.err);
+                    System.exit(1);
+                    break;
+            }
+        }
+
+        int optind = getopt.getOptind();
+        if (optind < 0 || argv.length - optind != 1) {
+            aUsage(System.err);
+            System.exit(1);
+        }
+
+        Path dataRoot = Path.of(argv[optind]);
+        Path historyCacheDir = dataRoot.resolve(FileHistoryCache.HISTORY_CACHE_DIR_NAME);
+        if (!Files.isDirectory(historyCacheDir)) {
+            System.err.println("no history cache directory " + historyCacheDir);
+            System.exit(1);
+        }
+
+        try {
+            int count = migrate(historyCacheDir, dataRoot.resolve(PackedHistoryCache.HISTORY_PACK_DIR_NAME));
+            System.out.println("migrated history of " + count + " files");
+        } catch (IOException ex) {
+            System.err.println("failed to migrate the history cache: " + ex);
+            System.exit(1);
+        }
+    }
+
+    private static void aUsage(PrintStream out) {
+        out.println("Usage:");
+        out.println(NAME + " [-h] <data_root>");
+        out.println();
+        out.println("Convert the history cache in <data_root>/" + FileHistoryCache.HISTORY_CACHE_DIR_NAME +
+                " to <data_root>/" + PackedHistoryCache.HISTORY_PACK_DIR_NAME);
+        out.println("Set historyCacheType to PACK in the configuration afterwards.");
+        out.println();
+        out.println("OPTIONS:");
+        out.println("Help");
+        out.println("-?                   print this help message");
+        out.println("-h                   print this help message");
+        out.println();
+    }
+
+    private static void bUsage(PrintStream out) {
+        out.println("Maybe try to run " + NAME + " -h");
+    }
+}
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2005, 2025, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2005, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2017, 2020, Chris Fraire <cfraire@me.com>.
  */
 package org.opengrok.indexer.history;
@@ -56,6 +56,7 @@ import org.opengrok.indexer.analysis.AnalyzerFactory;
 import org.opengrok.indexer.analysis.AnalyzerGuru;
 import org.opengrok.indexer.configuration.CommandTimeoutType;
 import org.opengrok.indexer.configuration.Configuration.RemoteSCM;
+import org.opengrok.indexer.configuration.HistoryCacheType;
 import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
 import org.opengrok.indexer.configuration.PathAccepter;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
@@ -166,11 +167,16 @@ public final class HistoryGuru {
     }
 
     /**
-     * Set history cache to its default implementation.
+     * Set history cache to the implementation selected in the configuration.
      * @return {@link HistoryCache} instance
      */
     private HistoryCache initializeHistoryCache() {
-        HistoryCache historyCacheResult = new FileHistoryCache();
+        HistoryCache historyCacheResult;
+        if (env.getHistoryCacheType() == HistoryCacheType.PACK) {
+            historyCacheResult = new PackedHistoryCache();
+        } else {
+            historyCacheResult = new FileHistoryCache();
+        }
 
         try {
             historyCacheResult.initialize();
@@ -632,6 +638,30 @@ public final class HistoryGuru {
         return repo.getHistoryGet(parent, basename, rev);
     }
 
+    /**
+     * Get a named revision of the specified file with a limit on its size,
+     * see {@link Repository#getHistoryGet(String, String, String, long, boolean)}.
+     *
+     * @param parent The directory containing the file
+     * @param basename The name of the file
+     * @param rev The revision to get
+     * @param maxSize maximum size of the revision in bytes
+     * @param textOnly whether to refuse revisions that look binary
+     * @return An InputStream containing the named revision of the file.
+     * @throws IOException if the revision is too large, binary while {@code textOnly} is set or cannot be read
+     */
+    @Nullable
+    public InputStream getRevision(String parent, String basename, String rev, long maxSize, boolean textOnly)
+            throws IOException {
+        Repository repo = getRepository(new File(parent));
+        if (repo == null) {
+            LOGGER.log(Level.FINEST, "cannot find repository for ''{0}'' to get revision", parent);
+            return null;
+        }
+
+        return repo.getHistoryGet(parent, basename, rev, maxSize, textOnly);
+    }
+
     /**
      * @param file File object
      * @return whether it is possible to retrieve history for the file in any way
@@ -728,6 +758,25 @@ public final class HistoryGuru {
         }
     }
 
+    /**
+     * @param file file object
+     * @return time of the last update of the history cache entry for the file in milliseconds since the epoch
+     * or 0 if there is no up-to-date history cache entry for the file
+     */
+    public long getHistoryCacheLastModified(File file) {
+        if (file.isDirectory() || !useHistoryCache(file)) {
+            return 0;
+        }
+
+        try {
+            return historyCache.getLastModified(file);
+        } catch (CacheException ex) {
+            LOGGER.fine(() -> String.format("failed to get history cache timestamp for file '%s': %s",
+                    launderLog(file.toString()), ex));
+            return 0;
+        }
+    }
+
     /**
      * Check if annotation can be produced for the specified file. If related document is specified,
      * it will be used for negative check. If the document indicates that the type of file is xref-able
@@ -1056,6 +1105,15 @@ public final class HistoryGuru {
         }
     }
 
+    /**
+     * Write out the data buffered by the history cache during {@link #storeHistory(File, History)} calls.
+     */
+    public void flushHistoryCache() {
+        if (historyCache != null) {
+            historyCache.flush();
+        }
+    }
+
     private void createHistoryCache(Repository repository, String sinceRevision) throws CacheException, HistoryException {
         if (!repository.isHistoryCacheEnabled()) {
             LOGGER.log(Level.INFO,
@@ -1343,6 +1401,7 @@ public final class HistoryGuru {
         Set<Repository> removedRepos = repos.stream().map(repositories::remove)
             .filter(Objects::nonNull).collect(Collectors.toSet());
         repositoryLookup.repositoriesRemoved(removedRepos);
+        removedRepos.forEach(repo -> JGitRepositoryPool.getInstance().remove(repo.getDirectoryName()));
         // Re-map the repository roots.
         repositoryRoots.clear();
         List<Repository> ccopy = new ArrayList<>(repositories.values());
@@ -1461,6 +1520,15 @@ public final class HistoryGuru {
         repositoryRoots.clear();
         repositories.clear();
         repositoryLookup.clear();
+        JGitRepositoryPool.getInstance().clear();
+    }
+
+    /**
+     * Release the resources held open for the repositories, i.e. the pooled JGit repositories.
+     * To be called when the application is shutting down.
+     */
+    public void shutdown() {
+        JGitRepositoryPool.getInstance().shutdown();
     }
 
     /**
@@ -0,0 +1,546 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.logger.LoggerFactory;
+
+/**
+ * Storage of per file history data of single repository in a handful of append-only pack files.
+ * <p>
+ * The data is stored in segment files ({@code history-NNNNN.pack}), each record being the serialized
+ * history of a file (in the same Smile format as used by {@link FileHistoryCache}) optionally followed
+ * by serialized tags. The location of the newest record for given repository relative path is kept
+ * in an append-only index file ({@code history.idx}) which is memory mapped on load.
+ * Records superseded by newer records are garbage that is reclaimed by {@link #compact(double)}.
+ * </p>
+ * <p>
+ * The index is reloaded incrementally when it grows, e.g. when the indexer appends to it while the webapp
+ * is serving requests. Compaction replaces the index file, which triggers full reload in the readers.
+ * </p>
+ */
+final class HistoryPack implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryPack.class);
+
+    static final String INDEX_FILE_NAME = "history.idx";
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".pack";
+
+    /**
+     * Maximum size of single segment file. Needs to be below 2 GiB so that the offsets fit into an {@code int}
+     * and the segment can be mapped in one go.
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 256 * 1024 * 1024;
+
+    private static final int TOMBSTONE = -1;
+    private static final int NO_TAGS = -1;
+
+    /**
+     * Location of history record in the segment files.
+     * @param segment segment number
+     * @param offset offset of the record in the segment
+     * @param length length of the record, {@link #TOMBSTONE} for removed entries
+     * @param timestamp time of the write in milliseconds since the epoch
+     */
+    record Location(int segment, int offset, int length, long timestamp) {
+    }
+
+    /**
+     * Serialized history data for single file.
+     * @param history serialized history entries
+     * @param tags serialized tags, can be {@code null}
+     * @param timestamp time of the write in milliseconds since the epoch
+     */
+    record Entry(byte[] history, byte[] tags, long timestamp) {
+    }
+
+    private final Path dir;
+    private final String indexFileName;
+    private final int segmentSize;
+    private final int firstSegment;
+
+    private final Map<String, Location> locations = new ConcurrentHashMap<>();
+    private final Map<Integer, MappedByteBuffer> segmentBuffers = new ConcurrentHashMap<>();
+
+    // Index state as seen by the readers. Guarded by this.
+    private volatile long indexLength;
+    private volatile Object indexFileKey;
+    private long totalBytes;
+    private long liveBytes;
+
+    // Writer state. Guarded by this.
+    private volatile boolean writing;
+    private DataOutputStream indexOut;
+    private DataOutputStream segmentOut;
+    private int currentSegment = -1;
+    private long currentSegmentSize;
+    private boolean dirty;
+
+    HistoryPack(Path dir) {
+        this(dir, DEFAULT_SEGMENT_SIZE);
+    }
+
+    @VisibleForTesting
+    HistoryPack(Path dir, int segmentSize) {
+        this(dir, INDEX_FILE_NAME, segmentSize, -1);
+    }
+
+    /**
+     * @param dir directory with the pack files
+     * @param indexFileName name of the index file
+     * @param segmentSize maximum size of segment file
+     * @param firstSegment number of the segment to start writing to, -1 means the last existing segment
+     */
+    private HistoryPack(Path dir, String indexFileName, int segmentSize, int firstSegment) {
+        this.dir = dir;
+        this.indexFileName = indexFileName;
+        this.segmentSize = segmentSize;
+        this.firstSegment = firstSegment;
+    }
+
+    Path getDirectory() {
+        return dir;
+    }
+
+    private Path getIndexPath() {
+        return dir.resolve(indexFileName);
+    }
+
+    private Path getSegmentPath(int segment) {
+        return dir.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @param path repository relative path
+     * @return location of the newest record for the path or {@code null} if there is none
+     * @throws IOException on I/O error
+     */
+    @Nullable
+    Location getLocation(String path) throws IOException {
+        refresh();
+        Location location = locations.get(path);
+        if (location == null || location.length() == TOMBSTONE) {
+            return null;
+        }
+        return location;
+    }
+
+    /**
+     * @param path repository relative path
+     * @return serialized history data for the path or {@code null} if there is none
+     * @throws IOException on I/O error
+     */
+    @Nullable
+    Entry get(String path) throws IOException {
+        Location location = getLocation(path);
+        if (location == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (dirty) {
+                flush();
+            }
+        }
+
+        ByteBuffer buffer = getSegmentBuffer(location.segment(), location.offset() + location.length());
+        if (buffer == null) {
+            // The index is ahead of the segment data, e.g. when the writer has not flushed the segment yet.
+            return null;
+        }
+
+        try {
+            int offset = location.offset();
+            int historyLength = buffer.getInt(offset);
+            offset += Integer.BYTES;
+            byte[] history = new byte[historyLength];
+            buffer.get(offset, history);
+            offset += historyLength;
+            byte[] tags = null;
+            int tagsLength = buffer.getInt(offset);
+            offset += Integer.BYTES;
+            if (tagsLength != NO_TAGS) {
+                tags = new byte[tagsLength];
+                buffer.get(offset, tags);
+            }
+            return new Entry(history, tags, location.timestamp());
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException(String.format("corrupted record for '%s' in %s", path, dir), e);
+        }
+    }
+
+    /**
+     * @param segment segment number
+     * @param minSize minimum size of the mapping
+     * @return read-only buffer mapping the segment or {@code null} if the segment file is shorter
+     * than {@code minSize}
+     */
+    @Nullable
+    private ByteBuffer getSegmentBuffer(int segment, int minSize) throws IOException {
+        MappedByteBuffer buffer = segmentBuffers.get(segment);
+        if (buffer != null && buffer.capacity() >= minSize) {
+            return buffer;
+        }
+
+        // The segment is either not mapped yet or has grown since it was mapped.
+        try (FileChannel channel = FileChannel.open(getSegmentPath(segment), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < minSize) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            // The segment was likely removed by compaction.
+            return null;
+        }
+        segmentBuffers.put(segment, buffer);
+        return buffer;
+    }
+
+    /**
+     * Bring the in-memory index up to date with the index file.
+     * @throws IOException on I/O error
+     */
+    void refresh() throws IOException {
+        if (writing) {
+            // The writer keeps the in-memory index up to date itself.
+            return;
+        }
+
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(getIndexPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (indexLength > 0) {
+                synchronized (this) {
+                    reset();
+                }
+            }
+            return;
+        }
+
+        if (attrs.size() == indexLength && Objects.equals(attrs.fileKey(), indexFileKey)) {
+            return;
+        }
+
+        synchronized (this) {
+            if (dirty) {
+                flush();
+            }
+            load(attrs);
+        }
+    }
+
+    private void reset() {
+        locations.clear();
+        segmentBuffers.clear();
+        indexLength = 0;
+        indexFileKey = null;
+        totalBytes = 0;
+        liveBytes = 0;
+    }
+
+    /**
+     * Read the index file into memory. If the index file was only appended to since the last load,
+     * only the new records are read.
+     */
+    private synchronized void load(BasicFileAttributes attrs) throws IOException {
+        long size = attrs.size();
+        long start = indexLength;
+        if (!Objects.equals(attrs.fileKey(), indexFileKey) || size < indexLength) {
+            reset();
+            start = 0;
+        }
+        if (size == start) {
+            indexFileKey = attrs.fileKey();
+            return;
+        }
+
+        long consumed;
+        try (FileChannel channel = FileChannel.open(getIndexPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size - start);
+            consumed = readIndexRecords(buffer);
+        }
+
+        indexLength = start + consumed;
+        indexFileKey = attrs.fileKey();
+    }
+
+    /**
+     * @param buffer buffer with index records
+     * @return number of bytes consumed, i.e. up to the last complete record
+     */
+    private long readIndexRecords(ByteBuffer buffer) {
+        int position = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                int pathLength = Short.toUnsignedInt(buffer.getShort());
+                byte[] pathBytes = new byte[pathLength];
+                buffer.get(pathBytes);
+                Location location = new Location(buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                        buffer.getLong());
+                position = buffer.position();
+                addLocation(new String(pathBytes, StandardCharsets.UTF_8), location);
+            }
+        } catch (BufferUnderflowException e) {
+            // Incomplete record at the end of the index, i.e. the writer has not flushed it completely yet.
+            LOGGER.log(Level.FINEST, "incomplete index record in {0}", dir);
+        }
+        return position;
+    }
+
+    private void addLocation(String path, Location location) {
+        Location previous = locations.put(path, location);
+        if (previous != null && previous.length() != TOMBSTONE) {
+            liveBytes -= previous.length();
+        }
+        if (location.length() != TOMBSTONE) {
+            totalBytes += location.length();
+            liveBytes += location.length();
+        }
+    }
+
+    /**
+     * Append history record for given path. The record supersedes any previous record for the same path.
+     * @param path repository relative path
+     * @param history serialized history entries
+     * @param tags serialized tags, can be {@code null}
+     * @param timestamp timestamp of the record
+     * @throws IOException on I/O error
+     */
+    synchronized void put(String path, byte[] history, byte[] tags, long timestamp) throws IOException {
+        refresh();
+        int length = Integer.BYTES + history.length + Integer.BYTES + (tags == null ? 0 : tags.length);
+        openWriter(length);
+
+        int offset = (int) currentSegmentSize;
+        segmentOut.writeInt(history.length);
+        segmentOut.write(history);
+        if (tags == null) {
+            segmentOut.writeInt(NO_TAGS);
+        } else {
+            segmentOut.writeInt(tags.length);
+            segmentOut.write(tags);
+        }
+        currentSegmentSize += length;
+
+        writeIndexRecord(path, new Location(currentSegment, offset, length, timestamp));
+    }
+
+    /**
+     * Remove the record for given path.
+     * @param path repository relative path
+     * @throws IOException on I/O error
+     */
+    synchronized void remove(String path) throws IOException {
+        if (getLocation(path) == null) {
+            return;
+        }
+        openWriter(0);
+        writeIndexRecord(path, new Location(currentSegment, 0, TOMBSTONE, System.currentTimeMillis()));
+    }
+
+    private void writeIndexRecord(String path, Location location) throws IOException {
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        if (pathBytes.length > 0xFFFF) {
+            throw new IOException(String.format("path '%s' is too long", path));
+        }
+        indexOut.writeShort(pathBytes.length);
+        indexOut.write(pathBytes);
+        indexOut.writeInt(location.segment());
+        indexOut.writeInt(location.offset());
+        indexOut.writeInt(location.length());
+        indexOut.writeLong(location.timestamp());
+        dirty = true;
+
+        addLocation(path, location);
+        indexLength += Short.BYTES + pathBytes.length + 3 * Integer.BYTES + Long.BYTES;
+    }
+
+    private void openWriter(int recordLength) throws IOException {
+        if (indexOut == null) {
+            Files.createDirectories(dir);
+            indexOut = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(getIndexPath().toFile(), true)));
+            writing = true;
+            currentSegment = firstSegment >= 0 ? firstSegment : getSegments().stream().max(Integer::compare).orElse(0);
+        }
+
+        if (segmentOut == null || (currentSegmentSize > 0 && currentSegmentSize + recordLength > segmentSize)) {
+            if (segmentOut != null) {
+                segmentOut.close();
+                currentSegment++;
+            }
+            Path segmentPath = getSegmentPath(currentSegment);
+            segmentOut = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(segmentPath.toFile(), true)));
+            currentSegmentSize = Files.size(segmentPath);
+        }
+    }
+
+    private Set<Integer> getSegments() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return Set.of();
+        }
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.map(p -> p.getFileName().toString()).
+                    filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX)).
+                    map(n -> Integer.parseInt(n.substring(SEGMENT_PREFIX.length(),
+                            n.length() - SEGMENT_SUFFIX.length()))).
+                    collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Make the written records visible to other readers. The segment data is flushed before the index
+     * so that the index never points to data that is not present in the segment files.
+     * @throws IOException on I/O error
+     */
+    synchronized void flush() throws IOException {
+        if (segmentOut != null) {
+            segmentOut.flush();
+        }
+        if (indexOut != null) {
+            indexOut.flush();
+        }
+        dirty = false;
+    }
+
+    /**
+     * @return ratio of the bytes occupied by superseded records to all bytes in the segment files
+     */
+    synchronized double getGarbageRatio() throws IOException {
+        refresh();
+        if (totalBytes == 0) {
+            return 0;
+        }
+        return (double) (totalBytes - liveBytes) / totalBytes;
+    }
+
+    /**
+     * @return number of live records
+     */
+    int size() throws IOException {
+        refresh();
+        return (int) locations.values().stream().filter(l -> l.length() != TOMBSTONE).count();
+    }
+
+    /**
+     * Rewrite the live records into new segments and replace the index atomically.
+     * @param threshold minimal garbage ratio to perform the compaction
+     * @return whether the compaction was performed
+     * @throws IOException on I/O error
+     */
+    synchronized boolean compact(double threshold) throws IOException {
+        if (getGarbageRatio() < threshold || locations.isEmpty()) {
+            return false;
+        }
+
+        flush();
+        Set<Integer> oldSegments = getSegments();
+        Map<String, Entry> live = new HashMap<>();
+        for (String path : locations.keySet()) {
+            Entry entry = get(path);
+            if (entry != null) {
+                live.put(path, entry);
+            }
+        }
+        closeWriter();
+
+        // Write the live records to segments numbered after the existing ones so that the new index
+        // never refers to the old segments. These are deleted right away: readers holding the old index
+        // can still use the segments they have already mapped, any other lookup of the old segments
+        // is a cache miss until the reader reloads the index.
+        Path newIndexPath = dir.resolve(indexFileName + ".tmp");
+        Files.deleteIfExists(newIndexPath);
+        try (HistoryPack newPack = new HistoryPack(dir, newIndexPath.getFileName().toString(), segmentSize,
+                oldSegments.stream().max(Integer::compare).orElse(0) + 1)) {
+            for (Map.Entry<String, Entry> e : live.entrySet()) {
+                newPack.put(e.getKey(), e.getValue().history(), e.getValue().tags(), e.getValue().timestamp());
+            }
+        }
+
+        Files.move(newIndexPath, getIndexPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        for (int segment : oldSegments) {
+            Files.deleteIfExists(getSegmentPath(segment));
+        }
+
+        reset();
+        refresh();
+        LOGGER.log(Level.FINE, "compacted history pack in {0}: {1} records", new Object[]{dir, live.size()});
+        return true;
+    }
+
+    private synchronized void closeWriter() throws IOException {
+        try {
+            if (segmentOut != null) {
+                segmentOut.close();
+            }
+            if (indexOut != null) {
+                indexOut.close();
+            }
+        } finally {
+            segmentOut = null;
+            indexOut = null;
+            writing = false;
+            currentSegment = -1;
+            currentSegmentSize = 0;
+            dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeWriter();
+        segmentBuffers.clear();
+    }
+}
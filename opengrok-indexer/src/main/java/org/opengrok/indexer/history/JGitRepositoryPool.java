@@ -0,0 +1,420 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.eclipse.jgit.storage.file.WindowCacheStats;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.Metrics;
+import org.opengrok.indexer.configuration.JGitConfig;
+import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
+
+/**
+ * Bounded pool of open JGit repositories keyed by directory so that the object database
+ * (pack indexes, pack file windows) is reused across history, annotation and diff requests
+ * instead of being opened and parsed again for each of them.
+ * <p>
+ * The pool holds one reference to each repository via {@link Repository#incrementOpen()}
+ * and hands out additional references so that the callers can keep using
+ * try-with-resources and {@link Repository#close()}. Evicted repositories are therefore
+ * closed only after the last caller is done with them.
+ * </p>
+ * <p>
+ * The repositories are opened and checked outside the lock of the pool so that slow file system
+ * does not block the requests for other repositories. Concurrent requests for repository that is
+ * being opened wait for it rather than opening it again. The repositories idle for longer than
+ * {@link JGitConfig#getRepositoryIdleTimeout()} are closed periodically.
+ * </p>
+ */
+final class JGitRepositoryPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JGitRepositoryPool.class);
+
+    private static final JGitRepositoryPool INSTANCE = new JGitRepositoryPool();
+
+    /**
+     * Maximum period of the sweep of idle repositories in seconds.
+     */
+    private static final int MAX_SWEEP_PERIOD = 60;
+
+    @FunctionalInterface
+    interface RepositoryOpener {
+        Repository open() throws IOException;
+    }
+
+    private static final class Handle {
+        /**
+         * Completed once the repository is opened.
+         */
+        private final CompletableFuture<Repository> repository = new CompletableFuture<>();
+        /**
+         * Set before {@link #repository} is completed.
+         */
+        @Nullable
+        private Object directoryKey;
+        private long lastUsed;
+
+        /**
+         * @return whether the repository directory was removed (and possibly cloned again) since it was opened
+         */
+        private boolean isStale(Repository repository) {
+            Object key = getDirectoryKey(repository);
+            return key == null || !key.equals(directoryKey);
+        }
+
+        /**
+         * Drop the reference held by the pool. If the repository is still being opened,
+         * this is done once it is open.
+         */
+        private void release() {
+            repository.thenAccept(Repository::close);
+        }
+    }
+
+    /**
+     * @return identity of the repository directory or {@code null} if it does not exist
+     */
+    @Nullable
+    private static Object getDirectoryKey(Repository repository) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(repository.getDirectory().toPath(),
+                    BasicFileAttributes.class);
+            return Arrays.asList(attrs.fileKey(), attrs.creationTime());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Access ordered so that the iteration starts with the least recently used repository.
+     */
+    private final Map<String, Handle> handles = new LinkedHashMap<>(16, 0.75f, true);
+
+    private WindowCacheConfig windowCacheConfig;
+    private boolean metersRegistered;
+
+    @Nullable
+    private ScheduledExecutorService sweeper;
+    @Nullable
+    private ScheduledFuture<?> sweep;
+
+    @VisibleForTesting
+    JGitRepositoryPool() {
+    }
+
+    static JGitRepositoryPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get repository for given directory. The returned repository has to be closed by the caller.
+     * @param directory directory of the repository, used as the key
+     * @param opener function to open the repository if it is not present in the pool
+     * @return JGit repository
+     * @throws IOException if the repository cannot be opened
+     */
+    Repository get(String directory, RepositoryOpener opener) throws IOException {
+        JGitConfig config = RuntimeEnvironment.getInstance().getJGitConfig();
+        configureWindowCache(config);
+
+        while (true) {
+            List<Handle> evicted;
+            Handle handle = null;
+            boolean opening = false;
+            synchronized (this) {
+                registerMeters();
+                evicted = evict(config, System.nanoTime());
+                if (config.getRepositoryPoolSize() > 0) {
+                    handle = handles.get(directory);
+                    if (handle == null) {
+                        handle = new Handle();
+                        handles.put(directory, handle);
+                        evicted.addAll(trim(config.getRepositoryPoolSize()));
+                        scheduleSweep(config);
+                        opening = true;
+                    }
+                    handle.lastUsed = System.nanoTime();
+                }
+            }
+
+            // Closing the evicted repositories only drops the reference held by the pool.
+            evicted.forEach(Handle::release);
+
+            if (handle == null) {
+                return opener.open();
+            }
+            if (opening) {
+                open(directory, handle, opener);
+            }
+            Repository repository = acquire(directory, handle, !opening);
+            if (repository != null) {
+                return repository;
+            }
+            // The repository was evicted or found stale in the meantime.
+        }
+    }
+
+    private void open(String directory, Handle handle, RepositoryOpener opener) throws IOException {
+        try {
+            Repository repository = opener.open();
+            handle.directoryKey = getDirectoryKey(repository);
+            handle.repository.complete(repository);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                handles.remove(directory, handle);
+            }
+            handle.repository.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @param directory directory of the repository
+     * @param handle handle of the repository
+     * @param checkStale whether to check if the repository directory was removed
+     * @return repository with reference for the caller or {@code null} if the handle is no longer usable
+     * @throws IOException if the repository failed to open
+     */
+    @Nullable
+    private Repository acquire(String directory, Handle handle, boolean checkStale) throws IOException {
+        Repository repository;
+        try {
+            repository = handle.repository.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("interrupted while opening JGit repository for '%s'",
+                    directory));
+        } catch (ExecutionException e) {
+            throw new IOException(String.format("failed to open JGit repository for '%s'", directory), e.getCause());
+        }
+
+        synchronized (this) {
+            // The pool holds its reference as long as the handle is in the pool.
+            if (handles.get(directory) != handle) {
+                return null;
+            }
+            repository.incrementOpen();
+        }
+
+        if (checkStale && handle.isStale(repository)) {
+            LOGGER.log(Level.FINE, "JGit repository for ''{0}'' was removed, opening it again", directory);
+            remove(directory, handle);
+            repository.close();
+            return null;
+        }
+        return repository;
+    }
+
+    /**
+     * @return number of repositories currently held by the pool
+     */
+    synchronized int size() {
+        return handles.size();
+    }
+
+    /**
+     * Release the repository for given directory, e.g. when the repository is removed from the configuration.
+     * @param directory directory of the repository
+     */
+    void remove(String directory) {
+        Handle handle;
+        synchronized (this) {
+            handle = handles.remove(directory);
+        }
+        if (handle != null) {
+            handle.release();
+        }
+    }
+
+    private void remove(String directory, Handle handle) {
+        boolean removed;
+        synchronized (this) {
+            removed = handles.remove(directory, handle);
+        }
+        if (removed) {
+            handle.release();
+        }
+    }
+
+    /**
+     * Release all the repositories held by the pool.
+     */
+    void clear() {
+        List<Handle> evicted;
+        synchronized (this) {
+            evicted = trim(0);
+        }
+        evicted.forEach(Handle::release);
+    }
+
+    /**
+     * Release all the repositories held by the pool and stop the sweep of idle repositories.
+     * The pool can still be used afterwards.
+     */
+    void shutdown() {
+        clear();
+        synchronized (this) {
+            if (sweeper != null) {
+                sweeper.shutdownNow();
+                sweeper = null;
+                sweep = null;
+            }
+        }
+    }
+
+    /**
+     * Schedule periodic eviction of idle repositories so that these are closed even if the pool is not used.
+     * The sweep is cancelled once the pool is empty.
+     */
+    private void scheduleSweep(JGitConfig config) {
+        if (sweep != null) {
+            return;
+        }
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new OpenGrokThreadFactory("jgit-repository-sweep").newThread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long period = Math.clamp(config.getRepositoryIdleTimeout(), 1, MAX_SWEEP_PERIOD);
+        sweep = sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.SECONDS);
+    }
+
+    @VisibleForTesting
+    void sweep() {
+        List<Handle> evicted;
+        synchronized (this) {
+            evicted = evict(RuntimeEnvironment.getInstance().getJGitConfig(), System.nanoTime());
+            if (handles.isEmpty() && sweep != null) {
+                sweep.cancel(false);
+                sweep = null;
+            }
+        }
+        evicted.forEach(Handle::release);
+    }
+
+    private List<Handle> evict(JGitConfig config, long now) {
+        List<Handle> evicted = new ArrayList<>();
+        long idleTimeout = TimeUnit.SECONDS.toNanos(config.getRepositoryIdleTimeout());
+        for (Iterator<Map.Entry<String, Handle>> it = handles.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Handle> entry = it.next();
+            if (now - entry.getValue().lastUsed < idleTimeout) {
+                break;
+            }
+            LOGGER.log(Level.FINEST, "closing idle JGit repository for ''{0}''", entry.getKey());
+            evicted.add(entry.getValue());
+            it.remove();
+        }
+        evicted.addAll(trim(config.getRepositoryPoolSize()));
+        return evicted;
+    }
+
+    private List<Handle> trim(int maxSize) {
+        List<Handle> evicted = new ArrayList<>();
+        for (Iterator<Handle> it = handles.values().iterator(); it.hasNext() && handles.size() > maxSize; ) {
+            evicted.add(it.next());
+            it.remove();
+        }
+        return evicted;
+    }
+
+    /**
+     * Install the JGit window cache with the settings from the configuration if these changed.
+     * The window cache is JVM wide so this affects all the repositories.
+     */
+    private synchronized void configureWindowCache(JGitConfig config) {
+        WindowCacheConfig cacheConfig = new WindowCacheConfig();
+        if (config.getPackedGitLimit() > 0) {
+            cacheConfig.setPackedGitLimit((long) config.getPackedGitLimit() * WindowCacheConfig.MB);
+        }
+        if (config.getPackedGitOpenFiles() > 0) {
+            cacheConfig.setPackedGitOpenFiles(config.getPackedGitOpenFiles());
+        }
+        if (config.getDeltaBaseCacheLimit() > 0) {
+            cacheConfig.setDeltaBaseCacheLimit(config.getDeltaBaseCacheLimit() * WindowCacheConfig.MB);
+        }
+        cacheConfig.setPackedGitMMAP(config.isPackedGitMMAP());
+
+        WindowCacheConfig defaults = new WindowCacheConfig();
+        if (windowCacheConfig == null ? isSame(cacheConfig, defaults) : isSame(cacheConfig, windowCacheConfig)) {
+            return;
+        }
+
+        LOGGER.log(Level.INFO, "installing JGit window cache with limit {0} bytes, {1} open files",
+                new Object[]{cacheConfig.getPackedGitLimit(), cacheConfig.getPackedGitOpenFiles()});
+        cacheConfig.install();
+        windowCacheConfig = cacheConfig;
+    }
+
+    private static boolean isSame(WindowCacheConfig a, WindowCacheConfig b) {
+        return a.getPackedGitLimit() == b.getPackedGitLimit() &&
+                a.getPackedGitOpenFiles() == b.getPackedGitOpenFiles() &&
+                a.getDeltaBaseCacheLimit() == b.getDeltaBaseCacheLimit() &&
+                a.isPackedGitMMAP() == b.isPackedGitMMAP();
+    }
+
+    private void registerMeters() {
+        MeterRegistry meterRegistry = Metrics.getRegistry();
+        if (metersRegistered || meterRegistry == null) {
+            return;
+        }
+
+        Gauge.builder("git.repositories.open", this, JGitRepositoryPool::size).
+                description("number of JGit repositories held open").
+                register(meterRegistry);
+        Gauge.builder("git.pack.cache.hit.ratio", () -> WindowCacheStats.getStats().getHitRatio()).
+                description("hit ratio of the JGit pack window cache").
+                register(meterRegistry);
+        Gauge.builder("git.pack.cache.open.bytes", () -> WindowCacheStats.getStats().getOpenByteCount()).
+                description("number of bytes held in the JGit pack window cache").
+                baseUnit("bytes").
+                register(meterRegistry);
+        metersRegistered = true;
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.jetbrains.annotations.Nullable;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.search.DirectoryEntry;
+import org.opengrok.indexer.util.ForbiddenSymlinkException;
+import org.opengrok.indexer.util.Statistics;
+
+/**
+ * History cache that stores the history of all files of given repository in a {@link HistoryPack},
+ * i.e. in a couple of append-only files, rather than having one file per source file
+ * like {@link FileHistoryCache} does. The history data is looked up using memory mapped offset index
+ * keyed by repository relative path.
+ * <p>
+ * The generation of the history is shared with {@link FileHistoryCache}, only the storage differs.
+ * </p>
+ */
+class PackedHistoryCache extends FileHistoryCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackedHistoryCache.class);
+
+    static final String HISTORY_PACK_DIR_NAME = "historypack";
+
+    /**
+     * Minimal ratio of superseded records in the pack to perform compaction in {@link #optimize()}.
+     */
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    /**
+     * Pack per repository with the repository path relative to source root.
+     */
+    private record RepositoryPack(HistoryPack pack, String repositoryPath) {
+    }
+
+    private final Map<String, RepositoryPack> packs = new ConcurrentHashMap<>();
+
+    private RepositoryPack getRepositoryPack(RepositoryInfo repository) throws CacheException {
+        String dir = CacheUtil.getRepositoryCacheDataDirname(repository, this);
+        if (dir == null) {
+            throw new CacheException(String.format("failed to get cache directory path for %s", repository));
+        }
+
+        RepositoryPack repositoryPack = packs.get(dir);
+        if (repositoryPack != null) {
+            return repositoryPack;
+        }
+
+        String repositoryPath;
+        try {
+            repositoryPath = RuntimeEnvironment.getInstance().
+                    getPathRelativeToSourceRoot(new File(repository.getDirectoryName()));
+        } catch (ForbiddenSymlinkException | IOException e) {
+            throw new CacheException(String.format("Failed to get path relative to source root for '%s'",
+                    repository.getDirectoryName()), e);
+        }
+        return packs.computeIfAbsent(dir, d -> new RepositoryPack(new HistoryPack(Path.of(d)), repositoryPath));
+    }
+
+    /**
+     * @param file source file
+     * @param repositoryPack pack of the repository the file belongs to
+     * @return path of the file relative to the repository root, used as a key in the pack
+     */
+    private static String getPackKey(File file, RepositoryPack repositoryPack) throws CacheException {
+        String path;
+        try {
+            path = RuntimeEnvironment.getInstance().getPathRelativeToSourceRoot(file);
+        } catch (ForbiddenSymlinkException | IOException e) {
+            throw new CacheException(String.format("Failed to get path relative to source root for '%s'", file), e);
+        }
+
+        String repositoryPath = repositoryPack.repositoryPath();
+        if (!path.startsWith(repositoryPath)) {
+            throw new CacheException(String.format("file '%s' is not under repository '%s'", path, repositoryPath));
+        }
+        return path.substring(repositoryPath.length());
+    }
+
+    @Nullable
+    private static Repository getRepository(File file, @Nullable Repository repository) {
+        if (repository != null) {
+            return repository;
+        }
+        return HistoryGuru.getInstance().getRepository(file);
+    }
+
+    @Nullable
+    private HistoryPack.Entry getEntry(File file, @Nullable Repository repository) throws CacheException {
+        repository = getRepository(file, repository);
+        if (repository == null) {
+            return null;
+        }
+
+        RepositoryPack repositoryPack = getRepositoryPack(repository);
+        try {
+            return repositoryPack.pack().get(getPackKey(file, repositoryPack));
+        } catch (IOException e) {
+            throw new CacheException(String.format("failed to read history pack entry for '%s'", file), e);
+        }
+    }
+
+    @Nullable
+    private HistoryPack.Location getLocation(File file) throws CacheException {
+        Repository repository = getRepository(file, null);
+        if (repository == null) {
+            return null;
+        }
+
+        RepositoryPack repositoryPack = getRepositoryPack(repository);
+        try {
+            return repositoryPack.pack().getLocation(getPackKey(file, repositoryPack));
+        } catch (IOException e) {
+            throw new CacheException(String.format("failed to read history pack index for '%s'", file), e);
+        }
+    }
+
+    static List<HistoryEntry> readHistoryEntries(byte[] bytes) throws IOException {
+        SmileFactory factory = new SmileFactory();
+        ObjectMapper mapper = new SmileMapper();
+        List<HistoryEntry> historyEntryList = new ArrayList<>();
+
+        try (SmileParser parser = factory.createParser(bytes)) {
+            parser.setCodec(mapper);
+            Iterator<HistoryEntry> historyEntryIterator = parser.readValuesAs(HistoryEntry.class);
+            historyEntryIterator.forEachRemaining(historyEntryList::add);
+        }
+
+        return historyEntryList;
+    }
+
+    @Nullable
+    static HistoryEntry readLastHistoryEntry(byte[] bytes) throws IOException {
+        SmileFactory factory = new SmileFactory();
+        ObjectMapper mapper = new SmileMapper();
+
+        try (SmileParser parser = factory.createParser(bytes)) {
+            parser.setCodec(mapper);
+            Iterator<HistoryEntry> historyEntryIterator = parser.readValuesAs(HistoryEntry.class);
+            if (historyEntryIterator.hasNext()) {
+                return historyEntryIterator.next();
+            }
+        }
+
+        return null;
+    }
+
+    static Map<String, String> readTags(byte[] bytes) throws IOException {
+        SmileFactory factory = new SmileFactory();
+        ObjectMapper mapper = new SmileMapper();
+
+        try (SmileParser parser = factory.createParser(bytes)) {
+            parser.setCodec(mapper);
+            return parser.readValueAs(new TypeReference<HashMap<String, String>>() {
+            });
+        }
+    }
+
+    static byte[] writeHistoryEntries(List<HistoryEntry> entries) throws IOException {
+        ObjectWriter objectWriter = getObjectWriter();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (HistoryEntry historyEntry : entries) {
+            outputStream.write(objectWriter.writeValueAsBytes(historyEntry));
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Store {@link History} object in the pack of given repository.
+     *
+     * @param histNew history object to store
+     * @param file file to store the history object for
+     * @param repository repository for the file
+     * @param mergeHistory whether to merge the history with existing or store the histNew as is
+     * @throws HistoryException if there was any problem with history cache generation
+     */
+    @Override
+    void storeFile(History histNew, File file, Repository repository, boolean mergeHistory) throws HistoryException {
+        try {
+            RepositoryPack repositoryPack = getRepositoryPack(repository);
+            String key = getPackKey(file, repositoryPack);
+
+            if (LOGGER.isLoggable(Level.FINEST)) {
+                LOGGER.log(Level.FINEST, "writing history entries for ''{0}'' to {1}: {2}",
+                        new Object[]{key, repositoryPack.pack().getDirectory(), histNew.getRevisionList()});
+            }
+
+            boolean assignTags = repository.isTagsEnabled() && repository.hasFileBasedTags();
+
+            List<HistoryEntry> entries = new ArrayList<>(histNew.getHistoryEntries());
+            HistoryPack.Entry oldEntry = mergeHistory ? repositoryPack.pack().get(key) : null;
+            if (oldEntry != null) {
+                List<HistoryEntry> oldEntries = readHistoryEntries(oldEntry.history());
+                entries.addAll(oldEntries);
+
+                // Re-tag the changesets from scratch, see the comment in FileHistoryCache.
+                if (assignTags) {
+                    histNew.getHistoryEntries().addAll(oldEntries);
+                    histNew.strip();
+                    repository.assignTagsInHistory(histNew);
+                }
+            }
+
+            byte[] tags = null;
+            if (assignTags) {
+                tags = getTagsObjectWriter().writeValueAsBytes(histNew.getTags());
+            }
+
+            repositoryPack.pack().put(key, writeHistoryEntries(entries), tags, System.currentTimeMillis());
+        } catch (CacheException | IOException e) {
+            throw new HistoryException("Failed to write history", e);
+        }
+    }
+
+    @Override
+    void createDirectoriesForFiles(Set<String> files, Repository repository, String label) {
+        // The pack does not need directory hierarchy for the files.
+    }
+
+    @Override
+    void writeDirectorySummaries(Map<String, DirectoryHistorySummary.Entry> entries) {
+        // The pack lookups are cheap enough so that directory summaries are not needed.
+    }
+
+    @Override
+    void finishStore(Repository repository, String latestRev) throws CacheException {
+        try {
+            getRepositoryPack(repository).pack().flush();
+        } catch (IOException e) {
+            throw new CacheException(String.format("failed to flush history pack for %s", repository), e);
+        }
+        super.finishStore(repository, latestRev);
+    }
+
+    @Override
+    public History get(File file, @Nullable Repository repository, boolean withFiles) throws CacheException {
+        if (file.isDirectory()) {
+            return null;
+        }
+
+        repository = getRepository(file, repository);
+        HistoryPack.Entry entry = getEntry(file, repository);
+        if (entry != null && file.lastModified() <= entry.timestamp()) {
+            try {
+                History history = new History(readHistoryEntries(entry.history()));
+                if (repository.isTagsEnabled() && repository.hasFileBasedTags() && entry.tags() != null) {
+                    history.setTags(readTags(entry.tags()));
+                }
+                incrementHits();
+                return history;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, String.format("Error when reading history pack entry for '%s'", file), e);
+            }
+        }
+
+        incrementMisses();
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public HistoryEntry getLastHistoryEntry(File file) throws CacheException {
+        HistoryPack.Entry entry = getEntry(file, null);
+        if (entry != null && file.lastModified() <= entry.timestamp()) {
+            try {
+                incrementHits();
+                return readLastHistoryEntry(entry.history());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, String.format("Error when reading history pack entry for '%s'", file), e);
+            }
+        }
+
+        incrementMisses();
+        return null;
+    }
+
+    @Override
+    public long getLastModified(File file) throws CacheException {
+        HistoryPack.Location location = getLocation(file);
+        return location != null && file.lastModified() <= location.timestamp() ? location.timestamp() : 0;
+    }
+
+    @Override
+    public boolean isUpToDate(File file) throws CacheException {
+        HistoryPack.Location location = getLocation(file);
+        return location != null && file.lastModified() <= location.timestamp();
+    }
+
+    @Override
+    public boolean hasCacheForFile(File file) throws CacheException {
+        return getLocation(file) != null;
+    }
+
+    /**
+     * Fill the directory entries sequentially. The lookups are cheap enough (no file opening) so that
+     * it is not worth to parallelize them.
+     * @param entries list of {@link DirectoryEntry} instances
+     * @return true if all of them were filled, false otherwise in which case the date/description field
+     * for the entries will be zeroed.
+     */
+    @Override
+    public boolean fillLastHistoryEntries(List<DirectoryEntry> entries) {
+        if (entries == null) {
+            return false;
+        }
+
+        boolean ret = true;
+        Statistics statistics = new Statistics();
+        for (DirectoryEntry directoryEntry : entries) {
+            File file = directoryEntry.getFile();
+            if (file.isDirectory()) {
+                directoryEntry.setDescription("-");
+                directoryEntry.setDate(null);
+                continue;
+            }
+
+            HistoryEntry historyEntry;
+            try {
+                historyEntry = getLastHistoryEntry(file);
+            } catch (CacheException e) {
+                LOGGER.log(Level.FINER, "cannot get last history entry for ''{0}''", file);
+                ret = false;
+                break;
+            }
+            if (historyEntry == null || historyEntry.getDate() == null) {
+                LOGGER.log(Level.FINE, "cannot get last history entry for ''{0}''", file);
+                ret = false;
+                break;
+            }
+            directoryEntry.setDescription(historyEntry.getDescription());
+            directoryEntry.setDate(historyEntry.getDate());
+        }
+        statistics.report(LOGGER, Level.FINER, "done filling directory entries");
+
+        // Enforce the all-or-nothing semantics.
+        if (!ret) {
+            entries.forEach(e -> e.setDate(null));
+            entries.forEach(e -> e.setDescription(null));
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void clearFile(String path) {
+        File file = new File(RuntimeEnvironment.getInstance().getSourceRootPath() + path);
+        Repository repository = getRepository(file, null);
+        if (repository == null) {
+            LOGGER.log(Level.WARNING, "cannot get repository for ''{0}'' - the cache entry will not be cleared",
+                    path);
+            return;
+        }
+
+        try {
+            RepositoryPack repositoryPack = getRepositoryPack(repository);
+            repositoryPack.pack().remove(getPackKey(file, repositoryPack));
+        } catch (CacheException | IOException e) {
+            LOGGER.log(Level.WARNING, String.format("cannot clear history pack entry for '%s'", path), e);
+        }
+    }
+
+    @Override
+    public void clear(RepositoryInfo repository) {
+        String dir = CacheUtil.getRepositoryCacheDataDirname(repository, this);
+        if (dir != null) {
+            RepositoryPack repositoryPack = packs.remove(dir);
+            if (repositoryPack != null) {
+                try {
+                    repositoryPack.pack().close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, String.format("failed to close history pack in '%s'", dir), e);
+                }
+            }
+        }
+        super.clear(repository);
+    }
+
+    /**
+     * Reclaim the space occupied by superseded history records.
+     */
+    @Override
+    public void optimize() {
+        for (RepositoryPack repositoryPack : packs.values()) {
+            try {
+                repositoryPack.pack().compact(COMPACTION_THRESHOLD);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING,
+                        String.format("failed to compact history pack in '%s'", repositoryPack.pack().getDirectory()), e);
+            }
+        }
+    }
+
+    @Override
+    public String getCacheDirName() {
+        return HISTORY_PACK_DIR_NAME;
+    }
+}
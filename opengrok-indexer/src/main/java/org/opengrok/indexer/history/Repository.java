@@ -18,11 +18,12 @@
  */
 
 /*
- * Copyright (c) 2008, 2025, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2008, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2017, 2020, Chris Fraire <cfraire@me.com>.
  */
 package org.opengrok.indexer.history;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -62,6 +63,11 @@ public abstract class Repository extends RepositoryInfo {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Repository.class);
 
+    /**
+     * Number of bytes at the beginning of file contents checked to detect binary contents.
+     */
+    private static final int BINARY_CHECK_SIZE = 8000;
+
     /**
      * format used for printing the date in {@code currentVersion}.
      * <p>
@@ -253,6 +259,97 @@ public abstract class Repository extends RepositoryInfo {
         return null;
     }
 
+    /**
+     * Gets an {@link InputStream} of the contents of a specific version of a named file with a limit
+     * on the size of the contents. Unlike {@link #getHistoryGet(String, String, String)}, the contents
+     * are not copied into memory if the repository is able to stream them.
+     *
+     * @param parent the name of the directory containing the file
+     * @param basename the name of the file to get
+     * @param rev the revision to get
+     * @param maxSize maximum size of the contents in bytes
+     * @param textOnly whether to refuse contents that look binary
+     * @return a defined instance if contents were found; or else {@code null}
+     * @throws IOException if the contents are larger than {@code maxSize}, look binary
+     * while {@code textOnly} is set or cannot be read
+     */
+    @Nullable
+    public InputStream getHistoryGet(String parent, String basename, String rev, long maxSize, boolean textOnly)
+            throws IOException {
+        InputStream in = getHistoryStream(parent, basename, rev, maxSize);
+        if (in == null) {
+            return null;
+        }
+
+        BufferedInputStream bufferedIn = new BufferedInputStream(in, BINARY_CHECK_SIZE);
+        if (textOnly && isBinary(bufferedIn)) {
+            bufferedIn.close();
+            throw new IOException(String.format("revision %s of '%s' is binary", rev, basename));
+        }
+        return bufferedIn;
+    }
+
+    /**
+     * Subclasses able to stream the contents of a specific version of a named file
+     * should override this method. The default implementation collects the output
+     * of {@link #getHistoryGet(OutputStream, String, String, String)} into memory.
+     *
+     * @param parent the name of the directory containing the file
+     * @param basename the name of the file to get
+     * @param rev the revision to get
+     * @param maxSize maximum size of the contents in bytes
+     * @return a defined instance if contents were found; or else {@code null}
+     * @throws IOException if the contents are larger than {@code maxSize} or cannot be read
+     */
+    @Nullable
+    InputStream getHistoryStream(String parent, String basename, String rev, long maxSize) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        boolean[] exceeded = new boolean[1];
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (buffer.size() + (long) len > maxSize) {
+                    exceeded[0] = true;
+                    throw new IOException("size limit exceeded");
+                }
+                buffer.write(b, off, len);
+            }
+        };
+
+        boolean success = getHistoryGet(out, parent, basename, rev);
+        if (exceeded[0]) {
+            throw new IOException(String.format("revision %s of '%s' is larger than %d bytes",
+                    rev, basename, maxSize));
+        }
+        return success ? new ByteArrayInputStream(buffer.toByteArray()) : null;
+    }
+
+    /**
+     * Check whether the beginning of the stream contains a NUL byte, like Git does to detect binary files.
+     * @param in stream supporting mark, it is reset to the original position
+     * @return whether the contents look binary
+     * @throws IOException on I/O error
+     */
+    static boolean isBinary(InputStream in) throws IOException {
+        in.mark(BINARY_CHECK_SIZE);
+        try {
+            byte[] head = in.readNBytes(BINARY_CHECK_SIZE);
+            for (byte b : head) {
+                if (b == 0) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
     /**
      * Subclasses must override to get the contents of a specific version of a
      * named file, and copy to the specified {@code sink}.
@@ -30,13 +30,19 @@ import org.opengrok.indexer.util.Progress;
 import org.opengrok.indexer.util.Statistics;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -173,41 +179,141 @@ public abstract class RepositoryWithHistoryTraversal extends RepositoryWithPerPa
         List<String> boundaryChangesetList = new ArrayList<>(boundaryChangesets.getBoundaryChangesetIDs(sinceRevision));
         boundaryChangesetList.add(null);    // to finish the last step in the cycle below
         LOGGER.log(Level.FINE, "boundary changesets: {0}", boundaryChangesetList);
-        int cnt = 0;
-        for (String tillRevision: boundaryChangesetList) {
-            Statistics stat = new Statistics();
-            LOGGER.log(Level.FINEST, "storing history cache for revision range ({0}, {1})",
-                    new Object[]{sinceRevision, tillRevision});
-
-            HistoryCollector historyCollector = new HistoryCollector(isMergeCommitsEnabled());
-            List<ChangesetVisitor> visitors = new ArrayList<>();
-            visitors.add(historyCollector);
-            if (fileCollector != null) {
-                visitors.add(fileCollector);
+        int parallelism = env.getHistoryChunkParallelism();
+        if (parallelism > 1 && boundaryChangesetList.size() > 1) {
+            createCacheConcurrently(cache, directory, sinceRevision, boundaryChangesetList, fileCollector,
+                    parallelism);
+        } else {
+            int cnt = 0;
+            for (String tillRevision: boundaryChangesetList) {
+                Statistics stat = new Statistics();
+                LOGGER.log(Level.FINEST, "storing history cache for revision range ({0}, {1})",
+                        new Object[]{sinceRevision, tillRevision});
+
+                History history = getHistoryChunk(directory, sinceRevision, tillRevision, fileCollector);
+                finishCreateCacheChunk(cache, history, tillRevision);
+                sinceRevision = tillRevision;
+                stat.report(LOGGER, Level.FINE, String.format("Finished chunk %d/%d of history cache for repository '%s'",
+                        ++cnt, boundaryChangesetList.size(), this.getDirectoryName()));
             }
+        }
 
-            try (Progress progress = new Progress(LOGGER,
-                    String.format("changesets traversed of %s (range %s %s)", this, sinceRevision, tillRevision),
-                    Level.FINER)) {
-                ProgressVisitor progressVisitor = new ProgressVisitor(progress);
-                visitors.add(progressVisitor);
-                traverseHistory(directory, sinceRevision, tillRevision, null, visitors);
-            }
-            History history = new History(historyCollector.entries, historyCollector.renamedFiles,
-                    historyCollector.latestRev);
+        updateFileCollector(fileCollector, project);
+    }
 
-            // Assign tags to changesets they represent.
-            if (this.isTagsEnabled() && hasFileBasedTags()) {
-                assignTagsInHistory(history);
+    private record HistoryChunk(String tillRevision, @Nullable FileCollector fileCollector, Future<History> future) {
+    }
+
+    /**
+     * Traverse the revision ranges delimited by the boundary changesets concurrently and store
+     * the resulting histories in the original order so that the history cache is updated
+     * the same way as if the chunks were processed sequentially.
+     * At most {@code parallelism} traversed chunks are waiting to be stored at any time.
+     */
+    private void createCacheConcurrently(HistoryCache cache, File directory, String sinceRevision,
+                                         List<String> boundaryChangesetList, @Nullable FileCollector fileCollector,
+                                         int parallelism) throws HistoryException, CacheException {
+
+        ExecutorService executor = RuntimeEnvironment.getInstance().getIndexerParallelizer().
+                getHistoryChunkExecutor();
+        Iterator<String> iterator = boundaryChangesetList.iterator();
+        Deque<HistoryChunk> pending = new ArrayDeque<>();
+        int cnt = 0;
+        try {
+            sinceRevision = submitHistoryChunks(executor, directory, sinceRevision, iterator, pending,
+                    fileCollector != null, parallelism);
+            while (!pending.isEmpty()) {
+                Statistics stat = new Statistics();
+                HistoryChunk chunk = pending.remove();
+                History history = getHistoryChunk(chunk);
+                // Keep the executor busy while the history is being stored.
+                sinceRevision = submitHistoryChunks(executor, directory, sinceRevision, iterator, pending,
+                        fileCollector != null, parallelism);
+
+                if (fileCollector != null && chunk.fileCollector() != null) {
+                    fileCollector.addFiles(chunk.fileCollector().getFiles());
+                }
+                finishCreateCacheChunk(cache, history, chunk.tillRevision());
+                stat.report(LOGGER, Level.FINE, String.format("Finished chunk %d/%d of history cache for repository '%s'",
+                        ++cnt, boundaryChangesetList.size(), this.getDirectoryName()));
             }
+        } finally {
+            pending.forEach(chunk -> chunk.future().cancel(true));
+        }
+    }
 
-            finishCreateCache(cache, history, tillRevision);
+    private String submitHistoryChunks(ExecutorService executor, File directory, String sinceRevision,
+                                       Iterator<String> iterator, Deque<HistoryChunk> pending,
+                                       boolean collectFiles, int parallelism) {
+        while (iterator.hasNext() && pending.size() < parallelism) {
+            final String chunkSinceRevision = sinceRevision;
+            final String tillRevision = iterator.next();
+            LOGGER.log(Level.FINEST, "submitting history traversal for revision range ({0}, {1})",
+                    new Object[]{chunkSinceRevision, tillRevision});
+            // The file collectors are merged in order by the storing thread.
+            FileCollector chunkFileCollector = collectFiles ? new FileCollector(true) : null;
+            pending.add(new HistoryChunk(tillRevision, chunkFileCollector, executor.submit(() ->
+                    getHistoryChunk(directory, chunkSinceRevision, tillRevision, chunkFileCollector))));
             sinceRevision = tillRevision;
-            stat.report(LOGGER, Level.FINE, String.format("Finished chunk %d/%d of history cache for repository '%s'",
-                    ++cnt, boundaryChangesetList.size(), this.getDirectoryName()));
         }
+        return sinceRevision;
+    }
 
-        updateFileCollector(fileCollector, project);
+    private History getHistoryChunk(HistoryChunk chunk) throws HistoryException {
+        try {
+            return chunk.future().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HistoryException(String.format("interrupted while getting history of %s up to revision %s",
+                    this, chunk.tillRevision()), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HistoryException historyException) {
+                throw historyException;
+            }
+            throw new HistoryException(String.format("failed to get history of %s up to revision %s",
+                    this, chunk.tillRevision()), e.getCause());
+        }
+    }
+
+    /**
+     * Traverse the changesets in given revision range.
+     * @param directory repository directory
+     * @param sinceRevision start revision (non-inclusive)
+     * @param tillRevision end revision (inclusive)
+     * @param fileCollector optional file collector to visit the changesets
+     * @return history of the revision range without tags
+     * @throws HistoryException on error
+     */
+    private History getHistoryChunk(File directory, String sinceRevision, @Nullable String tillRevision,
+                                    @Nullable FileCollector fileCollector) throws HistoryException {
+
+        HistoryCollector historyCollector = new HistoryCollector(isMergeCommitsEnabled());
+        List<ChangesetVisitor> visitors = new ArrayList<>();
+        visitors.add(historyCollector);
+        if (fileCollector != null) {
+            visitors.add(fileCollector);
+        }
+
+        try (Progress progress = new Progress(LOGGER,
+                String.format("changesets traversed of %s (range %s %s)", this, sinceRevision, tillRevision),
+                Level.FINER)) {
+            ProgressVisitor progressVisitor = new ProgressVisitor(progress);
+            visitors.add(progressVisitor);
+            traverseHistory(directory, sinceRevision, tillRevision, null, visitors);
+        }
+        return new History(historyCollector.entries, historyCollector.renamedFiles, historyCollector.latestRev);
+    }
+
+    private void finishCreateCacheChunk(HistoryCache cache, History history, @Nullable String tillRevision)
+            throws CacheException {
+
+        // Assign tags to changesets they represent. This is done in the storing thread
+        // as the list of tags is refreshed when storing the history.
+        if (this.isTagsEnabled() && hasFileBasedTags()) {
+            assignTagsInHistory(history);
+        }
+
+        finishCreateCache(cache, history, tillRevision);
     }
 
     private void updateFileCollector(FileCollector fileCollector, Project project) {
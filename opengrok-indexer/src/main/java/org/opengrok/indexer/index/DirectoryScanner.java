@@ -0,0 +1,237 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lists the directories for a depth-first traversal of a directory tree done by single thread.
+ * <p>
+ * If a fork-join pool is supplied, the entries of each directory are examined concurrently and, once
+ * a directory is listed, the listings of its subdirectories are computed in the pool ahead of the traversal.
+ * This helps when the traversal is bound by the latency of the file system (e.g. NFS) rather than by CPU.
+ * The entries of each listing are sorted, so the traversal visits the files in the same order
+ * as it would with single thread.
+ * </p>
+ * <p>
+ * Only the listings of the siblings of the directories on the current path of the traversal are computed
+ * ahead, so the memory used for the listings stays bounded.
+ * </p>
+ */
+final class DirectoryScanner implements AutoCloseable {
+
+    /**
+     * Number of entries below which the entries of a directory are examined by single task.
+     */
+    private static final int STAT_THRESHOLD = 16;
+
+    /**
+     * Directory entry with the results of {@code stat}.
+     * @param file file object
+     * @param isSymbolicLink whether the file is a symbolic link
+     * @param isDirectory whether the file (or the target of the symbolic link) is a directory
+     * @param isFile whether the file (or the target of the symbolic link) is a regular file
+     */
+    record Entry(File file, boolean isSymbolicLink, boolean isDirectory, boolean isFile) {
+    }
+
+    @Nullable
+    private final ForkJoinPool pool;
+    private final Comparator<File> comparator;
+    private final Predicate<Entry> filter;
+    private final Map<File, ForkJoinTask<Entry[]>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param pool pool for listing the directories or {@code null} to list them in the calling thread
+     * @param comparator order of the entries of each directory
+     * @param filter directories to be listed ahead of the traversal (and to descend into in
+     * {@link #walk(File, Consumer)})
+     */
+    DirectoryScanner(@Nullable ForkJoinPool pool, Comparator<File> comparator, Predicate<Entry> filter) {
+        this.pool = pool;
+        this.comparator = comparator;
+        this.filter = filter;
+    }
+
+    /**
+     * @param dir directory
+     * @return sorted entries of the directory or {@code null} if the directory cannot be listed
+     */
+    @Nullable
+    Entry[] list(File dir) {
+        if (pool == null) {
+            return listDirectory(dir, comparator);
+        }
+
+        ForkJoinTask<Entry[]> task = pending.remove(dir);
+        Entry[] entries = task != null ? task.join() : pool.invoke(new ListTask(dir));
+        if (entries != null) {
+            for (Entry entry : entries) {
+                if (entry.isDirectory() && filter.test(entry)) {
+                    pending.put(entry.file(), pool.submit(new ListTask(entry.file())));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Traverse the directory tree in depth-first order. The directories matching the filter are descended into
+     * unless they are symbolic links, the rest of the entries is passed to the visitor.
+     * @param dir root of the tree
+     * @param visitor visitor of the entries other than the directories
+     */
+    void walk(File dir, Consumer<Entry> visitor) {
+        Entry[] entries = list(dir);
+        if (entries == null) {
+            return;
+        }
+
+        for (Entry entry : entries) {
+            if (entry.isDirectory() && !entry.isSymbolicLink()) {
+                if (filter.test(entry)) {
+                    walk(entry.file(), visitor);
+                }
+            } else {
+                visitor.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * Cancel the listings computed ahead that were not used by the traversal.
+     */
+    @Override
+    public void close() {
+        pending.values().forEach(task -> task.cancel(false));
+        pending.clear();
+    }
+
+    /**
+     * List the directory in the calling thread.
+     * @param dir directory
+     * @param comparator order of the entries
+     * @return sorted entries of the directory or {@code null} if the directory cannot be listed
+     */
+    @Nullable
+    static Entry[] listDirectory(File dir, Comparator<File> comparator) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return null;
+        }
+        Arrays.sort(files, comparator);
+        Entry[] entries = new Entry[files.length];
+        for (int i = 0; i < files.length; i++) {
+            entries[i] = stat(files[i]);
+        }
+        return entries;
+    }
+
+    private static Entry stat(File file) {
+        Path path = file.toPath();
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+            if (!attrs.isSymbolicLink()) {
+                return new Entry(file, false, attrs.isDirectory(), attrs.isRegularFile());
+            }
+        } catch (IOException e) {
+            return new Entry(file, false, false, false);
+        }
+
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Entry(file, true, attrs.isDirectory(), attrs.isRegularFile());
+        } catch (IOException e) {
+            // dangling symbolic link
+            return new Entry(file, true, false, false);
+        }
+    }
+
+    private final class ListTask extends RecursiveTask<Entry[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient File dir;
+
+        ListTask(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected Entry[] compute() {
+            File[] files = dir.listFiles();
+            if (files == null) {
+                return null;
+            }
+            Arrays.sort(files, comparator);
+            Entry[] entries = new Entry[files.length];
+            new StatTask(files, entries, 0, files.length).invoke();
+            return entries;
+        }
+    }
+
+    private static final class StatTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient File[] files;
+        private final transient Entry[] entries;
+        private final int from;
+        private final int to;
+
+        StatTask(File[] files, Entry[] entries, int from, int to) {
+            this.files = files;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= STAT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    entries[i] = stat(files[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new StatTask(files, entries, from, middle), new StatTask(files, entries, middle, to));
+        }
+    }
+}
@@ -26,13 +26,13 @@ package org.opengrok.indexer.index;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,18 +43,25 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
+import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexNotFoundException;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiBits;
 import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
@@ -64,6 +71,7 @@ import org.apache.lucene.store.NoLockFactory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.Version;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.opengrok.indexer.analysis.Definitions;
 import org.opengrok.indexer.configuration.Configuration;
@@ -71,6 +79,7 @@ import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.logger.LoggerFactory;
 import org.opengrok.indexer.search.QueryBuilder;
+import org.opengrok.indexer.util.Progress;
 import org.opengrok.indexer.util.Statistics;
 import org.opengrok.indexer.web.Util;
 
@@ -89,7 +98,21 @@ public class IndexCheck implements AutoCloseable {
         NO_CHECK,
         VERSION,
         DEFINITIONS,
-        DOCUMENTS
+        DOCUMENTS,
+        /**
+         * Same as {@link #DOCUMENTS} plus check that the time stamps stored in the documents
+         * match the last modified time of the files. The content of the files is not read.
+         */
+        METADATA
+    }
+
+    /**
+     * Live document in the index.
+     * @param path path of the file relative to source root
+     * @param date modification time of the file as stored in the document
+     */
+    @VisibleForTesting
+    record LiveDocument(Path path, String date) {
     }
 
     private final Configuration configuration;
@@ -274,7 +297,10 @@ public class IndexCheck implements AutoCloseable {
                 checkVersion(sourcePath, indexPath);
                 break;
             case DOCUMENTS:
-                checkDocuments(sourcePath, indexPath);
+                checkDocuments(sourcePath, indexPath, false);
+                break;
+            case METADATA:
+                checkDocuments(sourcePath, indexPath, true);
                 break;
             case DEFINITIONS:
                 checkDefinitions(sourcePath, indexPath);
@@ -360,25 +386,80 @@ public class IndexCheck implements AutoCloseable {
         return okay;
     }
 
-    private static class GetFiles extends SimpleFileVisitor<Path> {
+    /**
+     * @param sourcePath path to source root subtree
+     * @return paths of the files under the source root subtree
+     */
+    private static Set<Path> getFiles(Path sourcePath) {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
         Set<Path> files = new HashSet<>();
+        if (env.getIgnoredNames().ignore(sourcePath.toFile())) {
+            return files;
+        }
 
-        @Override
-        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-            if (RuntimeEnvironment.getInstance().getIgnoredNames().ignore(dir.toFile())) {
-                return FileVisitResult.SKIP_SUBTREE;
-            }
-
-            return FileVisitResult.CONTINUE;
+        try (DirectoryScanner scanner = new DirectoryScanner(env.getIndexerParallelizer().getDirectoryWalkPool(),
+                Comparator.naturalOrder(),
+                entry -> !entry.isSymbolicLink() && !env.getIgnoredNames().ignore(entry.file()))) {
+            scanner.walk(sourcePath.toFile(), entry -> {
+                if (entry.isFile()) {
+                    files.add(entry.file().toPath());
+                }
+            });
         }
+        return files;
+    }
 
-        @Override
-        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            if (file.toFile().isFile()) {
-                files.add(file);
-            }
+    /**
+     * Check the files of the live documents in the source root. If the directory walk pool is configured
+     * (see {@link RuntimeEnvironment#getDirectoryWalkParallelism()}), the files are checked concurrently.
+     * Only the file metadata is retrieved, the content of the files is not read.
+     * @param liveDocuments live documents
+     * @param checkDates whether to check the modification time of the files against the documents
+     * @param missingPaths set to add absolute paths of the files that do not exist to
+     * @param stalePaths set to add absolute paths of the files modified after they were indexed to
+     * @param indexPath path to the index (for progress reporting)
+     */
+    private void checkPaths(List<LiveDocument> liveDocuments, boolean checkDates, Set<Path> missingPaths,
+                            Set<Path> stalePaths, Path indexPath) {
+
+        try (Progress progress = new Progress(LOGGER, String.format("files checked for '%s'", indexPath),
+                liveDocuments.size(), Level.FINE)) {
+            // Map failed document to its absolute path and whether the file is missing (as opposed to stale).
+            // Documents which passed the check are mapped to null.
+            Function<LiveDocument, Map.Entry<Path, Boolean>> check = liveDocument -> {
+                Path absolutePath = Path.of(configuration.getSourceRoot(), liveDocument.path().toString());
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+                    if (checkDates && !liveDocument.date().equals(DateTools.timeToString(
+                            attrs.lastModifiedTime().toMillis(), DateTools.Resolution.MILLISECOND))) {
+                        LOGGER.log(Level.FINER, "path ''{0}'' was modified after it was indexed", absolutePath);
+                        return Map.entry(absolutePath, false);
+                    }
+                    return null;
+                } catch (NoSuchFileException e) {
+                    LOGGER.log(Level.FINER, "path ''{0}'' does not exist", absolutePath);
+                    return Map.entry(absolutePath, true);
+                } catch (IOException e) {
+                    // Keep the semantics of Files.exists().
+                    LOGGER.log(Level.FINER, String.format("cannot get attributes of '%s'", absolutePath), e);
+                    return Map.entry(absolutePath, true);
+                } finally {
+                    progress.increment();
+                }
+            };
 
-            return FileVisitResult.CONTINUE;
+            ForkJoinPool pool = RuntimeEnvironment.getInstance().getIndexerParallelizer().getDirectoryWalkPool();
+            List<Map.Entry<Path, Boolean>> failed;
+            if (pool == null) {
+                failed = liveDocuments.stream().map(check).filter(Objects::nonNull).collect(Collectors.toList());
+            } else {
+                // The parallel stream runs in the pool it was started from.
+                failed = pool.submit(() -> liveDocuments.parallelStream().map(check).filter(Objects::nonNull).
+                        collect(Collectors.toList())).join();
+            }
+            for (Map.Entry<Path, Boolean> entry : failed) {
+                (entry.getValue() ? missingPaths : stalePaths).add(entry.getKey());
+            }
         }
     }
 
@@ -394,30 +475,38 @@ public class IndexCheck implements AutoCloseable {
     private void checkDefinitions(Path sourcePath, Path indexPath) throws IOException, IndexDocumentException {
 
         Statistics statistics = new Statistics();
-        GetFiles getFiles = new GetFiles();
-        Files.walkFileTree(sourcePath, getFiles);
-        Set<Path> paths = getFiles.files;
+        Set<Path> paths = getFiles(sourcePath);
         LOGGER.log(Level.FINE, "Checking definitions in ''{0}'' ({1} paths)",
                 new Object[]{indexPath, paths.size()});
 
         long errors = 0;
         ExecutorService executorService = RuntimeEnvironment.getInstance().getIndexerParallelizer().getFixedExecutor();
-        List<Future<Boolean>> futures = new ArrayList<>();
-        for (Path path : paths) {
-            futures.add(executorService.submit(() -> checkDefinitionsForFile(path)));
-        }
-
         IOException ioException = null;
-        for (Future<Boolean> future : futures) {
-            try {
-                if (!future.get()) {
-                    errors++;
-                }
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, String.format("failure when checking definitions for '%s'", indexPath), e);
-                final Throwable cause = e.getCause();
-                if (cause instanceof IOException) {
-                    ioException = (IOException) cause;
+        try (Progress progress = new Progress(LOGGER, String.format("files checked for definitions in '%s'",
+                indexPath), paths.size(), Level.FINE)) {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Path path : paths) {
+                futures.add(executorService.submit(() -> {
+                    try {
+                        return checkDefinitionsForFile(path);
+                    } finally {
+                        progress.increment();
+                    }
+                }));
+            }
+
+            for (Future<Boolean> future : futures) {
+                try {
+                    if (!future.get()) {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, String.format("failure when checking definitions for '%s'", indexPath),
+                            e);
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        ioException = (IOException) cause;
+                    }
                 }
             }
         }
@@ -512,40 +601,87 @@ public class IndexCheck implements AutoCloseable {
      */
     @VisibleForTesting
     static List<Path> getLiveDocumentPaths(Path indexPath) throws IOException {
-        try (IndexReader indexReader = getIndexReader(indexPath)) {
-            List<Path> livePaths = new ArrayList<>();
+        return getLiveDocuments(indexPath).stream().map(LiveDocument::path).collect(Collectors.toList());
+    }
 
-            Bits liveDocs = MultiBits.getLiveDocs(indexReader);
+    /**
+     * Get live documents of the index. The segments of the index are traversed in parallel
+     * and only the {@link QueryBuilder#U} field is read from the documents.
+     * @param indexPath path to index
+     * @return list of live documents (some of them can have duplicate path if the index is corrupted)
+     * @throws IOException on I/O error
+     */
+    @VisibleForTesting
+    static List<LiveDocument> getLiveDocuments(Path indexPath) throws IOException {
+        try (IndexReader indexReader = getIndexReader(indexPath);
+             Progress progress = new Progress(LOGGER, String.format("documents read from '%s'", indexPath),
+                     indexReader.maxDoc(), Level.FINE)) {
 
             LOGGER.log(Level.FINEST, "maxDoc = {0}", indexReader.maxDoc());
-            for (int i = 0; i < indexReader.maxDoc(); i++) {
-                Document doc = indexReader.storedFields().document(i);
+            ExecutorService executorService =
+                    RuntimeEnvironment.getInstance().getIndexerParallelizer().getFixedExecutor();
+            List<Future<List<LiveDocument>>> futures = new ArrayList<>();
+            for (LeafReaderContext leaf : indexReader.leaves()) {
+                futures.add(executorService.submit(() -> getLiveDocuments(leaf.reader(), progress)));
+            }
 
-                // liveDocs is null if the index has no deletions.
-                if (liveDocs != null && !liveDocs.get(i)) {
-                    IndexableField field = doc.getField(QueryBuilder.U);
-                    if (field != null) {
-                        String uidString = field.stringValue();
-                        LOGGER.log(Level.FINEST, "ignoring ''{0}'' at {1}",
-                                new Object[]{Util.uid2url(uidString), Util.uid2date(uidString)});
-                    } else {
-                        LOGGER.log(Level.FINEST, "ignoring {0}", doc);
+            List<LiveDocument> liveDocuments = new ArrayList<>();
+            for (Future<List<LiveDocument>> future : futures) {
+                try {
+                    liveDocuments.addAll(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
                     }
-                    continue;
+                    throw new IOException(String.format("failed to read documents from '%s'", indexPath),
+                            e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(String.format("interrupted while reading documents from '%s'",
+                            indexPath), e);
                 }
+            }
 
-                // This should avoid the special LOC documents.
-                IndexableField field = doc.getField(QueryBuilder.U);
+            return liveDocuments;
+        }
+    }
+
+    private static List<LiveDocument> getLiveDocuments(LeafReader reader, @Nullable Progress progress)
+            throws IOException {
+
+        List<LiveDocument> liveDocuments = new ArrayList<>();
+        // liveDocs is null if the segment has no deletions.
+        Bits liveDocs = reader.getLiveDocs();
+        StoredFields storedFields = reader.storedFields();
+        Set<String> fields = Set.of(QueryBuilder.U);
+        for (int i = 0; i < reader.maxDoc(); i++) {
+            if (progress != null) {
+                progress.increment();
+            }
+
+            Document doc = storedFields.document(i, fields);
+            // This should avoid the special LOC documents.
+            IndexableField field = doc.getField(QueryBuilder.U);
+            if (liveDocs != null && !liveDocs.get(i)) {
                 if (field != null) {
                     String uidString = field.stringValue();
-                    LOGGER.log(Level.FINEST, "live doc: ''{0}'' at {1}",
+                    LOGGER.log(Level.FINEST, "ignoring ''{0}'' at {1}",
                             new Object[]{Util.uid2url(uidString), Util.uid2date(uidString)});
-                    livePaths.add(Path.of(Util.uid2url(uidString)));
+                } else {
+                    LOGGER.log(Level.FINEST, "ignoring {0}", doc);
                 }
+                continue;
             }
 
-            return livePaths;
+            if (field != null) {
+                String uidString = field.stringValue();
+                LOGGER.log(Level.FINEST, "live doc: ''{0}'' at {1}",
+                        new Object[]{Util.uid2url(uidString), Util.uid2date(uidString)});
+                liveDocuments.add(new LiveDocument(Path.of(Util.uid2url(uidString)), Util.uid2date(uidString)));
+            }
         }
+
+        return liveDocuments;
     }
 
     /**
@@ -553,27 +689,26 @@ public class IndexCheck implements AutoCloseable {
      * <ul>
      *     <li>they have corresponding file under source root</li>
      *     <li>there is exactly one document with the same path</li>
+     *     <li>optionally, the time stamp of the document matches the last modified time of the file</li>
      * </ul>
      * @param sourcePath source root path
      * @param indexPath index path
+     * @param checkDates whether to check the time stamps
      * @throws IOException on I/O error
      * @throws IndexDocumentException if the index failed the check
      */
-    private void checkDocuments(Path sourcePath, Path indexPath) throws IOException, IndexDocumentException {
+    private void checkDocuments(Path sourcePath, Path indexPath, boolean checkDates)
+            throws IOException, IndexDocumentException {
 
         Statistics stat = new Statistics();
-        List<Path> livePaths = getLiveDocumentPaths(indexPath);
+        List<LiveDocument> liveDocuments = getLiveDocuments(indexPath);
+        List<Path> livePaths = liveDocuments.stream().map(LiveDocument::path).collect(Collectors.toList());
 
         LOGGER.log(Level.FINE, "checking documents in ''{0}}'' have corresponding file under source root ''{1}''",
                 new Object[]{indexPath, sourcePath});
         Set<Path> missingPaths = new TreeSet<>();
-        for (Path relativePath : livePaths) {
-            Path absolutePath = Path.of(configuration.getSourceRoot(), relativePath.toString());
-            if (!Files.exists(absolutePath)) {
-                LOGGER.log(Level.FINER, "path ''{0}'' does not exist", absolutePath);
-                missingPaths.add(absolutePath);
-            }
-        }
+        Set<Path> stalePaths = new TreeSet<>();
+        checkPaths(liveDocuments, checkDates, missingPaths, stalePaths, indexPath);
 
         LOGGER.log(Level.FINE, "Checking duplicate documents in ''{0}''", indexPath);
         HashSet<Path> pathSet = new HashSet<>(livePaths);
@@ -600,9 +735,9 @@ public class IndexCheck implements AutoCloseable {
         }
 
         stat.report(LOGGER, Level.FINE, String.format("document check in '%s' done", indexPath));
-        if (!duplicatePathMap.isEmpty() || !missingPaths.isEmpty()) {
+        if (!duplicatePathMap.isEmpty() || !missingPaths.isEmpty() || !stalePaths.isEmpty()) {
             throw new IndexDocumentException(String.format("index '%s' failed document check",
-                    indexPath), sourcePath, duplicatePathMap, missingPaths);
+                    indexPath), sourcePath, duplicatePathMap, missingPaths, stalePaths);
         }
     }
 }
@@ -31,17 +31,16 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -50,16 +49,14 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPOutputStream;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
@@ -117,6 +114,7 @@ import org.opengrok.indexer.util.ForbiddenSymlinkException;
 import org.opengrok.indexer.util.IOUtils;
 import org.opengrok.indexer.util.ObjectPool;
 import org.opengrok.indexer.util.Progress;
+import org.opengrok.indexer.util.SeekableGZIPOutputStream;
 import org.opengrok.indexer.util.Statistics;
 import org.opengrok.indexer.util.TandemPath;
 import org.opengrok.indexer.web.Util;
@@ -178,6 +176,11 @@ public class IndexDatabase {
     private TermsEnum uidIter;
     private PostingsEnum postsIter;
     private PathAccepter pathAccepter;
+    /**
+     * Lists the directories for {@link #indexDown(File, String, IndexDownArgs, Progress)}.
+     */
+    @Nullable
+    private DirectoryScanner directoryScanner;
     private AnalyzerGuru analyzerGuru;
     private File xrefDir;
     private CopyOnWriteArrayList<IndexChangedListener> listeners;
@@ -651,21 +654,25 @@ public class IndexDatabase {
                     }
                 }
 
-                // The actual indexing happens in indexParallel(). Here we merely collect the files
-                // that need to be indexed and the files that should be removed.
                 IndexDownArgs args = indexDownArgsFactory.getIndexDownArgs();
-                boolean usedHistory = getIndexDownArgs(dir, sourceRoot, args);
-
-                // Traverse the trailing terms. This needs to be done before indexParallel() because
-                // in some cases it can add items to the args parameter.
-                processTrailingTerms(startUid, usedHistory, args);
-
-                args.curCount = 0;
-                Statistics elapsed = new Statistics();
-                LOGGER.log(Level.INFO, "Starting indexing of directory ''{0}''", dir);
-                indexParallel(dir, args);
-                elapsed.report(LOGGER, String.format("Done indexing of directory '%s'", dir),
-                        "indexer.db.directory.index");
+                if (env.isStreamingFileCollection()) {
+                    indexStreaming(dir, sourceRoot, startUid, args);
+                } else {
+                    // The actual indexing happens in indexParallel(). Here we merely collect the files
+                    // that need to be indexed and the files that should be removed.
+                    boolean usedHistory = getIndexDownArgs(dir, sourceRoot, args);
+
+                    // Traverse the trailing terms. This needs to be done before indexParallel() because
+                    // in some cases it can add items to the args parameter.
+                    processTrailingTerms(startUid, usedHistory, args);
+
+                    args.curCount = 0;
+                    Statistics elapsed = new Statistics();
+                    LOGGER.log(Level.INFO, "Starting indexing of directory ''{0}''", dir);
+                    indexParallel(dir, args);
+                    elapsed.report(LOGGER, String.format("Done indexing of directory '%s'", dir),
+                            "indexer.db.directory.index");
+                }
 
                 /*
                  * As a signifier that #Lines/LOC are comprehensively
@@ -691,6 +698,8 @@ public class IndexDatabase {
                 markProjectIndexed(project);
             } finally {
                 reader.close();
+                // The history stored for individual files during indexing may be buffered.
+                HistoryGuru.getInstance().flushHistoryCache();
             }
 
             // The RuntimeException thrown from the block above can prevent the writing from completing.
@@ -807,8 +816,7 @@ public class IndexDatabase {
                 if (!matchOK) {
                     removeFile(false);
 
-                    args.curCount++;
-                    args.works.add(new IndexFileWork(termFile, termPath));
+                    args.add(new IndexFileWork(termFile, termPath));
                 }
             } else {
                 // Remove data for the trailing terms that getIndexDownArgs()
@@ -845,8 +853,13 @@ public class IndexDatabase {
             indexDownUsingHistory(env.getSourceRootFile(), args);
         } else {
             String logSuffix = project != null ? " for project " + project : String.format(" for directory '%s'", dir);
-            try (Progress progress = new Progress(LOGGER, String.format("file collection%s", logSuffix))) {
+            try (Progress progress = new Progress(LOGGER, String.format("file collection%s", logSuffix));
+                 DirectoryScanner scanner = new DirectoryScanner(env.getIndexerParallelizer().getDirectoryWalkPool(),
+                         FILENAME_COMPARATOR, entry -> pathAccepter.accept(entry.file()))) {
+                directoryScanner = scanner;
                 indexDown(sourceRoot, dir, args, progress);
+            } finally {
+                directoryScanner = null;
             }
         }
 
@@ -1149,28 +1162,47 @@ public class IndexDatabase {
     }
 
     /**
-     * Add a file to the Lucene index (and generate a xref file).
+     * Run ctags on a file. This is the ctags stage of {@link #indexParallel(String, IndexDownArgs)}.
      *
-     * @param file The file to add
-     * @param path The path to the file (from source root)
+     * @param file The file to process
      * @param ctags a defined instance to use (only if its binary is not null)
+     * @return definitions of the file or {@code null}
+     * @throws java.io.IOException if an error occurs
+     * @throws InterruptedException if a timeout occurs
+     */
+    @Nullable
+    private Definitions runCtags(File file, Ctags ctags) throws IOException, InterruptedException {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+        ctags.setTabSize(project != null ? project.getTabSize() : 0);
+        if (env.getCtagsTimeout() != 0) {
+            ctags.setTimeout(env.getCtagsTimeout());
+        }
+        return ctags.doCtags(file.getAbsolutePath());
+    }
+
+    /**
+     * Analyze a file (and generate a xref file). This is the analysis stage
+     * of {@link #indexParallel(String, IndexDownArgs)}.
+     *
+     * @param file The file to analyze
+     * @param path The path to the file (from source root)
+     * @param fa analyzer for the file
+     * @param defs definitions of the file produced by ctags or {@code null}
+     * @return document to be added to the index or {@code null} if the analyzer did not understand the file
      * @throws java.io.IOException if an error occurs
      * @throws InterruptedException if a timeout occurs
      */
-    private void addFile(File file, String path, Ctags ctags) throws IOException, InterruptedException {
+    @Nullable
+    private Document analyzeFile(File file, String path, AbstractAnalyzer fa, @Nullable Definitions defs)
+            throws IOException, InterruptedException {
 
         RuntimeEnvironment env = RuntimeEnvironment.getInstance();
-        AbstractAnalyzer fa = getAnalyzerFor(file, path);
 
         for (IndexChangedListener listener : listeners) {
             listener.fileAdd(path, fa.getClass().getSimpleName());
         }
 
-        ctags.setTabSize(project != null ? project.getTabSize() : 0);
-        if (env.getCtagsTimeout() != 0) {
-            ctags.setTimeout(env.getCtagsTimeout());
-        }
-        fa.setCtags(ctags);
+        fa.setDefinitions(defs);
         fa.setCountsAggregator(countsAggregator);
         fa.setProject(Project.getProject(path));
         fa.setScopesEnabled(env.isScopesEnabled());
@@ -1209,15 +1241,29 @@ public class IndexDatabase {
                 LOGGER.log(Level.FINE, String.format("Exception from analyzer %s", fa.getClass().getName()), e);
             }
             cleanupResources(doc);
-            return;
+            return null;
         } finally {
-            fa.setCtags(null);
+            fa.setDefinitions(null);
             fa.setCountsAggregator(null);
             if (xrefOut != null) {
                 xrefOut.close();
             }
         }
 
+        return doc;
+    }
+
+    /**
+     * Add an analyzed file to the Lucene index. This is the last stage
+     * of {@link #indexParallel(String, IndexDownArgs)}.
+     *
+     * @param file The file to add
+     * @param path The path to the file (from source root)
+     * @param analyzerName name of the analyzer class used to produce the document
+     * @param doc document produced by {@link #analyzeFile(File, String, AbstractAnalyzer, Definitions)}
+     * @throws java.io.IOException if an error occurs
+     */
+    private void addDocument(File file, String path, String analyzerName, Document doc) throws IOException {
         try {
             writer.addDocument(doc);
         } catch (Throwable t) {
@@ -1230,7 +1276,7 @@ public class IndexDatabase {
         createAnnotationCache(file, doc);
 
         for (IndexChangedListener listener : listeners) {
-            listener.fileAdded(path, fa.getClass().getSimpleName());
+            listener.fileAdded(path, analyzerName);
         }
     }
 
@@ -1620,19 +1666,20 @@ public class IndexDatabase {
             return;
         }
 
-        File[] files = dir.listFiles();
-        if (files == null) {
+        DirectoryScanner.Entry[] entries = directoryScanner != null ? directoryScanner.list(dir) :
+                DirectoryScanner.listDirectory(dir, FILENAME_COMPARATOR);
+        if (entries == null) {
             LOGGER.log(Level.SEVERE, "Failed to get file listing for ''{0}''", dir.getPath());
             return;
         }
-        Arrays.sort(files, FILENAME_COMPARATOR);
 
-        for (File file : files) {
+        for (DirectoryScanner.Entry entry : entries) {
+            File file = entry.file();
             String path = parent + File.separator + file.getName();
             if (!accept(dir, file, ret)) {
                 handleSymlink(path, ret);
             } else {
-                if (file.isDirectory()) {
+                if (entry.isDirectory()) {
                     indexDown(file, path, args, progress);
                 } else {
                     processFile(args, file, path);
@@ -1732,7 +1779,7 @@ public class IndexDatabase {
      * @param file file object
      * @param path path of the file relative to given source root (not necessarily global source root)
      */
-    private void addWorkHistoryBased(IndexDownArgs args, File file, String path) {
+    private void addWorkHistoryBased(IndexDownArgs args, File file, String path) throws IOException {
         AcceptSymlinkRet ret = new AcceptSymlinkRet();
         if (accept(file, ret)) {
             // accept() returns true for directories because it was made to work with indexDown().
@@ -1741,8 +1788,7 @@ public class IndexDatabase {
                 return;
             }
 
-            args.curCount++;
-            args.works.add(new IndexFileWork(file, path));
+            args.add(new IndexFileWork(file, path));
         } else {
             handleSymlink(file.getParent(), ret);
         }
@@ -1825,12 +1871,12 @@ public class IndexDatabase {
             }
         }
 
-        args.curCount++;
-        args.works.add(new IndexFileWork(file, path));
+        args.add(new IndexFileWork(file, path));
     }
 
     /**
-     * Executes the second, parallel stage of indexing.
+     * Executes the second, parallel stage of indexing. The files are passed through the stages
+     * of the {@link IndexPipeline}, see {@link ParallelIndexRun}.
      * @param dir the parent directory (when appended to SOURCE_ROOT)
      * @param args contains a list of files to index, found during the earlier stage
      * @throws IndexerException in case the indexing failed or was interrupted
@@ -1842,77 +1888,96 @@ public class IndexDatabase {
             return;
         }
 
+        try (Progress progress = new Progress(LOGGER, String.format("indexing '%s'", dir), worksCount)) {
+            runParallel(progress, run -> {
+                for (IndexFileWork work : args.works) {
+                    run.start(work);
+                }
+            });
+        } catch (IOException e) {
+            // The works are submitted from the list, so this should not happen.
+            throw new IndexerException(e);
+        }
+    }
+
+    /**
+     * Variant of the file collection and {@link #indexParallel(String, IndexDownArgs)} that does not wait
+     * for the traversal to complete. The files are submitted to the {@link IndexPipeline} as they are found,
+     * so the traversal blocks whenever the first stage of the pipeline is full. The traversal (including
+     * the merge with the terms of the index and the removal of the stale documents) is still done
+     * in the calling thread, in the same order as in the non-streaming mode. A document is always removed
+     * before the document of the same file is submitted for indexing.
+     * @param dir the parent directory (when appended to SOURCE_ROOT)
+     * @param sourceRoot source root File object
+     * @param startUid UID prefix of the directory
+     * @param args arguments used for the traversal
+     * @throws IOException on error during the traversal
+     * @throws IndexerException in case the indexing failed or was interrupted
+     */
+    private void indexStreaming(String dir, File sourceRoot, String startUid, IndexDownArgs args)
+            throws IOException, IndexerException {
+
+        Statistics elapsed = new Statistics();
+        LOGGER.log(Level.INFO, "Starting streaming indexing of directory ''{0}''", dir);
+        try (Progress progress = new Progress(LOGGER, String.format("indexing '%s'", dir))) {
+            runParallel(progress, run -> {
+                args.consumer = work -> {
+                    try {
+                        run.start(work);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(String.format("interrupted while indexing '%s'", dir));
+                    }
+                };
+                try {
+                    boolean usedHistory = getIndexDownArgs(dir, sourceRoot, args);
+                    processTrailingTerms(startUid, usedHistory, args);
+                } finally {
+                    args.consumer = null;
+                }
+            });
+        } catch (InterruptedIOException e) {
+            throw new IndexerException(e);
+        }
+        elapsed.report(LOGGER, String.format("Done indexing of directory '%s'", dir),
+                "indexer.db.directory.index");
+    }
+
+    @FunctionalInterface
+    private interface WorkProducer {
+        void produce(ParallelIndexRun run) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Run the {@link ParallelIndexRun} fed by the producer and wait for all the submitted files to leave
+     * the pipeline, even if the producer failed, so that the index writer is not closed under the workers.
+     * @param progress progress of the indexing
+     * @param producer submits the files to index via {@link ParallelIndexRun#start(IndexFileWork)}
+     * @throws IOException if the producer failed
+     * @throws IndexerException in case the indexing failed or was interrupted
+     */
+    private void runParallel(Progress progress, WorkProducer producer) throws IOException, IndexerException {
         AtomicInteger successCounter = new AtomicInteger();
-        AtomicInteger currentCounter = new AtomicInteger();
         AtomicInteger alreadyClosedCounter = new AtomicInteger();
         IndexerParallelizer parallelizer = RuntimeEnvironment.getInstance().getIndexerParallelizer();
-        ObjectPool<Ctags> ctagsPool = parallelizer.getCtagsPool();
+        ParallelIndexRun run = new ParallelIndexRun(parallelizer, progress, successCounter, alreadyClosedCounter);
 
-        Map<Boolean, List<IndexFileWork>> bySuccess = new HashMap<>();
-        try (Progress progress = new Progress(LOGGER, String.format("indexing '%s'", dir), worksCount)) {
-            Set<Callable<IndexFileWork>> callables = args.works.stream().
-                    <Callable<IndexFileWork>>map(x -> () -> {
-                        int tries = 0;
-                        Ctags pctags = null;
-                        while (true) {
-                            try {
-                                if (alreadyClosedCounter.get() > 0) {
-                                    x.ret = false;
-                                } else {
-                                    pctags = ctagsPool.get();
-                                    addFile(x.file, x.path, pctags);
-                                    successCounter.incrementAndGet();
-                                    x.ret = true;
-                                }
-                            } catch (AlreadyClosedException e) {
-                                alreadyClosedCounter.incrementAndGet();
-                                String errmsg = String.format("ERROR addFile(): '%s'", x.file);
-                                LOGGER.log(Level.SEVERE, errmsg, e);
-                                x.exception = e;
-                                x.ret = false;
-                            } catch (InterruptedException e) {
-                                // Allow one retry if interrupted
-                                if (++tries <= 1) {
-                                    continue;
-                                }
-                                LOGGER.log(Level.WARNING, "No retry: ''{0}''", x.file);
-                                x.exception = e;
-                                x.ret = false;
-                            } catch (RuntimeException | IOException e) {
-                                String errmsg = String.format("ERROR addFile(): '%s'", x.file);
-                                LOGGER.log(Level.WARNING, errmsg, e);
-                                x.exception = e;
-                                x.ret = false;
-                            } finally {
-                                if (pctags != null) {
-                                    pctags.reset();
-                                    ctagsPool.release(pctags);
-                                }
-                            }
-
-                            progress.increment();
-                            return x;
-                        }
-                    }).
-                    collect(Collectors.toSet());
-            List<Future<IndexFileWork>> futures = parallelizer.getIndexWorkExecutor().invokeAll(callables);
-            for (var future : futures) {
-                IndexFileWork work = future.get();
-                bySuccess.computeIfAbsent(work.ret, key -> new ArrayList<>()).add(work);
-            }
-        } catch (InterruptedException | ExecutionException e) {
+        try {
+            try {
+                producer.produce(run);
+            } finally {
+                run.await();
+            }
+        } catch (InterruptedException e) {
             int successCount = successCounter.intValue();
-            double successPct = 100.0 * successCount / worksCount;
+            double successPct = 100.0 * successCount / Math.max(1, run.getStartedCount());
             LOGGER.log(Level.SEVERE, String.format("%d successes (%.1f%%) after aborting parallel-indexing",
                     successCount, successPct));
             throw new IndexerException(e);
         }
 
-        args.curCount = currentCounter.intValue();
-
-        int failureCount = worksCount - Optional.ofNullable(bySuccess.get(Boolean.TRUE))
-                .map(List::size)
-                .orElse(0);
+        int worksCount = run.getStartedCount();
+        int failureCount = worksCount - successCounter.get();
         if (failureCount > 0) {
             double pctFailed = 100.0 * failureCount / worksCount;
             String exmsg = String.format("%d failures (%.1f%%) while parallel-indexing", failureCount, pctFailed);
@@ -1929,6 +1994,221 @@ public class IndexDatabase {
         }
     }
 
+    /**
+     * Passes the files of single {@link #indexParallel(String, IndexDownArgs)} call through the stages
+     * of the {@link IndexPipeline}:
+     * <ol>
+     * <li>read the beginning of the file to detect its type</li>
+     * <li>run ctags on the file (only if the analyzer makes use of the definitions)</li>
+     * <li>analyze the file, i.e. tokenize it and generate xref</li>
+     * <li>add the document to the index</li>
+     * </ol>
+     * Each file leaves the pipeline either at the end or in the stage where it failed, which is
+     * recorded in the {@link IndexFileWork} and the counters.
+     */
+    private final class ParallelIndexRun {
+        private final IndexPipeline pipeline;
+        private final ObjectPool<Ctags> ctagsPool;
+        private final Progress progress;
+        /**
+         * Has one party for the thread starting the works and one for each work in the pipeline.
+         * The number of the works in the pipeline is bounded by the capacity of the stages.
+         */
+        private final Phaser remaining = new Phaser(1);
+        private final AtomicInteger successCounter;
+        private final AtomicInteger alreadyClosedCounter;
+        private int startedCount;
+
+        ParallelIndexRun(IndexerParallelizer parallelizer, Progress progress,
+                         AtomicInteger successCounter, AtomicInteger alreadyClosedCounter) {
+            this.pipeline = parallelizer.getIndexPipeline();
+            this.ctagsPool = parallelizer.getCtagsPool();
+            this.progress = progress;
+            this.successCounter = successCounter;
+            this.alreadyClosedCounter = alreadyClosedCounter;
+        }
+
+        /**
+         * Submit the work to the first stage. Blocks if the stage is full.
+         * @param work file to index
+         * @throws InterruptedException if interrupted while waiting for the stage
+         */
+        void start(IndexFileWork work) throws InterruptedException {
+            remaining.register();
+            try {
+                pipeline.getReadStage().submit(() -> read(work));
+            } catch (InterruptedException | RuntimeException e) {
+                remaining.arriveAndDeregister();
+                throw e;
+            }
+            startedCount++;
+        }
+
+        /**
+         * @return number of works successfully submitted via {@link #start(IndexFileWork)}
+         */
+        int getStartedCount() {
+            return startedCount;
+        }
+
+        /**
+         * Wait for all the started works to leave the pipeline. To be called once by the thread
+         * that started the works.
+         * @throws InterruptedException if interrupted while waiting
+         */
+        void await() throws InterruptedException {
+            remaining.awaitAdvanceInterruptibly(remaining.arrive());
+        }
+
+        private void read(IndexFileWork work) {
+            if (alreadyClosedCounter.get() > 0) {
+                done(work, false);
+                return;
+            }
+
+            boolean usesCtags;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(work.file))) {
+                work.factory = AnalyzerGuru.getAnalyzerFactory(in, work.path);
+                // The analyzers are thread local so the instance is merely used to check the type.
+                usesCtags = work.factory.getAnalyzer().usesCtags();
+            } catch (IOException | RuntimeException e) {
+                fail(work, e);
+                return;
+            }
+
+            if (usesCtags) {
+                forward(work, pipeline.getCtagsStage(), () -> ctags(work));
+            } else {
+                forward(work, pipeline.getAnalysisStage(), () -> analyze(work));
+            }
+        }
+
+        private void ctags(IndexFileWork work) {
+            if (alreadyClosedCounter.get() > 0) {
+                done(work, false);
+                return;
+            }
+
+            int tries = 0;
+            while (true) {
+                Ctags ctags = ctagsPool.get();
+                try {
+                    work.defs = runCtags(work.file, ctags);
+                    break;
+                } catch (InterruptedException e) {
+                    // Allow one retry if interrupted
+                    if (++tries <= 1) {
+                        continue;
+                    }
+                    LOGGER.log(Level.WARNING, "No retry: ''{0}''", work.file);
+                    fail(work, e);
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    fail(work, e);
+                    return;
+                } finally {
+                    ctags.reset();
+                    ctagsPool.release(ctags);
+                }
+            }
+
+            forward(work, pipeline.getAnalysisStage(), () -> analyze(work));
+        }
+
+        private void analyze(IndexFileWork work) {
+            if (alreadyClosedCounter.get() > 0) {
+                done(work, false);
+                return;
+            }
+
+            AbstractAnalyzer fa;
+            int tries = 0;
+            while (true) {
+                try {
+                    fa = work.factory.getAnalyzer();
+                    work.doc = analyzeFile(work.file, work.path, fa, work.defs);
+                    break;
+                } catch (InterruptedException e) {
+                    // Allow one retry if interrupted
+                    if (++tries <= 1) {
+                        continue;
+                    }
+                    LOGGER.log(Level.WARNING, "No retry: ''{0}''", work.file);
+                    fail(work, e);
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    fail(work, e);
+                    return;
+                }
+            }
+
+            if (work.doc == null) {
+                // The analyzer did not understand the file.
+                done(work, true);
+                return;
+            }
+
+            String analyzerName = fa.getClass().getSimpleName();
+            forward(work, pipeline.getAddStage(), () -> add(work, analyzerName));
+        }
+
+        private void add(IndexFileWork work, String analyzerName) {
+            if (alreadyClosedCounter.get() > 0) {
+                cleanupResources(work.doc);
+                done(work, false);
+                return;
+            }
+
+            try {
+                addDocument(work.file, work.path, analyzerName, work.doc);
+                done(work, true);
+            } catch (AlreadyClosedException e) {
+                alreadyClosedCounter.incrementAndGet();
+                LOGGER.log(Level.SEVERE, String.format("ERROR adding '%s' to the index", work.file), e);
+                work.exception = e;
+                done(work, false);
+            } catch (IOException | RuntimeException e) {
+                fail(work, e);
+            }
+        }
+
+        /**
+         * Submit the work to next stage. Blocks if the stage is full.
+         */
+        private void forward(IndexFileWork work, IndexPipeline.Stage stage, Runnable task) {
+            try {
+                stage.submit(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(work, e);
+            } catch (RejectedExecutionException e) {
+                fail(work, e);
+            }
+        }
+
+        private void fail(IndexFileWork work, Exception e) {
+            LOGGER.log(Level.WARNING, String.format("ERROR indexing '%s'", work.file), e);
+            if (work.doc != null) {
+                cleanupResources(work.doc);
+            }
+            work.exception = e;
+            done(work, false);
+        }
+
+        private void done(IndexFileWork work, boolean ret) {
+            work.ret = ret;
+            // Release the intermediate results as soon as possible.
+            work.factory = null;
+            work.defs = null;
+            work.doc = null;
+            if (ret) {
+                successCounter.incrementAndGet();
+            }
+            progress.increment();
+            remaining.arriveAndDeregister();
+        }
+    }
+
     /**
      * Register an object to receive events when modifications is done to the
      * index database.
@@ -2182,7 +2462,7 @@ public class IndexDatabase {
      */
     private CountingWriter newXrefWriter(String path, File transientXref, boolean compressed) throws IOException {
         return new CountingWriter(new BufferedWriter(new OutputStreamWriter(compressed ?
-                new GZIPOutputStream(new FileOutputStream(transientXref)) :
+                new SeekableGZIPOutputStream(new FileOutputStream(transientXref)) :
                 new FileOutputStream(transientXref))));
     }
 
@@ -34,17 +34,32 @@ public class IndexDocumentException extends IndexCheckException {
 
     private final transient Map<Path, Integer> duplicatePathMap;
     private final transient Set<Path> missingPaths;
+    private final transient Set<Path> stalePaths;
 
     public IndexDocumentException(String s, Path path) {
         super(s, path);
-        this.duplicatePathMap = null;
-        this.missingPaths = null;
+        this.duplicatePathMap = Map.of();
+        this.missingPaths = Set.of();
+        this.stalePaths = Set.of();
     }
 
     public IndexDocumentException(String message, Path indexPath, Map<Path, Integer> duplicateFileMap, Set<Path> missingPaths) {
+        this(message, indexPath, duplicateFileMap, missingPaths, Set.of());
+    }
+
+    public IndexDocumentException(String message, Path indexPath, Map<Path, Integer> duplicateFileMap,
+                                  Set<Path> missingPaths, Set<Path> stalePaths) {
         super(message, indexPath);
         this.duplicatePathMap = duplicateFileMap;
         this.missingPaths = missingPaths;
+        this.stalePaths = stalePaths;
+    }
+
+    /**
+     * @return paths of the files which were modified after they were indexed
+     */
+    public Set<Path> getStalePaths() {
+        return stalePaths;
     }
 
     @Override
@@ -60,6 +75,10 @@ public class IndexDocumentException extends IndexCheckException {
             stringBuilder.append(" missing paths = ");
             stringBuilder.append(missingPaths);
         }
+        if (!stalePaths.isEmpty()) {
+            stringBuilder.append(" stale paths = ");
+            stringBuilder.append(stalePaths);
+        }
         return stringBuilder.toString();
     }
 }
@@ -18,17 +18,47 @@
  */
 
 /*
- * Copyright (c) 2018, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.indexer.index;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.lucene.document.Document;
+import org.jetbrains.annotations.Nullable;
+import org.opengrok.indexer.analysis.AnalyzerFactory;
+import org.opengrok.indexer.analysis.Definitions;
+
 class IndexDownArgs {
     int curCount;
     final List<IndexFileWork> works = new ArrayList<>();
+
+    /**
+     * Consumer of the works in streaming mode.
+     */
+    @FunctionalInterface
+    interface WorkConsumer {
+        void accept(IndexFileWork work) throws IOException;
+    }
+
+    /**
+     * If set, the works are passed to the consumer as they are added instead of being collected
+     * in the {@link #works} list.
+     */
+    @Nullable
+    WorkConsumer consumer;
+
+    void add(IndexFileWork work) throws IOException {
+        curCount++;
+        if (consumer != null) {
+            consumer.accept(work);
+        } else {
+            works.add(work);
+        }
+    }
 }
 
 class IndexFileWork {
@@ -37,6 +67,11 @@ class IndexFileWork {
     Exception exception;
     boolean ret;
 
+    // intermediate results of the stages of IndexPipeline
+    AnalyzerFactory factory;
+    Definitions defs;
+    Document doc;
+
     IndexFileWork(File file, String path) {
         this.file = file;
         this.path = path;
@@ -0,0 +1,208 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.Nullable;
+import org.opengrok.indexer.Metrics;
+import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
+
+/**
+ * Stages of the file processing in the 2nd phase of indexing, i.e. {@code IndexDatabase#indexParallel()}.
+ * <p>
+ * Each stage has its own fixed set of threads and a bounded number of tasks waiting for them.
+ * Submitting a task to a stage blocks when the stage is full, which propagates the back pressure
+ * to the previous stage. This way slow ctags processes do not hold the threads reading the files
+ * and single huge file occupies only single thread of the stage it is currently in.
+ * </p>
+ * <p>
+ * The stages are shared by all {@link IndexDatabase} instances indexing in parallel.
+ * </p>
+ */
+final class IndexPipeline implements AutoCloseable {
+
+    /**
+     * Single stage of the pipeline.
+     */
+    static final class Stage {
+        private final String name;
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        @Nullable
+        private final Counter processedCounter;
+
+        private Stage(String name, int threads, int queueSize, List<Meter> meters) {
+            this.name = name;
+            this.executor = Executors.newFixedThreadPool(threads, new OpenGrokThreadFactory("index-" + name));
+            this.permits = new Semaphore(threads + queueSize);
+
+            MeterRegistry meterRegistry = Metrics.getRegistry();
+            if (meterRegistry != null) {
+                meters.add(Gauge.builder("indexer.pipeline.queue", queued, AtomicInteger::get).
+                        description("number of files waiting for indexer pipeline stage").
+                        tag("stage", name).
+                        register(meterRegistry));
+                processedCounter = Counter.builder("indexer.pipeline.processed").
+                        description("number of files processed by indexer pipeline stage").
+                        tag("stage", name).
+                        register(meterRegistry);
+                meters.add(processedCounter);
+            } else {
+                processedCounter = null;
+            }
+        }
+
+        /**
+         * Submit the task to the stage. Blocks if the stage has no room for the task.
+         * @param task task to run
+         * @throws InterruptedException if interrupted while waiting for room in the stage
+         */
+        void submit(Runnable task) throws InterruptedException {
+            permits.acquire();
+            queued.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    queued.decrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        processed.incrementAndGet();
+                        if (processedCounter != null) {
+                            processedCounter.increment();
+                        }
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                permits.release();
+                throw e;
+            }
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return number of tasks waiting for a thread
+         */
+        int getQueueDepth() {
+            return queued.get();
+        }
+
+        /**
+         * @return number of tasks processed by the stage
+         */
+        int getProcessedCount() {
+            return processed.get();
+        }
+    }
+
+    private final List<Meter> meters = new ArrayList<>();
+
+    private final Stage read;
+    private final Stage ctags;
+    private final Stage analysis;
+    private final Stage add;
+
+    /**
+     * @param parallelism indexing parallelism. The ctags and analysis stages use that many threads
+     *                    (the former to match the size of the ctags pool), reading the files and adding
+     *                    the documents to the index use half of that.
+     */
+    IndexPipeline(int parallelism) {
+        this(parallelism, Math.max(1, parallelism / 2), parallelism, parallelism, Math.max(1, parallelism / 2));
+    }
+
+    /**
+     * @param parallelism indexing parallelism, determines the number of tasks waiting in each stage
+     * @param readThreads number of threads reading the files
+     * @param ctagsThreads number of threads running ctags
+     * @param analysisThreads number of threads analyzing the files
+     * @param addThreads number of threads adding the documents to the index
+     */
+    IndexPipeline(int parallelism, int readThreads, int ctagsThreads, int analysisThreads, int addThreads) {
+        int queueSize = 2 * parallelism;
+        read = new Stage("read", readThreads, queueSize, meters);
+        ctags = new Stage("ctags", ctagsThreads, queueSize, meters);
+        analysis = new Stage("analysis", analysisThreads, queueSize, meters);
+        add = new Stage("add", addThreads, queueSize, meters);
+    }
+
+    /**
+     * @return stage for reading the files and detecting their type
+     */
+    Stage getReadStage() {
+        return read;
+    }
+
+    /**
+     * @return stage for running ctags on the files
+     */
+    Stage getCtagsStage() {
+        return ctags;
+    }
+
+    /**
+     * @return stage for tokenizing the files and writing the xrefs
+     */
+    Stage getAnalysisStage() {
+        return analysis;
+    }
+
+    /**
+     * @return stage for adding the documents to the index
+     */
+    Stage getAddStage() {
+        return add;
+    }
+
+    /**
+     * Shut down the stages. Already submitted tasks are completed.
+     */
+    @Override
+    public void close() {
+        for (Stage stage : List.of(read, ctags, analysis, add)) {
+            stage.executor.shutdown();
+        }
+
+        MeterRegistry meterRegistry = Metrics.getRegistry();
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+}
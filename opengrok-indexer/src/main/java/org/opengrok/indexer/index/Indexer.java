@@ -448,6 +448,7 @@ public final class Indexer {
              * avoid that path, yet use the IndexParallelizer. So, bounce it here for a good measure.
              */
             env.getIndexerParallelizer().bounce();
+            HistoryGuru.getInstance().shutdown();
             stats.report(LOGGER, "Indexer finished", "indexer.total");
         }
 
@@ -645,6 +646,8 @@ public final class Indexer {
                     "Selectable modes (exclusive):",
                     "  version - checks document version against indexer version",
                     "  documents - checks duplicate documents in the index",
+                    "  metadata - same as documents plus checks document time stamps",
+                    "    against last modified time of the files (file content is not read)",
                     "  definitions - check document definitions against file content (experimental)",
                     "With no mode specified, performs the version check."
                     ).execute(v -> {
@@ -662,6 +665,9 @@ public final class Indexer {
                                 case "definitions":
                                     indexCheckMode = IndexCheck.IndexCheckMode.DEFINITIONS;
                                     break;
+                                case "metadata":
+                                    indexCheckMode = IndexCheck.IndexCheckMode.METADATA;
+                                    break;
                                 case "version":
                                     // already set above
                                     break;
@@ -714,7 +720,8 @@ public final class Indexer {
             parser.on("-e", "--economical",
                     "To consume less disk space, OpenGrok will not generate and save",
                     "hypertext cross-reference files but will generate on demand, which could",
-                    "be slightly slow.").execute(v -> cfg.setGenerateHtml(false));
+                    "be slightly slow. The generated files are cached by the web application",
+                    "up to the size set by 'webappXrefCacheSize'.").execute(v -> cfg.setGenerateHtml(false));
 
             parser.on("-G", "--assignTags",
                 "Assign commit tags to all entries in history for all repositories.").execute(v ->
@@ -748,6 +755,13 @@ public final class Indexer {
                     "Assumes -H/--history.").execute(threadCount ->
                     cfg.setHistoryFileParallelism((Integer) threadCount));
 
+            parser.on("--historyChunkThreads", "=number", Integer.class,
+                    "The number of per partes history chunks of a repository to traverse ",
+                    "concurrently when generating history cache. The chunks are still stored ",
+                    "in order. By default the chunks are traversed sequentially.",
+                    "Currently works only for Git and Mercurial. Assumes -H/--history.").execute(threadCount ->
+                    cfg.setHistoryChunkParallelism((Integer) threadCount));
+
             parser.on("-I", "--include", "=pattern",
                     "Only files matching this pattern will be examined. Pattern supports",
                     "wildcards (example: -I '*.java' -I '*.c'). Option may be repeated.").execute(
@@ -930,6 +944,13 @@ public final class Indexer {
                 }
             );
 
+            parser.on("--streamingCollection", "=on|off", ON_OFF, Boolean.class,
+                    "If on, the files found during the traversal of the directory structure",
+                    "(or history) are indexed right away rather than after the traversal",
+                    "of the whole project is complete. This avoids holding the list of all",
+                    "the files to index in memory. The default is off.").
+                    execute(v -> cfg.setStreamingFileCollection((Boolean) v));
+
             parser.on("--style", "=path",
                     "Path to the subdirectory in the web application containing the requested",
                     "stylesheet. The factory-setting is: \"default\".").execute(stylePath ->
@@ -1007,6 +1028,13 @@ public final class Indexer {
                 LoggerUtil.setBaseConsoleLogLevel(Level.INFO);
             });
 
+            parser.on("--walkThreads", "=number", Integer.class,
+                    "The number of threads to use for listing the directories of the source tree",
+                    "ahead of the traversal done by the indexer and the index check. This helps",
+                    "when the source root is on network file system. By default (0) the directories",
+                    "are listed by the thread doing the traversal.").execute(threadCount ->
+                    cfg.setDirectoryWalkParallelism((Integer) threadCount));
+
             parser.on("-W", "--writeConfig", "=/path/to/configuration",
                     "Write the current configuration to the specified file (so that the web",
                     "application can use the same configuration).").execute(configFile ->
@@ -23,44 +23,67 @@
  */
 package org.opengrok.indexer.index;
 
+import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.jetbrains.annotations.Nullable;
 import org.opengrok.indexer.analysis.Ctags;
 import org.opengrok.indexer.analysis.CtagsValidator;
 import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
 import org.opengrok.indexer.util.BoundedBlockingObjectPool;
 import org.opengrok.indexer.util.LazilyInstantiate;
 import org.opengrok.indexer.util.ObjectFactory;
 import org.opengrok.indexer.util.ObjectPool;
+import org.opengrok.indexer.util.VirtualThreadExecutor;
 
 /**
  * Represents a container for executors that enable parallelism for indexing
  * across projects and repositories and also within any {@link IndexDatabase}
  * instance -- with global limits for all execution.
- * <p>A fixed-thread pool is used for parallelism across repositories, and a
- * {@link #lzIndexWorkExecutor} is used for parallelism within any
+ * <p>A fixed-thread pool is used for parallelism across repositories, and an
+ * {@link IndexPipeline} is used for parallelism within any
  * {@link IndexDatabase}. Threads in the former pool are customers of the
- * latter, and the bulk of work is done in the latter pool.
- * The {@link #lzIndexWorkExecutor} makes use of a corresponding fixed pool
- * of {@link Ctags} instances.
+ * latter, and the bulk of work is done in the latter.
+ * The ctags stage of the {@link IndexPipeline} makes use of a corresponding fixed pool
+ * of {@link Ctags} instances. The instances have their process started when created
+ * and they are replaced after processing given number of files
+ * (see {@link RuntimeEnvironment#getCtagsRecycleFileCount()}).
  * <p>Additionally there are pools for executing for history, for renames in
  * history, and for watching the {@link Ctags} instances for timing purposes.
+ * These can be backed by virtual threads, see
+ * {@link RuntimeEnvironment#isVirtualThreadsEnabled()}. In such case the history
+ * executors limit the number of concurrently running tasks (and thus SCM processes)
+ * to the configured history parallelism while the watcher executors are not limited
+ * as their customers already are.
+ * <p>Optionally, there is a fork-join pool for listing the directories of the source tree
+ * ahead of the traversal, see {@link DirectoryScanner}.
  */
 public class IndexerParallelizer implements AutoCloseable {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexerParallelizer.class);
+
     private final RuntimeEnvironment env;
     private final int indexingParallelism;
+    private final int directoryWalkParallelism;
 
+    private LazilyInstantiate<IndexPipeline> lzIndexPipeline;
     private LazilyInstantiate<ExecutorService> lzIndexWorkExecutor;
     private LazilyInstantiate<ObjectPool<Ctags>> lzCtagsPool;
     private LazilyInstantiate<ExecutorService> lzFixedExecutor;
     private LazilyInstantiate<ExecutorService> lzHistoryExecutor;
     private LazilyInstantiate<ExecutorService> lzHistoryFileExecutor;
+    private LazilyInstantiate<ExecutorService> lzHistoryChunkExecutor;
     private LazilyInstantiate<ExecutorService> lzCtagsWatcherExecutor;
     private LazilyInstantiate<ExecutorService> lzXrefWatcherExecutor;
+    private LazilyInstantiate<ForkJoinPool> lzDirectoryWalkPool;
 
     /**
      * Initializes a new instance using settings from the specified environment
@@ -77,14 +100,18 @@ public class IndexerParallelizer implements AutoCloseable {
          * an IndexerParallelizer instance.
          */
         this.indexingParallelism = env.getIndexingParallelism();
+        this.directoryWalkParallelism = env.getDirectoryWalkParallelism();
 
+        createLazyIndexPipeline();
         createIndexWorkExecutor();
         createLazyCtagsPool();
         createLazyFixedExecutor();
         createLazyHistoryExecutor();
         createLazyHistoryFileExecutor();
+        createLazyHistoryChunkExecutor();
         createLazyCtagsWatcherExecutor();
         createLazyXrefWatcherExecutor();
+        createLazyDirectoryWalkPool();
     }
 
     /**
@@ -95,12 +122,19 @@ public class IndexerParallelizer implements AutoCloseable {
     }
 
     /**
-     * @return the executor used for individual file processing in the 2nd stage of indexing
+     * @return the executor for processing individual files outside of the {@link IndexPipeline}
      */
     public ExecutorService getIndexWorkExecutor() {
         return lzIndexWorkExecutor.get();
     }
 
+    /**
+     * @return the pipeline used for individual file processing in the 2nd stage of indexing
+     */
+    IndexPipeline getIndexPipeline() {
+        return lzIndexPipeline.get();
+    }
+
     /**
      * @return the ctagsPool
      */
@@ -122,6 +156,13 @@ public class IndexerParallelizer implements AutoCloseable {
         return lzHistoryFileExecutor.get();
     }
 
+    /**
+     * @return the ExecutorService used for traversing per partes history chunks of a repository
+     */
+    public ExecutorService getHistoryChunkExecutor() {
+        return lzHistoryChunkExecutor.get();
+    }
+
     /**
      * @return the Executor used for ctags parallelism
      */
@@ -136,6 +177,18 @@ public class IndexerParallelizer implements AutoCloseable {
         return lzXrefWatcherExecutor.get();
     }
 
+    /**
+     * @return the pool used for listing the directories of the source tree or {@code null}
+     * if the directories should be listed by the traversing thread
+     */
+    @Nullable
+    ForkJoinPool getDirectoryWalkPool() {
+        if (directoryWalkParallelism < 1) {
+            return null;
+        }
+        return lzDirectoryWalkPool.get();
+    }
+
     /**
      * Calls {@link #bounce()}, which prepares for -- but does not start -- new
      * pools.
@@ -162,13 +215,24 @@ public class IndexerParallelizer implements AutoCloseable {
      * call this method satisfactorily too.
      */
     public void bounce() {
+        bounceIndexPipeline();
         bounceIndexWorkExecutor();
         bounceFixedExecutor();
         bounceCtagsPool();
         bounceHistoryExecutor();
         bounceHistoryRenamedExecutor();
+        bounceHistoryChunkExecutor();
         bounceCtagsWatcherExecutor();
         bounceXrefWatcherExecutor();
+        bounceDirectoryWalkPool();
+    }
+
+    private void bounceIndexPipeline() {
+        if (lzIndexPipeline.isActive()) {
+            IndexPipeline formerIndexPipeline = lzIndexPipeline.get();
+            createLazyIndexPipeline();
+            formerIndexPipeline.close();
+        }
     }
 
     private void bounceIndexWorkExecutor() {
@@ -211,6 +275,14 @@ public class IndexerParallelizer implements AutoCloseable {
         }
     }
 
+    private void bounceHistoryChunkExecutor() {
+        if (lzHistoryChunkExecutor.isActive()) {
+            ExecutorService formerHistoryChunkExecutor = lzHistoryChunkExecutor.get();
+            createLazyHistoryChunkExecutor();
+            formerHistoryChunkExecutor.shutdown();
+        }
+    }
+
     private void bounceCtagsWatcherExecutor() {
         if (lzCtagsWatcherExecutor.isActive()) {
             ExecutorService formerCtagsWatcherExecutor = lzCtagsWatcherExecutor.get();
@@ -227,6 +299,20 @@ public class IndexerParallelizer implements AutoCloseable {
         }
     }
 
+    private void bounceDirectoryWalkPool() {
+        if (lzDirectoryWalkPool.isActive()) {
+            ForkJoinPool formerDirectoryWalkPool = lzDirectoryWalkPool.get();
+            createLazyDirectoryWalkPool();
+            formerDirectoryWalkPool.shutdown();
+        }
+    }
+
+    private void createLazyIndexPipeline() {
+        lzIndexPipeline = LazilyInstantiate.using(() -> new IndexPipeline(indexingParallelism,
+                env.getIndexReadParallelism(), env.getIndexCtagsParallelism(),
+                env.getIndexAnalysisParallelism(), env.getIndexAddParallelism()));
+    }
+
     private void createIndexWorkExecutor() {
         lzIndexWorkExecutor = LazilyInstantiate.using(() ->
                 Executors.newFixedThreadPool(indexingParallelism,
@@ -241,14 +327,18 @@ public class IndexerParallelizer implements AutoCloseable {
 
     private void createLazyCtagsWatcherExecutor() {
         lzCtagsWatcherExecutor = LazilyInstantiate.using(() ->
-                new ScheduledThreadPoolExecutor(indexingParallelism,
-                        new OpenGrokThreadFactory("ctags-watcher")));
+                env.isVirtualThreadsEnabled() ?
+                        new VirtualThreadExecutor("ctags-watcher", 0) :
+                        new ScheduledThreadPoolExecutor(indexingParallelism,
+                                new OpenGrokThreadFactory("ctags-watcher")));
     }
 
     private void createLazyXrefWatcherExecutor() {
         lzXrefWatcherExecutor = LazilyInstantiate.using(() ->
-                new ScheduledThreadPoolExecutor(indexingParallelism,
-                        new OpenGrokThreadFactory("xref-watcher")));
+                env.isVirtualThreadsEnabled() ?
+                        new VirtualThreadExecutor("xref-watcher", 0) :
+                        new ScheduledThreadPoolExecutor(indexingParallelism,
+                                new OpenGrokThreadFactory("xref-watcher")));
     }
 
     private void createLazyFixedExecutor() {
@@ -259,20 +349,51 @@ public class IndexerParallelizer implements AutoCloseable {
 
     private void createLazyHistoryExecutor() {
         lzHistoryExecutor = LazilyInstantiate.using(() ->
-                Executors.newFixedThreadPool(env.getHistoryParallelism(),
-                        new OpenGrokThreadFactory("history")));
+                env.isVirtualThreadsEnabled() ?
+                        new VirtualThreadExecutor("history", env.getHistoryParallelism()) :
+                        Executors.newFixedThreadPool(env.getHistoryParallelism(),
+                                new OpenGrokThreadFactory("history")));
     }
 
     private void createLazyHistoryFileExecutor() {
         lzHistoryFileExecutor = LazilyInstantiate.using(() ->
-                Executors.newFixedThreadPool(env.getHistoryFileParallelism(),
-                        new OpenGrokThreadFactory("history-file")));
+                env.isVirtualThreadsEnabled() ?
+                        new VirtualThreadExecutor("history-file", env.getHistoryFileParallelism()) :
+                        Executors.newFixedThreadPool(env.getHistoryFileParallelism(),
+                                new OpenGrokThreadFactory("history-file")));
+    }
+
+    private void createLazyHistoryChunkExecutor() {
+        lzHistoryChunkExecutor = LazilyInstantiate.using(() ->
+                env.isVirtualThreadsEnabled() ?
+                        new VirtualThreadExecutor("history-chunk", env.getHistoryChunkParallelism()) :
+                        Executors.newFixedThreadPool(Math.max(env.getHistoryChunkParallelism(), 1),
+                                new OpenGrokThreadFactory("history-chunk")));
     }
 
-    private class CtagsObjectFactory implements ObjectFactory<Ctags> {
+    private void createLazyDirectoryWalkPool() {
+        lzDirectoryWalkPool = LazilyInstantiate.using(() ->
+                new ForkJoinPool(Math.max(1, directoryWalkParallelism), pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName(OpenGrokThreadFactory.PREFIX + "directory-walk-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false));
+    }
+
+    /**
+     * Creates {@link Ctags} instances with the process already running.
+     */
+    private static class CtagsObjectFactory implements ObjectFactory<Ctags> {
 
         public Ctags createNew() {
-            return new Ctags();
+            Ctags ctags = new Ctags();
+            try {
+                ctags.start();
+            } catch (IOException e) {
+                // The start will be retried on first use.
+                LOGGER.log(Level.WARNING, "cannot start ctags", e);
+            }
+            return ctags;
         }
     }
 }
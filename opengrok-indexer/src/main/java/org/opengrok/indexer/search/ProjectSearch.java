@@ -0,0 +1,230 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.search;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.jetbrains.annotations.Nullable;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.util.Statistics;
+
+/**
+ * Search of multiple projects where each project index is searched separately in the project search executor
+ * (see {@link RuntimeEnvironment#getProjectSearchExecutor()}) and the results are merged.
+ * <p>
+ * This is an alternative to searching single {@code MultiReader} combining the index readers of the projects.
+ * The time spent searching each project is recorded in the {@code search.project.latency} timer
+ * so that slow indexes can be identified.
+ * </p>
+ * <p>
+ * The document IDs in the merged results are relative to the {@code MultiReader} constructed from the readers
+ * in the same order, so that the documents can be retrieved in the usual way. The relevance scores are computed
+ * using the statistics of each project index rather than the statistics of all the indexes combined,
+ * hence the order of the hits with the same score may differ from the {@code MultiReader} search.
+ * </p>
+ */
+public final class ProjectSearch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectSearch.class);
+
+    private ProjectSearch() {
+        // private to enforce static
+    }
+
+    /**
+     * @param projectCount number of projects to be searched
+     * @return whether the projects should be searched via {@link #search(List, List, Query, Sort, int)}
+     */
+    public static boolean isEnabled(int projectCount) {
+        return projectCount > 1 && RuntimeEnvironment.getInstance().getMaxProjectSearchThreadCount() > 0;
+    }
+
+    /**
+     * Search the projects concurrently and merge the results.
+     *
+     * @param projects project names
+     * @param searchers searchers of the projects in the order of the project names
+     * @param query query
+     * @param sort sort order, {@code null} or {@link Sort#RELEVANCE} for sorting by relevance
+     * @param numHits number of top hits to collect
+     * @return merged top hits
+     * @throws IOException on error when searching some of the projects
+     */
+    public static TopDocs search(List<String> projects, List<? extends IndexSearcher> searchers, Query query,
+                                 @Nullable Sort sort, int numHits) throws IOException {
+        return search(projects, searchers, query, sort, numHits, null);
+    }
+
+    /**
+     * Search the projects concurrently and merge the results.
+     *
+     * @param projects project names
+     * @param searchers searchers of the projects in the order of the project names
+     * @param query query
+     * @param sort sort order, {@code null} or {@link Sort#RELEVANCE} for sorting by relevance
+     * @param numHits number of top hits to collect
+     * @param after the last hit of the previous results of this method (for the same arguments) to collect
+     *              the hits following it, or {@code null}
+     * @return merged top hits
+     * @throws IOException on error when searching some of the projects
+     */
+    public static TopDocs search(List<String> projects, List<? extends IndexSearcher> searchers, Query query,
+                                 @Nullable Sort sort, int numHits, @Nullable ScoreDoc after) throws IOException {
+
+        if (projects.size() != searchers.size()) {
+            throw new IllegalArgumentException(String.format("got %d projects and %d searchers",
+                    projects.size(), searchers.size()));
+        }
+
+        boolean relevance = sort == null || Sort.RELEVANCE.equals(sort);
+        ExecutorService executor = RuntimeEnvironment.getInstance().getProjectSearchExecutor();
+        List<Future<TopDocs>> futures = new ArrayList<>(searchers.size());
+        int[] docBases = new int[searchers.size()];
+        int docBase = 0;
+        for (int i = 0; i < searchers.size(); i++) {
+            String project = projects.get(i);
+            IndexReader reader = searchers.get(i).getIndexReader();
+            docBases[i] = docBase;
+            docBase += reader.maxDoc();
+            ScoreDoc projectAfter = getProjectAfter(after, i, docBases[i]);
+            futures.add(submit(executor, () ->
+                    searchProject(project, reader, query, relevance ? null : sort, numHits, projectAfter)));
+        }
+
+        TopDocs[] shardHits = relevance ? new TopDocs[futures.size()] : new TopFieldDocs[futures.size()];
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                shardHits[i] = futures.get(i).get();
+                // The merge breaks the ties using the shard index.
+                for (ScoreDoc scoreDoc : shardHits[i].scoreDocs) {
+                    scoreDoc.shardIndex = i;
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while searching the projects");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("failed to search the projects", e.getCause());
+        }
+
+        TopDocs topDocs = relevance ? TopDocs.merge(numHits, shardHits) :
+                TopDocs.merge(sort, numHits, (TopFieldDocs[]) shardHits);
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+            scoreDoc.doc += docBases[scoreDoc.shardIndex];
+        }
+        return topDocs;
+    }
+
+    /**
+     * Submit the task to the executor. If the executor was shut down in the meantime because of configuration
+     * change, the task is run in the calling thread.
+     */
+    private static Future<TopDocs> submit(ExecutorService executor, Callable<TopDocs> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            FutureTask<TopDocs> future = new FutureTask<>(task);
+            future.run();
+            return future;
+        }
+    }
+
+    /**
+     * The merged hits are ordered by the sort order, then by the index of the project and then by the document ID.
+     * Hence the hits of the projects preceding the project of the {@code after} hit that compare equal
+     * to the {@code after} hit w.r.t. the sort order were already returned, while such hits of the following
+     * projects were not.
+     *
+     * @param after the last hit of the previous results or {@code null}
+     * @param projectIndex index of the project
+     * @param docBase document ID base of the project
+     * @return the hit to search after in the project or {@code null}
+     */
+    @Nullable
+    private static ScoreDoc getProjectAfter(@Nullable ScoreDoc after, int projectIndex, int docBase) {
+        if (after == null) {
+            return null;
+        }
+
+        int doc;
+        if (projectIndex == after.shardIndex) {
+            doc = after.doc - docBase;
+        } else if (projectIndex < after.shardIndex) {
+            doc = Integer.MAX_VALUE;
+        } else {
+            doc = -1;
+        }
+        if (after instanceof FieldDoc fieldDoc) {
+            return new FieldDoc(doc, fieldDoc.score, fieldDoc.fields);
+        }
+        return new ScoreDoc(doc, after.score);
+    }
+
+    private static TopDocs searchProject(String project, IndexReader reader, Query query, @Nullable Sort sort,
+                                         int numHits, @Nullable ScoreDoc after) throws IOException {
+        Statistics stat = new Statistics();
+        // The searcher is not given the search executor so that the segments of the project index
+        // are searched in the thread of the project search executor.
+        IndexSearcher searcher = new IndexSearcher(reader);
+        // The collector managers eagerly allocate a priority queue of the requested size.
+        int projectNumHits = Math.clamp(reader.maxDoc(), 1, Math.max(1, numHits));
+        TopDocs topDocs;
+        if (sort == null) {
+            topDocs = searcher.search(query,
+                    new TopScoreDocCollectorManager(projectNumHits, after, Integer.MAX_VALUE));
+        } else {
+            topDocs = searcher.search(query,
+                    new TopFieldCollectorManager(sort, projectNumHits, (FieldDoc) after, Integer.MAX_VALUE));
+        }
+        stat.report(LOGGER, Level.FINEST, String.format("search of project '%s' done", project),
+                "search.project.latency", new String[]{"project", project});
+        return topDocs;
+    }
+}
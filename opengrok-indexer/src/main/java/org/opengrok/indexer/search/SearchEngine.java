@@ -44,6 +44,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
@@ -154,6 +155,10 @@ public class SearchEngine {
 
     private IndexSearcher searcher;
     private final ArrayList<SuperIndexSearcher> searcherList = new ArrayList<>();
+    /**
+     * Names of the projects searched via {@link ProjectSearch} or {@code null}.
+     */
+    private List<String> projectSearchNames;
 
     /**
      * Creates a new instance of SearchEngine which collects at most {@code maxDocs} documents,
@@ -209,7 +214,8 @@ public class SearchEngine {
         SuperIndexSearcher superIndexSearcher = env.getSuperIndexSearcher("");
         searcherList.add(superIndexSearcher);
         searcher = superIndexSearcher;
-        searchIndex(superIndexSearcher);
+        projectSearchNames = null;
+        searchIndex(null, maxDocs);
     }
 
     /**
@@ -224,23 +230,39 @@ public class SearchEngine {
         // We use MultiReader even for single project. This should not matter given that MultiReader is just
         // a cheap wrapper around set of IndexReader objects.
         searcher = env.getIndexSearcherFactory().newSearcher(env.getMultiReader(projectNames, searcherList));
-        searchIndex(searcher);
+        projectSearchNames = ProjectSearch.isEnabled(searcherList.size()) ? List.copyOf(projectNames) : null;
+        searchIndex(null, maxDocs);
     }
 
-    private void searchIndex(IndexSearcher searcher) throws IOException {
+    /**
+     * Collect the hits using {@link #searcher} (or {@link ProjectSearch} if {@link #projectSearchNames} is set)
+     * and load their documents.
+     * @param after the last hit of the previous search to collect the hits following it, or {@code null}
+     * @param count maximum number of hits to collect
+     * @throws IOException on error when searching
+     */
+    private void searchIndex(@Nullable ScoreDoc after, int count) throws IOException {
         Statistics stat = new Statistics();
+        if (after == null) {
+            SearchWarmer.getInstance().record(query);
+        }
         // The collector managers eagerly allocate a priority queue of the requested size, hence
         // the index-size cap, mirroring IndexSearcher#search(Query, int).
-        final int numHits = Math.clamp(searcher.getIndexReader().maxDoc(), 1, maxDocs);
+        final int numHits = Math.clamp(searcher.getIndexReader().maxDoc(), 1, count);
         TopDocs topDocs;
         Sort luceneSort = getSort();
-        if (luceneSort == null) {
-            topDocs = searcher.search(query, new TopScoreDocCollectorManager(numHits, Integer.MAX_VALUE));
+        if (projectSearchNames != null) {
+            topDocs = ProjectSearch.search(projectSearchNames, searcherList, query, luceneSort, numHits, after);
+        } else if (luceneSort == null) {
+            topDocs = searcher.search(query, new TopScoreDocCollectorManager(numHits, after, Integer.MAX_VALUE));
         } else {
-            topDocs = searcher.search(query, new TopFieldCollectorManager(luceneSort, numHits, Integer.MAX_VALUE));
+            topDocs = searcher.search(query,
+                    new TopFieldCollectorManager(luceneSort, numHits, (FieldDoc) after, Integer.MAX_VALUE));
         }
         hits = topDocs.scoreDocs;
-        totalHits = (int) topDocs.totalHits.value;
+        if (after == null) {
+            totalHits = (int) topDocs.totalHits.value;
+        }
 
         stat.report(LOGGER, Level.FINEST, "search via SearchEngine done",
                 "search.latency", new String[]{"category", "engine",
@@ -384,6 +406,32 @@ public class SearchEngine {
         return count;
     }
 
+    /**
+     * Collect next batch of hits following the last hit collected by {@code search(...)} or previous call
+     * of this method. The index searchers acquired by {@code search(...)} are used, so the hits reflect
+     * the state of the index at the time of the initial search.
+     * Afterwards, {@link #results(int, int, List)} works with the new batch of hits,
+     * while {@link #getTotalHits()} still reports the total match count.
+     *
+     * @param count positive maximum number of hits to collect
+     * @return number of collected hits, safe to pass to {@link #results(int, int, List)}
+     * @throws IOException if the index could not be read
+     * @throws IllegalStateException if no search was performed or it did not succeed
+     */
+    public int searchAfter(int count) throws IOException {
+        if (hits == null || searcher == null) {
+            throw new IllegalStateException("searchAfter(...) called without a successful search(...)");
+        }
+        if (hits.length == 0) {
+            return 0;
+        }
+
+        ScoreDoc after = hits[hits.length - 1];
+        docs.clear();
+        searchIndex(after, count);
+        return hits.length;
+    }
+
     /**
      * Gets the queried score docs from {@code search(...)} if it was called.
      * @return a defined instance if the query succeeded, or {@code null}
@@ -0,0 +1,145 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.util.Statistics;
+
+/**
+ * Runs queries on index searchers created for index readers reopened after reindex so that the first searches
+ * performed by the users do not have to pay the price of loading the index data structures.
+ * <p>
+ * The queries are the ones set in the configuration (see {@link RuntimeEnvironment#getSearchWarmupQueries()})
+ * and the most recently executed ones (see {@link RuntimeEnvironment#getSearchWarmupRecentQueries()}),
+ * recorded via {@link #record(Query)}.
+ * </p>
+ */
+public final class SearchWarmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchWarmer.class);
+
+    private static final SearchWarmer instance = new SearchWarmer();
+
+    /**
+     * Number of hits to collect for each query. The point is to touch the postings, not to get the results.
+     */
+    private static final int WARMUP_HITS = 10;
+
+    /**
+     * Recently executed queries, the most recent one last.
+     */
+    private final LinkedHashSet<Query> recentQueries = new LinkedHashSet<>();
+
+    private SearchWarmer() {
+    }
+
+    public static SearchWarmer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Remember the query as recently executed one.
+     * @param query query
+     */
+    public void record(Query query) {
+        int limit = RuntimeEnvironment.getInstance().getSearchWarmupRecentQueries();
+        synchronized (recentQueries) {
+            recentQueries.remove(query);
+            if (limit <= 0) {
+                recentQueries.clear();
+                return;
+            }
+            recentQueries.add(query);
+            Iterator<Query> iterator = recentQueries.iterator();
+            while (recentQueries.size() > limit && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return queries to run when warming up the searcher
+     */
+    @VisibleForTesting
+    List<Query> getQueries() {
+        List<Query> queries = new ArrayList<>();
+        for (String queryString : RuntimeEnvironment.getInstance().getSearchWarmupQueries()) {
+            try {
+                queries.add(new QueryBuilder().setFreetext(queryString).build());
+            } catch (ParseException e) {
+                LOGGER.log(Level.WARNING, String.format("cannot parse search warmup query '%s'", queryString), e);
+            }
+        }
+        synchronized (recentQueries) {
+            for (Query query : recentQueries) {
+                if (!queries.contains(query)) {
+                    queries.add(query);
+                }
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Run the warmup queries on the searcher.
+     * @param searcher index searcher
+     */
+    public void warm(IndexSearcher searcher) {
+        List<Query> queries = getQueries();
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        Statistics stat = new Statistics();
+        for (Query query : queries) {
+            try {
+                searcher.search(query, WARMUP_HITS);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, String.format("search warmup query '%s' failed", query), e);
+            }
+        }
+        stat.report(LOGGER, Level.FINE, String.format("ran %d search warmup queries for %s",
+                queries.size(), searcher.getIndexReader()));
+    }
+
+    @VisibleForTesting
+    void clear() {
+        synchronized (recentQueries) {
+            recentQueries.clear();
+        }
+    }
+}
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2005, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2005, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2017, 2020, Chris Fraire <cfraire@me.com>.
  */
 package org.opengrok.indexer.search.context;
@@ -37,6 +37,7 @@ import java.util.logging.Logger;
 import org.apache.lucene.search.Query;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.history.ChangesetIndex;
 import org.opengrok.indexer.history.History;
 import org.opengrok.indexer.history.HistoryEntry;
 import org.opengrok.indexer.history.HistoryException;
@@ -56,9 +57,17 @@ public class HistoryContext {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HistoryContext.class);
 
+    private static final int MAX_MATCHED_LINES = 10;
+
     private final LineMatcher[] m;
     HistoryLineTokenizer tokens;
 
+    /**
+     * Part of the query that searches in the history field, used to query the changeset index.
+     */
+    @Nullable
+    private final Query historyQuery;
+
     /**
      * Map whose keys tell which fields to look for in the history, and
      * whose values tell if the field is case insensitive (true for
@@ -73,6 +82,7 @@ public class HistoryContext {
         if (m != null) {
             tokens = new HistoryLineTokenizer(null);
         }
+        historyQuery = m == null ? null : ChangesetIndex.getHistoryQuery(query);
     }
     public boolean isEmpty() {
         return m == null;
@@ -83,6 +93,9 @@ public class HistoryContext {
             return false;
         }
         File f = new File(filename);
+        if (getChangesetContext(f, path, null, hits, null)) {
+            return true;
+        }
         History history = HistoryGuru.getInstance().getHistory(f);
         if (history == null) {
             LOGGER.log(Level.INFO, "Null history got for {0}", f);
@@ -114,6 +127,9 @@ public class HistoryContext {
         if (m == null) {
             return false;
         }
+        if (getChangesetContext(src, path, out, null, context)) {
+            return true;
+        }
         History hist = HistoryGuru.getInstance().getHistory(src);
         if (hist == null) {
             LOGGER.log(Level.INFO, "Null history got for {0}", src);
@@ -122,6 +138,44 @@ public class HistoryContext {
         return getHistoryContext(hist, path, out, null, context);
     }
 
+    /**
+     * Writes history log entries matched in the changeset index to either 'out' or to 'hits'.
+     * This avoids reading the complete history of the file.
+     * @param file the source file
+     * @param path path of the file (rooted at SOURCE_ROOT)
+     * @param out to write matched context
+     * @param hits list of {@link Hit} instances
+     * @param urlPrefix URL prefix
+     * @return whether there was at least one line that matched. If {@code false}, the caller should
+     * fall back to matching the complete history as the changeset index might not be available
+     * or might not contain the changesets of the file under its current path (e.g. renamed files).
+     */
+    private boolean getChangesetContext(File file, String path, @Nullable Writer out, @Nullable List<Hit> hits,
+                                        String urlPrefix) {
+        if (historyQuery == null) {
+            return false;
+        }
+
+        int matchedLines = 0;
+        try {
+            List<ChangesetIndex.Match> matches = ChangesetIndex.search(file, path, historyQuery, MAX_MATCHED_LINES);
+            if (matches == null) {
+                return false;
+            }
+            for (ChangesetIndex.Match match : matches) {
+                if (matchedLines >= MAX_MATCHED_LINES) {
+                    break;
+                }
+                HistoryEntry entry = match.entry();
+                matchedLines += matchLine(entry.getLine(), urlPrefix, path, out, hits,
+                        entry.getRevision(), match.previousRevision());
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, e, () -> "Could not get changeset context for " + path);
+        }
+        return matchedLines > 0;
+    }
+
     private int matchLine(String line, String urlPrefix, String path, @Nullable Writer out, @Nullable List<Hit> hits,
                    String rev, String nrev) throws IOException {
 
@@ -194,7 +248,7 @@ public class HistoryContext {
             HistoryEntry he;
             HistoryEntry nhe = null;
             String nrev;
-            while ((it.hasNext() || (nhe != null)) && matchedLines < 10) {
+            while ((it.hasNext() || (nhe != null)) && matchedLines < MAX_MATCHED_LINES) {
                 if (nhe == null) {
                     he = it.next();
                 } else {
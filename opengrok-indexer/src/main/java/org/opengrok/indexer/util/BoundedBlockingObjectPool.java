@@ -118,7 +118,9 @@ public final class BoundedBlockingObjectPool<T> extends AbstractObjectPool<T>
     }
 
     /*
-     * Creates a new instance, and returns that instead to the pool.
+     * Invalidates the instance, creates a new instance, and returns that instead to the pool.
+     * This is done asynchronously as both can be slow (e.g. terminating and starting a process)
+     * and should not hold the thread releasing the instance.
      */
     @Override
     protected void handleInvalidReturn(T t) {
@@ -127,8 +129,10 @@ public final class BoundedBlockingObjectPool<T> extends AbstractObjectPool<T>
                 t.getClass());
         }
 
-        t = objectFactory.createNew();
-        executor.submit(new ObjectReturner<>(objects, t, puttingLast));
+        executor.submit(() -> {
+            validator.invalidate(t);
+            return new ObjectReturner<>(objects, objectFactory.createNew(), puttingLast).call();
+        });
     }
 
     @Override
@@ -179,6 +179,30 @@ public class CtagsUtil {
         return result;
     }
 
+    /**
+     * Gets the set of optional features by executing {@code --list-features} for the specified binary.
+     * @return empty set on failure to run, or a defined set
+     */
+    public static Set<String> getFeatures(String ctagsBinary) {
+        Executor executor = new Executor(new String[]{ctagsBinary, "--list-features"});
+        int rc = executor.exec(false);
+        String output = executor.getOutputString();
+        if (output == null || rc != 0) {
+            LOGGER.log(Level.WARNING, "Failed to get Ctags features");
+            return Collections.emptySet();
+        }
+
+        Set<String> result = new HashSet<>();
+        for (String line : output.split("\\R")) {
+            // The first line is a header starting with '#', the rest is the feature name and description.
+            String[] tokens = line.trim().split("\\s+", 2);
+            if (!tokens[0].isEmpty() && !tokens[0].startsWith("#")) {
+                result.add(tokens[0]);
+            }
+        }
+        return result;
+    }
+
     /**
      * Deletes Ctags temporary files left over after terminating Ctags processes
      * in case of timeout or Ctags crash, @see Ctags#doCtags.
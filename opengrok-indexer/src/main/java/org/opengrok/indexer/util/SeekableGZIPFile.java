@@ -0,0 +1,272 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.util;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Reads files written by {@link SeekableGZIPOutputStream} starting at given line.
+ * <p>
+ * The format is a valid gzip file (RFC 1952) consisting of multiple members, so it can be read as a whole
+ * by {@link GZIPInputStream} or the {@code gzip} tool. Each member but the last one is a block of lines which
+ * can be decompressed on its own. The last member is empty and carries the index in the extra field of its header:
+ * </p>
+ * <ul>
+ *     <li>version (byte)</li>
+ *     <li>number of lines (int)</li>
+ *     <li>number of the index entries (int)</li>
+ *     <li>the index entries, each consisting of the file offset of a block (long) and the number of the lines
+ *     preceding the block (int)</li>
+ *     <li>file offset of the last member (long)</li>
+ *     <li>magic number (int)</li>
+ * </ul>
+ * <p>
+ * As the last member has fixed size trailer, the index can be located from the end of the file. Files without
+ * the index (e.g. written by {@link java.util.zip.GZIPOutputStream}) are read from the beginning.
+ * </p>
+ * <p>
+ * The line access is used only for the xref line ranges of the {@code /file/xref} API endpoint.
+ * The web pages do not need it: {@code list.jsp} renders the whole xref, {@code xref.jspf} generates the xref
+ * from the source rather than reading the stored one and the "more" context is produced from the index
+ * or the source file. These read the file sequentially, which works for both formats.
+ * </p>
+ */
+public final class SeekableGZIPFile {
+
+    static final int VERSION = 1;
+    static final int MAGIC = 0x4f47495a;
+    static final byte SUBFIELD_ID1 = 'O';
+    static final byte SUBFIELD_ID2 = 'G';
+
+    /**
+     * Compressed empty input (final block with fixed Huffman codes), CRC32 and size of the empty member.
+     */
+    static final byte[] EMPTY_MEMBER_TRAILER = {3, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final int HEADER_LENGTH = 10;
+    private static final int MAX_SUBFIELD_LENGTH = 0xffff - 4;
+    private static final int INDEX_FIXED_LENGTH = 1 + 4 + 4 + 8 + 4;
+    private static final int INDEX_ENTRY_LENGTH = 8 + 4;
+    private static final int TAIL_LENGTH = 8 + 4 + EMPTY_MEMBER_TRAILER.length;
+
+    /**
+     * Maximum number of the index entries so that the index fits into the extra field.
+     */
+    static final int MAX_INDEX_ENTRIES = (MAX_SUBFIELD_LENGTH - INDEX_FIXED_LENGTH) / INDEX_ENTRY_LENGTH;
+
+    /**
+     * @param lineCount number of lines
+     * @param offsets file offsets of the blocks
+     * @param lines numbers of the lines preceding the blocks
+     */
+    record Index(int lineCount, long[] offsets, int[] lines) {
+    }
+
+    private SeekableGZIPFile() {
+        // private to enforce static
+    }
+
+    /**
+     * @param channel file channel
+     * @return the index or {@code null} if the file does not contain it
+     * @throws IOException on I/O error
+     */
+    @VisibleForTesting
+    @Nullable
+    static Index readIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_LENGTH + TAIL_LENGTH) {
+            return null;
+        }
+
+        ByteBuffer tail = read(channel, size - TAIL_LENGTH, TAIL_LENGTH);
+        long indexOffset = tail.getLong();
+        int magic = tail.getInt();
+        byte[] trailer = new byte[EMPTY_MEMBER_TRAILER.length];
+        tail.get(trailer);
+        if (magic != MAGIC || !Arrays.equals(trailer, EMPTY_MEMBER_TRAILER) ||
+                indexOffset < 0 || size - indexOffset > HEADER_LENGTH + 4 + 0xffff + EMPTY_MEMBER_TRAILER.length) {
+            return null;
+        }
+
+        ByteBuffer member = read(channel, indexOffset, (int) (size - indexOffset));
+        member.order(ByteOrder.LITTLE_ENDIAN);
+        if (member.get(0) != 0x1f || member.get(1) != (byte) 0x8b || member.get(2) != 8 || member.get(3) != 4) {
+            return null;
+        }
+        member.position(HEADER_LENGTH);
+        int extraLength = Short.toUnsignedInt(member.getShort());
+        byte id1 = member.get();
+        byte id2 = member.get();
+        int dataLength = Short.toUnsignedInt(member.getShort());
+        if (id1 != SUBFIELD_ID1 || id2 != SUBFIELD_ID2 || extraLength != dataLength + 4 ||
+                dataLength < INDEX_FIXED_LENGTH || (dataLength - INDEX_FIXED_LENGTH) % INDEX_ENTRY_LENGTH != 0) {
+            return null;
+        }
+
+        member.order(ByteOrder.BIG_ENDIAN);
+        if (member.get() != VERSION) {
+            return null;
+        }
+        int lineCount = member.getInt();
+        int entries = member.getInt();
+        if (entries != (dataLength - INDEX_FIXED_LENGTH) / INDEX_ENTRY_LENGTH) {
+            return null;
+        }
+        long[] offsets = new long[entries];
+        int[] lines = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            offsets[i] = member.getLong();
+            lines[i] = member.getInt();
+        }
+        return new Index(lineCount, offsets, lines);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Open the file for reading starting at given line. If the file is compressed and contains the index,
+     * only the block containing the line is skipped over, otherwise all the data preceding the line is read.
+     *
+     * @param file file to read
+     * @param compressed whether the file is gzip compressed
+     * @param startLine number of the first line to read (starting with 1)
+     * @param lineCount number of lines to read, non-positive value means all the remaining lines
+     * @return input stream with the (decompressed) data of the lines
+     * @throws IOException on I/O error
+     */
+    public static InputStream open(File file, boolean compressed, int startLine, int lineCount) throws IOException {
+        FileInputStream fileIn = new FileInputStream(file);
+        try {
+            int skip = Math.max(0, startLine - 1);
+            InputStream in;
+            if (compressed) {
+                Index index = readIndex(fileIn.getChannel());
+                if (index != null && index.offsets().length > 0) {
+                    int i = Arrays.binarySearch(index.lines(), skip);
+                    if (i < 0) {
+                        i = Math.max(0, -i - 2);
+                    } else {
+                        // Empty blocks are not produced, so the line numbers are unique.
+                        i = Math.max(0, i);
+                    }
+                    fileIn.getChannel().position(index.offsets()[i]);
+                    skip -= index.lines()[i];
+                }
+                in = new BufferedInputStream(new GZIPInputStream(fileIn));
+            } else {
+                in = new BufferedInputStream(fileIn);
+            }
+
+            skipLines(in, skip);
+            return lineCount > 0 ? new LineLimitInputStream(in, lineCount) : in;
+        } catch (IOException | RuntimeException e) {
+            fileIn.close();
+            throw e;
+        }
+    }
+
+    private static void skipLines(InputStream in, int count) throws IOException {
+        int c;
+        while (count > 0 && (c = in.read()) != -1) {
+            if (c == '\n') {
+                count--;
+            }
+        }
+    }
+
+    /**
+     * Ends the stream after given number of lines.
+     */
+    private static final class LineLimitInputStream extends FilterInputStream {
+        private int remaining;
+
+        LineLimitInputStream(InputStream in, int lines) {
+            super(in);
+            this.remaining = lines;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int c = in.read();
+            if (c == '\n') {
+                remaining--;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, len);
+            for (int i = off; i < off + n; i++) {
+                if (b[i] == '\n' && --remaining == 0) {
+                    // The rest of the data is not needed.
+                    return i + 1 - off;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && read() != -1) {
+                skipped++;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream that writes gzip data in blocks which can be decompressed independently, followed by an index
+ * that maps line numbers to the blocks. See {@link SeekableGZIPFile} for the description of the format
+ * and for reading the data starting at given line.
+ * <p>
+ * The blocks are terminated after a newline character ({@code '\n'}) once they reach the block size,
+ * so each block starts at the beginning of a line. This assumes an encoding where the newline byte
+ * cannot be part of multibyte character (e.g. UTF-8).
+ * </p>
+ */
+public class SeekableGZIPOutputStream extends OutputStream {
+
+    /**
+     * Default number of uncompressed bytes in a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private final CountingOutputStream out;
+    private final int blockSize;
+
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> lines = new ArrayList<>();
+    /**
+     * Only each {@code stride}-th block is recorded in the index so that the index fits into the gzip header.
+     */
+    private int stride = 1;
+    private int blockCount;
+
+    private GZIPOutputStream block;
+    private int blockBytes;
+    private int lineCount;
+    private boolean closed;
+
+    /**
+     * Counts the bytes written and shields the underlying stream from being closed by the blocks.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The blocks would close the stream.
+            flush();
+        }
+
+        void closeUnderlying() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * @param out output stream
+     */
+    public SeekableGZIPOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param out output stream
+     * @param blockSize minimum number of uncompressed bytes in a block (the last block can be smaller)
+     */
+    public SeekableGZIPOutputStream(OutputStream out, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("block size has to be positive");
+        }
+        this.out = new CountingOutputStream(out);
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+
+        int end = off + len;
+        while (off < end) {
+            if (block == null) {
+                startBlock();
+            }
+
+            int chunkEnd = end;
+            if (blockBytes + (end - off) >= blockSize) {
+                int newline = indexOfNewline(b, off + Math.max(0, blockSize - blockBytes - 1), end);
+                if (newline >= 0) {
+                    chunkEnd = newline + 1;
+                }
+            }
+
+            block.write(b, off, chunkEnd - off);
+            lineCount += countNewlines(b, off, chunkEnd);
+            blockBytes += chunkEnd - off;
+            off = chunkEnd;
+
+            if (blockBytes >= blockSize && b[chunkEnd - 1] == '\n') {
+                finishBlock();
+            }
+        }
+    }
+
+    private static int indexOfNewline(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int countNewlines(byte[] b, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (b[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void startBlock() throws IOException {
+        if (blockCount % stride == 0) {
+            if (offsets.size() >= SeekableGZIPFile.MAX_INDEX_ENTRIES) {
+                // Drop every other entry. The remaining blocks still cover the data as they are
+                // read sequentially until the requested line is reached.
+                int kept = 0;
+                for (int i = 0; i < offsets.size(); i += 2) {
+                    offsets.set(kept, offsets.get(i));
+                    lines.set(kept, lines.get(i));
+                    kept++;
+                }
+                offsets.subList(kept, offsets.size()).clear();
+                lines.subList(kept, lines.size()).clear();
+                stride *= 2;
+            }
+            if (blockCount % stride == 0) {
+                offsets.add(out.count);
+                lines.add(lineCount);
+            }
+        }
+        blockCount++;
+        block = new GZIPOutputStream(out);
+        blockBytes = 0;
+    }
+
+    private void finishBlock() throws IOException {
+        block.close();
+        block = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (block != null) {
+            block.flush();
+        }
+        out.flush();
+    }
+
+    /**
+     * Terminate the last block and write the index.
+     * @throws IOException on error
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (block == null && blockCount == 0) {
+                // Produce valid gzip data even if nothing was written.
+                startBlock();
+            }
+            if (block != null) {
+                finishBlock();
+            }
+            writeIndex();
+        } finally {
+            out.closeUnderlying();
+        }
+    }
+
+    /**
+     * Write the index as the extra field of an empty gzip member.
+     */
+    private void writeIndex() throws IOException {
+        long indexOffset = out.count;
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (DataOutputStream dataOut = new DataOutputStream(data)) {
+            dataOut.writeByte(SeekableGZIPFile.VERSION);
+            dataOut.writeInt(lineCount);
+            dataOut.writeInt(offsets.size());
+            for (int i = 0; i < offsets.size(); i++) {
+                dataOut.writeLong(offsets.get(i));
+                dataOut.writeInt(lines.get(i));
+            }
+            dataOut.writeLong(indexOffset);
+            dataOut.writeInt(SeekableGZIPFile.MAGIC);
+        }
+        byte[] subfield = data.toByteArray();
+
+        int extraLength = 4 + subfield.length;
+        byte[] header = {
+                0x1f, (byte) 0x8b, // magic
+                8, // deflate
+                4, // FEXTRA
+                0, 0, 0, 0, // modification time
+                0, // extra flags
+                (byte) 0xff, // unknown OS
+                (byte) extraLength, (byte) (extraLength >> 8),
+                SeekableGZIPFile.SUBFIELD_ID1, SeekableGZIPFile.SUBFIELD_ID2,
+                (byte) subfield.length, (byte) (subfield.length >> 8)
+        };
+        out.write(header);
+        out.write(subfield);
+        out.write(SeekableGZIPFile.EMPTY_MEMBER_TRAILER);
+        out.flush();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.util;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
+
+/**
+ * Executor service that runs each task in new virtual thread. Unlike with fixed thread pool,
+ * the tasks waiting for their turn do not occupy any platform thread.
+ * <p>
+ * Optionally, the number of tasks running at the same time can be limited. This is meant for the work
+ * that depends on genuinely scarce resource, e.g. SCM processes or file descriptors.
+ * </p>
+ */
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService executor;
+    @Nullable
+    private final Semaphore permits;
+
+    /**
+     * @param name name of the executor, used as thread name prefix (in the same way as {@link OpenGrokThreadFactory})
+     * @param limit maximum number of tasks running at the same time, non-positive value means unlimited
+     */
+    public VirtualThreadExecutor(String name, int limit) {
+        String prefix = name.endsWith("-") ? name : name + "-";
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(OpenGrokThreadFactory.PREFIX + prefix, 0).factory());
+        this.permits = limit > 0 ? new Semaphore(limit) : null;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        Objects.requireNonNull(command, "command");
+        if (permits == null) {
+            executor.execute(command);
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Interrupted by shutdownNow() before the task got its turn. Make sure nobody waits for it forever.
+                if (command instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * @return number of tasks that can be started right away or -1 if the executor is not limited
+     */
+    public int getAvailablePermits() {
+        return permits == null ? -1 : permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @NotNull
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -26,6 +26,10 @@ import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -157,16 +161,35 @@ public class EftarFile {
         }
     }
 
+    /**
+     * Write the file. The file is written into temporary file which then replaces the output file
+     * so that the readers which have the output file memory mapped are not affected.
+     * @param outPath path of the output file
+     * @throws IOException on I/O error
+     */
     public void write(String outPath) throws IOException {
         offset = RECORD_LENGTH;
         traverse(root);
-        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outPath)))) {
-            out.writeLong(0x5e33);
-            out.writeShort(RECORD_LENGTH);
-            out.writeShort(root.children.size());
-            out.writeShort(0);
-            offset = RECORD_LENGTH;
-            write(root, out);
+        Path out = Path.of(outPath).toAbsolutePath();
+        // Not using Files.createTempFile() to get the default file permissions.
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tmp.toFile())))) {
+                dataOut.writeLong(0x5e33);
+                dataOut.writeShort(RECORD_LENGTH);
+                dataOut.writeShort(root.children.size());
+                dataOut.writeShort(0);
+                offset = RECORD_LENGTH;
+                write(root, dataOut);
+            }
+            try {
+                Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 
@@ -18,29 +18,38 @@
  */
 
 /*
- * Copyright (c) 2005, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2005, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.indexer.web;
 
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.StringTokenizer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import org.opengrok.indexer.logger.LoggerFactory;
-import org.opengrok.indexer.util.IOUtils;
 
 /**
  * An Extremely Fast Tagged Attribute Read-only File Reader.
  * Created on October 12, 2005
+ * <p>
+ * The file is memory mapped and the nodes of the tree are indexed by the hashes of the path components
+ * when the reader is created so that the lookups do not have to walk the tree. The reader does not keep
+ * any per lookup state, so a single instance can be shared by concurrent requests
+ * (see {@link org.opengrok.indexer.configuration.RuntimeEnvironment#getDtagsEftarReader()}).
+ * </p>
  *
  * @author Chandan
  */
@@ -48,31 +57,57 @@ public class EftarFileReader implements Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EftarFileReader.class);
 
-    private final RandomAccessFile f;
-    private boolean isOpen;
+    private final File file;
+    private final long lastModified;
+    private final long length;
 
-    public class FNode {
+    private final ByteBuffer buffer;
 
-        private final long offset;
-        private long hash;
-        private int childOffset;
-        private int numChildren;
-        private int tagOffset;
+    /**
+     * Maps the hashes of the path components to the node offsets and descriptions.
+     */
+    private final Map<PathKey, Entry> nodes = new HashMap<>();
 
-        public FNode() throws IOException {
-            offset = f.getFilePointer();
+    private volatile boolean isOpen;
 
-            try {
-                hash = f.readLong();
-                childOffset = f.readUnsignedShort();
-                numChildren = f.readUnsignedShort();
-                tagOffset = f.readUnsignedShort();
-            } catch (EOFException e) {
-                numChildren = 0;
-                tagOffset = 0;
-            }
+    /**
+     * Sequence of the path component hashes.
+     */
+    private static final class PathKey {
+        private final long[] hashes;
+        private final int hashCode;
+
+        PathKey(long[] hashes) {
+            this.hashes = hashes;
+            this.hashCode = Arrays.hashCode(hashes);
         }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PathKey && Arrays.equals(hashes, ((PathKey) o).hashes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * @param offset offset of the node record
+     * @param description description of the node or of its closest ancestor which has one
+     */
+    private record Entry(int offset, String description) {
+    }
+
+    public class FNode {
+
+        private final long offset;
+        private final long hash;
+        private final int childOffset;
+        private final int numChildren;
+        private final int tagOffset;
+
         public FNode(long hash, long offset, int childOffset, int num, int tagOffset) {
             this.hash = hash;
             this.offset = offset;
@@ -90,18 +125,17 @@ public class EftarFileReader implements Closeable {
 
         private FNode binarySearch(long start, int len, long hash) throws IOException {
             int b = 0;
-            int e = len;
+            int e = len - 1;
             while (b <= e) {
-                int m = (b + e) / 2;
-                f.seek(start + (long) m * EftarFile.RECORD_LENGTH);
-                long mhash = f.readLong();
+                int m = (b + e) >>> 1;
+                long recordOffset = start + (long) m * EftarFile.RECORD_LENGTH;
+                long mhash = readLong(recordOffset);
                 if (hash > mhash) {
                     b = m + 1;
                 } else if (hash < mhash) {
                     e = m - 1;
                 } else {
-                    return new FNode(mhash, f.getFilePointer() - 8L, f.readUnsignedShort(), f.readUnsignedShort(),
-                            f.readUnsignedShort());
+                    return readNode(recordOffset);
                 }
             }
             return null;
@@ -111,18 +145,7 @@ public class EftarFileReader implements Closeable {
             if (tagOffset == 0) {
                 return null;
             }
-            f.seek(offset + tagOffset);
-            byte[] tagString;
-            if (childOffset == 0) {
-                tagString = new byte[numChildren];
-            } else {
-                tagString = new byte[childOffset - tagOffset];
-            }
-            int len = f.read(tagString);
-            if (len == -1) {
-                throw new EOFException();
-            }
-            return new String(tagString, 0, len);
+            return readTag(offset + tagOffset, childOffset == 0 ? numChildren : childOffset - tagOffset);
         }
 
         @Override
@@ -143,30 +166,106 @@ public class EftarFileReader implements Closeable {
         }
     }
 
-    public EftarFileReader(String file) throws FileNotFoundException {
+    public EftarFileReader(String file) throws IOException {
         this(new File(file));
     }
 
-    public EftarFileReader(File file) throws FileNotFoundException {
-        f = new RandomAccessFile(file, "r");
+    public EftarFileReader(File file) throws IOException {
+        this.file = file;
+        // Get the time stamp before opening the file so that if the file is replaced meanwhile,
+        // the reader is found outdated by isCurrent() rather than the other way around.
+        lastModified = file.lastModified();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            length = channel.size();
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        buildIndex();
         isOpen = true;
     }
 
+    private long readLong(long offset) throws EOFException {
+        if (offset < 0 || offset + Long.BYTES > length) {
+            throw new EOFException();
+        }
+        return buffer.getLong((int) offset);
+    }
+
+    private int readUnsignedShort(long offset) throws EOFException {
+        if (offset < 0 || offset + Short.BYTES > length) {
+            throw new EOFException();
+        }
+        return Short.toUnsignedInt(buffer.getShort((int) offset));
+    }
+
+    private FNode readNode(long offset) throws EOFException {
+        return new FNode(readLong(offset), offset, readUnsignedShort(offset + 8),
+                readUnsignedShort(offset + 10), readUnsignedShort(offset + 12));
+    }
+
+    private String readTag(long offset, int tagLength) throws EOFException {
+        if (offset >= length) {
+            throw new EOFException();
+        }
+        byte[] tag = new byte[(int) Math.min(tagLength, length - offset)];
+        buffer.get((int) offset, tag);
+        return new String(tag);
+    }
+
+    /**
+     * Index all nodes of the tree by the hashes of their path components.
+     */
+    private void buildIndex() throws IOException {
+        if (length < EftarFile.RECORD_LENGTH) {
+            return;
+        }
+
+        record Pending(FNode node, long[] hashes, String description) {
+        }
+
+        Deque<Pending> pending = new ArrayDeque<>();
+        pending.push(new Pending(readNode(0), new long[0], ""));
+        while (!pending.isEmpty()) {
+            Pending parent = pending.pop();
+            FNode node = parent.node();
+            if (node.childOffset == 0 || node.numChildren == 0) {
+                continue;
+            }
+            long start = node.offset + node.childOffset;
+            for (int i = 0; i < node.numChildren; i++) {
+                FNode child = readNode(start + (long) i * EftarFile.RECORD_LENGTH);
+                long[] hashes = Arrays.copyOf(parent.hashes(), parent.hashes().length + 1);
+                hashes[hashes.length - 1] = child.hash;
+                String tag = child.getTag();
+                String description = tag != null ? tag : parent.description();
+                nodes.put(new PathKey(hashes), new Entry((int) child.offset, description));
+                pending.push(new Pending(child, hashes, description));
+            }
+        }
+    }
+
+    private static long[] getHashes(String path, String delimiters) {
+        StringTokenizer toks = new StringTokenizer(path, delimiters);
+        long[] hashes = new long[toks.countTokens()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = EftarFile.myHash(toks.nextToken());
+        }
+        return hashes;
+    }
+
     public FNode getNode(String path) throws IOException {
-        StringTokenizer toks = new StringTokenizer(path, "/");
-        f.seek(0);
-        FNode n = new FNode();
-        if (File.separator.equals(path) || path.length() == 0) {
-            return n;
+        if (File.separator.equals(path) || path.isEmpty()) {
+            return readNode(0);
         }
-        FNode next = null;
-        while (toks.hasMoreTokens() && ((next = n.get(EftarFile.myHash(toks.nextToken()))) != null)) {
-            n = next;
+        long[] hashes = getHashes(path, "/");
+        if (hashes.length == 0) {
+            return null;
         }
-        if (!toks.hasMoreElements()) {
-            return next;
+        Entry entry = nodes.get(new PathKey(hashes));
+        if (entry == null) {
+            return null;
         }
-        return null;
+        return readNode(entry.offset());
     }
 
     public String getChildTag(FNode fn, String name) throws IOException {
@@ -180,48 +279,32 @@ public class EftarFileReader implements Closeable {
     }
 
     /**
-     * Get description for path.
+     * Get description for path. This is the description of the longest prefix of the path
+     * which has a description.
      * @param path path relative to source root
      * @return path description string
      * @throws IOException I/O
      */
     public String get(String path) throws IOException {
-        f.seek(0);
-        FNode n = new FNode();
-        FNode next;
-        long tagOffset = 0;
-        int tagLength = 0;
-        var tokens = Arrays.stream(path.split("/"))
-                .filter(Objects::nonNull)
-                .filter(tok -> !tok.isEmpty())
-                .collect(Collectors.toList());
-        for (var tok : tokens) {
-            next = n.get(EftarFile.myHash(tok));
-            if (next == null) {
-                break;
-            }
-            if (next.tagOffset != 0) {
-                tagOffset = next.offset + next.tagOffset;
-                if (next.childOffset == 0) {
-                    tagLength = next.numChildren;
-                } else {
-                    tagLength = next.childOffset - next.tagOffset;
-                }
+        long[] hashes = getHashes(path, "/");
+        // The longest prefix of the path present in the tree.
+        for (int len = hashes.length; len > 0; len--) {
+            Entry entry = nodes.get(new PathKey(len == hashes.length ? hashes : Arrays.copyOf(hashes, len)));
+            if (entry != null) {
+                return entry.description();
             }
-            n = next;
-        }
-        if (tagOffset != 0) {
-            f.seek(tagOffset);
-            byte[] desc = new byte[tagLength];
-            int len = f.read(desc);
-            if (len == -1) {
-                throw new EOFException();
-            }
-            return new String(desc, 0, len);
         }
         return "";
     }
 
+    /**
+     * @param file eftar file
+     * @return whether this reader reflects the current content of the file
+     */
+    public boolean isCurrent(File file) {
+        return Objects.equals(this.file, file) && file.lastModified() == lastModified && file.length() == length;
+    }
+
     /**
      * Check, whether this instance has been already closed.
      * @return {@code true} if closed.
@@ -230,11 +313,12 @@ public class EftarFileReader implements Closeable {
         return !isOpen;
     }
 
+    /**
+     * Mark the reader as closed. The memory mapping is released once the reader is no longer referenced
+     * so that the requests which still use the reader are not affected.
+     */
     @Override
     public void close() {
-        if (isOpen) {
-            IOUtils.close(f);
-            isOpen = false;
-        }
+        isOpen = false;
     }
 }
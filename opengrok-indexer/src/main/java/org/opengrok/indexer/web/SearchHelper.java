@@ -76,7 +76,9 @@ import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.configuration.SuperIndexSearcher;
 import org.opengrok.indexer.index.IndexedSymlink;
 import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.search.ProjectSearch;
 import org.opengrok.indexer.search.QueryBuilder;
+import org.opengrok.indexer.search.SearchWarmer;
 import org.opengrok.indexer.search.SettingsHelper;
 import org.opengrok.indexer.search.Summarizer;
 import org.opengrok.indexer.search.context.Context;
@@ -469,6 +471,7 @@ public class SearchHelper {
      * <li>{@link #contextPath}</li> <li>{@link #errorMsg} if an error
      * occurs</li> <li>{@link #redirect} if certain conditions are met</li>
      * </ul>
+     * The hits of repeated searches are served from {@link SearchResultCache}.
      *
      * @return this instance
      */
@@ -481,14 +484,28 @@ public class SearchHelper {
             // is exact (rather than a lower-bound estimate). This keeps the hit count stable
             // across repeated searches and aligns it with the SearchEngine used by the REST API.
             int numHits = start + maxItems;
-            TopDocs fdocs;
-            if (Sort.RELEVANCE.equals(sort)) {
-                fdocs = searcher.search(query, new TopScoreDocCollectorManager(numHits, Integer.MAX_VALUE));
+            SearchWarmer.getInstance().record(query);
+            SearchResultCache resultCache = SearchResultCache.getInstance();
+            SearchResultCache.Key cacheKey = SearchResultCache.createKey(query, projects, sort, superIndexSearchers);
+            SearchResultCache.Result cached = cacheKey != null ? resultCache.get(cacheKey, numHits) : null;
+            if (cached != null) {
+                totalHits = cached.totalHits();
+                hits = cached.hits();
             } else {
-                fdocs = searcher.search(query, new TopFieldCollectorManager(sort, numHits, Integer.MAX_VALUE));
+                TopDocs fdocs;
+                if (ProjectSearch.isEnabled(superIndexSearchers.size())) {
+                    fdocs = ProjectSearch.search(List.copyOf(projects), superIndexSearchers, query, sort, numHits);
+                } else if (Sort.RELEVANCE.equals(sort)) {
+                    fdocs = searcher.search(query, new TopScoreDocCollectorManager(numHits, Integer.MAX_VALUE));
+                } else {
+                    fdocs = searcher.search(query, new TopFieldCollectorManager(sort, numHits, Integer.MAX_VALUE));
+                }
+                totalHits = fdocs.totalHits.value;
+                hits = fdocs.scoreDocs;
+                if (cacheKey != null) {
+                    resultCache.put(cacheKey, hits, totalHits);
+                }
             }
-            totalHits = fdocs.totalHits.value;
-            hits = fdocs.scoreDocs;
 
             /*
              * Determine if possibly a single-result redirect to xref is
@@ -0,0 +1,194 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.Metrics;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+
+/**
+ * In-memory cache of the search result pages so that repeated searches (e.g. going back to the results
+ * or browsing through the pages) do not have to run the query again.
+ * <p>
+ * The entries are keyed by the query, the set of projects, the sort order and the identities of the index readers
+ * the search was performed on. Once the readers are refreshed after reindex, the old entries are no longer
+ * matched and they are eventually evicted as the least recently used ones. The size of the cache is set via
+ * {@link RuntimeEnvironment#getSearchResultCacheSize()}.
+ * </p>
+ * <p>
+ * The document IDs in the cached hits are relative to the {@code MultiReader} constructed from the per-project
+ * readers in the order of the project names, which is how {@link SearchHelper} builds it.
+ * </p>
+ */
+final class SearchResultCache {
+
+    private static final SearchResultCache instance = new SearchResultCache();
+
+    /**
+     * @param query query
+     * @param projects project names in the order of the sub-readers
+     * @param sort sort order
+     * @param readerKeys cache keys of the index readers in the order of the project names
+     */
+    record Key(Query query, List<String> projects, Sort sort, List<IndexReader.CacheKey> readerKeys) {
+    }
+
+    /**
+     * @param hits top hits
+     * @param totalHits total number of hits
+     */
+    record Result(ScoreDoc[] hits, long totalHits) {
+    }
+
+    /**
+     * Access ordered map so that the iteration starts with the least recently used entry.
+     */
+    private final LinkedHashMap<Key, Result> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Counter hits;
+    private Counter misses;
+
+    private SearchResultCache() {
+        MeterRegistry meterRegistry = Metrics.getRegistry();
+        if (meterRegistry != null) {
+            hits = Counter.builder("cache.search.results.get").
+                    description("search result cache hits").
+                    tag("what", "hits").
+                    register(meterRegistry);
+            misses = Counter.builder("cache.search.results.get").
+                    description("search result cache misses").
+                    tag("what", "miss").
+                    register(meterRegistry);
+        }
+    }
+
+    static SearchResultCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param query query
+     * @param projects project names
+     * @param sort sort order
+     * @param searchers searchers of the projects in the order of the project names
+     * @return key for the search or {@code null} if some index reader does not support caching
+     */
+    @Nullable
+    static Key createKey(Query query, SortedSet<String> projects, Sort sort,
+                         List<? extends IndexSearcher> searchers) {
+        List<IndexReader.CacheKey> readerKeys = new ArrayList<>(searchers.size());
+        for (IndexSearcher searcher : searchers) {
+            IndexReader.CacheHelper cacheHelper = searcher.getIndexReader().getReaderCacheHelper();
+            if (cacheHelper == null) {
+                return null;
+            }
+            readerKeys.add(cacheHelper.getKey());
+        }
+        return new Key(query, List.copyOf(projects), sort, readerKeys);
+    }
+
+    /**
+     * @param key key
+     * @param numHits number of top hits needed
+     * @return cached result with at most {@code numHits} hits or {@code null} if there is no entry
+     * with enough hits
+     */
+    @Nullable
+    Result get(Key key, int numHits) {
+        if (RuntimeEnvironment.getInstance().getSearchResultCacheSize() <= 0) {
+            return null;
+        }
+
+        Result result;
+        synchronized (this) {
+            result = map.get(key);
+        }
+        if (result == null || (result.hits().length < numHits && result.hits().length < result.totalHits())) {
+            increment(misses);
+            return null;
+        }
+
+        increment(hits);
+        return new Result(Arrays.copyOf(result.hits(), Math.min(numHits, result.hits().length)),
+                result.totalHits());
+    }
+
+    /**
+     * @param key key
+     * @param topHits top hits
+     * @param totalHits total number of hits
+     */
+    void put(Key key, ScoreDoc[] topHits, long totalHits) {
+        int maxSize = RuntimeEnvironment.getInstance().getSearchResultCacheSize();
+        if (maxSize <= 0) {
+            return;
+        }
+
+        synchronized (this) {
+            Result previous = map.get(key);
+            if (previous != null && previous.hits().length > topHits.length) {
+                return;
+            }
+            map.put(key, new Result(topHits.clone(), totalHits));
+            Iterator<Map.Entry<Key, Result>> iterator = map.entrySet().iterator();
+            while (map.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop all the entries.
+     */
+    synchronized void clear() {
+        map.clear();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return map.size();
+    }
+
+    private static void increment(@Nullable Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
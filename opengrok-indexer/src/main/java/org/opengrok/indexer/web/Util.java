@@ -75,6 +75,7 @@ import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.history.Annotation;
 import org.opengrok.indexer.history.HistoryGuru;
 import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.util.SeekableGZIPFile;
 import org.opengrok.indexer.util.Statistics;
 
 /**
@@ -1216,6 +1217,61 @@ public final class Util {
 
     }
 
+    /**
+     * Silently dump a range of lines of a xref file to the given destination.
+     * All {@link IOException}s get caught and logged, but not re-thrown.
+     * <p>
+     * For compressed xref files written with the line index (see {@link SeekableGZIPFile}) only the block
+     * containing the first line has to be decompressed ahead of the range.
+     * </p>
+     * @param out dump destination
+     * @param file file to dump
+     * @param compressed if {@code true} the denoted file is assumed to be gzipped
+     * @param contextPath an optional override of "/source/" as the context path
+     * @param startLine number of the first line to dump (starting with 1)
+     * @param lineCount number of lines to dump, non-positive value means all the remaining lines
+     * @return {@code true} on success (everything read and written)
+     */
+    public static boolean dumpXref(Writer out, File file, boolean compressed, String contextPath,
+                                   int startLine, int lineCount) {
+
+        if (!file.exists()) {
+            return false;
+        }
+
+        try {
+            // The symbol table precedes the first line and contains a newline.
+            if (hasSymbolTable(file, compressed)) {
+                if (startLine > 1) {
+                    startLine++;
+                } else if (lineCount > 0) {
+                    lineCount++;
+                }
+            }
+            try (Reader in = new InputStreamReader(SeekableGZIPFile.open(file, compressed, startLine, lineCount))) {
+                dumpXref(out, in, contextPath, file);
+                return true;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("An error occurred while piping file '%s'", file), e);
+            return false;
+        }
+    }
+
+    /**
+     * @param file xref file
+     * @param compressed whether the file is gzipped
+     * @return whether the xref starts with the symbol table written by
+     * {@link org.opengrok.indexer.analysis.JFlexXrefUtils#writeSymbolTable(Writer, org.opengrok.indexer.analysis.Definitions)}
+     * @throws IOException on error
+     */
+    private static boolean hasSymbolTable(File file, boolean compressed) throws IOException {
+        byte[] prefix = "<script".getBytes(StandardCharsets.US_ASCII);
+        try (InputStream in = SeekableGZIPFile.open(file, compressed, 1, 1)) {
+            return Arrays.equals(prefix, in.readNBytes(prefix.length));
+        }
+    }
+
     /**
      * Dump a xref file to the given destination.
      * @param out dump destination
@@ -26,6 +26,7 @@ package org.opengrok.indexer.analysis;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -36,11 +37,13 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.util.CtagsUtil;
 import org.opengrok.indexer.util.Executor;
 import org.opengrok.indexer.util.TestRepository;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -200,6 +203,69 @@ class CtagsTest {
         return output != null && output.lines().anyMatch(line -> line.matches("^r\\s+record\\s+.*"));
     }
 
+    /**
+     * The interactive mode should produce the same definitions as the filter mode.
+     */
+    @Test
+    void testInteractiveMode() throws Exception {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+        assumeTrue(CtagsUtil.getFeatures(env.getCtags()).containsAll(Set.of("interactive", "json")),
+                "ctags does not support interactive mode");
+
+        String path = repository.getSourceRoot() + File.separator + "bug16070" + File.separator + "arguments.c";
+        boolean savedInteractive = env.isCtagsInteractive();
+        Ctags interactiveCtags = null;
+        Ctags filterCtags = null;
+        try {
+            env.setCtagsInteractive(true);
+            interactiveCtags = new Ctags();
+            Definitions interactiveDefs = interactiveCtags.doCtags(path);
+            assertTrue(interactiveCtags.isInteractive());
+
+            env.setCtagsInteractive(false);
+            filterCtags = new Ctags();
+            Definitions filterDefs = filterCtags.doCtags(path);
+            assertFalse(filterCtags.isInteractive());
+
+            assertNotNull(interactiveDefs);
+            assertNotNull(filterDefs);
+            assertEquals(toStrings(filterDefs), toStrings(interactiveDefs));
+        } finally {
+            env.setCtagsInteractive(savedInteractive);
+            if (interactiveCtags != null) {
+                interactiveCtags.close();
+            }
+            if (filterCtags != null) {
+                filterCtags.close();
+            }
+        }
+    }
+
+    private static List<String> toStrings(Definitions defs) {
+        return defs.getTags().stream().
+                map(tag -> String.join("|", String.valueOf(tag.line), tag.symbol, tag.type, tag.text,
+                        tag.namespace, tag.signature, String.valueOf(tag.lineStart), String.valueOf(tag.lineEnd))).
+                toList();
+    }
+
+    @Test
+    void testRecycle() throws Exception {
+        Ctags recycledCtags = new Ctags();
+        try {
+            recycledCtags.setRecycleFileCount(2);
+            recycledCtags.start();
+            CtagsValidator validator = new CtagsValidator();
+            String path = repository.getSourceRoot() + File.separator + "bug16070" + File.separator + "arguments.c";
+            recycledCtags.doCtags(path);
+            assertTrue(validator.isValid(recycledCtags));
+            recycledCtags.doCtags(path);
+            assertTrue(recycledCtags.isRecycleDue());
+            assertFalse(validator.isValid(recycledCtags));
+        } finally {
+            recycledCtags.close();
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("terraformTestParams")
     // Universal Ctags distributed via Chocolatey on Windows does not support Terraform yet.
@@ -25,11 +25,17 @@ package org.opengrok.indexer.analysis;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -145,4 +151,96 @@ class DefinitionsTest {
         assertEquals(instance.getSymbols().size(), deserializedInstance.getSymbols().size());
     }
 
+    private static Definitions getSampleDefinitions() {
+        Definitions instance = new Definitions();
+        instance.addTag(10, "main", "function", "int main(int argc, char **argv)", null, "(int argc, char **argv)",
+                4, 8);
+        instance.addTag(10, "argc", "argument", "main(int argc, char **argv)", null, "(int argc, char **argv)",
+                13, 17);
+        instance.addTag(3, "Foo", "class", "class Foo {", "ns", null, 6, 9);
+        instance.addTag(25, "bar", "method in Foo", "void bar()", "Foo", "()", 5, 8);
+        return instance;
+    }
+
+    private static String toString(Definitions.Tag tag) {
+        return String.join("|", String.valueOf(tag.line), tag.symbol, tag.type, tag.text, tag.namespace,
+                tag.signature, String.valueOf(tag.lineStart), String.valueOf(tag.lineEnd));
+    }
+
+    private static List<String> toStrings(List<Definitions.Tag> tags) {
+        return tags.stream().map(DefinitionsTest::toString).sorted().toList();
+    }
+
+    @Test
+    void serializeCompact() throws Exception {
+        Definitions instance = getSampleDefinitions();
+        byte[] serial = instance.serialize();
+        assertEquals('O', serial[0]);
+
+        Definitions deserializedInstance = Definitions.deserialize(serial);
+        // The order of the tags has to be retained.
+        assertEquals(instance.getTags().stream().map(DefinitionsTest::toString).toList(),
+                deserializedInstance.getTags().stream().map(DefinitionsTest::toString).toList());
+        assertEquals(instance.getSymbols(), deserializedInstance.getSymbols());
+        assertEquals(1, deserializedInstance.occurrences("main"));
+        String[] type = {""};
+        assertTrue(deserializedInstance.hasDefinitionAt("bar", 25, type));
+        assertEquals("method in Foo", type[0]);
+    }
+
+    /**
+     * The tags for given line should be retrieved from the binary form without building the whole object.
+     */
+    @Test
+    void getTagsOfLineFromCompact() throws Exception {
+        Definitions instance = getSampleDefinitions();
+        Definitions deserializedInstance = Definitions.deserialize(instance.serialize());
+        for (int line : new int[]{3, 10, 25}) {
+            assertEquals(toStrings(instance.getTags(line)), toStrings(deserializedInstance.getTags(line)));
+        }
+        assertNull(deserializedInstance.getTags(1));
+        assertNull(deserializedInstance.getTags(11));
+        assertNull(deserializedInstance.getTags(100));
+
+        // Adding a tag builds the maps.
+        deserializedInstance.addTag(11, "baz", "function", "baz()", 0, 3);
+        assertEquals(5, deserializedInstance.getTags().size());
+        assertEquals(1, deserializedInstance.getTags(11).size());
+        assertEquals(2, deserializedInstance.getTags(10).size());
+    }
+
+    @Test
+    void serializeCompactIsSmaller() throws Exception {
+        Definitions instance = getSampleDefinitions();
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream(); var oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(instance);
+            oos.flush();
+            assertTrue(instance.serialize().length < bytes.size() / 2);
+        }
+    }
+
+    /**
+     * Documents indexed by previous versions contain the definitions serialized with Java object serialization.
+     */
+    @Test
+    void deserializeJavaSerialization() throws Exception {
+        Definitions instance = getSampleDefinitions();
+        byte[] serial;
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream(); var oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(instance);
+            oos.flush();
+            serial = bytes.toByteArray();
+        }
+
+        Definitions deserializedInstance = Definitions.deserialize(serial);
+        assertEquals(instance.getTags().stream().map(DefinitionsTest::toString).toList(),
+                deserializedInstance.getTags().stream().map(DefinitionsTest::toString).toList());
+        assertEquals(toStrings(instance.getTags(10)), toStrings(deserializedInstance.getTags(10)));
+    }
+
+    @Test
+    void deserializeInvalid() {
+        assertThrows(IOException.class, () -> Definitions.deserialize(new byte[]{'O', 'G', 'D', 42}));
+        assertThrows(IOException.class, () -> Definitions.deserialize(new byte[]{1, 2, 3, 4, 5}));
+    }
 }
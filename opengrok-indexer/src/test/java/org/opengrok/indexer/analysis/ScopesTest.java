@@ -25,9 +25,12 @@ package org.opengrok.indexer.analysis;
 import org.junit.jupiter.api.Test;
 import org.opengrok.indexer.analysis.Scopes.Scope;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  *
@@ -75,4 +78,43 @@ class ScopesTest {
         assertEquals(1, deserialized.size());
     }
 
+    @Test
+    void testSerializeCompact() throws IOException, ClassNotFoundException {
+        Scopes scopes = new Scopes();
+        scopes.addScope(new Scope(10, 20, "scope1", "ns", "(int a)"));
+        scopes.addScope(new Scope(5, 8, "scope2", null));
+        scopes.addScope(new Scope(30, 30, "scope3", "ns", null));
+        Scopes deserialized = Scopes.deserialize(scopes.serialize());
+        assertEquals(3, deserialized.size());
+        Scope scope = deserialized.getScope(15);
+        assertEquals("scope1", scope.getName());
+        assertEquals("ns", scope.getNamespace());
+        assertEquals("(int a)", scope.getSignature());
+        assertEquals(10, scope.getLineFrom());
+        assertEquals(20, scope.getLineTo());
+        scope = deserialized.getScope(6);
+        assertEquals("scope2", scope.getName());
+        assertNull(scope.getNamespace());
+        assertEquals("", scope.getSignature());
+        scope = deserialized.getScope(30);
+        assertEquals("scope3", scope.getName());
+        assertNull(scope.getSignature());
+        assertEquals(Scopes.GLOBAL_SCOPE, deserialized.getScope(25));
+    }
+
+    /**
+     * Documents indexed by previous versions contain the scopes serialized with Java object serialization.
+     */
+    @Test
+    void testDeserializeJavaSerialization() throws IOException, ClassNotFoundException {
+        Scopes scopes = new Scopes();
+        scopes.addScope(new Scope(1, 100, "name", "namespace", "signature"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(scopes);
+        }
+        Scopes deserialized = Scopes.deserialize(bytes.toByteArray());
+        assertEquals(1, deserialized.size());
+        assertEquals("name", deserialized.getScope(50).getName());
+    }
 }
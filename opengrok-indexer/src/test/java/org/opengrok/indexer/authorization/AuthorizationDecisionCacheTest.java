@@ -0,0 +1,93 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.authorization;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthorizationDecisionCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private AuthorizationDecisionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthorizationDecisionCache(clock::get);
+        cache.setParameters(1000, 2);
+    }
+
+    @Test
+    void testExpiration() {
+        cache.put("user", "cache", "project", 0, true);
+        assertEquals(Boolean.TRUE, cache.get("user", "cache", "project", 0));
+        assertNull(cache.get("other", "cache", "project", 0));
+        assertNull(cache.get("user", "other", "project", 0));
+
+        clock.set(999);
+        assertEquals(Boolean.TRUE, cache.get("user", "cache", "project", 0));
+        clock.set(1000);
+        assertNull(cache.get("user", "cache", "project", 0));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPluginVersion() {
+        cache.put("user", "cache", "project", 0, false);
+        assertEquals(Boolean.FALSE, cache.get("user", "cache", "project", 0));
+        assertNull(cache.get("user", "cache", "project", 1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEviction() {
+        cache.put("user", "cache", "project1", 0, true);
+        cache.put("user", "cache", "project2", 0, true);
+        // Touch the first entry so that the second one is the least recently used.
+        assertEquals(Boolean.TRUE, cache.get("user", "cache", "project1", 0));
+        cache.put("user", "cache", "project3", 0, true);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("user", "cache", "project2", 0));
+        assertEquals(Boolean.TRUE, cache.get("user", "cache", "project1", 0));
+        assertEquals(Boolean.TRUE, cache.get("user", "cache", "project3", 0));
+    }
+
+    @Test
+    void testDisabled() {
+        cache.put("user", "cache", "project", 0, true);
+        assertTrue(cache.isEnabled());
+
+        cache.setParameters(0, 2);
+        assertFalse(cache.isEnabled());
+        assertEquals(0, cache.size());
+        cache.put("user", "cache", "project", 0, true);
+        assertEquals(0, cache.size());
+    }
+}
@@ -23,12 +23,14 @@
  */
 package org.opengrok.indexer.authorization;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -42,6 +44,8 @@ import org.opengrok.indexer.configuration.Project;
 import org.opengrok.indexer.web.DummyHttpServletRequest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AuthorizationFrameworkTest {
 
@@ -931,6 +935,62 @@ class AuthorizationFrameworkTest {
         return new TestCase(expected, request, entity);
     }
 
+    private static HttpServletRequest createRequest(String user) {
+        return new DummyHttpServletRequest() {
+            @Override
+            public String getHeader(String name) {
+                return "user".equals(name) ? user : null;
+            }
+        };
+    }
+
+    /**
+     * The decisions are shared by the requests of the same user only if the cache is enabled.
+     */
+    @Test
+    void testDecisionCache() {
+        AtomicInteger calls = new AtomicInteger();
+        AuthorizationStack stack = newStack(AuthControlFlag.REQUIRED,
+                new AuthorizationPlugin(AuthControlFlag.REQUIRED, new TestPlugin() {
+                    @Override
+                    public boolean isAllowed(HttpServletRequest request, Project project) {
+                        calls.incrementAndGet();
+                        return project.getName().startsWith(request.getHeader("user"));
+                    }
+
+                    @Override
+                    public String getUserIdentity(HttpServletRequest request) {
+                        return request.getHeader("user");
+                    }
+                }));
+        AuthorizationFramework framework = new AuthorizationFramework(null, stack);
+        framework.loadAllPlugins(stack);
+        Project project = new Project("alice-project");
+
+        // disabled by default
+        assertTrue(framework.isAllowed(createRequest("alice"), project));
+        assertTrue(framework.isAllowed(createRequest("alice"), project));
+        assertEquals(2, calls.get());
+
+        framework.setDecisionCacheParameters(Duration.ofMinutes(1), 10);
+        assertTrue(framework.isAllowed(createRequest("alice"), project));
+        assertTrue(framework.isAllowed(createRequest("alice"), project));
+        assertEquals(3, calls.get());
+
+        // the decisions are not shared with other users
+        assertFalse(framework.isAllowed(createRequest("bob"), project));
+        assertFalse(framework.isAllowed(createRequest("bob"), project));
+        assertEquals(4, calls.get());
+
+        // nor with the requests of unidentified users
+        assertFalse(framework.isAllowed(createRequest(null), project));
+        assertEquals(5, calls.get());
+
+        framework.setDecisionCacheParameters(Duration.ZERO, 10);
+        assertTrue(framework.isAllowed(createRequest("alice"), project));
+        assertEquals(6, calls.get());
+    }
+
     @Test
     void setPluginDirectoryTest() {
         String pluginDirectoryPath = "foo";
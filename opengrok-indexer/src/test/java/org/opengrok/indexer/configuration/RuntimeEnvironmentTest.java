@@ -34,6 +34,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -50,6 +51,7 @@ import org.opengrok.indexer.util.IOUtils;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -928,4 +930,15 @@ class RuntimeEnvironmentTest {
         assertEquals(1, group2.getProjects().size());
         assertEquals(1, group2.getRepositories().size());
     }
+
+    @Test
+    void testProjectSearchExecutorBounce() {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+        ExecutorService executor = env.getProjectSearchExecutor();
+        env.setConfiguration(new Configuration());
+        assertTrue(executor.isShutdown());
+        ExecutorService newExecutor = env.getProjectSearchExecutor();
+        assertNotSame(executor, newExecutor);
+        assertFalse(newExecutor.isShutdown());
+    }
 }
@@ -0,0 +1,280 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.search.QueryBuilder;
+import org.opengrok.indexer.search.context.HistoryContext;
+import org.opengrok.indexer.util.TestRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link ChangesetIndex} class.
+ */
+class ChangesetIndexTest {
+
+    private final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+
+    private TestRepository repositories;
+    private FileHistoryCache cache;
+    private Repository repository;
+    private File repositoryRoot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        env.setHistoryEnabled(true);
+        repositories = new TestRepository();
+        URL url = getClass().getResource("/repositories");
+        assertNotNull(url);
+        repositories.create(url);
+        env.setRepositories(repositories.getSourceRoot());
+
+        cache = new FileHistoryCache();
+        cache.initialize();
+
+        repositoryRoot = new File(repositories.getSourceRoot(), "git");
+        repository = RepositoryFactory.getRepository(repositoryRoot);
+        cache.store(repository.getHistory(repositoryRoot), repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.clear(repository);
+        repositories.destroy();
+        repositories = null;
+    }
+
+    private static Query getHistoryQuery(String term) {
+        return new TermQuery(new Term(QueryBuilder.HIST, term));
+    }
+
+    @Test
+    void testSearch() throws Exception {
+        List<ChangesetIndex.Match> matches = ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                "/git/main.c", getHistoryQuery("lint"), 10);
+        assertNotNull(matches);
+        assertEquals(1, matches.size());
+        HistoryEntry entry = matches.get(0).entry();
+        assertEquals("aa35c25882b9a60a97758e0ceb276a3f8cb4ae3a", entry.getRevision());
+        assertTrue(entry.getAuthor().startsWith("Trond Norbye"));
+        assertEquals("Add lint make target and fix lint warnings", entry.getMessage());
+        assertTrue(entry.getFiles().contains("/git/Makefile"));
+        assertEquals("bb74b7e849170c31dc1b1b5801c83bf0094a3b10", matches.get(0).previousRevision());
+
+        matches = ChangesetIndex.search(new File(repositoryRoot, "header.h"),
+                "/git/header.h", getHistoryQuery("lint"), 10);
+        assertNotNull(matches);
+        assertTrue(matches.isEmpty());
+
+        matches = ChangesetIndex.search(new File(repositoryRoot, "Makefile"),
+                "/git/Makefile", getHistoryQuery("small"), 10);
+        assertNotNull(matches);
+        assertEquals(1, matches.size());
+        assertEquals("bb74b7e849170c31dc1b1b5801c83bf0094a3b10", matches.get(0).entry().getRevision());
+        assertNull(matches.get(0).previousRevision());
+    }
+
+    @Test
+    void testSearchOrder() throws Exception {
+        Query query = new BooleanQuery.Builder().
+                add(getHistoryQuery("lint"), BooleanClause.Occur.SHOULD).
+                add(getHistoryQuery("small"), BooleanClause.Occur.SHOULD).
+                build();
+        List<ChangesetIndex.Match> matches = ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                "/git/main.c", query, 10);
+        assertNotNull(matches);
+        assertEquals(List.of("aa35c25882b9a60a97758e0ceb276a3f8cb4ae3a", "bb74b7e849170c31dc1b1b5801c83bf0094a3b10"),
+                matches.stream().map(m -> m.entry().getRevision()).toList());
+    }
+
+    @Test
+    void testGetRecentChangesets() throws Exception {
+        List<HistoryEntry> entries = ChangesetIndex.getRecentChangesets(repository, null, 3);
+        assertNotNull(entries);
+        assertEquals(List.of("84599b3cccb3eeb5aa9aec64771678d6526bcecb", "67dfbe2648c94a8825671b0f2c132828d0d43079",
+                        "1086eaf5bca6d5a056097aa76017a8ab0eade20f"),
+                entries.stream().map(HistoryEntry::getRevision).toList());
+
+        entries = ChangesetIndex.getRecentChangesets(repository, "/git/moved2", 3);
+        assertNotNull(entries);
+        assertEquals(List.of("84599b3cccb3eeb5aa9aec64771678d6526bcecb"),
+                entries.stream().map(HistoryEntry::getRevision).toList());
+        assertEquals(Set.of("/git/moved2/renamed2.c"), entries.get(0).getFiles());
+    }
+
+    /**
+     * The RSS feed history for directory should be produced from the changeset index.
+     */
+    @Test
+    void testDirectoryHistoryReader() throws Exception {
+        History history = new DirectoryHistoryReader("/git").getHistory();
+        assertEquals(8, history.getHistoryEntries().size());
+        HistoryEntry entry = history.getHistoryEntries().get(0);
+        assertEquals("84599b3cccb3eeb5aa9aec64771678d6526bcecb", entry.getRevision());
+        assertEquals("renaming directories", entry.getMessage());
+
+        history = DirectoryHistoryReader.getRecentChangesets("/git/moved");
+        assertNotNull(history);
+        assertEquals(List.of("67dfbe2648c94a8825671b0f2c132828d0d43079", "1086eaf5bca6d5a056097aa76017a8ab0eade20f",
+                        "b6413947a59f481ddc0a05e0d181731233557f6e"),
+                history.getHistoryEntries().stream().map(HistoryEntry::getRevision).toList());
+        assertTrue(history.getHistoryEntries().stream().
+                allMatch(e -> e.getFiles().stream().allMatch(f -> f.startsWith("/git/moved/"))));
+    }
+
+    /**
+     * The cleared index lacks the changesets stored previously so it should not be used
+     * nor updated until it is created from scratch.
+     */
+    @Test
+    void testClear() throws Exception {
+        ChangesetIndex.clear(repository);
+        assertNull(ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                "/git/main.c", getHistoryQuery("lint"), 10));
+
+        ChangesetIndex.store(repository.getHistory(repositoryRoot), repository, true);
+        assertNull(ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                "/git/main.c", getHistoryQuery("lint"), 10));
+
+        ChangesetIndex.store(repository.getHistory(repositoryRoot), repository, false);
+        List<ChangesetIndex.Match> matches = ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                "/git/main.c", getHistoryQuery("lint"), 10);
+        assertNotNull(matches);
+        assertEquals(1, matches.size());
+    }
+
+    /**
+     * Index created by older version without the index sort should be replaced rather than failing
+     * to open the index writer.
+     */
+    @Test
+    void testStoreReplacesUnsortedIndex() throws Exception {
+        Path indexDir = ChangesetIndex.getIndexDirectory(repository);
+        assertNotNull(indexDir);
+        try (Directory directory = FSDirectory.open(indexDir);
+             IndexWriter writer = new IndexWriter(directory,
+                     new IndexWriterConfig().setOpenMode(IndexWriterConfig.OpenMode.CREATE))) {
+            Document doc = new Document();
+            doc.add(new StringField(ChangesetIndex.REVISION, "old", Field.Store.YES));
+            writer.addDocument(doc);
+            writer.commit();
+        }
+        assertNull(ChangesetIndex.getRecentChangesets(repository, null, 3));
+
+        ChangesetIndex.store(repository.getHistory(repositoryRoot), repository, false);
+        List<HistoryEntry> entries = ChangesetIndex.getRecentChangesets(repository, null, 3);
+        assertNotNull(entries);
+        assertEquals("84599b3cccb3eeb5aa9aec64771678d6526bcecb", entries.get(0).getRevision());
+    }
+
+    /**
+     * The index is not updated when disabled so it should not be used either.
+     */
+    @Test
+    void testSearchDisabled() throws Exception {
+        env.setChangesetIndexEnabled(false);
+        try {
+            assertNull(ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                    "/git/main.c", getHistoryQuery("lint"), 10));
+            assertNull(ChangesetIndex.getRecentChangesets(repository, null, 3));
+        } finally {
+            env.setChangesetIndexEnabled(true);
+        }
+    }
+
+    /**
+     * The changesets of renamed files are stored under the old paths so the complete history should be used.
+     */
+    @Test
+    void testSearchHandleRenamedFiles() throws Exception {
+        Repository guruRepository = HistoryGuru.getInstance().getRepository(repositoryRoot);
+        assertNotNull(guruRepository);
+        guruRepository.setHandleRenamedFiles(true);
+        try {
+            assertNull(ChangesetIndex.search(new File(repositoryRoot, "main.c"),
+                    "/git/main.c", getHistoryQuery("lint"), 10));
+        } finally {
+            guruRepository.setHandleRenamedFiles(false);
+        }
+    }
+
+    @Test
+    void testGetHistoryQuery() {
+        Query full = new TermQuery(new Term(QueryBuilder.FULL, "main"));
+        Query hist = getHistoryQuery("lint");
+        Query query = new BooleanQuery.Builder().
+                add(full, BooleanClause.Occur.MUST).
+                add(hist, BooleanClause.Occur.MUST).
+                build();
+        assertEquals(new BooleanQuery.Builder().add(hist, BooleanClause.Occur.MUST).build(),
+                ChangesetIndex.getHistoryQuery(query));
+        assertEquals(hist, ChangesetIndex.getHistoryQuery(hist));
+        assertNull(ChangesetIndex.getHistoryQuery(full));
+
+        Query negative = new BooleanQuery.Builder().
+                add(full, BooleanClause.Occur.MUST).
+                add(hist, BooleanClause.Occur.MUST_NOT).
+                build();
+        assertNull(ChangesetIndex.getHistoryQuery(negative));
+    }
+
+    /**
+     * The history context should be produced from the changeset index, including the links
+     * to the diff with the previous revision of the file.
+     */
+    @Test
+    void testHistoryContext() throws Exception {
+        StringWriter out = new StringWriter();
+        assertTrue(new HistoryContext(getHistoryQuery("lint")).
+                getContext(new File(repositoryRoot, "main.c"), "/git/main.c", out, "/source"));
+        String context = out.toString();
+        assertTrue(context.contains("r1=/git/main.c@bb74b7e849170c31dc1b1b5801c83bf0094a3b10"), context);
+        assertTrue(context.contains("<b>lint</b>"), context);
+    }
+}
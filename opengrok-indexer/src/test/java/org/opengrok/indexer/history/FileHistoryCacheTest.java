@@ -1095,6 +1095,80 @@ class FileHistoryCacheTest {
         cache.clear(repository);
     }
 
+    /**
+     * Test that {@link FileHistoryCache#fillLastHistoryEntries(List)} uses the directory summary
+     * maintained by {@link FileHistoryCache#store(History, Repository)} rather than reading the history cache
+     * of individual files, unless the file was modified after the history cache was stored.
+     */
+    @Test
+    void testFillLastHistoryEntriesFromDirectorySummary() throws Exception {
+        File repositoryRoot = new File(repositories.getSourceRoot(), "git");
+        Repository repository = RepositoryFactory.getRepository(repositoryRoot);
+
+        FileHistoryCache spyCache = Mockito.spy(cache);
+        spyCache.clear(repository);
+        History historyToStore = repository.getHistory(repositoryRoot);
+        spyCache.store(historyToStore, repository);
+
+        File summaryFile = DirectoryHistorySummary.getSummaryFile(spyCache.getCachedFile(repositoryRoot));
+        assertTrue(summaryFile.exists());
+        File mainFile = new File(repositoryRoot, "main.c");
+        DirectoryHistorySummary.Entry summaryEntry = DirectoryHistorySummary.read(summaryFile).get("main.c");
+        assertNotNull(summaryEntry);
+        assertEquals("aa35c25882b9a60a97758e0ceb276a3f8cb4ae3a", summaryEntry.revision());
+
+        File[] files = repositoryRoot.listFiles();
+        assertNotNull(files);
+        List<DirectoryEntry> directoryEntries = Arrays.stream(files).map(DirectoryEntry::new).
+                collect(Collectors.toList());
+        assertTrue(spyCache.fillLastHistoryEntries(directoryEntries));
+        Mockito.verify(spyCache, never()).getLastHistoryEntry(Mockito.any());
+        DirectoryEntry mainEntry = directoryEntries.stream().filter(e -> e.getFile().equals(mainFile)).
+                findFirst().orElseThrow();
+        assertEquals(summaryEntry.description(), mainEntry.getDescription());
+
+        // Modified file should be looked up in the history cache of the file.
+        assertTrue(mainFile.setLastModified(System.currentTimeMillis() + 60_000));
+        assertFalse(spyCache.fillLastHistoryEntries(directoryEntries));
+        Mockito.verify(spyCache).getLastHistoryEntry(mainFile);
+
+        // Clearing the file should remove it from the summary.
+        spyCache.clearFile(env.getPathRelativeToSourceRoot(mainFile));
+        assertFalse(DirectoryHistorySummary.read(summaryFile).containsKey("main.c"));
+
+        // Cleanup.
+        cache.clear(repository);
+    }
+
+    /**
+     * Test that the directory summary entries of files stored one by one via
+     * {@link FileHistoryCache#storeFile(History, File, Repository)} are written in batch by
+     * {@link FileHistoryCache#flush()}.
+     */
+    @Test
+    void testStoreFileDirectorySummary() throws Exception {
+        File repositoryRoot = new File(repositories.getSourceRoot(), "git");
+        Repository repository = RepositoryFactory.getRepository(repositoryRoot);
+        cache.clear(repository);
+
+        File mainFile = new File(repositoryRoot, "main.c");
+        File headerFile = new File(repositoryRoot, "header.h");
+        cache.storeFile(repository.getHistory(mainFile), mainFile, repository);
+        cache.storeFile(repository.getHistory(headerFile), headerFile, repository);
+
+        File summaryFile = DirectoryHistorySummary.getSummaryFile(cache.getCachedFile(repositoryRoot));
+        assertTrue(DirectoryHistorySummary.read(summaryFile).isEmpty());
+
+        cache.flush();
+        Map<String, DirectoryHistorySummary.Entry> summary = DirectoryHistorySummary.read(summaryFile);
+        assertEquals(Set.of("main.c", "header.h"), summary.keySet());
+        assertEquals(repository.getHistory(mainFile).getLastHistoryEntry().getRevision(),
+                summary.get("main.c").revision());
+
+        // Cleanup.
+        cache.clear(repository);
+    }
+
     /**
      * Test {@link FileHistoryCache#fillLastHistoryEntries(List)}, in particular that it
      * returns {@code false} and resets date/descriptions if some entries cannot be filled.
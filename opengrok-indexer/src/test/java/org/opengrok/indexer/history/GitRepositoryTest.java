@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2008, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2008, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2017, 2019, Chris Fraire <cfraire@me.com>.
  * Portions Copyright (c) 2019, Krystof Tulinger <k.tulinger@seznam.cz>.
  * Portions Copyright (c) 2023, Ric Harris <harrisric@users.noreply.github.com>.
@@ -541,6 +541,42 @@ class GitRepositoryTest {
         }
     }
 
+    /**
+     * Test that the streaming variant of {@code getHistoryGet()} returns historical contents of renamed file.
+     * @see #testRenamedFiles for Git repository structure info
+     */
+    @ParameterizedTest
+    @MethodSource("getParametersForTestGetRenamedFileContent")
+    void testGetRenamedFileContentStream(Triple<String, String, String> param) throws Exception {
+        File root = new File(repository.getSourceRoot(), "git");
+        GitRepository gitRepository = (GitRepository) RepositoryFactory.getRepository(root);
+
+        try (InputStream input = gitRepository.getHistoryGet(root.getCanonicalPath(), param.getLeft(),
+                param.getMiddle(), Long.MAX_VALUE, true)) {
+            assertNotNull(input);
+            assertEquals(param.getRight(), new String(input.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testGetHistoryGetLimits() throws Exception {
+        File root = new File(repository.getSourceRoot(), "git");
+        GitRepository gitRepository = (GitRepository) RepositoryFactory.getRepository(root);
+        String parent = root.getCanonicalPath();
+
+        assertNull(gitRepository.getHistoryGet(parent, "main.c", "nonexistent", Long.MAX_VALUE, true));
+        assertThrows(IOException.class,
+                () -> gitRepository.getHistoryGet(parent, "main.c", HASH_AA35C258, 10, true));
+        // The object file is binary.
+        assertThrows(IOException.class,
+                () -> gitRepository.getHistoryGet(parent, "main.o", HASH_84821564, Long.MAX_VALUE, true));
+        try (InputStream input = gitRepository.getHistoryGet(parent, "main.o", HASH_84821564, Long.MAX_VALUE,
+                false)) {
+            assertNotNull(input);
+            assertTrue(input.readAllBytes().length > 0);
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(booleans = {true, false})
     void testHistory(boolean renamedHandling) throws Exception {
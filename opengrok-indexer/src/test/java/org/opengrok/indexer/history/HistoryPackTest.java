@@ -0,0 +1,154 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryPackTest {
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long countSegments(Path dir) throws Exception {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(p -> p.getFileName().toString().endsWith(".pack")).count();
+        }
+    }
+
+    @Test
+    void testPutGet(@TempDir Path dir) throws Exception {
+        try (HistoryPack pack = new HistoryPack(dir)) {
+            assertNull(pack.get("/foo"));
+            pack.put("/foo", bytes("foo"), null, 1);
+            pack.put("/bar", bytes("bar"), bytes("tags"), 2);
+
+            HistoryPack.Entry entry = pack.get("/foo");
+            assertNotNull(entry);
+            assertArrayEquals(bytes("foo"), entry.history());
+            assertNull(entry.tags());
+            assertEquals(1, entry.timestamp());
+
+            entry = pack.get("/bar");
+            assertNotNull(entry);
+            assertArrayEquals(bytes("bar"), entry.history());
+            assertArrayEquals(bytes("tags"), entry.tags());
+        }
+    }
+
+    /**
+     * The records written by one instance should be visible to another instance after flush,
+     * including the records appended after the other instance has loaded the index.
+     */
+    @Test
+    void testReload(@TempDir Path dir) throws Exception {
+        try (HistoryPack writer = new HistoryPack(dir); HistoryPack reader = new HistoryPack(dir)) {
+            writer.put("/foo", bytes("foo"), null, 1);
+            writer.flush();
+            assertNotNull(reader.get("/foo"));
+            assertNull(reader.get("/bar"));
+
+            writer.put("/bar", bytes("bar"), null, 1);
+            writer.put("/foo", bytes("foo2"), null, 2);
+            writer.flush();
+            HistoryPack.Entry entry = reader.get("/foo");
+            assertNotNull(entry);
+            assertArrayEquals(bytes("foo2"), entry.history());
+            assertNotNull(reader.get("/bar"));
+        }
+    }
+
+    @Test
+    void testRemove(@TempDir Path dir) throws Exception {
+        try (HistoryPack pack = new HistoryPack(dir)) {
+            pack.put("/foo", bytes("foo"), null, 1);
+            pack.remove("/foo");
+            assertNull(pack.get("/foo"));
+            assertEquals(0, pack.size());
+        }
+
+        try (HistoryPack pack = new HistoryPack(dir)) {
+            assertNull(pack.get("/foo"));
+        }
+    }
+
+    @Test
+    void testSegmentRollover(@TempDir Path dir) throws Exception {
+        try (HistoryPack pack = new HistoryPack(dir, 64)) {
+            for (int i = 0; i < 10; i++) {
+                pack.put("/file" + i, bytes("x".repeat(40) + i), null, i);
+            }
+            pack.flush();
+            assertEquals(10, countSegments(dir));
+            for (int i = 0; i < 10; i++) {
+                HistoryPack.Entry entry = pack.get("/file" + i);
+                assertNotNull(entry);
+                assertArrayEquals(bytes("x".repeat(40) + i), entry.history());
+            }
+        }
+    }
+
+    @Test
+    void testCompact(@TempDir Path dir) throws Exception {
+        try (HistoryPack pack = new HistoryPack(dir, 64)) {
+            for (int i = 0; i < 10; i++) {
+                pack.put("/foo", bytes("foo" + i), null, i);
+            }
+            pack.put("/bar", bytes("bar"), null, 1);
+            pack.put("/removed", bytes("removed"), null, 1);
+            pack.remove("/removed");
+            assertTrue(pack.getGarbageRatio() > 0.5);
+            assertFalse(pack.compact(1.0));
+
+            assertTrue(pack.compact(0.5));
+            assertEquals(0, pack.getGarbageRatio());
+            assertEquals(2, pack.size());
+            HistoryPack.Entry entry = pack.get("/foo");
+            assertNotNull(entry);
+            assertArrayEquals(bytes("foo9"), entry.history());
+            assertEquals(9, entry.timestamp());
+            assertNull(pack.get("/removed"));
+
+            // The pack should be writable after the compaction.
+            pack.put("/baz", bytes("baz"), null, 1);
+            assertNotNull(pack.get("/baz"));
+        }
+
+        try (HistoryPack pack = new HistoryPack(dir)) {
+            assertEquals(3, pack.size());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opengrok.indexer.configuration.JGitConfig;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.util.IOUtils;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JGitRepositoryPoolTest {
+
+    private final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+    private final AtomicInteger opened = new AtomicInteger();
+    private JGitConfig savedConfig;
+    private JGitRepositoryPool pool;
+
+    @BeforeEach
+    void setUp() {
+        savedConfig = env.getJGitConfig();
+        env.setJGitConfig(new JGitConfig());
+        pool = new JGitRepositoryPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+        env.setJGitConfig(savedConfig);
+    }
+
+    private static File init(Path dir) throws Exception {
+        try (Git git = Git.init().setDirectory(dir.toFile()).call()) {
+            return git.getRepository().getDirectory();
+        }
+    }
+
+    private Repository get(File gitDir) throws Exception {
+        return pool.get(gitDir.getParent(), () -> {
+            opened.incrementAndGet();
+            return FileRepositoryBuilder.create(gitDir);
+        });
+    }
+
+    @Test
+    void testReuse(@TempDir Path dir) throws Exception {
+        File gitDir = init(dir);
+        Repository first;
+        try (Repository repository = get(gitDir)) {
+            first = repository;
+        }
+        try (Repository repository = get(gitDir)) {
+            assertSame(first, repository);
+            assertNotNull(repository.getConfig());
+        }
+        assertEquals(1, opened.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testPoolSizeLimit(@TempDir Path dir) throws Exception {
+        env.getJGitConfig().setRepositoryPoolSize(1);
+        File gitDir1 = init(dir.resolve("a"));
+        File gitDir2 = init(dir.resolve("b"));
+
+        try (Repository repository = get(gitDir1)) {
+            // Evicting the repository while it is in use must not affect the caller.
+            try (Repository other = get(gitDir2)) {
+                assertNotSame(repository, other);
+            }
+            assertNotNull(repository.getConfig());
+        }
+        assertEquals(1, pool.size());
+        get(gitDir1).close();
+        assertEquals(3, opened.get());
+    }
+
+    @Test
+    void testPoolingDisabled(@TempDir Path dir) throws Exception {
+        env.getJGitConfig().setRepositoryPoolSize(0);
+        File gitDir = init(dir);
+        get(gitDir).close();
+        get(gitDir).close();
+        assertEquals(2, opened.get());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testIdleEviction(@TempDir Path dir) throws Exception {
+        env.getJGitConfig().setRepositoryIdleTimeout(0);
+        File gitDir = init(dir);
+        get(gitDir).close();
+        get(gitDir).close();
+        assertEquals(2, opened.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testRemovedRepository(@TempDir Path dir) throws Exception {
+        File gitDir = init(dir.resolve("repo"));
+        get(gitDir).close();
+        // Keep the original directory around while the repository is cloned again so that it gets new identity.
+        Files.move(dir.resolve("repo"), dir.resolve("old"));
+        init(dir.resolve("repo"));
+        IOUtils.removeRecursive(dir.resolve("old"));
+        get(gitDir).close();
+        assertEquals(2, opened.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testIdleSweep(@TempDir Path dir) throws Exception {
+        File gitDir = init(dir);
+        get(gitDir).close();
+        assertEquals(1, pool.size());
+        env.getJGitConfig().setRepositoryIdleTimeout(0);
+        pool.sweep();
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testRemove(@TempDir Path dir) throws Exception {
+        File gitDir = init(dir);
+        try (Repository repository = get(gitDir)) {
+            pool.remove(gitDir.getParent());
+            assertEquals(0, pool.size());
+            assertNotNull(repository.getConfig());
+        }
+    }
+
+    /**
+     * The repository should be opened without holding the pool lock and only once for concurrent requests.
+     */
+    @Test
+    void testConcurrentOpen(@TempDir Path dir) throws Exception {
+        File gitDir = init(dir);
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Repository> first = executor.submit(() -> pool.get(gitDir.getParent(), () -> {
+                opened.incrementAndGet();
+                opening.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return FileRepositoryBuilder.create(gitDir);
+            }));
+            assertTrue(opening.await(10, TimeUnit.SECONDS));
+            assertEquals(1, pool.size());
+            Future<Repository> second = executor.submit(() -> get(gitDir));
+            proceed.countDown();
+            try (Repository repository1 = first.get(10, TimeUnit.SECONDS);
+                 Repository repository2 = second.get(10, TimeUnit.SECONDS)) {
+                assertSame(repository1, repository2);
+            }
+            assertEquals(1, opened.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
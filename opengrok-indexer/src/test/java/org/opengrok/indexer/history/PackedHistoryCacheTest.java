@@ -0,0 +1,191 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.search.DirectoryEntry;
+import org.opengrok.indexer.util.TestRepository;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the {@link PackedHistoryCache}, in particular that it does not create file per source file.
+ */
+class PackedHistoryCacheTest {
+
+    private final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+    private TestRepository repositories;
+    private PackedHistoryCache cache;
+    private File repositoryRoot;
+    private Repository repository;
+
+    @BeforeAll
+    static void setUpClass() {
+        RuntimeEnvironment.getInstance().setHistoryEnabled(true);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repositories = new TestRepository();
+        repositories.create(getClass().getResource("/repositories"));
+
+        // Needed for HistoryGuru to operate normally.
+        env.setRepositories(repositories.getSourceRoot());
+
+        cache = new PackedHistoryCache();
+        cache.initialize();
+
+        repositoryRoot = new File(repositories.getSourceRoot(), "git");
+        repository = RepositoryFactory.getRepository(repositoryRoot);
+        assertNotNull(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.clear(repository);
+        repositories.destroy();
+        repositories = null;
+        cache = null;
+    }
+
+    private static long countFiles(Path dir) throws Exception {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void testStoreAndGet() throws Exception {
+        File sourceFile = new File(repositoryRoot, "main.c");
+        History expected = repository.getHistory(sourceFile);
+        assertNull(cache.get(sourceFile, repository, false));
+
+        cache.store(repository.getHistory(repositoryRoot), repository);
+        assertEquals("84599b3cccb3eeb5aa9aec64771678d6526bcecb", cache.getLatestCachedRevision(repository));
+
+        History history = cache.get(sourceFile, repository, false);
+        assertNotNull(history);
+        assertEquals(expected.getRevisionList(), history.getRevisionList());
+        assertTrue(cache.isUpToDate(sourceFile));
+        assertTrue(cache.hasCacheForFile(sourceFile));
+
+        HistoryEntry historyEntry = cache.getLastHistoryEntry(sourceFile);
+        assertNotNull(historyEntry);
+        assertEquals("aa35c25882b9a60a97758e0ceb276a3f8cb4ae3a", historyEntry.getRevision());
+
+        // The history of all the files is stored in the index, the segment and the latest revision file.
+        Path packDir = Path.of(CacheUtil.getRepositoryCacheDataDirname(repository, cache));
+        assertEquals(3, countFiles(packDir));
+    }
+
+    @Test
+    void testStoreIncremental() throws Exception {
+        File sourceFile = new File(repositoryRoot, "main.c");
+        History expected = repository.getHistory(sourceFile);
+        assertTrue(expected.getHistoryEntries().size() > 1);
+
+        // Store the history in two steps. The second step should merge the entries.
+        List<HistoryEntry> entries = repository.getHistory(repositoryRoot).getHistoryEntries();
+        int lastIndex = entries.size() - 1;
+        cache.store(new History(entries.subList(lastIndex, entries.size())), repository);
+        cache.store(new History(entries.subList(0, lastIndex)), repository);
+
+        History history = cache.get(sourceFile, repository, false);
+        assertNotNull(history);
+        assertEquals(expected.getRevisionList(), history.getRevisionList());
+
+        cache.optimize();
+        history = cache.get(sourceFile, repository, false);
+        assertNotNull(history);
+        assertEquals(expected.getRevisionList(), history.getRevisionList());
+    }
+
+    @Test
+    void testClearFile() throws Exception {
+        File sourceFile = new File(repositoryRoot, "main.c");
+        cache.store(repository.getHistory(repositoryRoot), repository);
+        assertTrue(cache.hasCacheForFile(sourceFile));
+
+        cache.clearFile(env.getPathRelativeToSourceRoot(sourceFile));
+        assertFalse(cache.hasCacheForFile(sourceFile));
+        assertNull(cache.get(sourceFile, repository, false));
+    }
+
+    @Test
+    void testFillLastHistoryEntries() throws Exception {
+        cache.store(repository.getHistory(repositoryRoot), repository);
+
+        File[] files = repositoryRoot.listFiles();
+        assertNotNull(files);
+        List<DirectoryEntry> directoryEntries = Arrays.stream(files).map(DirectoryEntry::new).
+                collect(Collectors.toList());
+        assertTrue(cache.fillLastHistoryEntries(directoryEntries));
+        assertEquals(directoryEntries.size(),
+                (int) directoryEntries.stream().filter(e -> e.getDescription() != null).count());
+
+        // File without history should reset all the entries.
+        File newFile = new File(repositoryRoot, "file.txt");
+        assertTrue(newFile.createNewFile());
+        directoryEntries.add(new DirectoryEntry(newFile));
+        assertFalse(cache.fillLastHistoryEntries(directoryEntries));
+        assertEquals(0, (int) directoryEntries.stream().filter(e -> e.getDescription() != null).count());
+    }
+
+    @Test
+    void testMigration() throws Exception {
+        FileHistoryCache fileHistoryCache = new FileHistoryCache();
+        fileHistoryCache.initialize();
+        fileHistoryCache.store(repository.getHistory(repositoryRoot), repository);
+
+        Path dataRoot = Path.of(env.getDataRootPath());
+        int count = HistoryCacheMigration.migrate(dataRoot.resolve(fileHistoryCache.getCacheDirName()),
+                dataRoot.resolve(cache.getCacheDirName()));
+        assertTrue(count > 0);
+
+        File sourceFile = new File(repositoryRoot, "main.c");
+        History expected = fileHistoryCache.get(sourceFile, repository, false);
+        assertNotNull(expected);
+        History history = cache.get(sourceFile, repository, false);
+        assertNotNull(history);
+        assertEquals(expected.getRevisionList(), history.getRevisionList());
+        assertEquals(fileHistoryCache.getLatestCachedRevision(repository), cache.getLatestCachedRevision(repository));
+
+        fileHistoryCache.clear(repository);
+    }
+}
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2021, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.indexer.history;
 
@@ -142,4 +142,44 @@ class RepositoryWithPerPartesHistoryTest {
         verify(spyCache, times(1)).store(any(), any(), isNull());
         env.setHistoryCachePerPartesEnabled(true);
     }
+
+    /**
+     * The chunks traversed concurrently have to be stored in the same order as if they were processed sequentially
+     * and yield the same history cache.
+     */
+    @Test
+    void testConcurrentChunks() throws Exception {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+        File file = Paths.get(gitRepository.getDirectoryName(), "main.c").toFile();
+
+        FileHistoryCache sequentialCache = new FileHistoryCache();
+        GitRepository gitSpyRepository = Mockito.spy(gitRepository);
+        Mockito.when(gitSpyRepository.getPerPartesCount()).thenReturn(3);
+        gitSpyRepository.createCache(sequentialCache, null);
+        History sequentialHistory = sequentialCache.get(file, gitSpyRepository, false);
+        assertNotNull(sequentialHistory);
+        String sequentialLatestRevision = sequentialCache.getLatestCachedRevision(gitSpyRepository);
+        sequentialCache.clear(gitSpyRepository);
+
+        FileHistoryCache spyCache = Mockito.spy(new FileHistoryCache());
+        env.setHistoryChunkParallelism(3);
+        try {
+            gitSpyRepository.createCache(spyCache, null);
+        } finally {
+            env.setHistoryChunkParallelism(0);
+        }
+
+        ArgumentCaptor<String> tillRevisionCaptor = ArgumentCaptor.forClass(String.class);
+        verify(spyCache, times(3)).store(any(), any(), tillRevisionCaptor.capture());
+        List<String> tillRevisions = new ArrayList<>();
+        tillRevisions.add("8482156421620efbb44a7b6f0eb19d1f191163c7");
+        tillRevisions.add("b6413947a59f481ddc0a05e0d181731233557f6e");
+        tillRevisions.add(null);
+        assertEquals(tillRevisions, tillRevisionCaptor.getAllValues());
+
+        History concurrentHistory = spyCache.get(file, gitSpyRepository, false);
+        assertNotNull(concurrentHistory);
+        assertEquals(sequentialHistory.getHistoryEntries(), concurrentHistory.getHistoryEntries());
+        assertEquals(sequentialLatestRevision, spyCache.getLatestCachedRevision(gitSpyRepository));
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectoryScannerTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUpClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        pool.shutdown();
+    }
+
+    /**
+     * Create directory tree with enough entries in the directories so that the entries are examined
+     * by multiple tasks.
+     */
+    private static void createTree(Path root) throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Path dir = Files.createDirectories(root.resolve("dir" + i).resolve("sub"));
+            for (int j = 0; j < 40; j++) {
+                Files.writeString(dir.getParent().resolve("file" + j), "foo");
+                Files.writeString(dir.resolve("file" + j), "bar");
+            }
+        }
+        Files.writeString(root.resolve("file"), "foo");
+    }
+
+    private static List<Path> walk(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testList(boolean parallel, @TempDir Path root) throws IOException {
+        createTree(root);
+        try (DirectoryScanner scanner = new DirectoryScanner(parallel ? pool : null,
+                IndexDatabase.FILENAME_COMPARATOR, entry -> true)) {
+            for (int k = 0; k < 2; k++) {
+                DirectoryScanner.Entry[] entries = scanner.list(root.toFile());
+                assertNotNull(entries);
+                assertEquals(List.of("dir0", "dir1", "dir2", "dir3", "dir4", "file"),
+                        Arrays.stream(entries).map(entry -> entry.file().getName()).collect(Collectors.toList()));
+                for (int i = 0; i < 5; i++) {
+                    assertTrue(entries[i].isDirectory());
+                    assertFalse(entries[i].isFile());
+                }
+                assertTrue(entries[5].isFile());
+
+                // Listed ahead if parallel.
+                DirectoryScanner.Entry[] subEntries = scanner.list(entries[2].file());
+                assertNotNull(subEntries);
+                assertEquals(41, subEntries.length);
+                File[] files = entries[2].file().listFiles();
+                assertNotNull(files);
+                Arrays.sort(files, IndexDatabase.FILENAME_COMPARATOR);
+                assertEquals(Arrays.asList(files),
+                        Arrays.stream(subEntries).map(DirectoryScanner.Entry::file).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    void testListNonExistent(@TempDir Path root) {
+        try (DirectoryScanner scanner = new DirectoryScanner(pool, IndexDatabase.FILENAME_COMPARATOR,
+                entry -> true)) {
+            assertNull(scanner.list(root.resolve("nonexistent").toFile()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testWalk(boolean parallel, @TempDir Path root) throws IOException {
+        createTree(root);
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryScanner scanner = new DirectoryScanner(parallel ? pool : null, File::compareTo,
+                entry -> !entry.file().getName().equals("dir3"))) {
+            scanner.walk(root.toFile(), entry -> paths.add(entry.file().toPath()));
+        }
+        List<Path> expected = walk(root).stream().
+                filter(path -> !path.startsWith(root.resolve("dir3"))).
+                collect(Collectors.toList());
+        assertEquals(expected.size(), paths.size());
+        assertEquals(expected, paths);
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void testSymbolicLinks(@TempDir Path root) throws IOException {
+        createTree(root);
+        Files.createSymbolicLink(root.resolve("link-dir"), root.resolve("dir0"));
+        Files.createSymbolicLink(root.resolve("link-file"), root.resolve("file"));
+        Files.createSymbolicLink(root.resolve("link-dangling"), root.resolve("nonexistent"));
+
+        List<DirectoryScanner.Entry> links = new ArrayList<>();
+        try (DirectoryScanner scanner = new DirectoryScanner(pool, IndexDatabase.FILENAME_COMPARATOR,
+                entry -> true)) {
+            scanner.walk(root.toFile(), entry -> {
+                if (entry.isSymbolicLink()) {
+                    links.add(entry);
+                }
+            });
+        }
+
+        // The symbolic link to directory is not descended into.
+        assertEquals(List.of(
+                new DirectoryScanner.Entry(root.resolve("link-dangling").toFile(), true, false, false),
+                new DirectoryScanner.Entry(root.resolve("link-dir").toFile(), true, true, false),
+                new DirectoryScanner.Entry(root.resolve("link-file").toFile(), true, false, true)),
+                links);
+    }
+}
@@ -311,4 +311,35 @@ class IndexCheckTest {
         // cleanup
         Files.move(tempPath, originPath);
     }
+
+    @Test
+    void testStaleDocumentCheck() throws Exception {
+        env.setProjectsEnabled(true);
+        configuration.setProjectsEnabled(true);
+        Indexer.getInstance().prepareIndexer(env, true, true,
+                null, null);
+        Indexer.getInstance().doIndexerExecution(null, null);
+        configuration.setProjects(env.getProjects());
+
+        final String sourceRoot = env.getSourceRootPath();
+        try (IndexCheck indexCheck = new IndexCheck(configuration, List.of("git"))) {
+            assertDoesNotThrow(() -> indexCheck.check(IndexCheck.IndexCheckMode.METADATA));
+
+            Path path = Path.of(sourceRoot, "git", "main.c");
+            File file = path.toFile();
+            assertTrue(file.setLastModified(file.lastModified() + 10_000));
+
+            // The documents check does not look at the time stamps.
+            assertDoesNotThrow(() -> indexCheck.check(IndexCheck.IndexCheckMode.DOCUMENTS));
+            IndexCheckException exception = assertThrows(IndexCheckException.class,
+                    () -> indexCheck.check(IndexCheck.IndexCheckMode.METADATA));
+            assertEquals(Set.of(Path.of(sourceRoot, "git")), exception.getFailedPaths());
+
+            IndexDocumentException documentException = assertThrows(IndexDocumentException.class,
+                    () -> indexCheck.checkDir(Path.of(sourceRoot, "git"),
+                            Path.of(configuration.getDataRoot(), IndexDatabase.INDEX_DIR, "git"),
+                            IndexCheck.IndexCheckMode.METADATA));
+            assertEquals(Set.of(path), documentException.getStalePaths());
+        }
+    }
 }
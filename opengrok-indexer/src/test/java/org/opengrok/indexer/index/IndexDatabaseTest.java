@@ -163,6 +163,7 @@ class IndexDatabaseTest {
 
     @AfterEach
     void tearDownClass() throws Exception {
+        env.setStreamingFileCollection(false);
         env.releaseIndexSearchers();
         repository.destroy();
     }
@@ -788,15 +789,25 @@ class IndexDatabaseTest {
         checkIndexDown(historyBased, idb);
     }
 
+    private static Stream<Arguments> provideParamsForTestForcedReindex() {
+        return Stream.of(
+                Arguments.of(true, false),
+                Arguments.of(true, true),
+                Arguments.of(false, false),
+                Arguments.of(false, true)
+        );
+    }
+
     /**
      * Test forced reindex - see if removeFile() was called for all files in the repository
      * even though there was no change.
      */
     @ParameterizedTest
-    @ValueSource(booleans = {true, false})
-    void testForcedReindex(boolean historyBased) throws Exception {
+    @MethodSource("provideParamsForTestForcedReindex")
+    void testForcedReindex(boolean historyBased, boolean streaming) throws Exception {
 
         env.setHistoryBasedReindex(historyBased);
+        env.setStreamingFileCollection(streaming);
 
         Project gitProject = env.getProjects().get("git");
         assertNotNull(gitProject);
@@ -890,7 +901,7 @@ class IndexDatabaseTest {
     /**
      * Test that incremental reindex will re-generate the annotation with correct revision.
      * This is done to prevent {@link HistoryGuru#createAnnotationCache(File, String)} to be called
-     * with invalid/old revision in {@code IndexDatabase#addFile(File, String, Ctags)}.
+     * with invalid/old revision in {@code IndexDatabase#addDocument(File, String, String, Document)}.
      * <p>
      * Assumes the fallback argument of {@link HistoryGuru#annotate(File, String, boolean)}
      * does the right thing.
@@ -0,0 +1,122 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.index;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexPipelineTest {
+
+    @Test
+    void testStagesRunTasks() throws Exception {
+        try (IndexPipeline pipeline = new IndexPipeline(2)) {
+            CountDownLatch latch = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                pipeline.getReadStage().submit(() -> {
+                    try {
+                        pipeline.getAddStage().submit(latch::countDown);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            await().atMost(10, TimeUnit.SECONDS).until(() -> pipeline.getAddStage().getProcessedCount() == 10);
+            assertEquals(10, pipeline.getReadStage().getProcessedCount());
+            assertEquals(0, pipeline.getCtagsStage().getProcessedCount());
+            assertEquals(0, pipeline.getAnalysisStage().getQueueDepth());
+        }
+    }
+
+    /**
+     * With parallelism of 1 the read stage has single thread and room for 2 waiting tasks.
+     */
+    @Test
+    void testSubmitBlocksWhenStageIsFull() throws Exception {
+        try (IndexPipeline pipeline = new IndexPipeline(1)) {
+            IndexPipeline.Stage stage = pipeline.getReadStage();
+            CountDownLatch blocker = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                stage.submit(() -> {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            await().atMost(10, TimeUnit.SECONDS).until(() -> stage.getQueueDepth() == 2);
+
+            CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                try {
+                    stage.submit(() -> { });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThrows(TimeoutException.class, () -> future.get(500, TimeUnit.MILLISECONDS));
+            assertFalse(future.isDone());
+
+            blocker.countDown();
+            future.get(10, TimeUnit.SECONDS);
+            await().atMost(10, TimeUnit.SECONDS).until(() -> stage.getProcessedCount() == 4);
+        }
+    }
+
+    /**
+     * The number of threads of the stage can be set independently of the parallelism.
+     */
+    @Test
+    void testStageThreads() throws Exception {
+        try (IndexPipeline pipeline = new IndexPipeline(1, 3, 1, 1, 1)) {
+            IndexPipeline.Stage stage = pipeline.getReadStage();
+            CountDownLatch running = new CountDownLatch(3);
+            CountDownLatch blocker = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                stage.submit(() -> {
+                    running.countDown();
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            assertEquals(0, stage.getQueueDepth());
+
+            blocker.countDown();
+            await().atMost(10, TimeUnit.SECONDS).until(() -> stage.getProcessedCount() == 3);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProjectSearchTest {
+
+    private static final String PATH = "path";
+
+    private final List<String> projects = List.of("a", "b", "c");
+    private final List<Directory> directories = new ArrayList<>();
+    private final List<DirectoryReader> readers = new ArrayList<>();
+    private final List<IndexSearcher> searchers = new ArrayList<>();
+
+    /**
+     * Create 3 indexes with documents that have the same score for the query so that the order
+     * of the hits depends on breaking the ties.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < projects.size(); i++) {
+            Directory directory = new ByteBuffersDirectory();
+            directories.add(directory);
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                for (int j = 0; j < 5; j++) {
+                    Document doc = new Document();
+                    String path = String.format("/%s/file%d", j % 2 == 0 ? "x" : "y", i);
+                    doc.add(new StringField(PATH, path, Field.Store.YES));
+                    doc.add(new SortedDocValuesField(PATH, new BytesRef(path)));
+                    doc.add(new TextField(QueryBuilder.FULL, "foo bar", Field.Store.NO));
+                    writer.addDocument(doc);
+                }
+            }
+            DirectoryReader reader = DirectoryReader.open(directory);
+            readers.add(reader);
+            searchers.add(new IndexSearcher(reader));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (DirectoryReader reader : readers) {
+            reader.close();
+        }
+        for (Directory directory : directories) {
+            directory.close();
+        }
+    }
+
+    private static int[] getDocs(TopDocs topDocs) {
+        return Arrays.stream(topDocs.scoreDocs).mapToInt(scoreDoc -> scoreDoc.doc).toArray();
+    }
+
+    /**
+     * The merged results should be the same as the results of {@code MultiReader} search and they should be
+     * the same when collected in batches.
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testSearch(boolean relevance) throws IOException {
+        Query query = new TermQuery(new Term(QueryBuilder.FULL, "foo"));
+        Sort sort = relevance ? Sort.RELEVANCE : new Sort(new SortField(PATH, SortField.Type.STRING));
+
+        IndexSearcher multiSearcher = new IndexSearcher(new MultiReader(readers.toArray(new IndexReader[0]), false));
+        int[] expected = getDocs(relevance ? multiSearcher.search(query, 100) : multiSearcher.search(query, 100, sort));
+        assertEquals(15, expected.length);
+
+        TopDocs topDocs = ProjectSearch.search(projects, searchers, query, sort, 100);
+        assertEquals(15, topDocs.totalHits.value);
+        assertEquals(Arrays.toString(expected), Arrays.toString(getDocs(topDocs)));
+
+        List<Integer> docs = new ArrayList<>();
+        ScoreDoc after = null;
+        do {
+            topDocs = ProjectSearch.search(projects, searchers, query, sort, 4, after);
+            Arrays.stream(topDocs.scoreDocs).forEach(scoreDoc -> docs.add(scoreDoc.doc));
+            after = topDocs.scoreDocs.length > 0 ? topDocs.scoreDocs[topDocs.scoreDocs.length - 1] : null;
+        } while (after != null);
+        assertEquals(Arrays.toString(expected), docs.toString());
+    }
+}
@@ -36,6 +36,8 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.history.HistoryGuru;
 import org.opengrok.indexer.index.Indexer;
@@ -221,6 +223,49 @@ class SearchEngineTest {
         instance.destroy();
     }
 
+    private static List<Integer> getDocs(SearchEngine instance, int count) {
+        List<Integer> docs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            docs.add(instance.scoreDocs()[i].doc);
+        }
+        return docs;
+    }
+
+    /**
+     * Collecting the hits in batches via {@link SearchEngine#searchAfter(int)} should give the same hits
+     * as collecting them at once.
+     */
+    @ParameterizedTest
+    @EnumSource(value = SortOrder.class, names = {"RELEVANCY", "BY_PATH"})
+    void testSearchAfter(SortOrder sortOrder) throws Exception {
+        SearchEngine instance = new SearchEngine(Integer.MAX_VALUE);
+        instance.setFreetext("main");
+        instance.setSortOrder(sortOrder);
+        int hitsCount = instance.search();
+        assertTrue(hitsCount > 3);
+        List<Integer> expected = getDocs(instance, hitsCount);
+        instance.destroy();
+
+        SearchEngine batchInstance = new SearchEngine(3);
+        batchInstance.setFreetext("main");
+        batchInstance.setSortOrder(sortOrder);
+        int count = batchInstance.search();
+        List<Integer> docs = new ArrayList<>(getDocs(batchInstance, count));
+        while (count > 0) {
+            assertEquals(hitsCount, batchInstance.getTotalHits());
+            count = batchInstance.searchAfter(3);
+            docs.addAll(getDocs(batchInstance, count));
+        }
+        assertEquals(expected, docs);
+        batchInstance.destroy();
+    }
+
+    @Test
+    void testSearchAfterWithoutSearch() {
+        SearchEngine instance = new SearchEngine(1);
+        assertThrows(IllegalStateException.class, () -> instance.searchAfter(1));
+    }
+
     @Test
     void testDefaultSortOrder() {
         SearchEngine instance = new SearchEngine(Integer.MAX_VALUE);
@@ -0,0 +1,114 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.search;
+
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchWarmerTest {
+
+    private final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+    private final SearchWarmer warmer = SearchWarmer.getInstance();
+
+    private List<String> savedQueries;
+    private int savedRecentQueries;
+
+    @BeforeEach
+    void setUp() {
+        savedQueries = env.getSearchWarmupQueries();
+        savedRecentQueries = env.getSearchWarmupRecentQueries();
+        warmer.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        warmer.clear();
+        env.setSearchWarmupQueries(savedQueries);
+        env.setSearchWarmupRecentQueries(savedRecentQueries);
+    }
+
+    private static Query getQuery(String text) {
+        return new TermQuery(new Term(QueryBuilder.FULL, text));
+    }
+
+    @Test
+    void testRecentQueriesAreBounded() {
+        env.setSearchWarmupQueries(List.of());
+        env.setSearchWarmupRecentQueries(2);
+        warmer.record(getQuery("foo"));
+        warmer.record(getQuery("bar"));
+        warmer.record(getQuery("foo"));
+        warmer.record(getQuery("baz"));
+        // The least recently executed query should be gone.
+        assertEquals(List.of(getQuery("foo"), getQuery("baz")), warmer.getQueries());
+
+        env.setSearchWarmupRecentQueries(0);
+        warmer.record(getQuery("foo"));
+        assertTrue(warmer.getQueries().isEmpty());
+    }
+
+    @Test
+    void testConfiguredQueries() throws Exception {
+        env.setSearchWarmupQueries(List.of("main", "(invalid"));
+        env.setSearchWarmupRecentQueries(10);
+        Query query = new QueryBuilder().setFreetext("main").build();
+        warmer.record(query);
+        warmer.record(getQuery("foo"));
+        assertEquals(List.of(query, getQuery("foo")), warmer.getQueries());
+    }
+
+    @Test
+    void testWarm() throws Exception {
+        env.setSearchWarmupQueries(List.of("main"));
+        env.setSearchWarmupRecentQueries(10);
+        warmer.record(getQuery("foo"));
+        try (ByteBuffersDirectory directory = new ByteBuffersDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                Document doc = new Document();
+                doc.add(new TextField(QueryBuilder.FULL, "int main foo", Field.Store.NO));
+                writer.addDocument(doc);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                warmer.warm(new IndexSearcher(reader));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeekableGZIPFileTest {
+
+    private static String createContent(int lines) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i <= lines; i++) {
+            builder.append("line ").append(i).append(" ").append("x".repeat(i % 13)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String getLines(String content, int start, int count) {
+        String[] lines = content.split("(?<=\n)");
+        StringBuilder builder = new StringBuilder();
+        for (int i = start - 1; i < lines.length && (count <= 0 || i < start - 1 + count); i++) {
+            builder.append(lines[i]);
+        }
+        return builder.toString();
+    }
+
+    private static File write(Path dir, String content, int blockSize, int chunkSize) throws IOException {
+        File file = dir.resolve("file.gz").toFile();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = new SeekableGZIPOutputStream(new FileOutputStream(file), blockSize)) {
+            for (int off = 0; off < bytes.length; off += chunkSize) {
+                out.write(bytes, off, Math.min(chunkSize, bytes.length - off));
+            }
+        }
+        return file;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static SeekableGZIPFile.Index readIndex(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return SeekableGZIPFile.readIndex(in.getChannel());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 4096})
+    void testReadAll(int chunkSize, @TempDir Path dir) throws IOException {
+        String content = createContent(1000);
+        File file = write(dir, content, 100, chunkSize);
+
+        assertEquals(content, read(new GZIPInputStream(new FileInputStream(file))));
+        assertEquals(content, read(SeekableGZIPFile.open(file, true, 1, 0)));
+
+        SeekableGZIPFile.Index index = readIndex(file);
+        assertNotNull(index);
+        assertEquals(1000, index.lineCount());
+        assertTrue(index.offsets().length > 10);
+        assertEquals(0, index.offsets()[0]);
+        assertEquals(0, index.lines()[0]);
+    }
+
+    @Test
+    void testLines(@TempDir Path dir) throws IOException {
+        String content = createContent(1000);
+        File file = write(dir, content, 100, 4096);
+
+        for (int start : new int[]{1, 2, 9, 10, 11, 500, 999, 1000, 1001, 2000}) {
+            for (int count : new int[]{0, 1, 3, 50}) {
+                assertEquals(getLines(content, start, count), read(SeekableGZIPFile.open(file, true, start, count)),
+                        String.format("start %d count %d", start, count));
+            }
+        }
+    }
+
+    @Test
+    void testEmpty(@TempDir Path dir) throws IOException {
+        File file = write(dir, "", 100, 1);
+
+        assertEquals("", read(new GZIPInputStream(new FileInputStream(file))));
+        assertEquals("", read(SeekableGZIPFile.open(file, true, 1, 0)));
+        assertEquals("", read(SeekableGZIPFile.open(file, true, 10, 1)));
+        SeekableGZIPFile.Index index = readIndex(file);
+        assertNotNull(index);
+        assertEquals(0, index.lineCount());
+    }
+
+    @Test
+    void testNoTrailingNewline(@TempDir Path dir) throws IOException {
+        String content = createContent(100) + "last";
+        File file = write(dir, content, 10, 4096);
+
+        assertEquals("last", read(SeekableGZIPFile.open(file, true, 101, 0)));
+        assertEquals(getLines(content, 50, 0), read(SeekableGZIPFile.open(file, true, 50, 0)));
+    }
+
+    /**
+     * The number of blocks exceeds the capacity of the index so only some of the blocks are recorded.
+     */
+    @Test
+    void testThinning(@TempDir Path dir) throws IOException {
+        int lines = SeekableGZIPFile.MAX_INDEX_ENTRIES * 3;
+        String content = createContent(lines);
+        File file = write(dir, content, 1, 4096);
+
+        SeekableGZIPFile.Index index = readIndex(file);
+        assertNotNull(index);
+        assertEquals(lines, index.lineCount());
+        assertTrue(index.offsets().length <= SeekableGZIPFile.MAX_INDEX_ENTRIES);
+        assertTrue(index.offsets().length > SeekableGZIPFile.MAX_INDEX_ENTRIES / 2);
+        for (int i = 1; i < index.lines().length; i++) {
+            assertTrue(index.lines()[i] > index.lines()[i - 1]);
+            assertTrue(index.offsets()[i] > index.offsets()[i - 1]);
+        }
+
+        for (int start : new int[]{1, 2, 3, lines / 2, lines / 2 + 1, lines}) {
+            assertEquals(getLines(content, start, 2), read(SeekableGZIPFile.open(file, true, start, 2)));
+        }
+    }
+
+    @Test
+    void testPlainGzip(@TempDir Path dir) throws IOException {
+        String content = createContent(100);
+        File file = dir.resolve("plain.gz").toFile();
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertNull(readIndex(file));
+        assertEquals(getLines(content, 42, 5), read(SeekableGZIPFile.open(file, true, 42, 5)));
+    }
+
+    @Test
+    void testUncompressed(@TempDir Path dir) throws IOException {
+        String content = createContent(100);
+        Path file = dir.resolve("plain");
+        Files.writeString(file, content);
+
+        assertEquals(getLines(content, 42, 5), read(SeekableGZIPFile.open(file.toFile(), false, 42, 5)));
+        assertEquals(content, read(SeekableGZIPFile.open(file.toFile(), false, 1, 0)));
+    }
+}
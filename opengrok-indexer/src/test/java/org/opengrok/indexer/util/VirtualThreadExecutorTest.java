@@ -0,0 +1,107 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadExecutorTest {
+
+    @Test
+    void testVirtualThreadName() throws Exception {
+        VirtualThreadExecutor executor = new VirtualThreadExecutor("foo", 0);
+        try {
+            Future<Thread> future = executor.submit(Thread::currentThread);
+            Thread thread = future.get(10, TimeUnit.SECONDS);
+            assertTrue(thread.isVirtual());
+            assertTrue(thread.getName().startsWith(OpenGrokThreadFactory.PREFIX + "foo-"));
+            assertEquals(-1, executor.getAvailablePermits());
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLimit() throws Exception {
+        final int limit = 2;
+        VirtualThreadExecutor executor = new VirtualThreadExecutor("limited", limit);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch blocker = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                }));
+            }
+            await().atMost(10, TimeUnit.SECONDS).until(() -> running.get() == limit);
+            assertEquals(0, executor.getAvailablePermits());
+
+            blocker.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(limit, maxRunning.get());
+            assertEquals(limit, executor.getAvailablePermits());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The tasks waiting for their turn should not be left hanging after {@code shutdownNow()}.
+     */
+    @Test
+    void testShutdownNowCancelsWaitingTasks() throws Exception {
+        VirtualThreadExecutor executor = new VirtualThreadExecutor("shutdown", 1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.submit(() -> {
+            blocker.await();
+            return null;
+        });
+        await().atMost(10, TimeUnit.SECONDS).until(() -> executor.getAvailablePermits() == 0);
+        Future<?> waiting = executor.submit(() -> { });
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(waiting.isCancelled());
+    }
+}
@@ -28,10 +28,15 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashSet;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit test to test the EftarFile-system.
@@ -94,4 +99,40 @@ class EftarFileTest {
         }
         er.close();
     }
+
+    @Test
+    void testLookups() throws IOException {
+        try (EftarFileReader er = new EftarFileReader(eftar)) {
+            // Undescribed paths get the description of the closest described ancestor.
+            assertEquals("Description 1", er.get(PATH_STRING + "0" + PATH_STRING + "1/foo/bar"));
+            assertEquals("", er.get("/foo"));
+            assertEquals("", er.get("/"));
+
+            EftarFileReader.FNode node = er.getNode(PATH_STRING + "0");
+            assertNotNull(node);
+            assertEquals("Description 0", node.getTag());
+            assertEquals("Description 1", er.getChildTag(node, "path1"));
+            assertNull(er.getChildTag(node, "foo"));
+            assertNull(er.getNode(PATH_STRING + "0/foo"));
+            assertNotNull(er.getNode("/"));
+        }
+    }
+
+    @Test
+    void testReplace() throws IOException {
+        File file = File.createTempFile("replace", ".eftar");
+        try {
+            new EftarFile().create(Set.of(new PathDescription("/foo", "old")), file.getAbsolutePath());
+            EftarFileReader er = new EftarFileReader(file);
+            assertTrue(er.isCurrent(file));
+
+            new EftarFile().create(Set.of(new PathDescription("/foo", "new description")), file.getAbsolutePath());
+            assertFalse(er.isCurrent(file));
+            // The file was replaced rather than overwritten so the old reader still works.
+            assertEquals("old", er.get("/foo"));
+            assertEquals("new description", new EftarFileReader(file).get("/foo"));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
 }
@@ -23,7 +23,9 @@
  */
 package org.opengrok.indexer.web;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -36,6 +38,7 @@ import org.opengrok.indexer.index.Indexer;
 import org.opengrok.indexer.search.QueryBuilder;
 import org.opengrok.indexer.util.TestRepository;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -187,4 +190,40 @@ class SearchHelperTest {
         assertNotNull(searchHelper.getErrorMsg());
         assertTrue(searchHelper.getErrorMsg().contains("invalid projects"));
     }
+
+    private int[] getDocs(SortedSet<String> projectNames, SortOrder order) {
+        SearchResultCache.getInstance().clear();
+        SearchHelper searchHelper = new SearchHelper.Builder(env.getDataRootFile(), env.getSourceRootFile(),
+                null, new QueryBuilder().setFreetext("foobar"), env.getUrlPrefix())
+                .maxItems(env.getHitsPerPage())
+                .order(order)
+                .build()
+                .prepareExec(projectNames).executeQuery();
+        assertNull(searchHelper.getErrorMsg());
+        assertEquals(5, searchHelper.getTotalHits());
+        int[] docs = Arrays.stream(searchHelper.getHits()).mapToInt(hit -> hit.doc).toArray();
+        searchHelper.destroy();
+        return docs;
+    }
+
+    @Test
+    void testProjectSearch() throws Exception {
+        env.setProjectsEnabled(true);
+        reindex();
+
+        SortedSet<String> projectNames = new TreeSet<>(List.of("c", "document"));
+        int[] docs = getDocs(projectNames, SortOrder.BY_PATH);
+        int[] relevanceDocs = getDocs(projectNames, SortOrder.RELEVANCY);
+
+        int savedThreadCount = env.getMaxProjectSearchThreadCount();
+        try {
+            env.setMaxProjectSearchThreadCount(2);
+            assertArrayEquals(docs, getDocs(projectNames, SortOrder.BY_PATH));
+            // The scores are computed per project so only the set of hits has to be the same.
+            assertArrayEquals(Arrays.stream(relevanceDocs).sorted().toArray(),
+                    Arrays.stream(getDocs(projectNames, SortOrder.RELEVANCY)).sorted().toArray());
+        } finally {
+            env.setMaxProjectSearchThreadCount(savedThreadCount);
+        }
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.indexer.web;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.index.Indexer;
+import org.opengrok.indexer.search.QueryBuilder;
+import org.opengrok.indexer.util.TestRepository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests caching of search results done by {@link SearchHelper} in {@link SearchResultCache}.
+ */
+class SearchResultCacheTest {
+
+    private TestRepository repository;
+    private RuntimeEnvironment env;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new TestRepository();
+        repository.create(SearchResultCacheTest.class.getClassLoader().getResource("sources"));
+
+        env = RuntimeEnvironment.getInstance();
+        env.setSourceRoot(repository.getSourceRoot());
+        env.setDataRoot(repository.getDataRoot());
+        env.setHistoryEnabled(false);
+        SearchResultCache.getInstance().clear();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        env.releaseIndexSearchers();
+        SearchResultCache.getInstance().clear();
+        repository.destroy();
+    }
+
+    private void reindex() throws Exception {
+        Indexer.getInstance().prepareIndexer(env, true, true,
+                null, null);
+        env.setDefaultProjectsFromNames(new TreeSet<>(Collections.singletonList("/c")));
+        Indexer.getInstance().doIndexerExecution(null, null);
+    }
+
+    private SearchHelper getSearchHelper(String searchTerm) {
+        return new SearchHelper.Builder(env.getDataRootFile(), env.getSourceRootFile(),
+                null, new QueryBuilder().setFreetext(searchTerm), env.getUrlPrefix())
+                .maxItems(env.getHitsPerPage())
+                .build();
+    }
+
+    @Test
+    void testSearchResultCache() throws Exception {
+        env.setProjectsEnabled(true);
+        reindex();
+
+        SortedSet<String> projectNames = new TreeSet<>();
+        projectNames.add("c");
+        SearchHelper searchHelper = getSearchHelper("foobar")
+                .prepareExec(projectNames).executeQuery();
+        assertNull(searchHelper.getErrorMsg());
+        assertEquals(4, searchHelper.getTotalHits());
+        int[] docs = Arrays.stream(searchHelper.getHits()).mapToInt(hit -> hit.doc).toArray();
+        searchHelper.destroy();
+        assertEquals(1, SearchResultCache.getInstance().size());
+
+        // The same search should be served from the cache, including the request for smaller page.
+        searchHelper = new SearchHelper.Builder(env.getDataRootFile(), env.getSourceRootFile(),
+                null, new QueryBuilder().setFreetext("foobar"), env.getUrlPrefix())
+                .maxItems(2)
+                .build()
+                .prepareExec(projectNames).executeQuery();
+        assertNull(searchHelper.getErrorMsg());
+        assertEquals(4, searchHelper.getTotalHits());
+        assertArrayEquals(Arrays.copyOf(docs, 2), Arrays.stream(searchHelper.getHits()).mapToInt(hit -> hit.doc).toArray());
+        searchHelper.destroy();
+        assertEquals(1, SearchResultCache.getInstance().size());
+
+        // Different set of projects is different search.
+        projectNames.add("document");
+        searchHelper = getSearchHelper("foobar")
+                .prepareExec(projectNames).executeQuery();
+        assertEquals(5, searchHelper.getTotalHits());
+        searchHelper.destroy();
+        assertEquals(2, SearchResultCache.getInstance().size());
+    }
+}
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2011, 2025, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2026, Oracle and/or its affiliates. All rights reserved.
  * Portions Copyright (c) 2011, Jens Elkner.
  * Portions Copyright (c) 2017, 2020, Chris Fraire <cfraire@me.com>.
  * Portions Copyright (c) 2023, Gino Augustine <gino.augustine@oracle.com>.
@@ -51,8 +51,10 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -82,6 +84,7 @@ import org.opengrok.indexer.configuration.IgnoredNames;
 import org.opengrok.indexer.configuration.Project;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.history.Annotation;
+import org.opengrok.indexer.history.GitRepository;
 import org.opengrok.indexer.history.HistoryGuru;
 import org.opengrok.indexer.logger.LoggerFactory;
 import org.opengrok.indexer.search.QueryBuilder;
@@ -98,6 +101,7 @@ import org.opengrok.indexer.web.SearchHelper;
 import org.opengrok.indexer.web.SortOrder;
 import org.opengrok.indexer.web.Util;
 import org.opengrok.indexer.web.messages.MessagesContainer.AcceptedMessage;
+import org.opengrok.web.util.DiffUtil;
 import org.suigeneris.jrcs.diff.Diff;
 import org.suigeneris.jrcs.diff.DifferentiationFailedException;
 
@@ -303,19 +307,35 @@ public class PageConfig {
     private void generatePlainTextDiffData(DiffData data, String[] filepath) {
         String srcRoot = getSourceRootPath();
         InputStream[] in = new InputStream[2];
+        List<CompletableFuture<InputStream>> futures = new ArrayList<>(2);
         try {
-            // Get input stream for both older and newer file.
-            Future<?>[] future = new Future<?>[2];
+            // Get input stream for both older and newer file. If the genre is known to be textual,
+            // binary contents are refused early rather than read and diffed.
+            final long maxSize = getEnv().getDiffFileSizeLimit() * 1024L * 1024L;
+            final boolean textOnly = data.genre == AbstractAnalyzer.Genre.PLAIN
+                    || data.genre == AbstractAnalyzer.Genre.HTML;
             for (int i = 0; i < 2; i++) {
                 File f = new File(srcRoot + filepath[i]);
                 final String revision = data.rev[i];
-                future[i] = executor.submit(() -> HistoryGuru.getInstance().
-                        getRevision(f.getParent(), f.getName(), revision));
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return HistoryGuru.getInstance().
+                                getRevision(f.getParent(), f.getName(), revision, maxSize, textOnly);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
             }
 
             for (int i = 0; i < 2; i++) {
                 // The Executor used by given repository will enforce the timeout.
-                in[i] = (InputStream) future[i].get();
+                try {
+                    in[i] = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    data.errorMsg = "Error reading revisions: "
+                            + Util.htmlize(e.getCause().getMessage());
+                    return;
+                }
                 if (in[i] == null) {
                     data.errorMsg = "Unable to get revision "
                             + Util.htmlize(data.rev[i]) + " for file: "
@@ -350,6 +370,12 @@ public class PageConfig {
         } finally {
             Arrays.stream(in)
                     .forEach(IOUtils::close);
+            // The revisions that were not retrieved because of an error are closed once they are available.
+            for (int i = 0; i < futures.size(); i++) {
+                if (in[i] == null) {
+                    futures.get(i).thenAccept(IOUtils::close);
+                }
+            }
         }
         if (Objects.isNull(data.errorMsg)) {
             populateRevisionData(data);
@@ -374,6 +400,10 @@ public class PageConfig {
     }
 
     private void populateRevisionData(DiffData data) {
+        if (HistoryGuru.getInstance().getRepository(getResourceFile()) instanceof GitRepository) {
+            data.revision = DiffUtil.diff(data.file[0], data.file[1]);
+            return;
+        }
         try {
             data.revision = Diff.diff(data.file[0], data.file[1]);
         } catch (DifferentiationFailedException e) {
@@ -666,25 +696,16 @@ public class PageConfig {
     }
 
     /**
-     * Get the <i>Eftar</i> reader for the data directory. If it has been already
-     * opened and not closed, this instance gets returned. One should not close
-     * it once used: {@link #cleanup(ServletRequest)} takes care to close it.
+     * Get the <i>Eftar</i> reader for the data directory. The reader is shared
+     * by all requests (see {@link RuntimeEnvironment#getDtagsEftarReader()}),
+     * one should not close it.
      *
      * @return {@code null} if a reader can't be established, the reader
      * otherwise.
      */
     public EftarFileReader getEftarReader() {
-        if (eftarReader == null || eftarReader.isClosed()) {
-            File f = getEnv().getDtagsEftar();
-            if (f == null) {
-                eftarReader = null;
-            } else {
-                try {
-                    eftarReader = new EftarFileReader(f);
-                } catch (FileNotFoundException e) {
-                    LOGGER.log(Level.FINE, "Failed to create EftarFileReader: ", e);
-                }
-            }
+        if (eftarReader == null) {
+            eftarReader = getEnv().getDtagsEftarReader();
         }
         return eftarReader;
     }
@@ -1643,9 +1664,7 @@ public class PageConfig {
         sr.removeAttribute(ATTR_NAME);
         cfg.env = null;
         cfg.req = null;
-        if (cfg.eftarReader != null) {
-            cfg.eftarReader.close();
-        }
+        cfg.eftarReader = null;
     }
 
     /**
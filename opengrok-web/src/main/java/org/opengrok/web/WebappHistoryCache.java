@@ -0,0 +1,230 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.Metrics;
+import org.opengrok.indexer.configuration.ConfigurationChangedListener;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.history.History;
+import org.opengrok.indexer.history.HistoryException;
+import org.opengrok.indexer.history.HistoryGuru;
+import org.opengrok.indexer.logger.LoggerFactory;
+
+/**
+ * In-memory cache of the {@link History} objects decoded from the history cache so that frequently viewed files
+ * do not have their history cache entries parsed on each request.
+ * <p>
+ * The cache is bounded by the total number of history entries (see
+ * {@link RuntimeEnvironment#getWebappHistoryCacheSize()}) and evicts the least recently used histories first.
+ * Each entry remembers the time of the last update of the history cache entry it was decoded from
+ * and it is discarded once the history cache entry changes. Also, the cache is emptied on configuration change
+ * (which is how the indexer announces the end of reindex) and the entries of given project are dropped
+ * when the project is marked as indexed.
+ * </p>
+ * <p>
+ * Only the histories coming from the history cache are stored. The {@link History} objects are shared
+ * between requests so the callers must not modify them.
+ * </p>
+ */
+public final class WebappHistoryCache implements ConfigurationChangedListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebappHistoryCache.class);
+
+    private static final WebappHistoryCache instance = new WebappHistoryCache();
+
+    private record Key(String path, boolean withFiles) {
+    }
+
+    private record Value(History history, long lastModified, int weight) {
+    }
+
+    /**
+     * Access ordered map so that the iteration starts with the least recently used entry.
+     */
+    private final LinkedHashMap<Key, Value> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    private WebappHistoryCache() {
+        MeterRegistry meterRegistry = Metrics.getRegistry();
+        if (meterRegistry != null) {
+            hits = Counter.builder("cache.history.webapp.get").
+                    description("webapp history cache hits").
+                    tag("what", "hits").
+                    register(meterRegistry);
+            misses = Counter.builder("cache.history.webapp.get").
+                    description("webapp history cache misses").
+                    tag("what", "miss").
+                    register(meterRegistry);
+            evictions = Counter.builder("cache.history.webapp.evictions").
+                    description("webapp history cache evictions").
+                    register(meterRegistry);
+            Gauge.builder("cache.history.webapp.weight", this, WebappHistoryCache::getWeight).
+                    description("number of history entries in webapp history cache").
+                    register(meterRegistry);
+        }
+    }
+
+    public static WebappHistoryCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get the history for the file (called from the web app). The history is served from memory
+     * if it is still current w.r.t. the history cache, otherwise it is retrieved via
+     * {@link HistoryGuru#getHistory(File, boolean, boolean)}.
+     *
+     * @param file the file to get the history for
+     * @param withFiles whether the returned history should contain the list of files touched by each changeset
+     * @return history for the file or {@code null}
+     * @throws HistoryException on error when accessing the history
+     */
+    @Nullable
+    public History getHistory(File file, boolean withFiles) throws HistoryException {
+        HistoryGuru historyGuru = HistoryGuru.getInstance();
+        int maxWeight = RuntimeEnvironment.getInstance().getWebappHistoryCacheSize();
+        if (maxWeight <= 0) {
+            return historyGuru.getHistory(file, withFiles, true);
+        }
+
+        long lastModified = historyGuru.getHistoryCacheLastModified(file);
+        if (lastModified == 0) {
+            // Nothing to validate the entry against.
+            increment(misses);
+            return historyGuru.getHistory(file, withFiles, true);
+        }
+
+        Key key = new Key(file.getPath(), withFiles);
+        synchronized (this) {
+            Value value = map.get(key);
+            if (value != null) {
+                if (value.lastModified() == lastModified) {
+                    increment(hits);
+                    return value.history();
+                }
+                remove(key);
+            }
+        }
+
+        increment(misses);
+        History history = historyGuru.getHistory(file, withFiles, true);
+        // The history cache entry might have been updated in the meantime, in which case the history cannot
+        // be assigned the timestamp with certainty.
+        if (history != null && historyGuru.getHistoryCacheLastModified(file) == lastModified) {
+            put(key, new Value(history, lastModified, Math.max(1, history.getHistoryEntries().size())), maxWeight);
+        }
+
+        return history;
+    }
+
+    private synchronized void put(Key key, Value value, int maxWeight) {
+        if (value.weight() > maxWeight) {
+            return;
+        }
+
+        Value previous = map.put(key, value);
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += value.weight();
+
+        Iterator<Map.Entry<Key, Value>> iterator = map.entrySet().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            Map.Entry<Key, Value> entry = iterator.next();
+            weight -= entry.getValue().weight();
+            iterator.remove();
+            increment(evictions);
+        }
+    }
+
+    private void remove(Key key) {
+        Value value = map.remove(key);
+        if (value != null) {
+            weight -= value.weight();
+        }
+    }
+
+    /**
+     * Drop the histories of files under given directory.
+     * @param dir directory
+     */
+    public synchronized void invalidate(File dir) {
+        String prefix = dir.getPath() + File.separator;
+        Iterator<Map.Entry<Key, Value>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Value> entry = iterator.next();
+            if (entry.getKey().path().startsWith(prefix)) {
+                weight -= entry.getValue().weight();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop all the histories.
+     */
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    @Override
+    public void onConfigurationChanged() {
+        LOGGER.log(Level.FINE, "clearing webapp history cache");
+        clear();
+    }
+
+    /**
+     * @return total number of history entries in the cache
+     */
+    @VisibleForTesting
+    synchronized long getWeight() {
+        return weight;
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return map.size();
+    }
+
+    private static void increment(@Nullable Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
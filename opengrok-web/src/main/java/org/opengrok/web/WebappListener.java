@@ -37,6 +37,7 @@ import org.opengrok.indexer.configuration.CommandTimeoutType;
 import org.opengrok.indexer.configuration.Configuration;
 import org.opengrok.indexer.configuration.Project;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.history.HistoryGuru;
 import org.opengrok.indexer.index.IndexCheck;
 import org.opengrok.indexer.index.IndexCheckException;
 import org.opengrok.indexer.logger.LoggerFactory;
@@ -45,6 +46,7 @@ import org.opengrok.indexer.web.SearchHelper;
 import org.opengrok.web.api.ApiTaskManager;
 import org.opengrok.web.api.v1.controller.ConfigurationController;
 import org.opengrok.web.api.v1.controller.ProjectsController;
+import org.opengrok.web.api.v1.controller.SearchCursors;
 import org.opengrok.web.api.v1.suggester.provider.service.SuggesterServiceFactory;
 
 import java.io.File;
@@ -128,6 +130,8 @@ public final class WebappListener implements ServletContextListener, ServletRequ
 
         env.startExpirationTimer();
 
+        env.registerListener(WebappHistoryCache.getInstance());
+
         ApiTaskManager.getInstance().setContextPath(context.getContextPath());
         // register API task queues
         ApiTaskManager.getInstance().addPool(ProjectsController.PROJECTS_PATH, 1);
@@ -177,11 +181,15 @@ public final class WebappListener implements ServletContextListener, ServletRequ
         try {
             env.shutdownRevisionExecutor();
             env.shutdownSearchExecutor();
+            env.shutdownProjectSearchExecutor();
             env.shutdownDirectoryListingExecutor();
         } catch (InterruptedException e) {
             LOGGER.log(Level.WARNING, "Could not shutdown revision executor", e);
         }
 
+        SearchCursors.getInstance().shutdown();
+        HistoryGuru.getInstance().shutdown();
+
         // need to explicitly close the suggester service because it might have scheduled rebuild which could prevent
         // the web application from closing
         SuggesterServiceFactory.getDefault().close();
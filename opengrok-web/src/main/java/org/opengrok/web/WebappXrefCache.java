@@ -0,0 +1,333 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.Metrics;
+import org.opengrok.indexer.analysis.AbstractAnalyzer;
+import org.opengrok.indexer.analysis.AnalyzerFactory;
+import org.opengrok.indexer.analysis.AnalyzerGuru;
+import org.opengrok.indexer.analysis.Definitions;
+import org.opengrok.indexer.configuration.Project;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.index.IndexDatabase;
+import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.util.ForbiddenSymlinkException;
+import org.opengrok.indexer.util.IOUtils;
+import org.opengrok.indexer.util.SeekableGZIPOutputStream;
+import org.opengrok.indexer.util.Statistics;
+import org.opengrok.indexer.util.TandemPath;
+
+/**
+ * On-disk cache of the xrefs generated by the web application for the files that do not have
+ * the xref produced by the indexer, typically because the indexer was run in the economy mode
+ * (see {@link RuntimeEnvironment#isGenerateHtml()}).
+ * <p>
+ * The xrefs are generated from the current version of the file using the definitions stored in the index
+ * and stored as compressed files under the {@value #CACHE_DIR} directory of the data root.
+ * Each cached xref is assigned the modification time of its source file so that it is regenerated
+ * once the file changes. The total size of the cache is bounded (see
+ * {@link RuntimeEnvironment#getWebappXrefCacheSize()}) and the least recently used xrefs are evicted first.
+ * </p>
+ */
+public final class WebappXrefCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebappXrefCache.class);
+
+    /**
+     * Name of the directory under data root where the xrefs are stored.
+     */
+    public static final String CACHE_DIR = "xrefcache";
+
+    private static final WebappXrefCache instance = new WebappXrefCache();
+
+    /**
+     * Access ordered map of the cached files to their sizes so that the iteration starts
+     * with the least recently used entry.
+     */
+    private final LinkedHashMap<File, Long> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    @Nullable
+    private File loadedDir;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    private WebappXrefCache() {
+        MeterRegistry meterRegistry = Metrics.getRegistry();
+        if (meterRegistry != null) {
+            hits = Counter.builder("cache.xref.webapp.get").
+                    description("webapp xref cache hits").
+                    tag("what", "hits").
+                    register(meterRegistry);
+            misses = Counter.builder("cache.xref.webapp.get").
+                    description("webapp xref cache misses").
+                    tag("what", "miss").
+                    register(meterRegistry);
+            evictions = Counter.builder("cache.xref.webapp.evictions").
+                    description("webapp xref cache evictions").
+                    register(meterRegistry);
+            Gauge.builder("cache.xref.webapp.size", this, WebappXrefCache::getSize).
+                    description("size of the webapp xref cache in bytes").
+                    register(meterRegistry);
+        }
+    }
+
+    public static WebappXrefCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get the xref of the current version of given file, generating it if it is not cached.
+     *
+     * @param file file under source root
+     * @param project project of the file or {@code null}
+     * @return compressed xref file or {@code null} if the cache is disabled, the file is not a text file
+     * or the xref could not be generated
+     */
+    @Nullable
+    public File getXref(File file, @Nullable Project project) {
+        return getXref(file, project, RuntimeEnvironment.getInstance().getWebappXrefCacheSize() * 1024L * 1024L);
+    }
+
+    @VisibleForTesting
+    @Nullable
+    File getXref(File file, @Nullable Project project, long maxSize) {
+        RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+        if (maxSize <= 0 || !file.isFile()) {
+            return null;
+        }
+
+        File cacheDir = new File(env.getDataRootFile(), CACHE_DIR);
+        File xrefFile;
+        try {
+            xrefFile = new File(cacheDir, TandemPath.join(env.getPathRelativeToSourceRoot(file), ".gz"));
+        } catch (IOException | ForbiddenSymlinkException e) {
+            LOGGER.log(Level.WARNING, String.format("cannot get path of '%s' relative to source root", file), e);
+            return null;
+        }
+
+        load(cacheDir);
+
+        long lastModified = file.lastModified();
+        if (xrefFile.lastModified() == lastModified) {
+            increment(hits);
+            synchronized (this) {
+                // Touch the entry.
+                map.get(xrefFile);
+            }
+            return xrefFile;
+        }
+
+        increment(misses);
+        try {
+            AnalyzerFactory factory = findFactory(file);
+            if (factory == null || factory.getGenre() != AbstractAnalyzer.Genre.PLAIN) {
+                return null;
+            }
+            long xrefSize = generate(file, factory, project, xrefFile, lastModified);
+            put(xrefFile, xrefSize, maxSize);
+            return xrefFile;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, String.format("failed to generate xref for '%s'", file), e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static AnalyzerFactory findFactory(File file) throws IOException {
+        AnalyzerFactory factory = AnalyzerGuru.find(file.getName());
+        if (factory == null) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                factory = AnalyzerGuru.find(in, file.getName());
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Write the xref into temporary file which is then moved into place so that concurrent requests
+     * never see partially written xref.
+     * @return size of the xref file
+     */
+    private static long generate(File file, AnalyzerFactory factory, @Nullable Project project, File xrefFile,
+                                 long lastModified)
+            throws IOException, ParseException, ClassNotFoundException {
+
+        Statistics statistics = new Statistics();
+        // The definitions come from the index so there is no need to run ctags in the web application.
+        Definitions defs = IndexDatabase.getDefinitions(file);
+
+        Path dir = Files.createDirectories(xrefFile.getParentFile().toPath());
+        Path tmp = Files.createTempFile(dir, xrefFile.getName(), ".tmp");
+        try {
+            // The xrefs are read with the default charset, see Util#dumpXref().
+            try (Reader in = IOUtils.createBOMStrippedReader(new BufferedInputStream(new FileInputStream(file)),
+                    StandardCharsets.UTF_8.name());
+                 Writer out = new BufferedWriter(new OutputStreamWriter(
+                         new SeekableGZIPOutputStream(new FileOutputStream(tmp.toFile()))))) {
+                AnalyzerGuru.writeXref(factory, in, out, defs, null, project, file);
+            }
+            Files.setLastModifiedTime(tmp, FileTime.fromMillis(lastModified));
+            try {
+                Files.move(tmp, xrefFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, xrefFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        statistics.report(LOGGER, Level.FINEST, String.format("generated xref for '%s'", file),
+                "xref.webapp.generate.latency");
+        return xrefFile.length();
+    }
+
+    /**
+     * Account for the xrefs left in the cache directory by previous runs of the web application.
+     * These are ordered by the time of the last access (as far as the file system keeps it).
+     */
+    private void load(File cacheDir) {
+        synchronized (this) {
+            if (cacheDir.equals(loadedDir)) {
+                return;
+            }
+            map.clear();
+            size = 0;
+            loadedDir = cacheDir;
+
+            if (!cacheDir.isDirectory()) {
+                return;
+            }
+            try (Stream<Path> stream = Files.walk(cacheDir.toPath())) {
+                stream.map(path -> {
+                            try {
+                                return Map.entry(path.toFile(),
+                                        Files.readAttributes(path, BasicFileAttributes.class));
+                            } catch (IOException e) {
+                                return null;
+                            }
+                        }).
+                        filter(entry -> entry != null && entry.getValue().isRegularFile()).
+                        sorted(Comparator.comparing(entry -> entry.getValue().lastAccessTime())).
+                        forEach(entry -> {
+                            map.put(entry.getKey(), entry.getValue().size());
+                            size += entry.getValue().size();
+                        });
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, String.format("failed to traverse xref cache directory '%s'", cacheDir),
+                        e);
+            }
+        }
+    }
+
+    private void put(File xrefFile, long xrefSize, long maxSize) {
+        synchronized (this) {
+            Long previous = map.put(xrefFile, xrefSize);
+            if (previous != null) {
+                size -= previous;
+            }
+            size += xrefSize;
+
+            Iterator<Map.Entry<File, Long>> iterator = map.entrySet().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                Map.Entry<File, Long> entry = iterator.next();
+                if (entry.getKey().equals(xrefFile)) {
+                    // Keep the xref that is about to be served.
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(entry.getKey().toPath());
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, String.format("failed to evict '%s' from xref cache", entry.getKey()),
+                            e);
+                    continue;
+                }
+                size -= entry.getValue();
+                iterator.remove();
+                increment(evictions);
+            }
+        }
+    }
+
+    /**
+     * @return total size of the cached xrefs in bytes
+     */
+    @VisibleForTesting
+    synchronized long getSize() {
+        return size;
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Forget the state so that it is loaded again from the cache directory.
+     */
+    @VisibleForTesting
+    synchronized void reset() {
+        map.clear();
+        size = 0;
+        loadedDir = null;
+    }
+
+    private static void increment(@Nullable Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -25,6 +25,7 @@ package org.opengrok.web.api.v1.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -36,8 +37,11 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.opengrok.indexer.analysis.AbstractAnalyzer;
 import org.opengrok.indexer.analysis.Definitions;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.index.IndexDatabase;
 import org.opengrok.indexer.search.QueryBuilder;
+import org.opengrok.indexer.util.TandemPath;
+import org.opengrok.indexer.web.Util;
 import org.opengrok.web.api.v1.filter.CorsEnable;
 import org.opengrok.web.api.v1.filter.PathAuthorized;
 import org.opengrok.web.util.DTOUtil;
@@ -48,6 +52,8 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -151,6 +157,54 @@ public class FileController {
         return genre.toString();
     }
 
+    /**
+     * Get range of lines of the cross reference of a file.
+     * @param request request
+     * @param response response
+     * @param path path of the file relative to source root
+     * @param start number of the first line (starting with 1)
+     * @param count number of lines, non-positive value means all the remaining lines
+     * @return HTML of the lines
+     */
+    @GET
+    @CorsEnable
+    @PathAuthorized
+    @Path("/xref")
+    @Produces(MediaType.TEXT_HTML)
+    public StreamingOutput getXref(@Context HttpServletRequest request,
+                                   @Context HttpServletResponse response,
+                                   @QueryParam("path") final String path,
+                                   @QueryParam("start") @DefaultValue("1") final int start,
+                                   @QueryParam("count") @DefaultValue("0") final int count)
+            throws IOException, NoPathParameterException {
+
+        toFile(path);
+
+        if (start < 1) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid start line");
+            return null;
+        }
+
+        File xrefDir = new File(RuntimeEnvironment.getInstance().getDataRootFile(), IndexDatabase.XREF_DIR);
+        File xrefFile = new File(xrefDir, TandemPath.join(path, ".gz"));
+        boolean compressed = xrefFile.exists();
+        if (!compressed) {
+            xrefFile = new File(xrefDir, path);
+            if (!xrefFile.isFile()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "Cannot find cross reference for file");
+                return null;
+            }
+        }
+
+        File file = xrefFile;
+        String contextPath = request.getContextPath();
+        return out -> {
+            Writer writer = new OutputStreamWriter(out);
+            Util.dumpXref(writer, file, compressed, contextPath, start, count);
+            writer.flush();
+        };
+    }
+
     @GET
     @CorsEnable
     @PathAuthorized
@@ -36,8 +36,8 @@ import org.jetbrains.annotations.TestOnly;
 import org.opengrok.indexer.history.History;
 import org.opengrok.indexer.history.HistoryEntry;
 import org.opengrok.indexer.history.HistoryException;
-import org.opengrok.indexer.history.HistoryGuru;
 import org.opengrok.indexer.web.messages.JSONable;
+import org.opengrok.web.WebappHistoryCache;
 import org.opengrok.web.api.v1.filter.CorsEnable;
 import org.opengrok.web.api.v1.filter.PathAuthorized;
 import org.opengrok.web.util.NoPathParameterException;
@@ -183,7 +183,7 @@ public final class HistoryController {
 
         File file = toFile(path);
 
-        History history = HistoryGuru.getInstance().getHistory(file, withFiles, true);
+        History history = WebappHistoryCache.getInstance().getHistory(file, withFiles);
         if (history == null) {
             return null;
         }
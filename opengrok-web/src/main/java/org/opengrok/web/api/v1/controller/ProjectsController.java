@@ -66,6 +66,7 @@ import org.opengrok.indexer.index.IndexDatabase;
 import org.opengrok.indexer.logger.LoggerFactory;
 import org.opengrok.indexer.util.ClassUtil;
 import org.opengrok.indexer.util.IOUtils;
+import org.opengrok.web.WebappHistoryCache;
 import org.opengrok.web.api.ApiTask;
 import org.opengrok.indexer.web.Laundromat;
 import org.opengrok.web.api.ApiTaskManager;
@@ -363,6 +364,8 @@ public class ProjectsController {
                             // In case this project has just been incrementally indexed,
                             // its IndexSearcher needs a poke.
                             env.maybeRefreshIndexSearchers(Collections.singleton(projectName));
+                            WebappHistoryCache.getInstance().invalidate(
+                                    new File(env.getSourceRootFile(), project.getPath()));
 
                             env.refreshDateForLastIndexRun();
                             return null;
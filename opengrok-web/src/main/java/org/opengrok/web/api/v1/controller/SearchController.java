@@ -23,6 +23,7 @@
  */
 package org.opengrok.web.api.v1.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.DefaultValue;
@@ -34,7 +35,9 @@ import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.lucene.search.Query;
+import org.glassfish.jersey.server.CloseableService;
 import org.opengrok.indexer.configuration.Project;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.search.Hit;
@@ -45,6 +48,8 @@ import org.opengrok.web.PageConfig;
 import org.opengrok.web.api.v1.filter.CorsEnable;
 import org.opengrok.web.api.v1.suggester.provider.service.SuggesterService;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -53,6 +58,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Path(SearchController.PATH)
@@ -60,8 +66,19 @@ public class SearchController {
 
     public static final String PATH = "search";
 
+    public static final String STREAM_PATH = "stream";
+
+    public static final String CURSOR_PARAM = "cursor";
+
+    /**
+     * Newline delimited JSON.
+     */
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
     private static final String DEFAULT_SORT_ORDER = "relevancy";
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private final SuggesterService suggester;
 
     @Inject
@@ -135,6 +152,193 @@ public class SearchController {
         }
     }
 
+    /**
+     * Search and stream the results as newline delimited JSON. Each line except the last one
+     * represents single hit. The last line holds the summary of the batch of results and the cursor
+     * that can be used to retrieve the next batch of results in subsequent request,
+     * which searches the same point-in-time view of the index. The cursor expires after
+     * {@link RuntimeEnvironment#getSearchCursorTimeout()} seconds of inactivity.
+     * <p>
+     * The query parameters are the same as for {@link #search}, except for {@code start}. When {@code cursor}
+     * is specified, the other parameters are ignored and the next batch of results of the search
+     * associated with the cursor is returned.
+     * </p>
+     */
+    @GET
+    @Path(STREAM_PATH)
+    @CorsEnable
+    @Produces(NDJSON_MEDIA_TYPE)
+    @SuppressWarnings("java:S107")
+    public Response stream(
+            @Context final HttpServletRequest req,
+            @Context final CloseableService closeableService,
+            @QueryParam(QueryParameters.FULL_SEARCH_PARAM) final String full,
+            @QueryParam("def") final String def,
+            @QueryParam("symbol") final String symbol,
+            @QueryParam(QueryParameters.PATH_SEARCH_PARAM) final String path,
+            @QueryParam(QueryParameters.HIST_SEARCH_PARAM) final String hist,
+            @QueryParam(QueryParameters.TYPE_SEARCH_PARAM) final String type,
+            @QueryParam("projects") final List<String> projects,
+            @QueryParam(QueryParameters.MAXRESULTS_PARAM) final Integer maxResultsParam,
+            @QueryParam(QueryParameters.SORT_PARAM) @DefaultValue(DEFAULT_SORT_ORDER) final String sort,
+            @QueryParam(QueryParameters.MAXHITSPERFILE_PARAM) @DefaultValue("0") final int maxHitsPerFile,
+            @QueryParam(CURSOR_PARAM) final String cursorId
+    ) {
+        Instant startTime = Instant.now();
+
+        SearchCursors.Cursor cursor;
+        int collected;
+        if (cursorId != null) {
+            cursor = SearchCursors.getInstance().take(cursorId, req.getRemoteUser());
+            if (cursor == null) {
+                throw new WebApplicationException("Unknown or expired cursor", Response.Status.GONE);
+            }
+            try {
+                // The authorization might have changed since the cursor was created.
+                Set<String> allowedProjects = getProjects(req, null).stream()
+                        .map(Project::getName)
+                        .collect(Collectors.toSet());
+                if (!allowedProjects.containsAll(cursor.getProjects())) {
+                    throw new WebApplicationException(Response.Status.FORBIDDEN);
+                }
+                collected = cursor.getEngine().searchAfter(cursor.getBatchSize());
+            } catch (IOException e) {
+                SearchCursors.close(cursor);
+                throw new WebApplicationException(e);
+            } catch (RuntimeException e) {
+                SearchCursors.close(cursor);
+                throw e;
+            }
+        } else {
+            if ((maxResultsParam != null && maxResultsParam < 0) || maxHitsPerFile < 0) {
+                throw new WebApplicationException("Negative integer parameters are not allowed",
+                        Response.Status.BAD_REQUEST);
+            }
+
+            int batchSize;
+            if (maxResultsParam != null) {
+                batchSize = Math.max(maxResultsParam, 1);
+            } else {
+                RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+                batchSize = env.getHitsPerPage() * env.getCachePages();
+            }
+
+            SearchEngine engine = createEngine(full, def, symbol, path, hist, type, SortOrder.get(sort),
+                    maxHitsPerFile, batchSize);
+            try {
+                if (!engine.isValidQuery()) {
+                    throw new WebApplicationException("Invalid request", Response.Status.BAD_REQUEST);
+                }
+
+                suggester.onSearch(projects, engine.getQueryObject());
+
+                List<Project> searchedProjects = getProjects(req, projects);
+                cursor = new SearchCursors.Cursor(engine, batchSize, req.getRemoteUser(),
+                        searchedProjects.stream().map(Project::getName).collect(Collectors.toList()));
+                collected = engine.search(searchedProjects);
+            } catch (RuntimeException e) {
+                engine.destroy();
+                throw e;
+            }
+        }
+
+        // Exactly one of the streaming output and the closeable owns the cursor. The closeable is called
+        // at the end of the request processing, so it closes the cursor if the output was never written
+        // (e.g. the client went away before the response was committed).
+        AtomicBoolean owned = new AtomicBoolean();
+        closeableService.add(() -> {
+            if (owned.compareAndSet(false, true)) {
+                SearchCursors.close(cursor);
+            }
+        });
+        StreamingOutput output = out -> {
+            if (owned.compareAndSet(false, true)) {
+                streamResults(out, cursor, collected, startTime);
+            }
+        };
+        return Response.ok(output).build();
+    }
+
+    private static void streamResults(OutputStream out, SearchCursors.Cursor cursor, int collected,
+                                      Instant startTime) throws IOException {
+        boolean done = false;
+        try {
+            SearchEngine engine = cursor.getEngine();
+            List<Hit> hits = new ArrayList<>();
+            for (int i = 0; i < collected; i++) {
+                // Getting the context of single document at a time, so that the work stops shortly
+                // after the client goes away (the write fails).
+                engine.results(i, i + 1, hits);
+                for (Hit hit : hits) {
+                    writeLine(out, new StreamHit(hit.getPath(), hit.getLine(), hit.getLineno(), hit.getTag()));
+                }
+                out.flush();
+            }
+
+            int startDocument = cursor.getOffset();
+            cursor.advance(collected);
+            String cursorId = null;
+            if (collected > 0 && cursor.hasMore()) {
+                cursorId = SearchCursors.getInstance().put(cursor);
+            } else {
+                SearchCursors.close(cursor);
+            }
+            done = true;
+
+            int endDocument = collected > 0 ? startDocument + collected - 1 : startDocument;
+            writeLine(out, new StreamSummary(Duration.between(startTime, Instant.now()).toMillis(),
+                    engine.getTotalHits(), startDocument, endDocument, cursorId));
+            out.flush();
+        } finally {
+            if (!done) {
+                SearchCursors.close(cursor);
+            }
+        }
+    }
+
+    private static void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(MAPPER.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    private static SearchEngine createEngine(
+            final String full,
+            final String def,
+            final String symbol,
+            final String path,
+            final String hist,
+            final String type,
+            final SortOrder sortOrder,
+            final int maxHitsPerFile,
+            final int maxDocs
+    ) {
+        SearchEngine engine = new SearchEngine(maxDocs);
+        engine.setFreetext(full);
+        engine.setDefinition(def);
+        engine.setSymbol(symbol);
+        engine.setFile(path);
+        engine.setHistory(hist);
+        engine.setType(type);
+        engine.setSortOrder(sortOrder);
+        engine.setMaxHitsPerFile(maxHitsPerFile);
+        return engine;
+    }
+
+    /**
+     * @param req request
+     * @param projects names of the projects, all if {@code null} or empty
+     * @return the projects the user is allowed to access
+     */
+    private static List<Project> getProjects(HttpServletRequest req, List<String> projects) {
+        Set<Project> allProjects = PageConfig.get(req).getProjectHelper().getAllProjects();
+        if (projects == null || projects.isEmpty()) {
+            return new ArrayList<>(allProjects);
+        }
+        return allProjects.stream()
+                .filter(p -> projects.contains(p.getName()))
+                .collect(Collectors.toList());
+    }
+
     private static class SearchEngineWrapper implements AutoCloseable {
 
         private final SearchEngine engine;
@@ -152,15 +356,7 @@ public class SearchController {
                 final int maxHitsPerFile,
                 final int maxDocs
         ) {
-            engine = new SearchEngine(maxDocs);
-            engine.setFreetext(full);
-            engine.setDefinition(def);
-            engine.setSymbol(symbol);
-            engine.setFile(path);
-            engine.setHistory(hist);
-            engine.setType(type);
-            engine.setSortOrder(sortOrder);
-            engine.setMaxHitsPerFile(maxHitsPerFile);
+            engine = createEngine(full, def, symbol, path, hist, type, sortOrder, maxHitsPerFile, maxDocs);
         }
 
         public List<Hit> search(
@@ -169,15 +365,7 @@ public class SearchController {
                 final int startDocIndex,
                 final int maxResults
         ) {
-            Set<Project> allProjects = PageConfig.get(req).getProjectHelper().getAllProjects();
-            int collected;
-            if (projects == null || projects.isEmpty()) {
-                collected = engine.search(new ArrayList<>(allProjects));
-            } else {
-                collected = engine.search(allProjects.stream()
-                        .filter(p -> projects.contains(p.getName()))
-                        .collect(Collectors.toList()));
-            }
+            int collected = engine.search(getProjects(req, projects));
             numResults = engine.getTotalHits();
 
             if (startDocIndex >= collected) {
@@ -220,4 +408,16 @@ public class SearchController {
 
     private record SearchHit(String line, String lineNumber, String tag) {
     }
+
+    private record StreamHit(String path, String line, String lineNumber, String tag) {
+    }
+
+    private record StreamSummary(
+            long time,
+            int resultCount,
+            int startDocument,
+            int endDocument,
+            String cursor
+    ) {
+    }
 }
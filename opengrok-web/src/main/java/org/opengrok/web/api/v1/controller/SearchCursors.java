@@ -0,0 +1,203 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web.api.v1.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.configuration.OpenGrokThreadFactory;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.logger.LoggerFactory;
+import org.opengrok.indexer.search.SearchEngine;
+
+/**
+ * Registry of the cursors of the streaming search API. Each cursor holds {@link SearchEngine} instance
+ * (and hence the index searchers acquired for the initial search) so that the following batches of results
+ * come from the same point-in-time view of the index.
+ * <p>
+ * A cursor is expired (and its index searchers released) if it is not used within
+ * {@link RuntimeEnvironment#getSearchCursorTimeout()} seconds. While a request uses the cursor,
+ * it is removed from the registry so that it cannot be used concurrently or expired.
+ * </p>
+ * <p>
+ * A cursor can be used only by the user who created it. The ID of the cursor is not a capability:
+ * the caller still has to verify that the user is allowed to access the projects of the cursor.
+ * </p>
+ */
+public final class SearchCursors {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchCursors.class);
+
+    private static final SearchCursors instance = new SearchCursors();
+
+    /**
+     * State of the search between the requests.
+     */
+    static final class Cursor {
+        private final SearchEngine engine;
+        private final int batchSize;
+        private final String user;
+        private final List<String> projects;
+        private int offset;
+        private ScheduledFuture<?> expiration;
+
+        /**
+         * @param engine engine with the search performed
+         * @param batchSize maximum number of hits to collect in each batch
+         * @param user name of the user who performed the search or {@code null} if not authenticated
+         * @param projects names of the searched projects
+         */
+        Cursor(SearchEngine engine, int batchSize, @Nullable String user, List<String> projects) {
+            this.engine = engine;
+            this.batchSize = batchSize;
+            this.user = user;
+            this.projects = List.copyOf(projects);
+        }
+
+        SearchEngine getEngine() {
+            return engine;
+        }
+
+        /**
+         * @return names of the searched projects
+         */
+        List<String> getProjects() {
+            return projects;
+        }
+
+        int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * @return number of hits returned so far
+         */
+        int getOffset() {
+            return offset;
+        }
+
+        void advance(int count) {
+            offset += count;
+        }
+
+        /**
+         * @return whether there are more hits to be returned
+         */
+        boolean hasMore() {
+            return offset < engine.getTotalHits();
+        }
+    }
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new OpenGrokThreadFactory("search-cursor-expiration").newThread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SearchCursors() {
+    }
+
+    public static SearchCursors getInstance() {
+        return instance;
+    }
+
+    /**
+     * Store the cursor so that it can be retrieved via {@link #take(String)}.
+     * @param cursor cursor
+     * @return ID of the cursor or {@code null} if the cursors are disabled or the registry was shut down,
+     * in which case the cursor is closed
+     */
+    @Nullable
+    String put(Cursor cursor) {
+        int timeout = RuntimeEnvironment.getInstance().getSearchCursorTimeout();
+        if (timeout <= 0 || scheduler.isShutdown()) {
+            close(cursor);
+            return null;
+        }
+
+        String id = UUID.randomUUID().toString();
+        cursor.expiration = scheduler.schedule(() -> expire(id), timeout, TimeUnit.SECONDS);
+        cursors.put(id, cursor);
+        return id;
+    }
+
+    /**
+     * Remove the cursor from the registry. The caller is responsible for either returning the cursor
+     * via {@link #put(Cursor)} or closing it via {@link #close(Cursor)}.
+     * @param id ID of the cursor
+     * @param user name of the user of the request or {@code null} if not authenticated
+     * @return cursor or {@code null} if there is no such cursor (e.g. it expired) or it was created
+     * by another user, in which case the cursor stays in the registry
+     */
+    @Nullable
+    Cursor take(String id, @Nullable String user) {
+        Cursor cursor = cursors.get(id);
+        if (cursor == null || !Objects.equals(cursor.user, user) || !cursors.remove(id, cursor)) {
+            return null;
+        }
+        cursor.expiration.cancel(false);
+        return cursor;
+    }
+
+    private void expire(String id) {
+        Cursor cursor = cursors.remove(id);
+        if (cursor != null) {
+            LOGGER.log(Level.FINE, "search cursor {0} expired", id);
+            close(cursor);
+        }
+    }
+
+    /**
+     * Release the resources of the cursor.
+     * @param cursor cursor
+     */
+    static void close(Cursor cursor) {
+        cursor.getEngine().destroy();
+    }
+
+    /**
+     * Close all the cursors and stop the expiration.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        cursors.keySet().forEach(this::expire);
+    }
+
+    @VisibleForTesting
+    int size() {
+        return cursors.size();
+    }
+}
@@ -63,11 +63,14 @@ public class IncomingFilter implements ContainerRequestFilter, ConfigurationChan
      * Endpoint paths that are exempted from this filter.
      * @see SearchController#search(HttpServletRequest, String, String, String, String, String, String,
      * java.util.List, int, int, String, int)
+     * @see SearchController#stream(HttpServletRequest, org.glassfish.jersey.server.CloseableService, String,
+     * String, String, String, String, String, java.util.List, Integer, String, int, String)
      * @see SuggesterController#getSuggestions(org.opengrok.web.api.v1.suggester.model.SuggesterQueryData)
      * @see SuggesterController#getConfig()
      */
     private static final Set<String> allowedPaths = new HashSet<>(Arrays.asList(
-            SearchController.PATH, SuggesterController.PATH, SuggesterController.PATH + "/config",
+            SearchController.PATH, SearchController.PATH + "/" + SearchController.STREAM_PATH,
+            SuggesterController.PATH, SuggesterController.PATH + "/config",
             HistoryController.PATH, FileController.PATH + "/content", FileController.PATH + "/genre",
             FileController.PATH + "/defs", AnnotationController.PATH,
             SystemController.PATH + "/ping", SystemController.PATH + "/" + SystemController.INDEX_TIME ));
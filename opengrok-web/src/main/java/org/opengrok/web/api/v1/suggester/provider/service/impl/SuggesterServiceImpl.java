@@ -327,7 +327,8 @@ public class SuggesterServiceImpl implements SuggesterService {
                 getParallelismLevel(suggesterConfig.getRebuildThreadPoolSizeInNcpuPercent(), "rebuild"),
                 getParallelismLevel(suggesterConfig.getSearchThreadPoolSizeInNcpuPercent(), "search"),
                 Metrics.getRegistry(),
-                env.isPrintProgress());
+                env.isPrintProgress(),
+                suggesterConfig.isOffHeapWfst());
 
         new Thread(() -> {
             suggester.init(getAllProjectIndexDirs());
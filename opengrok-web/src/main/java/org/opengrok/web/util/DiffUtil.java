@@ -0,0 +1,87 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web.util;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.HistogramDiff;
+import org.eclipse.jgit.diff.Sequence;
+import org.eclipse.jgit.diff.SequenceComparator;
+import org.suigeneris.jrcs.diff.Revision;
+import org.suigeneris.jrcs.diff.delta.Chunk;
+import org.suigeneris.jrcs.diff.delta.Delta;
+
+/**
+ * Computes differences of files using the histogram diff algorithm of JGit, which is considerably
+ * cheaper in terms of time and memory than the algorithm of JRCS on large files.
+ * The result is converted to JRCS {@link Revision} consumed by the diff view.
+ */
+public class DiffUtil {
+
+    /**
+     * Lines of a file as a JGit {@link Sequence}.
+     */
+    private static final class LineSequence extends Sequence {
+        private final String[] lines;
+
+        LineSequence(String[] lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int size() {
+            return lines.length;
+        }
+    }
+
+    private static final SequenceComparator<LineSequence> LINE_COMPARATOR = new SequenceComparator<>() {
+        @Override
+        public boolean equals(LineSequence a, int ai, LineSequence b, int bi) {
+            return a.lines[ai].equals(b.lines[bi]);
+        }
+
+        @Override
+        public int hash(LineSequence seq, int ptr) {
+            return seq.lines[ptr].hashCode();
+        }
+    };
+
+    // private to enforce static
+    private DiffUtil() {
+    }
+
+    /**
+     * @param original lines of the original file
+     * @param revised lines of the revised file
+     * @return differences between the files
+     */
+    public static Revision diff(String[] original, String[] revised) {
+        Revision revision = new Revision();
+        for (Edit edit : new HistogramDiff().diff(LINE_COMPARATOR, new LineSequence(original),
+                new LineSequence(revised))) {
+            revision.addDelta(Delta.newDelta(
+                    new Chunk(original, edit.getBeginA(), edit.getLengthA()),
+                    new Chunk(revised, edit.getBeginB(), edit.getLengthB())));
+        }
+        return revision;
+    }
+}
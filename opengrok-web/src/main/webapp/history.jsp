@@ -38,12 +38,12 @@ java.util.regex.Pattern,
 org.opengrok.indexer.configuration.RuntimeEnvironment,
 org.opengrok.indexer.history.History,
 org.opengrok.indexer.history.HistoryEntry,
-org.opengrok.indexer.history.HistoryGuru,
 org.opengrok.indexer.logger.LoggerFactory,
 org.opengrok.indexer.util.ForbiddenSymlinkException,
 org.opengrok.indexer.web.QueryParameters,
 org.opengrok.indexer.web.SearchHelper,
-org.opengrok.indexer.web.Util"
+org.opengrok.indexer.web.Util,
+org.opengrok.web.WebappHistoryCache"
 %>
 <%@ page import="jakarta.servlet.http.HttpServletResponse" %>
 <%@ page import="org.opengrok.indexer.web.SortOrder" %>
@@ -84,7 +84,7 @@ org.opengrok.indexer.web.Util"
         File file = cfg.getResourceFile(primePath);
         History hist;
         try {
-            hist = HistoryGuru.getInstance().getHistoryUI(file);
+            hist = WebappHistoryCache.getInstance().getHistory(file, true);
         } catch (Exception e) {
             // should not happen
             response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
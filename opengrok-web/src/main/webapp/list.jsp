@@ -42,7 +42,8 @@ org.opengrok.indexer.index.IndexDatabase,
 org.opengrok.indexer.search.DirectoryEntry,
 org.opengrok.indexer.util.FileExtraZipper,
 org.opengrok.indexer.util.IOUtils,
-org.opengrok.web.DirectoryListing"
+org.opengrok.web.DirectoryListing,
+org.opengrok.web.WebappXrefCache"
 %>
 <%@ page import="static org.opengrok.web.PageConfig.DUMMY_REVISION" %>
 <%@ page import="static org.opengrok.indexer.history.LatestRevisionUtil.getLatestRevision" %>
@@ -212,7 +213,8 @@ document.pageReady.push(function() { pageReadyList();});
     } else if (!rev.isEmpty()) {
         // requesting a revision
         File xrefFile;
-        if (cfg.isLatestRevision(rev) && (xrefFile = cfg.findDataFile()) != null) {
+        boolean latestRevision = cfg.isLatestRevision(rev);
+        if (latestRevision && (xrefFile = cfg.findDataFile()) != null) {
             if (cfg.annotate()) {
                 // annotate
                 BufferedInputStream bin = new BufferedInputStream(new FileInputStream(resourceFile));
@@ -277,6 +279,16 @@ Click <a href="<%= rawPath %>">download <%= basename %></a><%
 </div>
 <%
             }
+        } else if ((latestRevision || rev.equals(DUMMY_REVISION)) && !cfg.annotate() &&
+                (xrefFile = WebappXrefCache.getInstance().getXref(resourceFile, project)) != null) {
+            // No pregenerated xref, use the one generated on demand from the current version of the file.
+%>
+<div id="src" data-navigate-window-enabled="<%= navigateWindowEnabled %>">
+    <pre><%
+            Util.dumpXref(out, xrefFile, true, request.getContextPath());
+    %></pre>
+</div>
+<%
         } else {
 %>
 <%@
@@ -289,6 +301,9 @@ include file="/xref.jspf"
     } else {
         // Requesting cross-referenced file with no known revision.
         File xrefFile = cfg.findDataFile();
+        if (xrefFile == null) {
+            xrefFile = WebappXrefCache.getInstance().getXref(resourceFile, project);
+        }
         if (xrefFile != null) {
 %>
 <div id="src" data-navigate-window-enabled="<%= navigateWindowEnabled %>">
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2021, 2025, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.web;
 
@@ -137,4 +137,24 @@ class DiffTest {
                 () -> assertFalse(diffData.isFull())
         );
     }
+
+    @Test
+    void testGetDiffDataSizeLimit() {
+        final HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getPathInfo()).thenReturn("/git/main.c");
+        when(req.getContextPath()).thenReturn("/source");
+        when(req.getParameter(QueryParameters.REVISION_PARAM + "1")).thenReturn("/git/main.c@bb74b7e");
+        when(req.getParameter(QueryParameters.REVISION_PARAM + "2")).thenReturn("/git/main.c@aa35c25");
+
+        int savedLimit = env.getDiffFileSizeLimit();
+        try {
+            env.setDiffFileSizeLimit(0);
+            DiffData diffData = PageConfig.get(req).getDiffData();
+            assertNotNull(diffData.getErrorMsg());
+            assertTrue(diffData.getErrorMsg().contains("is larger than"), diffData.getErrorMsg());
+            assertNull(diffData.getRevision());
+        } finally {
+            env.setDiffFileSizeLimit(savedLimit);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.history.History;
+import org.opengrok.indexer.history.HistoryGuru;
+import org.opengrok.indexer.history.RepositoryFactory;
+import org.opengrok.indexer.util.TestRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebappHistoryCacheTest {
+
+    private final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+    private final WebappHistoryCache cache = WebappHistoryCache.getInstance();
+
+    private TestRepository repository;
+    private int savedCacheSize;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new TestRepository();
+        repository.create(HistoryGuru.class.getResource("/repositories"));
+
+        env.setSourceRoot(repository.getSourceRoot());
+        env.setDataRoot(repository.getDataRoot());
+        env.setHistoryEnabled(true);
+        RepositoryFactory.initializeIgnoredNames(env);
+        env.setRepositories(repository.getSourceRoot());
+        HistoryGuru.getInstance().createHistoryCache();
+
+        savedCacheSize = env.getWebappHistoryCacheSize();
+        cache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.clear();
+        env.setWebappHistoryCacheSize(savedCacheSize);
+
+        env.setRepositories(new ArrayList<>());
+
+        repository.destroy();
+    }
+
+    @Test
+    void testHit() throws Exception {
+        File file = new File(repository.getSourceRoot(), "git" + File.separator + "main.c");
+        assertTrue(HistoryGuru.getInstance().getHistoryCacheLastModified(file) > 0);
+
+        History history = cache.getHistory(file, true);
+        assertNotNull(history);
+        assertEquals(1, cache.size());
+        assertEquals(history.getHistoryEntries().size(), cache.getWeight());
+        assertSame(history, cache.getHistory(file, true));
+    }
+
+    @Test
+    void testInvalidationByHistoryCacheUpdate() throws Exception {
+        File file = new File(repository.getSourceRoot(), "git" + File.separator + "main.c");
+        History history = cache.getHistory(file, true);
+        assertNotNull(history);
+
+        // Pretend the history cache entry was rewritten.
+        File cacheFile = new File(repository.getDataRoot(),
+                "historycache" + File.separator + "git" + File.separator + "main.c");
+        assertTrue(cacheFile.exists());
+        assertTrue(cacheFile.setLastModified(cacheFile.lastModified() + 10_000));
+
+        History history2 = cache.getHistory(file, true);
+        assertNotNull(history2);
+        assertNotSame(history, history2);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testEviction() throws Exception {
+        File file1 = new File(repository.getSourceRoot(), "git" + File.separator + "main.c");
+        File file2 = new File(repository.getSourceRoot(), "git" + File.separator + "header.h");
+        History history1 = HistoryGuru.getInstance().getHistory(file1);
+        assertNotNull(history1);
+        History history2 = HistoryGuru.getInstance().getHistory(file2);
+        assertNotNull(history2);
+
+        // Leave room only for one of the histories.
+        env.setWebappHistoryCacheSize(history1.getHistoryEntries().size() + history2.getHistoryEntries().size() - 1);
+        assertNotNull(cache.getHistory(file1, true));
+        assertNotNull(cache.getHistory(file2, true));
+        assertEquals(1, cache.size());
+        // The least recently used history should be gone.
+        assertEquals(history2.getHistoryEntries().size(), cache.getWeight());
+    }
+
+    @Test
+    void testInvalidateDirectory() throws Exception {
+        File file = new File(repository.getSourceRoot(), "git" + File.separator + "main.c");
+        assertNotNull(cache.getHistory(file, true));
+        assertEquals(1, cache.size());
+
+        cache.invalidate(new File(repository.getSourceRoot(), "mercurial"));
+        assertEquals(1, cache.size());
+        cache.invalidate(new File(repository.getSourceRoot(), "git"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        env.setWebappHistoryCacheSize(0);
+        File file = new File(repository.getSourceRoot(), "git" + File.separator + "main.c");
+        assertNotNull(cache.getHistory(file, true));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.configuration.Project;
+import org.opengrok.indexer.configuration.RuntimeEnvironment;
+import org.opengrok.indexer.history.HistoryGuru;
+import org.opengrok.indexer.history.RepositoryFactory;
+import org.opengrok.indexer.index.IndexDatabase;
+import org.opengrok.indexer.index.Indexer;
+import org.opengrok.indexer.util.TestRepository;
+import org.opengrok.indexer.web.Util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebappXrefCacheTest {
+
+    private final RuntimeEnvironment env = RuntimeEnvironment.getInstance();
+    private final WebappXrefCache cache = WebappXrefCache.getInstance();
+
+    private TestRepository repository;
+    private Project project;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new TestRepository();
+        repository.create(HistoryGuru.class.getResource("/repositories"));
+
+        env.setSourceRoot(repository.getSourceRoot());
+        env.setDataRoot(repository.getDataRoot());
+        env.setProjectsEnabled(true);
+        env.setHistoryEnabled(false);
+        env.setGenerateHtml(false);
+        RepositoryFactory.initializeIgnoredNames(env);
+
+        Indexer.getInstance().prepareIndexer(env, true, true, null, null);
+        project = Project.getProject("/git");
+        assertNotNull(project);
+        Indexer.getInstance().doIndexerExecution(Set.of(project), null);
+
+        cache.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.reset();
+        env.setGenerateHtml(true);
+        env.setHistoryEnabled(true);
+        env.setProjects(new ConcurrentHashMap<>());
+        env.setRepositories(new ArrayList<>());
+        env.getProjectRepositoriesMap().clear();
+
+        repository.destroy();
+    }
+
+    private File getFile(String name) {
+        return new File(repository.getSourceRoot(), "git" + File.separator + name);
+    }
+
+    @Test
+    void testGenerate() {
+        File file = getFile("main.c");
+        // The indexer did not produce the xref.
+        assertFalse(new File(repository.getDataRoot(),
+                IndexDatabase.XREF_DIR + File.separator + "git" + File.separator + "main.c.gz").exists());
+
+        File xrefFile = cache.getXref(file, project);
+        assertNotNull(xrefFile);
+        assertTrue(xrefFile.isFile());
+        assertEquals(file.lastModified(), xrefFile.lastModified());
+        assertEquals(1, cache.size());
+        assertEquals(xrefFile.length(), cache.getSize());
+
+        StringWriter writer = new StringWriter();
+        assertTrue(Util.dumpXref(writer, xrefFile, true, "/source"));
+        assertTrue(writer.toString().contains("name=\"1\""));
+
+        // Served from the cache.
+        long length = xrefFile.length();
+        assertTrue(xrefFile.setLastModified(file.lastModified()));
+        assertEquals(xrefFile, cache.getXref(file, project));
+        assertEquals(length, cache.getSize());
+    }
+
+    @Test
+    void testInvalidation() {
+        File file = getFile("main.c");
+        File xrefFile = cache.getXref(file, project);
+        assertNotNull(xrefFile);
+
+        assertTrue(file.setLastModified(file.lastModified() + 10_000));
+        assertEquals(xrefFile, cache.getXref(file, project));
+        assertEquals(file.lastModified(), xrefFile.lastModified());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testEviction() {
+        File file1 = getFile("main.c");
+        File file2 = getFile("header.h");
+        File xrefFile1 = cache.getXref(file1, project);
+        assertNotNull(xrefFile1);
+        File xrefFile2 = cache.getXref(file2, project);
+        assertNotNull(xrefFile2);
+        cache.reset();
+
+        // Leave room only for one of the xrefs.
+        long maxSize = xrefFile1.length() + xrefFile2.length() - 1;
+        assertTrue(xrefFile1.delete());
+        assertTrue(xrefFile2.delete());
+        assertNotNull(cache.getXref(file1, project, maxSize));
+        assertNotNull(cache.getXref(file2, project, maxSize));
+        assertEquals(1, cache.size());
+        // The least recently used xref should be gone.
+        assertFalse(xrefFile1.exists());
+        assertTrue(xrefFile2.exists());
+        assertEquals(xrefFile2.length(), cache.getSize());
+    }
+
+    @Test
+    void testLoad() {
+        File xrefFile = cache.getXref(getFile("main.c"), project);
+        assertNotNull(xrefFile);
+
+        // The xrefs left in the cache directory are accounted for.
+        cache.reset();
+        assertNotNull(cache.getXref(getFile("header.h"), project));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testDisabled() {
+        assertNull(cache.getXref(getFile("main.c"), project, 0));
+        assertEquals(0, cache.size());
+    }
+}
@@ -148,6 +148,30 @@ class FileControllerTest extends OGKJerseyTest {
         assertEquals(contents, output);
     }
 
+    @Test
+    void testFileXref() {
+        String output = target("file")
+                .path("xref")
+                .queryParam("path", validPath)
+                .queryParam("start", 2)
+                .queryParam("count", 2)
+                .request()
+                .header(HttpHeaders.AUTHORIZATION, AUTH_HEADER)
+                .get(String.class);
+        assertFalse(output.contains("name=\"1\""));
+        assertTrue(output.contains("name=\"2\""));
+        assertTrue(output.contains("name=\"3\""));
+        assertFalse(output.contains("name=\"4\""));
+
+        String all = target("file")
+                .path("xref")
+                .queryParam("path", validPath)
+                .request()
+                .header(HttpHeaders.AUTHORIZATION, AUTH_HEADER)
+                .get(String.class);
+        assertTrue(all.contains(output));
+    }
+
     @Test
     void testFileGenre() {
         String genre = target("file")
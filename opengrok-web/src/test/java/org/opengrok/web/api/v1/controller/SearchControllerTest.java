@@ -23,6 +23,8 @@
  */
 package org.opengrok.web.api.v1.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.Response;
 import org.glassfish.jersey.servlet.ServletContainer;
@@ -37,11 +39,13 @@ import org.junit.jupiter.api.Test;
 import org.opengrok.indexer.configuration.RuntimeEnvironment;
 import org.opengrok.indexer.history.RepositoryFactory;
 import org.opengrok.indexer.index.Indexer;
+import org.opengrok.indexer.search.SearchEngine;
 import org.opengrok.indexer.util.TestRepository;
 import org.opengrok.indexer.web.QueryParameters;
 import org.opengrok.web.api.v1.RestApp;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +53,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opengrok.web.api.v1.filter.CorsFilter.ALLOW_CORS_HEADER;
 import static org.opengrok.web.api.v1.filter.CorsFilter.CORS_REQUEST_HEADER;
@@ -299,4 +304,117 @@ class SearchControllerTest extends OGKJerseyTest {
         Map<String, ?> results = (Map<String, ?>) json.get("results");
         assertTrue(results.isEmpty(), "page beyond the match count must be empty");
     }
+
+    private List<Map<String, Object>> getStreamLines(Response response) throws Exception {
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        ObjectMapper mapper = new ObjectMapper();
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (String line : response.readEntity(String.class).split("\n")) {
+            lines.add(mapper.readValue(line, new TypeReference<>() { }));
+        }
+        return lines;
+    }
+
+    /**
+     * Walking the results of the streaming API via the cursor should yield the same files
+     * in the same order as single page of the regular search API.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStream() throws Exception {
+        GenericType<Map<String, Object>> type = new GenericType<>() { };
+        Map<String, Object> body = target(SearchController.PATH)
+                .queryParam(QueryParameters.FULL_SEARCH_PARAM, "main")
+                .queryParam(QueryParameters.MAXRESULTS_PARAM, 1000)
+                .request()
+                .get()
+                .readEntity(type);
+        int resultCount = (int) body.get("resultCount");
+        assertTrue(resultCount > 4);
+        List<String> expectedPaths = new ArrayList<>(((Map<String, Object>) body.get("results")).keySet());
+
+        List<String> paths = new ArrayList<>();
+        Response response = target(SearchController.PATH).path(SearchController.STREAM_PATH)
+                .queryParam(QueryParameters.FULL_SEARCH_PARAM, "main")
+                .queryParam(QueryParameters.MAXRESULTS_PARAM, 2)
+                .request()
+                .get();
+        int batches = 0;
+        while (true) {
+            batches++;
+            List<Map<String, Object>> lines = getStreamLines(response);
+            Map<String, Object> summary = lines.remove(lines.size() - 1);
+            assertEquals(resultCount, summary.get("resultCount"));
+            assertEquals(2 * (batches - 1), summary.get("startDocument"));
+            lines.stream().map(line -> (String) line.get("path")).distinct().
+                    filter(path -> paths.isEmpty() || !paths.get(paths.size() - 1).equals(path)).
+                    forEach(paths::add);
+
+            String cursor = (String) summary.get("cursor");
+            if (cursor == null) {
+                break;
+            }
+            response = target(SearchController.PATH).path(SearchController.STREAM_PATH)
+                    .queryParam(SearchController.CURSOR_PARAM, cursor)
+                    .request()
+                    .get();
+        }
+        assertEquals((resultCount + 1) / 2, batches);
+        assertEquals(expectedPaths, paths);
+        assertEquals(0, SearchCursors.getInstance().size());
+    }
+
+    @Test
+    void testStreamUnknownCursor() {
+        Response response = target(SearchController.PATH).path(SearchController.STREAM_PATH)
+                .queryParam(SearchController.CURSOR_PARAM, "nonexistent")
+                .request()
+                .get();
+        assertEquals(Response.Status.GONE.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    void testStreamCursorsDisabled() throws Exception {
+        int savedTimeout = env.getSearchCursorTimeout();
+        try {
+            env.setSearchCursorTimeout(0);
+            Response response = target(SearchController.PATH).path(SearchController.STREAM_PATH)
+                    .queryParam(QueryParameters.FULL_SEARCH_PARAM, "main")
+                    .queryParam(QueryParameters.MAXRESULTS_PARAM, 1)
+                    .request()
+                    .get();
+            List<Map<String, Object>> lines = getStreamLines(response);
+            assertNull(lines.get(lines.size() - 1).get("cursor"));
+            assertEquals(0, SearchCursors.getInstance().size());
+        } finally {
+            env.setSearchCursorTimeout(savedTimeout);
+        }
+    }
+
+    /**
+     * The cursor cannot be followed by other user than the one who created it.
+     */
+    @Test
+    void testStreamCursorUser() {
+        SearchCursors.Cursor cursor = new SearchCursors.Cursor(new SearchEngine(1), 1, "alice",
+                Collections.emptyList());
+        String cursorId = SearchCursors.getInstance().put(cursor);
+        assertNotNull(cursorId);
+        try {
+            assertNull(SearchCursors.getInstance().take(cursorId, null));
+            assertNull(SearchCursors.getInstance().take(cursorId, "bob"));
+
+            Response response = target(SearchController.PATH).path(SearchController.STREAM_PATH)
+                    .queryParam(SearchController.CURSOR_PARAM, cursorId)
+                    .request()
+                    .get();
+            assertEquals(Response.Status.GONE.getStatusCode(), response.getStatus());
+            assertEquals(1, SearchCursors.getInstance().size());
+        } finally {
+            SearchCursors.Cursor taken = SearchCursors.getInstance().take(cursorId, "alice");
+            assertNotNull(taken);
+            SearchCursors.close(taken);
+        }
+        assertEquals(0, SearchCursors.getInstance().size());
+    }
 }
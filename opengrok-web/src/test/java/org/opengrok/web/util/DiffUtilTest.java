@@ -0,0 +1,63 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.web.util;
+
+import org.junit.jupiter.api.Test;
+import org.suigeneris.jrcs.diff.Diff;
+import org.suigeneris.jrcs.diff.Revision;
+import org.suigeneris.jrcs.diff.delta.AddDelta;
+import org.suigeneris.jrcs.diff.delta.ChangeDelta;
+import org.suigeneris.jrcs.diff.delta.DeleteDelta;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class DiffUtilTest {
+
+    @Test
+    void testDiff() throws Exception {
+        String[] original = {"a", "b", "c", "d", "e"};
+        String[] revised = {"a", "x", "c", "e", "f"};
+        Revision revision = DiffUtil.diff(original, revised);
+
+        assertEquals(3, revision.size());
+        assertInstanceOf(ChangeDelta.class, revision.getDelta(0));
+        assertEquals(1, revision.getDelta(0).getOriginal().first());
+        assertEquals(1, revision.getDelta(0).getRevised().first());
+        assertInstanceOf(DeleteDelta.class, revision.getDelta(1));
+        assertEquals(3, revision.getDelta(1).getOriginal().first());
+        assertInstanceOf(AddDelta.class, revision.getDelta(2));
+        assertEquals(4, revision.getDelta(2).getRevised().first());
+
+        // The revision has to be applicable just like the one produced by JRCS.
+        assertArrayEquals(revised, revision.patch(original));
+        assertArrayEquals(revised, Diff.diff(original, revised).patch(original));
+    }
+
+    @Test
+    void testDiffIdentical() {
+        String[] lines = {"a", "b"};
+        assertEquals(0, DiffUtil.diff(lines, lines.clone()).size());
+    }
+}
@@ -24,6 +24,7 @@ package opengrok.auth.plugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +33,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import opengrok.auth.plugin.configuration.Configuration;
 import opengrok.auth.plugin.entity.User;
 import opengrok.auth.plugin.ldap.AbstractLdapProvider;
+import opengrok.auth.plugin.ldap.CachingLdapProvider;
 import opengrok.auth.plugin.ldap.LdapFacade;
 import org.opengrok.indexer.authorization.IAuthorizationPlugin;
 import org.opengrok.indexer.configuration.Group;
@@ -131,7 +133,9 @@ public abstract class AbstractLdapPlugin implements IAuthorizationPlugin {
 
         try {
             cfg = getConfiguration(configurationPath);
-            ldapProvider = new LdapFacade(cfg);
+            ldapProvider = new CachingLdapProvider(new LdapFacade(cfg),
+                    Duration.ofMillis(cfg.getCacheTTL()), Duration.ofMillis(cfg.getNegativeCacheTTL()),
+                    cfg.getCacheSize());
         } catch (IOException ex) {
             throw new IllegalArgumentException(
                     String.format("Unable to read the configuration from '%s'", configurationPath), ex);
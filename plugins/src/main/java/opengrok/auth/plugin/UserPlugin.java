@@ -101,6 +101,18 @@ public class UserPlugin implements IAuthorizationPlugin {
         return user;
     }
 
+    /**
+     * The decisions are shared only by the requests of users which are not timed out.
+     */
+    @Override
+    public String getUserIdentity(HttpServletRequest request) {
+        User user = getUser(request);
+        if (user == null || user.isTimeouted()) {
+            return null;
+        }
+        return user.getUsername();
+    }
+
     @Override
     public boolean isAllowed(HttpServletRequest request, Project project) {
         return getUser(request) != null;
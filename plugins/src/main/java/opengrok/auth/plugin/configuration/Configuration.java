@@ -71,6 +71,14 @@ public class Configuration implements Serializable {
     private int readTimeout;
     @JsonProperty
     private int countLimit;
+    @JsonProperty
+    private int connectionPoolSize;
+    @JsonProperty
+    private int cacheTTL;
+    @JsonProperty
+    private int negativeCacheTTL;
+    @JsonProperty
+    private int cacheSize = 10000;
 
     public void setServers(Collection<LdapServer> servers) {
         this.servers = new ArrayList<>(servers);
@@ -128,6 +136,50 @@ public class Configuration implements Serializable {
         this.countLimit = limit;
     }
 
+    /**
+     * @return number of connections per LDAP server which do not specify their own
+     */
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(int size) {
+        this.connectionPoolSize = size;
+    }
+
+    /**
+     * @return time to live of the cached LDAP lookup results in milliseconds, 0 disables the caching
+     */
+    public int getCacheTTL() {
+        return cacheTTL;
+    }
+
+    public void setCacheTTL(int ttl) {
+        this.cacheTTL = ttl;
+    }
+
+    /**
+     * @return time to live of the cached empty LDAP lookup results in milliseconds, 0 disables the caching
+     */
+    public int getNegativeCacheTTL() {
+        return negativeCacheTTL;
+    }
+
+    public void setNegativeCacheTTL(int ttl) {
+        this.negativeCacheTTL = ttl;
+    }
+
+    /**
+     * @return maximum number of the cached LDAP lookup results
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int size) {
+        this.cacheSize = size;
+    }
+
     public String getSearchBase() {
         return searchBase;
     }
@@ -0,0 +1,212 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package opengrok.auth.plugin.ldap;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.opengrok.indexer.Metrics;
+
+/**
+ * LDAP provider which reduces the number of lookups performed by the wrapped provider.
+ * <p><ul>
+ * <li>identical lookups issued concurrently are coalesced into a single lookup of the wrapped provider</li>
+ * <li>the results are cached for given time, the empty results (negative) separately from the others</li>
+ * </ul>
+ * The failed lookups are never cached. The cache is bounded and the least recently used entries
+ * are evicted first.
+ */
+public class CachingLdapProvider extends AbstractLdapProvider {
+
+    private record Key(String dn, String filter, List<String> values) {
+    }
+
+    private record Entry(LdapSearchResult<Map<String, Set<String>>> result, long expiresAt) {
+    }
+
+    private final AbstractLdapProvider delegate;
+    private final long ttl;
+    private final long negativeTtl;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    private final Map<Key, CompletableFuture<LdapSearchResult<Map<String, Set<String>>>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Access ordered map so that the iteration starts with the least recently used entry.
+     */
+    private final LinkedHashMap<Key, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hits = Counter.builder("ldap.cache").
+            description("LDAP lookup cache hits").
+            tag("what", "hits").
+            register(Metrics.getRegistry());
+    private final Counter misses = Counter.builder("ldap.cache").
+            description("LDAP lookup cache misses").
+            tag("what", "misses").
+            register(Metrics.getRegistry());
+    private final Counter coalesced = Counter.builder("ldap.cache").
+            description("LDAP lookups coalesced with identical lookup in progress").
+            tag("what", "coalesced").
+            register(Metrics.getRegistry());
+
+    /**
+     * @param delegate provider performing the lookups
+     * @param ttl time to live of the non-empty results, zero disables caching of these
+     * @param negativeTtl time to live of the empty results, zero disables caching of these
+     * @param maxSize maximum number of the cached results
+     */
+    public CachingLdapProvider(AbstractLdapProvider delegate, Duration ttl, Duration negativeTtl, int maxSize) {
+        this(delegate, ttl, negativeTtl, maxSize, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    CachingLdapProvider(AbstractLdapProvider delegate, Duration ttl, Duration negativeTtl, int maxSize,
+                        LongSupplier clock) {
+        this.delegate = delegate;
+        this.ttl = ttl.toMillis();
+        this.negativeTtl = negativeTtl.toMillis();
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    @Override
+    public LdapSearchResult<Map<String, Set<String>>> lookupLdapContent(String dn, String filter, String[] values)
+            throws LdapException {
+
+        Key key = new Key(dn, filter, values == null ? null : Arrays.asList(values.clone()));
+        Entry entry = getCached(key);
+        if (entry != null) {
+            hits.increment();
+            return entry.result();
+        }
+
+        CompletableFuture<LdapSearchResult<Map<String, Set<String>>>> future = new CompletableFuture<>();
+        CompletableFuture<LdapSearchResult<Map<String, Set<String>>>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        // The lookup is performed in the calling thread, the identical lookups wait for its result.
+        misses.increment();
+        try {
+            LdapSearchResult<Map<String, Set<String>>> result = delegate.lookupLdapContent(dn, filter, values);
+            // Cache the result first so that there is no window where identical lookup would miss both.
+            put(key, result);
+            inFlight.remove(key, future);
+            future.complete(result);
+            return result;
+        } catch (LdapException | RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            // Same exception as in the coalesced lookups.
+            return await(future);
+        } catch (Error e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static LdapSearchResult<Map<String, Set<String>>> await(
+            CompletableFuture<LdapSearchResult<Map<String, Set<String>>>> future) throws LdapException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LdapException) {
+                throw (LdapException) e.getCause();
+            }
+            throw new LdapException("LDAP lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LdapException("interrupted while waiting for LDAP lookup", e);
+        }
+    }
+
+    @Nullable
+    private synchronized Entry getCached(Key key) {
+        Entry entry = cache.get(key);
+        if (entry != null && entry.expiresAt() <= clock.getAsLong()) {
+            cache.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(Key key, @Nullable LdapSearchResult<Map<String, Set<String>>> result) {
+        long timeToLive = result == null || result.getAttrs() == null || result.getAttrs().isEmpty() ?
+                negativeTtl : ttl;
+        if (timeToLive <= 0 || maxSize <= 0) {
+            return;
+        }
+
+        cache.put(key, new Entry(result, clock.getAsLong() + timeToLive));
+        Iterator<Map.Entry<Key, Entry>> iterator = cache.entrySet().iterator();
+        while (cache.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Drop all cached results.
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return delegate.isConfigured();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -104,9 +104,9 @@ public class LdapFacade extends AbstractLdapProvider {
     private WebHooks webHooks;
 
     private SearchControls controls;
-    private int actualServer = -1;
-    private long errorTimestamp = 0;
-    private boolean reported = false;
+    private volatile int actualServer = -1;
+    private volatile long errorTimestamp = 0;
+    private volatile boolean reported = false;
 
     private final Timer ldapLookupTimer = Timer.builder("ldap.latency").
             description("LDAP lookup latency").
@@ -178,6 +178,7 @@ public class LdapFacade extends AbstractLdapProvider {
 
     public LdapFacade(Configuration cfg) {
         setServers(cfg.getServers(), cfg.getConnectTimeout(), cfg.getReadTimeout());
+        setConnectionPoolSize(cfg.getConnectionPoolSize());
         setInterval(cfg.getInterval());
         setSearchBase(cfg.getSearchBase());
         setWebHooks(cfg.getWebHooks());
@@ -245,6 +246,22 @@ public class LdapFacade extends AbstractLdapProvider {
         return this;
     }
 
+    /**
+     * Set the connection pool size of the servers which do not specify their own.
+     *
+     * @param connectionPoolSize number of connections per server
+     */
+    public final void setConnectionPoolSize(int connectionPoolSize) {
+        if (connectionPoolSize <= 0) {
+            return;
+        }
+        for (LdapServer server : servers) {
+            if (server.getConnectionPoolSize() == 0) {
+                server.setConnectionPoolSize(connectionPoolSize);
+            }
+        }
+    }
+
     public int getInterval() {
         return interval;
     }
@@ -372,22 +389,29 @@ public class LdapFacade extends AbstractLdapProvider {
             throw new LdapException("LDAP is not configured");
         }
 
-        NamingEnumeration<SearchResult> namingEnum = null;
         LdapServer server = null;
         try {
             server = servers.get(actualServer);
-            controls.setReturningAttributes(attributes);
-            for (namingEnum = server.search(dn, filter, controls); namingEnum.hasMore();) {
-                SearchResult sr = namingEnum.next();
+            // Copy the controls so that concurrent lookups do not overwrite the returning attributes.
+            SearchControls searchControls = new SearchControls(controls.getSearchScope(), controls.getCountLimit(),
+                    controls.getTimeLimit(), attributes, controls.getReturningObjFlag(),
+                    controls.getDerefLinkFlag());
+            LdapSearchResult<T> result = server.search(dn, filter, searchControls, namingEnum -> {
+                if (namingEnum.hasMore()) {
+                    SearchResult sr = namingEnum.next();
+                    return new LdapSearchResult<>(sr.getNameInNamespace(), processResult(sr, mapper));
+                }
+                return null;
+            });
+            if (result != null) {
                 reported = false;
                 if (errorTimestamp > 0) {
                     errorTimestamp = 0;
                     Optional.ofNullable(webHooks.getRecover())
                             .ifPresent(WebHook::post);
                 }
-
-                return new LdapSearchResult<>(sr.getNameInNamespace(), processResult(sr, mapper));
             }
+            return result;
         } catch (NameNotFoundException ex) {
             LOGGER.log(Level.WARNING, String.format("The LDAP name for search '%s' was not found on server %s",
                     getSearchDescription(dn, filter, attributes), server), ex);
@@ -416,19 +440,6 @@ public class LdapFacade extends AbstractLdapProvider {
             closeActualServer();
             actualServer = getNextServer();
             return lookup(dn, filter, attributes, mapper, fail + 1);
-        } finally {
-            Optional.ofNullable(namingEnum)
-                    .ifPresent(this::closeNamingEnum);
-        }
-
-        return null;
-    }
-    private void closeNamingEnum(NamingEnumeration<?> namingEnum) {
-        try {
-            namingEnum.close();
-        } catch (NamingException e) {
-            LOGGER.log(Level.WARNING,
-                    "failed to close search result enumeration");
         }
     }
 
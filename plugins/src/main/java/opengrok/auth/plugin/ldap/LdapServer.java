@@ -35,6 +35,8 @@ import java.net.Socket;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
@@ -42,8 +44,10 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.naming.CommunicationException;
 import javax.naming.Context;
+import javax.naming.InterruptedNamingException;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
+import javax.naming.ServiceUnavailableException;
 import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
 import javax.naming.ldap.InitialLdapContext;
@@ -81,12 +85,38 @@ public class LdapServer implements Serializable {
     private int connectTimeout;
     @JsonProperty
     private int readTimeout;
+    @JsonProperty
+    private int connectionPoolSize;
 
     private int interval = 10 * 1000;
     private final transient Map<String, String> env;
     private transient LdapContext ctx;
     private long errorTimestamp = 0;
 
+    /**
+     * Connections which are not used by any search at the moment. The primary connection {@link #ctx}
+     * is one of the pooled connections.
+     */
+    private final transient Deque<LdapContext> idleContexts = new ArrayDeque<>();
+    /**
+     * Number of the pooled connections, both idle and used.
+     */
+    private transient int pooledContexts;
+    /**
+     * Incremented on {@link #close()} so that the connections used at that time are not returned to the pool.
+     */
+    private transient int poolGeneration;
+
+    /**
+     * Handler of the search results. The results are valid only within the handler.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface SearchResultHandler<T> {
+        T handle(NamingEnumeration<SearchResult> results) throws NamingException;
+    }
+
     public LdapServer() {
         this(prepareEnv());
     }
@@ -152,6 +182,19 @@ public class LdapServer implements Serializable {
         return this;
     }
 
+    /**
+     * @return maximum number of connections to the server used by concurrent searches,
+     * 0 means a single connection
+     */
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public LdapServer setConnectionPoolSize(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+        return this;
+    }
+
     public int getInterval() {
         return interval;
     }
@@ -271,6 +314,30 @@ public class LdapServer implements Serializable {
         }
 
         if (ctx == null) {
+            ctx = createContext();
+            if (ctx != null) {
+                LOGGER.log(Level.INFO, "Connected to LDAP server {0}", this);
+                errorTimestamp = 0;
+                idleContexts.push(ctx);
+                pooledContexts++;
+            } else {
+                errorTimestamp = System.currentTimeMillis();
+                close();
+            }
+        }
+
+        return ctx;
+    }
+
+    /**
+     * Establishes new connection to the LDAP server.
+     *
+     * @return the new connection or null
+     */
+    @Nullable
+    private LdapContext createContext() {
+        Hashtable<String, String> contextEnv;
+        synchronized (this) {
             env.put(Context.PROVIDER_URL, this.url);
 
             if (this.username != null) {
@@ -285,91 +352,145 @@ public class LdapServer implements Serializable {
             if (this.readTimeout > 0) {
                 env.put(LDAP_READ_TIMEOUT_PARAMETER, Integer.toString(this.readTimeout));
             }
-
-            try {
-                ctx = new InitialLdapContext(new Hashtable<>(env), null);
-                ctx.setRequestControls(null);
-                LOGGER.log(Level.INFO, "Connected to LDAP server {0}", this);
-                errorTimestamp = 0;
-            } catch (NamingException ex) {
-                LOGGER.log(Level.WARNING,
-                        String.format("LDAP server %s is not responding", env.get(Context.PROVIDER_URL)), ex);
-                errorTimestamp = System.currentTimeMillis();
-                close();
-                ctx = null;
-            }
+            contextEnv = new Hashtable<>(env);
         }
 
-        return ctx;
-    }
-
-    /**
-     * Lookups the LDAP server.
-     *
-     * @param name base dn for the search
-     * @param filter LDAP filter
-     * @param cons controls for the LDAP request
-     * @return LDAP enumeration with the results
-     *
-     * @throws NamingException naming exception
-     */
-    public NamingEnumeration<SearchResult> search(String name, String filter, SearchControls cons) throws NamingException {
-        return search(name, filter, cons, false);
+        try {
+            LdapContext context = new InitialLdapContext(contextEnv, null);
+            context.setRequestControls(null);
+            return context;
+        } catch (NamingException ex) {
+            LOGGER.log(Level.WARNING,
+                    String.format("LDAP server %s is not responding", contextEnv.get(Context.PROVIDER_URL)), ex);
+            return null;
+        }
     }
 
     /**
-     * Perform LDAP search.
+     * Perform LDAP search on one of the pooled connections. The connection is used exclusively
+     * until the handler consumes the results so that concurrent searches do not interfere.
+     * The search is retried on a new connection on communication failure.
      *
+     * @param <T> the type of the result
      * @param name base dn for the search
      * @param filter LDAP filter
      * @param controls controls for the LDAP request
-     * @param reconnected flag if the request has failed previously
-     * @return LDAP enumeration with the results
+     * @param handler handler of the search results
+     * @return value returned by the handler
      *
      * @throws NamingException naming exception
      */
-    public NamingEnumeration<SearchResult> search(String name, String filter, SearchControls controls, boolean reconnected)
+    public <T> T search(String name, String filter, SearchControls controls, SearchResultHandler<T> handler)
             throws NamingException {
 
-        if (!isWorking()) {
-            close();
-            throw new CommunicationException(String.format("LDAP server \"%s\" is down",
-                    env.get(Context.PROVIDER_URL)));
+        for (boolean reconnected = false; ; reconnected = true) {
+            if (!isWorking()) {
+                close();
+                throw new CommunicationException(String.format("LDAP server \"%s\" is down", getUrl()));
+            }
+
+            PooledContext pooled = borrowContext();
+            // Other failures (e.g. invalid filter or size limit exceeded) leave the connection usable.
+            boolean broken = false;
+            try {
+                NamingEnumeration<SearchResult> results = pooled.context.search(name, filter, controls);
+                try {
+                    return handler.handle(results);
+                } finally {
+                    results.close();
+                }
+            } catch (CommunicationException | ServiceUnavailableException ex) {
+                broken = true;
+                if (reconnected) {
+                    throw ex;
+                }
+                LOGGER.log(Level.INFO, "LDAP server {0} reconnect", getUrl());
+            } finally {
+                returnContext(pooled, broken);
+            }
         }
+    }
 
-        if (reconnected) {
-            LOGGER.log(Level.INFO, "LDAP server {0} reconnect", env.get(Context.PROVIDER_URL));
-            close();
-            if ((ctx = connect()) == null) {
-                throw new CommunicationException(String.format("LDAP server \"%s\" cannot reconnect",
-                        env.get(Context.PROVIDER_URL)));
+    private record PooledContext(LdapContext context, int generation) {
+    }
+
+    private PooledContext borrowContext() throws NamingException {
+        int generation;
+        synchronized (this) {
+            while (true) {
+                LdapContext context = idleContexts.poll();
+                if (context != null) {
+                    return new PooledContext(context, poolGeneration);
+                }
+                if (pooledContexts < Math.max(1, connectionPoolSize)) {
+                    pooledContexts++;
+                    generation = poolGeneration;
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedNamingException("interrupted while waiting for LDAP connection");
+                }
             }
         }
 
-        try {
+        // Connect outside of the lock so that the searches on the other connections are not blocked.
+        LdapContext context = createContext();
+        if (context == null) {
             synchronized (this) {
-                return ctx.search(name, filter, controls);
+                if (generation == poolGeneration) {
+                    pooledContexts--;
+                }
+                errorTimestamp = System.currentTimeMillis();
+                notifyAll();
             }
-        } catch (CommunicationException ex) {
-            if (reconnected) {
-                throw ex;
+            throw new CommunicationException(String.format("LDAP server \"%s\" cannot connect", getUrl()));
+        }
+        return new PooledContext(context, generation);
+    }
+
+    private void returnContext(PooledContext pooled, boolean broken) {
+        synchronized (this) {
+            boolean current = pooled.generation == poolGeneration;
+            if (current && !broken) {
+                idleContexts.push(pooled.context);
+                notifyAll();
+                return;
             }
-            return search(name, filter, controls, true);
+            if (current) {
+                pooledContexts--;
+                if (pooled.context == ctx) {
+                    ctx = null;
+                }
+                notifyAll();
+            }
+        }
+        closeContext(pooled.context);
+    }
+
+    private void closeContext(LdapContext context) {
+        try {
+            context.close();
+        } catch (NamingException ex) {
+            LOGGER.log(Level.WARNING, "cannot close LDAP server {0}", getUrl());
         }
     }
 
     /**
-     * Closes the server context.
+     * Closes the server context and the idle pooled connections. The connections which are being used
+     * by searches are closed once the searches are done.
      */
     public synchronized void close() {
-        if (ctx != null) {
-            try {
-                ctx.close();
-            } catch (NamingException ex) {
-                LOGGER.log(Level.WARNING, "cannot close LDAP server {0}", getUrl());
-            }
-            ctx = null;
+        for (LdapContext context : idleContexts) {
+            closeContext(context);
         }
+        idleContexts.clear();
+        ctx = null;
+        pooledContexts = 0;
+        poolGeneration++;
+        notifyAll();
     }
 
     private static Map<String, String> prepareEnv() {
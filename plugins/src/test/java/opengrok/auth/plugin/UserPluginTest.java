@@ -75,6 +75,13 @@ class UserPluginTest {
         assertEquals("00A", ((User) req.getAttribute(UserPlugin.REQUEST_ATTR)).getUsername());
     }
 
+    @Test
+    void testUserIdentity() {
+        assertEquals("007", plugin.getUserIdentity(createRequest("007")));
+        assertNull(plugin.getUserIdentity(createRequest("007", true)));
+        assertNull(plugin.getUserIdentity(new DummyHttpServletRequestUser()));
+    }
+
     @Test
     void testTimeoutedUser() {
         HttpServletRequest req;
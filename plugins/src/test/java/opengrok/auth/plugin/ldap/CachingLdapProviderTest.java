@@ -0,0 +1,188 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package opengrok.auth.plugin.ldap;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengrok.indexer.Metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingLdapProviderTest {
+
+    /**
+     * Counts the lookups, optionally blocks them or fails them.
+     */
+    private static class CountingLdapFacade extends FakeLdapFacade {
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile CountDownLatch started;
+        private volatile CountDownLatch proceed;
+        private volatile boolean fail;
+
+        @Override
+        public LdapSearchResult<Map<String, Set<String>>> lookupLdapContent(String dn, String filter,
+                                                                            String[] values) {
+            lookups.incrementAndGet();
+            if (started != null) {
+                started.countDown();
+            }
+            if (proceed != null) {
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new IllegalStateException("LDAP is down");
+            }
+            return super.lookupLdapContent(dn, filter, values);
+        }
+    }
+
+    private final AtomicLong clock = new AtomicLong();
+    private CountingLdapFacade delegate;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new CountingLdapFacade();
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private CachingLdapProvider createProvider(long ttl, long negativeTtl, int maxSize) {
+        return new CachingLdapProvider(delegate, Duration.ofMillis(ttl), Duration.ofMillis(negativeTtl), maxSize,
+                clock::get);
+    }
+
+    @Test
+    void testPositiveCache() throws LdapException {
+        CachingLdapProvider provider = createProvider(1000, 0, 10);
+        var result = provider.lookupLdapContent(null, null, new String[]{"uid"});
+        assertEquals(Set.of("bondjame"), result.getAttrs().get("uid"));
+        assertSame(result, provider.lookupLdapContent(null, null, new String[]{"uid"}));
+        assertEquals(1, delegate.lookups.get());
+
+        // Different attributes are different lookups.
+        provider.lookupLdapContent(null, null, new String[]{"mail"});
+        assertEquals(2, delegate.lookups.get());
+
+        clock.set(1000);
+        provider.lookupLdapContent(null, null, new String[]{"uid"});
+        assertEquals(3, delegate.lookups.get());
+    }
+
+    @Test
+    void testNegativeCache() throws LdapException {
+        CachingLdapProvider provider = createProvider(0, 500, 10);
+        // Empty result.
+        assertTrue(provider.lookupLdapContent(null, "uid=nobody").getAttrs().isEmpty());
+        provider.lookupLdapContent(null, "uid=nobody");
+        assertEquals(1, delegate.lookups.get());
+
+        // The positive results are not cached.
+        provider.lookupLdapContent(null, null, new String[]{"uid"});
+        provider.lookupLdapContent(null, null, new String[]{"uid"});
+        assertEquals(3, delegate.lookups.get());
+
+        clock.set(500);
+        provider.lookupLdapContent(null, "uid=nobody");
+        assertEquals(4, delegate.lookups.get());
+    }
+
+    @Test
+    void testEviction() throws LdapException {
+        CachingLdapProvider provider = createProvider(1000, 1000, 1);
+        provider.lookupLdapContent("dn1");
+        provider.lookupLdapContent("dn2");
+        assertEquals(1, provider.size());
+        provider.lookupLdapContent("dn1");
+        assertEquals(3, delegate.lookups.get());
+    }
+
+    @Test
+    void testFailureNotCached() throws LdapException {
+        CachingLdapProvider provider = createProvider(1000, 1000, 10);
+        delegate.fail = true;
+        LdapException exception = assertThrows(LdapException.class, () -> provider.lookupLdapContent("dn"));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(0, provider.size());
+
+        delegate.fail = false;
+        assertNotNull(provider.lookupLdapContent("dn"));
+        assertEquals(2, delegate.lookups.get());
+    }
+
+    private static double getCoalescedCount() {
+        return Metrics.getRegistry().get("ldap.cache").tag("what", "coalesced").counter().count();
+    }
+
+    @Test
+    void testCoalescing() throws Exception {
+        CachingLdapProvider provider = createProvider(0, 0, 10);
+        delegate.started = new CountDownLatch(1);
+        delegate.proceed = new CountDownLatch(1);
+
+        Future<AbstractLdapProvider.LdapSearchResult<Map<String, Set<String>>>> first =
+                executor.submit(() -> provider.lookupLdapContent(null, null, new String[]{"uid"}));
+        assertTrue(delegate.started.await(10, TimeUnit.SECONDS));
+        double coalesced = getCoalescedCount();
+        Future<AbstractLdapProvider.LdapSearchResult<Map<String, Set<String>>>> second =
+                executor.submit(() -> provider.lookupLdapContent(null, null, new String[]{"uid"}));
+        while (getCoalescedCount() == coalesced) {
+            assertFalse(second.isDone());
+            Thread.sleep(10);
+        }
+
+        delegate.proceed.countDown();
+        assertEquals(Set.of("bondjame"), first.get(10, TimeUnit.SECONDS).getAttrs().get("uid"));
+        assertSame(first.get(), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, delegate.lookups.get());
+
+        // Caching is disabled so the next lookup goes to the delegate again.
+        provider.lookupLdapContent(null, null, new String[]{"uid"});
+        assertEquals(2, delegate.lookups.get());
+    }
+}
@@ -87,6 +87,20 @@ class LdapFacadeTest {
                 facade.getServers().stream().map(LdapServer::getReadTimeout).collect(Collectors.toSet()));
     }
 
+    @Test
+    void testConnectionPoolSizeInheritance() throws UnknownHostException {
+        Configuration config = new Configuration();
+
+        LdapServer[] servers = {getSpyLdapServer("ldap://foo.com"), getSpyLdapServer("ldap://bar.com")};
+        servers[1].setConnectionPoolSize(2);
+        config.setServers(Arrays.asList(servers));
+        config.setConnectionPoolSize(8);
+
+        LdapFacade facade = new LdapFacade(config);
+        assertEquals(8, facade.getServers().get(0).getConnectionPoolSize());
+        assertEquals(2, facade.getServers().get(1).getConnectionPoolSize());
+    }
+
     @Test
     void testToStringNegative() throws UnknownHostException {
         Configuration config = new Configuration();
@@ -0,0 +1,204 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ */
+
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ */
+package org.opengrok.suggest;
+
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.CharsRefBuilder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.OffHeapFSTStore;
+import org.apache.lucene.util.fst.Outputs;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only WFST loaded from the file written by {@link WFSTCompletionLookup#store(java.io.OutputStream)}.
+ * <p>
+ * The FST is either read into the heap or, if the directory is memory mapped, accessed directly in the file
+ * so that it does not occupy the heap at all. The lookups behave the same as in {@link WFSTCompletionLookup}
+ * with the exact match first.
+ * </p>
+ */
+final class StoredWFST implements Closeable {
+
+    private static final Outputs<Long> OUTPUTS = PositiveIntOutputs.getSingleton();
+
+    private final FST<Long> fst;
+
+    private final long count;
+
+    /**
+     * Input backing the off-heap FST, {@code null} if the FST is on the heap.
+     */
+    private final IndexInput input;
+
+    private StoredWFST(final FST<Long> fst, final long count, final IndexInput input) {
+        this.fst = fst;
+        this.count = count;
+        this.input = input;
+    }
+
+    /**
+     * @param dir directory with the WFST file, should be memory mapped if {@code offHeap} is {@code true}
+     * @param fileName name of the WFST file
+     * @param offHeap whether to access the FST in the file rather than read it into the heap
+     * @return the WFST
+     * @throws IOException if the file could not be read
+     */
+    static StoredWFST load(final Directory dir, final String fileName, final boolean offHeap) throws IOException {
+        IndexInput in = dir.openInput(fileName, offHeap ? IOContext.DEFAULT : IOContext.READONCE);
+        try {
+            long count = in.readVLong();
+            FST.FSTMetadata<Long> metadata = FST.readMetadata(in, OUTPUTS);
+            if (offHeap) {
+                FST<Long> fst = FST.fromFSTReader(metadata, new OffHeapFSTStore(in, in.getFilePointer(), metadata));
+                return new StoredWFST(fst, count, in);
+            }
+            FST<Long> fst = new FST<>(metadata, in);
+            in.close();
+            return new StoredWFST(fst, count, null);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of terms in the WFST
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * @return heap memory used by the WFST in bytes
+     */
+    long ramBytesUsed() {
+        return fst.ramBytesUsed();
+    }
+
+    /**
+     * @return size of the WFST accessed in the memory mapped file in bytes, 0 if the WFST is on the heap
+     */
+    long mappedBytes() {
+        return input == null ? 0 : fst.numBytes();
+    }
+
+    /**
+     * @param key term
+     * @return weight of the term or {@code null} if the WFST does not contain the term
+     */
+    Long get(final CharSequence key) throws IOException {
+        BytesRefBuilder scratch = new BytesRefBuilder();
+        scratch.copyChars(key);
+        FST.Arc<Long> arc = new FST.Arc<>();
+        Long result = lookupPrefix(scratch.get(), arc);
+        if (result == null || !arc.isFinal()) {
+            return null;
+        }
+        return (long) decodeWeight(result + arc.nextFinalOutput());
+    }
+
+    /**
+     * @param key prefix of the terms
+     * @param num maximum number of the results
+     * @return terms with the highest weights, the exact match first
+     */
+    List<Lookup.LookupResult> lookup(final CharSequence key, final int num) throws IOException {
+        if (num == 0) {
+            return Collections.emptyList();
+        }
+
+        BytesRefBuilder scratch = new BytesRefBuilder();
+        scratch.copyChars(key);
+        int prefixLength = scratch.length();
+        FST.Arc<Long> arc = new FST.Arc<>();
+        Long prefixOutput = lookupPrefix(scratch.get(), arc);
+        if (prefixOutput == null) {
+            return Collections.emptyList();
+        }
+
+        List<Lookup.LookupResult> results = new ArrayList<>(num);
+        CharsRefBuilder spare = new CharsRefBuilder();
+        int remaining = num;
+        if (arc.isFinal()) {
+            spare.copyUTF8Bytes(scratch.get());
+            results.add(new Lookup.LookupResult(spare.toString(), decodeWeight(prefixOutput + arc.nextFinalOutput())));
+            if (--remaining == 0) {
+                return results;
+            }
+        }
+
+        // The empty completion is the exact match handled above.
+        Util.TopResults<Long> completions = Util.shortestPaths(fst, arc, prefixOutput, Comparator.naturalOrder(),
+                remaining, false);
+        BytesRefBuilder suffix = new BytesRefBuilder();
+        for (Util.Result<Long> completion : completions) {
+            scratch.setLength(prefixLength);
+            scratch.append(Util.toBytesRef(completion.input, suffix));
+            spare.copyUTF8Bytes(scratch.get());
+            results.add(new Lookup.LookupResult(spare.toString(), decodeWeight(completion.output)));
+        }
+        return results;
+    }
+
+    private Long lookupPrefix(final BytesRef scratch, final FST.Arc<Long> arc) throws IOException {
+        Long output = OUTPUTS.getNoOutput();
+        FST.BytesReader bytesReader = fst.getBytesReader();
+
+        fst.getFirstArc(arc);
+        for (int i = scratch.offset; i < scratch.offset + scratch.length; i++) {
+            if (fst.findTargetArc(scratch.bytes[i] & 0xff, arc, arc, bytesReader) == null) {
+                return null;
+            }
+            output += arc.output();
+        }
+        return output;
+    }
+
+    /**
+     * Inverse of the weight encoding of {@link WFSTCompletionLookup}.
+     */
+    private static int decodeWeight(final long encoded) {
+        return (int) (Integer.MAX_VALUE - encoded);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        }
+    }
+}
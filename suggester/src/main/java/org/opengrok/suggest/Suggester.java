@@ -22,6 +22,7 @@
  */
 package org.opengrok.suggest;
 
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.time.DurationFormatUtils;
@@ -98,6 +99,8 @@ public final class Suggester implements Closeable {
 
     private final boolean isPrintProgress;
 
+    private final boolean offHeap;
+
     private volatile boolean rebuilding;
     private volatile boolean terminating;
     private final Lock rebuildLock = new ReentrantLock();
@@ -108,6 +111,9 @@ public final class Suggester implements Closeable {
     private final Timer suggesterRebuildTimer;  // per suggester data
     private final Timer suggesterInitTimer;     // per suggester data
 
+    private final MeterRegistry registry;
+    private final List<Gauge> gauges = new ArrayList<>();
+
     private final ExecutorService searchExecutorService;
 
     private final ExecutorService initRebuildExecutor;
@@ -139,6 +145,39 @@ public final class Suggester implements Closeable {
             final int searchParallelismLevel,
             MeterRegistry registry,
             boolean isPrintProgress) {
+        this(suggesterDir, resultSize, awaitTerminationTime, allowMostPopular, projectsEnabled, allowedFields,
+                timeThreshold, rebuildParallelismLevel, searchParallelismLevel, registry, isPrintProgress, false);
+    }
+
+    /**
+     * @param suggesterDir directory under which the suggester data should be created
+     * @param resultSize maximum number of items that should be returned
+     * @param awaitTerminationTime how much time to wait for suggester to initialize
+     * @param allowMostPopular specifies if the most popular completion is enabled
+     * @param projectsEnabled specifies if the OpenGrok projects are enabled
+     * @param allowedFields fields for which should the suggester be enabled,
+     * if {@code null} then enabled for all fields
+     * @param timeThreshold time in milliseconds after which the suggestions requests should time out
+     * @param rebuildParallelismLevel parallelism level for rebuild
+     * @param searchParallelismLevel parallelism level for search
+     * @param registry meter registry
+     * @param isPrintProgress whether to report progress for initialization and rebuild
+     * @param offHeap whether to memory map the WFST data instead of loading it into the heap
+     */
+    @SuppressWarnings("java:S107")
+    public Suggester(
+            final File suggesterDir,
+            final int resultSize,
+            final Duration awaitTerminationTime,
+            final boolean allowMostPopular,
+            final boolean projectsEnabled,
+            final Set<String> allowedFields,
+            final int timeThreshold,
+            final int rebuildParallelismLevel,
+            final int searchParallelismLevel,
+            MeterRegistry registry,
+            boolean isPrintProgress,
+            boolean offHeap) {
         if (suggesterDir == null) {
             throw new IllegalArgumentException("Suggester needs to have directory specified");
         }
@@ -156,6 +195,7 @@ public final class Suggester implements Closeable {
         this.allowedFields = new HashSet<>(allowedFields);
         this.timeThreshold = timeThreshold;
         this.isPrintProgress = isPrintProgress;
+        this.offHeap = offHeap;
 
         // do NOT use fork join thread pool (work stealing thread pool) because it does not send interrupts upon cancellation
         this.searchExecutorService = Executors.newFixedThreadPool(searchParallelismLevel,
@@ -180,6 +220,16 @@ public final class Suggester implements Closeable {
         suggesterInitTimer = Timer.builder("suggester.init.latency").
                 description("suggester initialization latency").
                 register(registry);
+        // The gauges refer to this instance so they are removed on close.
+        this.registry = registry;
+        gauges.add(Gauge.builder("suggester.wfst.memory", this, Suggester::getRamBytesUsed).
+                description("heap memory used by the suggester WFSTs in bytes").
+                tag("what", "resident").
+                register(registry));
+        gauges.add(Gauge.builder("suggester.wfst.memory", this, Suggester::getMappedBytes).
+                description("size of the memory mapped suggester WFSTs in bytes").
+                tag("what", "mapped").
+                register(registry));
     }
 
     /**
@@ -241,12 +291,26 @@ public final class Suggester implements Closeable {
         }
     }
 
+    /**
+     * @return heap memory used by the WFSTs of all the projects in bytes
+     */
+    long getRamBytesUsed() {
+        return projectDataMap.values().stream().mapToLong(SuggesterProjectData::getRamBytesUsed).sum();
+    }
+
+    /**
+     * @return size of the memory mapped WFSTs of all the projects in bytes
+     */
+    long getMappedBytes() {
+        return projectDataMap.values().stream().mapToLong(SuggesterProjectData::getMappedBytes).sum();
+    }
+
     @Nullable
     private SuggesterProjectData createProjectData(NamedIndexDir indexDir) {
         SuggesterProjectData projectData = null;
         try {
             projectData = new SuggesterProjectData(FSDirectory.open(indexDir.path),
-                    getSuggesterDir(indexDir.name), allowMostPopular, allowedFields);
+                    getSuggesterDir(indexDir.name), allowMostPopular, allowedFields, offHeap);
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, String.format("creating suggester data for %s failed", indexDir), e);
             return null;
@@ -679,6 +743,7 @@ public final class Suggester implements Closeable {
      */
     @Override
     public void close() {
+        gauges.forEach(registry::remove);
         searchExecutorService.shutdownNow();
         shutdownAndAwaitTermination(initRebuildExecutor);
         projectDataMap.values().forEach(f -> {
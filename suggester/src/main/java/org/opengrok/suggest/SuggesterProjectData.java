@@ -18,23 +18,31 @@
  */
 
 /*
- * Copyright (c) 2018, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.suggest;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentReader;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.search.spell.LuceneDictionary;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.suggest.InputIterator;
 import org.apache.lucene.search.suggest.Lookup;
 import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
 import org.opengrok.suggest.popular.PopularityCounter;
 import org.opengrok.suggest.popular.PopularityMap;
 import org.opengrok.suggest.popular.impl.chronicle.ChronicleMapAdapter;
@@ -42,16 +50,22 @@ import org.opengrok.suggest.popular.impl.chronicle.ChronicleMapConfiguration;
 
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -59,11 +73,24 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Holds all the necessary data for one index directory. In the context of OpenGrok it is one project.
+ * <p>
+ * The terms of each field are stored in one WFST per index segment. The weights in the WFSTs are the document
+ * frequencies of the terms in the segment, which do not depend on the rest of the index (the deleted documents
+ * are counted until the segment is merged), so on rebuild only the WFSTs of the new segments have to be built.
+ * The lookup merges the candidates from all the segments and computes their scores from the document frequencies
+ * summed over the segments and from the search counts.
+ * </p>
+ * <p>
+ * The WFSTs are always read from the files in the suggester directory. If the off-heap mode is enabled,
+ * the files are memory mapped and the WFSTs are not loaded into the heap.
+ * </p>
  */
 class SuggesterProjectData implements Closeable {
 
@@ -81,15 +108,36 @@ class SuggesterProjectData implements Closeable {
 
     private static final String VERSION_FILE_NAME = "version.txt";
 
-    private static final int DEFAULT_WEIGHT = 0;
-
     private static final double AVERAGE_LENGTH_DEFAULT = 22;
 
     private final Directory indexDir;
 
     private final Path suggesterDir;
 
-    private final Map<String, WFSTCompletionLookup> lookups = new HashMap<>();
+    /**
+     * WFST built from the terms of a field in single index segment.
+     * @param segmentId name and unique identifier of the segment
+     * @param lookup the WFST
+     * @param termLength sum of the lengths of the terms in the WFST in bytes
+     */
+    private record SegmentLookup(String segmentId, StoredWFST lookup, long termLength) {
+    }
+
+    private record BuildResult(Map<String, List<SegmentLookup>> lookups, Set<String> fileNames, int numDocs,
+                               int built, int reused) {
+    }
+
+    private Map<String, List<SegmentLookup>> lookups = new HashMap<>();
+
+    /**
+     * Number of documents in the index when the lookups were built, used to normalize the document frequencies.
+     */
+    private int numDocs;
+
+    /**
+     * Serializes the builds so that the WFST files are not written concurrently.
+     */
+    private final Object buildLock = new Object();
 
     private final Map<String, PopularityMap> searchCountMaps = new HashMap<>();
 
@@ -105,18 +153,27 @@ class SuggesterProjectData implements Closeable {
 
     private final Directory tempDir;
 
+    private final boolean offHeap;
+
+    /**
+     * Directory with the WFST files, memory mapped in the off-heap mode.
+     */
+    private Directory wfstDir;
+
     private boolean initialized;    // Whether init() was called.
 
     SuggesterProjectData(
             final Directory indexDir,
             final Path suggesterDir,
             final boolean allowMostPopular,
-            final Set<String> allowedFields
+            final Set<String> allowedFields,
+            final boolean offHeap
     ) throws IOException {
         this.indexDir = indexDir;
         this.suggesterDir = suggesterDir;
         this.allowMostPopular = allowMostPopular;
         this.allowedFields = allowedFields;
+        this.offHeap = offHeap;
 
         tempDir = FSDirectory.open(Paths.get(System.getProperty(TMP_DIR_PROPERTY)));
 
@@ -149,26 +206,29 @@ class SuggesterProjectData implements Closeable {
      * @throws IOException if initialization was not successful
      */
     public void init() throws IOException {
-        lock.writeLock().lock();
-        try {
+        synchronized (buildLock) {
             long commitVersion = getCommitVersion();
 
-            if (hasStoredData() && commitVersion == getDataVersion()) {
-                loadStoredWFSTs();
-            } else {
-                createSuggesterDir();
-                build();
-            }
+            createSuggesterDir();
+            // The WFSTs of the segments that were not changed since last time are loaded from the files.
+            BuildResult result = build();
 
-            if (allowMostPopular) {
-                initSearchCountMap();
-            }
+            lock.writeLock().lock();
+            try {
+                setLookups(result);
+
+                if (allowMostPopular) {
+                    initSearchCountMap();
+                }
 
-            storeDataVersion(commitVersion);
+                storeDataVersion(commitVersion);
 
-            initialized = true;
-        } finally {
-            lock.writeLock().unlock();
+                initialized = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            removeStaleWFSTFiles(result.fileNames());
         }
     }
 
@@ -183,50 +243,19 @@ class SuggesterProjectData implements Closeable {
         return commit.getGeneration();
     }
 
-    private boolean hasStoredData() {
-        if (!suggesterDir.toFile().exists()) {
-            return false;
-        }
-
-        File[] children = suggesterDir.toFile().listFiles();
-        return children != null && children.length > 0;
-    }
-
-    private void loadStoredWFSTs() throws IOException {
-        try (IndexReader indexReader = DirectoryReader.open(indexDir)) {
-            for (String field : fields) {
-
-                var wfstFile = getWFSTFile(field);
-                if (wfstFile.exists()) {
-                    var wfst = loadStoredWFST(wfstFile);
-                    lookups.put(field, wfst);
-                } else {
-                    logger.log(Level.INFO, "Missing WFST file for {0} field in ''{1}'', creating a new one",
-                            new Object[] {field, suggesterDir});
-
-                    WFSTCompletionLookup lookup = build(indexReader, field);
-                    store(lookup, field);
-
-                    lookups.put(field, lookup);
-                }
-            }
-        }
-    }
-
-    private WFSTCompletionLookup loadStoredWFST(final File file) throws IOException {
-        try (FileInputStream fis = new FileInputStream(file)) {
-            WFSTCompletionLookup lookup = createWFST();
-            lookup.load(fis);
-            return lookup;
+    private StoredWFST loadStoredWFST(final File file) throws IOException {
+        if (wfstDir == null) {
+            wfstDir = offHeap ? new MMapDirectory(suggesterDir) : FSDirectory.open(suggesterDir);
         }
+        return StoredWFST.load(wfstDir, file.getName(), offHeap);
     }
 
     private WFSTCompletionLookup createWFST() {
         return new WFSTCompletionLookup(tempDir, WFST_TEMP_FILE_PREFIX);
     }
 
-    private File getWFSTFile(final String field) {
-        return getFile(field + WFST_FILE_SUFFIX);
+    private File getWFSTFile(final String field, final String segmentId) {
+        return getFile(field + "_" + segmentId + WFST_FILE_SUFFIX);
     }
 
     private File getFile(final String fileName) {
@@ -238,18 +267,34 @@ class SuggesterProjectData implements Closeable {
      * @throws IOException if some error occurred
      */
     public void rebuild() throws IOException {
-        lock.writeLock().lock();
-        try {
+        synchronized (buildLock) {
+            Instant start = Instant.now();
+            long commitVersion = getCommitVersion();
+
             initFields();
-            build();
+            // The lookups stay available while the WFSTs of the new segments are built.
+            BuildResult result = build();
 
-            if (allowMostPopular) {
-                initSearchCountMap();
+            lock.writeLock().lock();
+            try {
+                setLookups(result);
+
+                if (allowMostPopular) {
+                    initSearchCountMap();
+                }
+
+                storeDataVersion(commitVersion);
+            } finally {
+                lock.writeLock().unlock();
             }
 
-            storeDataVersion(getCommitVersion());
-        } finally {
-            lock.writeLock().unlock();
+            removeStaleWFSTFiles(result.fileNames());
+
+            logger.log(Level.INFO, "Rebuilt suggester data in ''{0}'' ({1} WFSTs built, {2} reused), " +
+                    "took {3} ms, WFSTs use {4} bytes of heap and {5} bytes mapped",
+                    new Object[] {suggesterDir, result.built(), result.reused(),
+                            Duration.between(start, Instant.now()).toMillis(), getRamBytesUsed(),
+                            getMappedBytes()});
         }
     }
 
@@ -262,38 +307,229 @@ class SuggesterProjectData implements Closeable {
         }
     }
 
-    private void build() throws IOException {
+    /**
+     * Get the WFSTs for the segments of the current index commit. The WFSTs of the segments that are already
+     * in memory are reused, the ones stored in the suggester directory are loaded and the rest is built.
+     * Has to be called with {@link #buildLock} held.
+     */
+    private BuildResult build() throws IOException {
+        Map<String, List<SegmentLookup>> current;
+        lock.readLock().lock();
+        try {
+            current = lookups;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, List<SegmentLookup>> result = new HashMap<>();
+        Set<String> fileNames = new HashSet<>();
+        int built = 0;
+        int reused = 0;
+        int docCount;
         try (IndexReader indexReader = DirectoryReader.open(indexDir)) {
-            for (String field : fields) {
-                WFSTCompletionLookup lookup = build(indexReader, field);
-                store(lookup, field);
+            docCount = indexReader.numDocs();
+            for (LeafReaderContext context : indexReader.leaves()) {
+                LeafReader leafReader = context.reader();
+                String segmentId = getSegmentId(leafReader);
+                for (String field : fields) {
+                    File file = getWFSTFile(field, segmentId);
+                    SegmentLookup segmentLookup = findSegmentLookup(current.get(field), segmentId);
+                    if (segmentLookup != null) {
+                        reused++;
+                    } else if (file.exists()) {
+                        segmentLookup = new SegmentLookup(segmentId, loadStoredWFST(file),
+                                getTermLength(leafReader, field));
+                        reused++;
+                    } else {
+                        Terms terms = leafReader.terms(field);
+                        if (terms == null) {
+                            continue;
+                        }
+                        WFSTInputIterator iterator = new WFSTInputIterator(terms.iterator());
+                        WFSTCompletionLookup lookup = build(iterator);
+                        if (lookup == null) {
+                            continue;
+                        }
+                        store(lookup, file);
+                        segmentLookup = new SegmentLookup(segmentId, loadStoredWFST(file),
+                                iterator.termLengthAccumulator);
+                        built++;
+                    }
+                    fileNames.add(file.getName());
+                    result.computeIfAbsent(field, f -> new ArrayList<>()).add(segmentLookup);
+                }
+            }
+        }
 
-                lookups.put(field, lookup);
+        return new BuildResult(result, fileNames, docCount, built, reused);
+    }
+
+    /**
+     * Replace the lookups and close the WFSTs of the segments that are no longer in the index.
+     * Has to be called with the write lock held.
+     */
+    private void setLookups(final BuildResult result) {
+        Set<StoredWFST> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        result.lookups().values().forEach(segmentLookups ->
+                segmentLookups.forEach(segmentLookup -> retained.add(segmentLookup.lookup())));
+        closeLookups(lookup -> !retained.contains(lookup));
+
+        lookups = result.lookups();
+        numDocs = result.numDocs();
+
+        averageLengths.clear();
+        lookups.forEach((field, segmentLookups) -> {
+            long count = getCount(field);
+            if (count > 0) {
+                long termLength = segmentLookups.stream().mapToLong(SegmentLookup::termLength).sum();
+                averageLengths.put(field, (double) termLength / count);
             }
+        });
+    }
+
+    private void closeLookups(final Predicate<StoredWFST> filter) {
+        lookups.values().stream().
+                flatMap(List::stream).
+                map(SegmentLookup::lookup).
+                filter(filter).
+                forEach(lookup -> {
+                    try {
+                        lookup.close();
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, String.format("Could not close WFST in '%s'", suggesterDir), e);
+                    }
+                });
+    }
+
+    private static String getSegmentId(final LeafReader leafReader) {
+        LeafReader reader = FilterLeafReader.unwrap(leafReader);
+        if (!(reader instanceof SegmentReader segmentReader)) {
+            throw new IllegalStateException(String.format("unexpected leaf reader %s", reader));
         }
+        // The segment names can repeat if the index is recreated.
+        SegmentInfo info = segmentReader.getSegmentInfo().info;
+        return info.name + "_" + StringHelper.idToString(info.getId());
     }
 
-    private WFSTCompletionLookup build(final IndexReader indexReader, final String field) throws IOException {
-        WFSTInputIterator iterator = new WFSTInputIterator(
-                new LuceneDictionary(indexReader, field).getEntryIterator(), indexReader, field, getSearchCounts(field));
+    private static SegmentLookup findSegmentLookup(final List<SegmentLookup> segmentLookups,
+                                                   final String segmentId) {
+        if (segmentLookups == null) {
+            return null;
+        }
+        return segmentLookups.stream().
+                filter(segmentLookup -> segmentLookup.segmentId().equals(segmentId)).
+                findFirst().
+                orElse(null);
+    }
 
+    /**
+     * @return WFST with the terms of the iterator or {@code null} if there are no terms
+     */
+    private WFSTCompletionLookup build(final WFSTInputIterator iterator) throws IOException {
         WFSTCompletionLookup lookup = createWFST();
         lookup.build(iterator);
-
-        if (lookup.getCount() > 0) {
-            double averageLength = (double) iterator.termLengthAccumulator / lookup.getCount();
-            averageLengths.put(field, averageLength);
+        if (lookup.getCount() == 0) {
+            return null;
         }
-
         return lookup;
     }
 
-    private void store(final WFSTCompletionLookup wfst, final String field) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(getWFSTFile(field))) {
+    /**
+     * @return sum of the lengths of the terms of the field in the segment which are stored in the WFST
+     */
+    private static long getTermLength(final LeafReader leafReader, final String field) throws IOException {
+        Terms terms = leafReader.terms(field);
+        if (terms == null) {
+            return 0;
+        }
+        WFSTInputIterator iterator = new WFSTInputIterator(terms.iterator());
+        while (iterator.next() != null) {
+            // the iterator accumulates the lengths
+        }
+        return iterator.termLengthAccumulator;
+    }
+
+    private void store(final WFSTCompletionLookup wfst, final File file) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file)) {
             wfst.store(fos);
         }
     }
 
+    /**
+     * Remove the WFST files of the segments that are no longer in the index.
+     * @param fileNames names of the files in use
+     */
+    private void removeStaleWFSTFiles(final Set<String> fileNames) {
+        File[] files = suggesterDir.toFile().listFiles((dir, name) ->
+                name.endsWith(WFST_FILE_SUFFIX) && !fileNames.contains(name));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            try {
+                Files.delete(file.toPath());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, String.format("Could not remove stale WFST file '%s'", file), e);
+            }
+        }
+    }
+
+    /**
+     * @return heap memory used by the WFSTs in bytes
+     */
+    long getRamBytesUsed() {
+        return sumLookups(StoredWFST::ramBytesUsed);
+    }
+
+    /**
+     * @return size of the memory mapped WFST data in bytes
+     */
+    long getMappedBytes() {
+        return sumLookups(StoredWFST::mappedBytes);
+    }
+
+    private long sumLookups(final ToLongFunction<StoredWFST> function) {
+        lock.readLock().lock();
+        try {
+            return lookups.values().stream().
+                    flatMap(List::stream).
+                    mapToLong(segmentLookup -> function.applyAsLong(segmentLookup.lookup())).
+                    sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long getCount(final String field) {
+        return lookups.getOrDefault(field, Collections.emptyList()).stream().
+                mapToLong(segmentLookup -> segmentLookup.lookup().getCount()).
+                sum();
+    }
+
+    /**
+     * @return sum of the document frequencies of the term in the segments or {@code null} if the term is unknown
+     */
+    private Long getDocumentFrequency(final List<SegmentLookup> segmentLookups, final CharSequence term) {
+        Long documentFrequency = null;
+        for (SegmentLookup segmentLookup : segmentLookups) {
+            Long value;
+            try {
+                value = segmentLookup.lookup().get(term);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (value != null) {
+                documentFrequency = (documentFrequency == null ? 0 : documentFrequency) + value;
+            }
+        }
+        return documentFrequency;
+    }
+
+    private boolean contains(final String field, final CharSequence term) {
+        List<SegmentLookup> segmentLookups = lookups.get(field);
+        return segmentLookups != null && getDocumentFrequency(segmentLookups, term) != null;
+    }
+
     private void createSuggesterDir() throws IOException {
         if (!suggesterDir.toFile().exists()) {
             boolean directoryCreated = suggesterDir.toFile().mkdirs();
@@ -309,7 +545,7 @@ class SuggesterProjectData implements Closeable {
         searchCountMaps.clear();
 
         for (String field : fields) {
-            int numEntries = (int) lookups.get(field).getCount();
+            int numEntries = (int) getCount(field);
             if (numEntries == 0) {
                 logger.log(Level.FINE, () -> String.format("Skipping creation of ChronicleMap for field %s " +
                         "in directory '%s' due to zero number of entries", field, suggesterDir));
@@ -329,10 +565,10 @@ class SuggesterProjectData implements Closeable {
                 return;
             }
             if (getCommitVersion() != getDataVersion()) {
-                removeOldTerms(chronicleMapAdapter, lookups.get(field));
+                removeOldTerms(chronicleMapAdapter, field);
 
-                if (conf.getEntries() < lookups.get(field).getCount()) {
-                    int newEntriesCount = (int) lookups.get(field).getCount();
+                if (conf.getEntries() < getCount(field)) {
+                    int newEntriesCount = (int) getCount(field);
                     double newKeyAvgLength = getAverageLength(field);
 
                     conf.setEntries(newEntriesCount);
@@ -388,8 +624,8 @@ class SuggesterProjectData implements Closeable {
         return AVERAGE_LENGTH_DEFAULT;
     }
 
-    private void removeOldTerms(final ChronicleMapAdapter adapter, final WFSTCompletionLookup lookup) {
-        adapter.removeIf(key -> lookup.get(key.toString()) == null);
+    private void removeOldTerms(final ChronicleMapAdapter adapter, final String field) {
+        adapter.removeIf(key -> !contains(field, key.utf8ToString()));
     }
 
     /**
@@ -402,13 +638,42 @@ class SuggesterProjectData implements Closeable {
     public List<Lookup.LookupResult> lookup(final String field, final String prefix, final int resultSize) {
         lock.readLock().lock();
         try {
-            WFSTCompletionLookup lookup = lookups.get(field);
-            if (lookup == null) {
+            List<SegmentLookup> segmentLookups = lookups.get(field);
+            if (segmentLookups == null) {
                 logger.log(Level.WARNING, "No WFST for field {0} in ''{1}''", new Object[] {field, suggesterDir});
                 return Collections.emptyList();
             }
-            return lookup.lookup(prefix, false, resultSize);
-        } catch (IOException e) {
+
+            // The terms with highest document frequency in some segment and the most searched terms
+            // are the candidates.
+            Set<String> candidates = new HashSet<>();
+            for (SegmentLookup segmentLookup : segmentLookups) {
+                for (Lookup.LookupResult result : segmentLookup.lookup().lookup(prefix, resultSize)) {
+                    candidates.add(result.key.toString());
+                }
+            }
+            PopularityMap searchCountMap = searchCountMaps.get(field);
+            if (searchCountMap != null) {
+                for (Entry<BytesRef, Integer> entry : searchCountMap.getPopularityData(new BytesRef(prefix),
+                        resultSize)) {
+                    String term = entry.getKey().utf8ToString();
+                    // The search counts of the terms removed from the index are removed only on rebuild.
+                    if (getDocumentFrequency(segmentLookups, term) != null) {
+                        candidates.add(term);
+                    }
+                }
+            }
+
+            PopularityCounter searchCounts = getSearchCounts(field);
+            List<Lookup.LookupResult> results = new ArrayList<>(candidates.size());
+            for (String candidate : candidates) {
+                results.add(new Lookup.LookupResult(candidate, computeScore(segmentLookups, candidate, searchCounts)));
+            }
+            results.sort(Comparator.comparingLong((Lookup.LookupResult result) -> result.value).reversed().
+                    thenComparing(result -> result.key.toString()));
+
+            return results.subList(0, Math.min(resultSize, results.size()));
+        } catch (IOException | UncheckedIOException e) {
             logger.log(Level.WARNING, "Could not perform lookup in ''{0}'' for {1}:{2}",
                     new Object[] {suggesterDir, field, prefix});
         } finally {
@@ -417,6 +682,21 @@ class SuggesterProjectData implements Closeable {
         return Collections.emptyList();
     }
 
+    /**
+     * Computes the score of the term the same way as {@link SuggesterUtils#computeScore(IndexReader, String, BytesRef)}
+     * with the search count added.
+     */
+    private long computeScore(final List<SegmentLookup> segmentLookups, final String term,
+                              final PopularityCounter searchCounts) {
+        Long documentFrequency = getDocumentFrequency(segmentLookups, term);
+        double normalizedDocumentFrequency = documentFrequency == null ? 0 :
+                ((double) documentFrequency) / Math.max(1, numDocs);
+        int add = searchCounts.get(new BytesRef(term));
+
+        return (long) (normalizedDocumentFrequency * SuggesterUtils.NORMALIZED_DOCUMENT_FREQUENCY_MULTIPLIER)
+                + (long) add * SuggesterSearcher.TERM_ALREADY_SEARCHED_MULTIPLIER;
+    }
+
     /**
      * Removes all stored data structures.
      */
@@ -476,8 +756,7 @@ class SuggesterProjectData implements Closeable {
         }
 
         try {
-            WFSTCompletionLookup lookup = lookups.get(term.field());
-            if (lookup == null || lookup.get(term.text()) == null) {
+            if (!contains(term.field(), term.text())) {
                 logger.log(Level.FINE, "Cannot increment search count for unknown term {0} in ''{1}''",
                         new Object[]{term, suggesterDir});
                 return false; // unknown term
@@ -523,9 +802,15 @@ class SuggesterProjectData implements Closeable {
                     logger.log(Level.WARNING, "Could not properly close most popular completion data", e);
                 }
             });
+            closeLookups(lookup -> true);
+            lookups = new HashMap<>();
             indexDir.close();
 
             tempDir.close();
+            if (wfstDir != null) {
+                wfstDir.close();
+                wfstDir = null;
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -602,73 +887,54 @@ class SuggesterProjectData implements Closeable {
     }
 
     /**
-     * An {@link InputIterator} for WFST data structure with most popular completion support.
+     * An {@link InputIterator} over the terms of a segment weighted by their document frequencies.
      */
     private static class WFSTInputIterator implements InputIterator {
 
-        private final InputIterator wrapped;
-
-        private final IndexReader indexReader;
-
-        private final String field;
+        private final TermsEnum termsEnum;
 
         private long termLengthAccumulator = 0;
 
-        private final PopularityCounter searchCounts;
-
-        WFSTInputIterator(
-                final InputIterator wrapped,
-                final IndexReader indexReader,
-                final String field,
-                final PopularityCounter searchCounts
-        ) {
-            this.wrapped = wrapped;
-            this.indexReader = indexReader;
-            this.field = field;
-            this.searchCounts = searchCounts;
+        WFSTInputIterator(final TermsEnum termsEnum) {
+            this.termsEnum = termsEnum;
         }
 
-        private BytesRef last;
-
         @Override
         public long weight() {
-            if (last != null) {
-                int add = searchCounts.get(last);
-
-                return SuggesterUtils.computeScore(indexReader, field, last)
-                        + (long) add * SuggesterSearcher.TERM_ALREADY_SEARCHED_MULTIPLIER;
+            try {
+                return termsEnum.docFreq();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
             }
-
-            return DEFAULT_WEIGHT;
         }
 
         @Override
         public BytesRef payload() {
-            return wrapped.payload();
+            return null;
         }
 
         @Override
         public boolean hasPayloads() {
-            return wrapped.hasPayloads();
+            return false;
         }
 
         @Override
         public Set<BytesRef> contexts() {
-            return wrapped.contexts();
+            return null;
         }
 
         @Override
         public boolean hasContexts() {
-            return wrapped.hasContexts();
+            return false;
         }
 
         @Override
         public BytesRef next() throws IOException {
-            last = wrapped.next();
+            BytesRef last = termsEnum.next();
 
             // skip very large terms because of the buffer exception
             while (last != null && last.length > MAX_TERM_SIZE) {
-                last = wrapped.next();
+                last = termsEnum.next();
             }
 
             if (last != null) {
@@ -47,6 +47,14 @@ public interface PopularityMap extends PopularityCounter, AutoCloseable {
      */
     List<Entry<BytesRef, Integer>> getPopularityData(int page, int pageSize);
 
+    /**
+     * Returns the popularity data of the terms starting with {@code prefix} sorted according to their value.
+     * @param prefix prefix of the terms
+     * @param count maximum number of results to return
+     * @return popularity data of the most popular terms starting with {@code prefix}
+     */
+    List<Entry<BytesRef, Integer>> getPopularityData(BytesRef prefix, int count);
+
     /** {@inheritDoc} */
     @Override
     void close();
@@ -25,6 +25,7 @@ package org.opengrok.suggest.popular.impl.chronicle;
 import net.openhft.chronicle.map.ChronicleMap;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
 import org.opengrok.suggest.popular.PopularityMap;
 
 import java.io.File;
@@ -101,6 +102,24 @@ public class ChronicleMapAdapter implements PopularityMap {
         return list.subList(startIndex, endIndex);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public List<Entry<BytesRef, Integer>> getPopularityData(final BytesRef prefix, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot retrieve negative number of results: " + count);
+        }
+
+        List<Entry<BytesRef, Integer>> list = new ArrayList<>();
+        for (Entry<BytesRef, Integer> entry : map.entrySet()) {
+            if (StringHelper.startsWith(entry.getKey(), prefix)) {
+                list.add(entry);
+            }
+        }
+        list.sort(Entry.<BytesRef, Integer>comparingByValue().reversed());
+
+        return list.subList(0, Math.min(count, list.size()));
+    }
+
     /**
      * Removes the entries with key that meets the predicate.
      * @param predicate predicate which tests which entries should be removed
@@ -18,7 +18,7 @@
  */
 
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  */
 package org.opengrok.suggest;
 
@@ -46,6 +46,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
@@ -54,6 +55,7 @@ import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInA
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -97,7 +99,11 @@ class SuggesterProjectDataTest {
     }
 
     private void init(boolean allowMostPopular) throws IOException {
-        data = new SuggesterProjectData(dir, tempDir, allowMostPopular, Collections.singleton(FIELD));
+        init(allowMostPopular, false);
+    }
+
+    private void init(boolean allowMostPopular, boolean offHeap) throws IOException {
+        data = new SuggesterProjectData(dir, tempDir, allowMostPopular, Collections.singleton(FIELD), offHeap);
         data.init();
     }
 
@@ -143,6 +149,30 @@ class SuggesterProjectDataTest {
         assertThat(suggestions, Matchers.contains("term2", "term1"));
     }
 
+    /**
+     * The searched term has to be suggested even if it is not among the terms with the highest document frequency
+     * in any segment.
+     */
+    @Test
+    void testMostPopularSearchBeyondResultSize() throws IOException {
+        try (IndexWriter iw = new IndexWriter(dir, new IndexWriterConfig())) {
+            for (String text : List.of("term1 term2 term3", "term1 term2")) {
+                Document doc = new Document();
+                doc.add(new TextField(FIELD, text, Field.Store.NO));
+                iw.addDocument(doc);
+            }
+        }
+
+        init(true);
+
+        assertEquals(List.of("term1", "term2"), getSuggestions(FIELD, "t", 2));
+
+        data.incrementSearchCount(new Term(FIELD, "term3"), 10);
+
+        assertEquals(List.of("term3", "term1"), getSuggestions(FIELD, "t", 2));
+        assertEquals(List.of("term1"), getSuggestions(FIELD, "term1", 2));
+    }
+
     @Test
     void testRebuild() throws IOException {
         addText(FIELD, "term1 term2 term1");
@@ -162,6 +192,82 @@ class SuggesterProjectDataTest {
         assertThat(suggestions, Matchers.containsInAnyOrder("term3", "term4", "term5"));
     }
 
+    private Set<String> getWFSTFileNames() {
+        String[] names = tempDir.toFile().list((d, name) -> name.endsWith(".wfst"));
+        assertNotNull(names);
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    @Test
+    void testIncrementalRebuild() throws IOException {
+        addText(FIELD, "term1 term2");
+
+        init(false);
+
+        Set<String> files = getWFSTFileNames();
+        assertEquals(1, files.size());
+
+        addText(FIELD, "term1 term3");
+
+        data.rebuild();
+
+        // The WFST of the unchanged segment is kept, another one is built for the new segment.
+        Set<String> newFiles = getWFSTFileNames();
+        assertEquals(2, newFiles.size());
+        assertTrue(newFiles.containsAll(files));
+
+        // The document frequencies are summed over the segments.
+        List<String> suggestions = getSuggestions(FIELD, "t", 10);
+        assertThat(suggestions, Matchers.contains("term1", "term2", "term3"));
+        assertEquals(List.of("term1"), getSuggestions(FIELD, "t", 1));
+    }
+
+    @Test
+    void testRebuildRemovesStaleFiles() throws IOException {
+        addText(FIELD, "term1");
+        addText(FIELD, "term2");
+
+        init(false);
+        assertEquals(2, getWFSTFileNames().size());
+
+        try (IndexWriter iw = new IndexWriter(dir, new IndexWriterConfig())) {
+            iw.forceMerge(1);
+        }
+
+        data.rebuild();
+
+        assertEquals(1, getWFSTFileNames().size());
+        assertThat(getSuggestions(FIELD, "t", 10), Matchers.contains("term1", "term2"));
+    }
+
+    @Test
+    void testOffHeap() throws IOException {
+        addText(FIELD, "term1 term2 term1 other");
+
+        init(true, true);
+
+        assertTrue(data.getMappedBytes() > 0);
+        assertThat(getSuggestions(FIELD, "t", 10), Matchers.contains("term1", "term2"));
+        assertEquals(List.of("term1"), getSuggestions(FIELD, "term1", 10));
+        assertTrue(data.incrementSearchCount(new Term(FIELD, "term2"), 5));
+        assertFalse(data.incrementSearchCount(new Term(FIELD, "term3"), 5));
+
+        addText(FIELD, "term3");
+        data.rebuild();
+
+        assertThat(getSuggestions(FIELD, "t", 10), Matchers.contains("term2", "term1", "term3"));
+    }
+
+    @Test
+    void testOnHeapNotMapped() throws IOException {
+        addText(FIELD, "term1 term2");
+
+        init(false, false);
+
+        assertEquals(0, data.getMappedBytes());
+        assertTrue(data.getRamBytesUsed() > 0);
+    }
+
     @Test
     void testDifferentPrefixes() throws IOException {
         addText(FIELD, "abc bbc cbc dbc efc gfc");
@@ -276,7 +382,7 @@ class SuggesterProjectDataTest {
             iw.addDocument(doc);
         }
 
-        SuggesterProjectData data = new SuggesterProjectData(dir, tempDir, false, Collections.singleton("test"));
+        SuggesterProjectData data = new SuggesterProjectData(dir, tempDir, false, Collections.singleton("test"), false);
         data.init();
         data.remove();
 
@@ -286,7 +392,7 @@ class SuggesterProjectDataTest {
     @Test
     void testUnknownFieldIgnored() throws IOException {
         addText(FIELD, "term");
-        data = new SuggesterProjectData(dir, tempDir, false, new HashSet<>(Arrays.asList(FIELD, "unknown")));
+        data = new SuggesterProjectData(dir, tempDir, false, new HashSet<>(Arrays.asList(FIELD, "unknown")), false);
         data.init();
 
         List<Lookup.LookupResult> res = data.lookup("unknown", "a", 10);
@@ -230,6 +230,38 @@ class SuggesterTest {
         t.close();
     }
 
+    /**
+     * The WFSTs stored by the on-heap suggester are memory mapped after restart in the off-heap mode.
+     */
+    @Test
+    void testIndexChangedWhileOfflineOffHeap() throws Exception {
+        SuggesterTestData t = initSuggester();
+
+        t.s.close();
+
+        addText(t.getIndexDirectory(), "a1 a2");
+
+        t.s = new Suggester(t.suggesterDir.toFile(), 10, Duration.ofMinutes(1), false,
+                true, Collections.singleton("test"), Integer.MAX_VALUE,
+                Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
+                registry, false, true);
+
+        t.s.init(Collections.singleton(t.getNamedIndexDir()));
+        t.s.waitForInit(2, TimeUnit.SECONDS);
+
+        assertTrue(t.s.getMappedBytes() > 0);
+
+        Suggester.NamedIndexReader ir = t.getNamedIndexReader();
+
+        List<LookupResultItem> res = t.s.search(Collections.singletonList(ir),
+                new SuggesterPrefixQuery(new Term("test", "a")), null).getItems();
+
+        assertThat(res.stream().map(LookupResultItem::getPhrase).collect(Collectors.toList()),
+                containsInAnyOrder("a1", "a2"));
+
+        t.close();
+    }
+
     @Test
     void testRemove() throws Exception {
         SuggesterTestData t = initSuggester();
@@ -126,4 +126,19 @@ class ChronicleMapAdapterTest {
         assertThat(data, contains(e1));
     }
 
+    @Test
+    @SuppressWarnings("unchecked") // for contains()
+    void testGetPopularityDataWithPrefix() {
+        Entry<BytesRef, Integer> e1 = new SimpleEntry<>(new BytesRef("test"), 1);
+        Entry<BytesRef, Integer> e2 = new SimpleEntry<>(new BytesRef("test2"), 2);
+        Entry<BytesRef, Integer> e3 = new SimpleEntry<>(new BytesRef("other"), 3);
+
+        map.increment(e1.getKey(), e1.getValue());
+        map.increment(e2.getKey(), e2.getValue());
+        map.increment(e3.getKey(), e3.getValue());
+
+        assertThat(map.getPopularityData(new BytesRef("te"), 10), contains(e2, e1));
+        assertThat(map.getPopularityData(new BytesRef("te"), 1), contains(e2));
+    }
+
 }